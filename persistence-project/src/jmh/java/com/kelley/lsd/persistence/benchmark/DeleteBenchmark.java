@@ -0,0 +1,72 @@
+package com.kelley.lsd.persistence.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.purge.PurgeJob;
+
+/*
+ * The three ways to delete a campaign with its tasks, each timed once per freshly created campaign of
+ * TASKS_PER_CAMPAIGN tasks:
+ * - cascadeDelete: CrudRepository.deleteById, which loads the campaign and its tasks and removes each entity
+ * - bulkDelete: CampaignRepository.deleteAllWithTasksById, two bulk DELETE statements
+ * - purge: CampaignPurgeService, chunked bulk deletes in their own transactions, waited for here
+ * The rest of the table (the seeded tasks) is what makes index maintenance cost more at larger sizes.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class DeleteBenchmark {
+	
+	@State(Scope.Thread)
+	public static class Victim {
+		
+		private int created;
+		
+		long campaignId;
+		
+		@Setup(Level.Invocation)
+		public void create(PersistenceState state) {
+			Campaign campaign = new Campaign("DELETE-" + created++, "Deleted Campaign", null);
+			for (int t = 0; t < PersistenceState.TASKS_PER_CAMPAIGN; t++) {
+				campaign.getTasks().add(new Task("Deleted Task " + t, null, LocalDate.of(2030, 1, 1).plusDays(t % 365),
+						TaskStatus.values()[t % TaskStatus.values().length], campaign));
+			}
+			campaignId = state.campaignRepository.save(campaign).getId();
+		}
+	}
+	
+	@Benchmark
+	public void cascadeDelete(PersistenceState state, Victim victim) {
+		state.campaignRepository.deleteById(victim.campaignId);
+	}
+	
+	@Benchmark
+	public int bulkDelete(PersistenceState state, Victim victim) {
+		return state.campaignRepository.deleteAllWithTasksById(List.of(victim.campaignId));
+	}
+	
+	@Benchmark
+	public PurgeJob purge(PersistenceState state, Victim victim) throws Exception {
+		return state.campaignPurgeService.purge(victim.campaignId).getCompletion().get();
+	}
+	
+}
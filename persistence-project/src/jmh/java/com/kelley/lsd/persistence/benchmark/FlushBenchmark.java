@@ -0,0 +1,97 @@
+package com.kelley.lsd.persistence.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.engine.spi.ManagedEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/*
+ * The cost of a flush with many managed entities, which is what build-time bytecode enhancement (see the
+ * hibernate-enhance-maven-plugin in pom.xml) is for.
+ *
+ * Up to MANAGED tasks are loaded into one persistence context, with their campaigns and workers, and kept there
+ * for the whole trial. Without enhancement every flush compares each attribute of each managed entity with the
+ * snapshot taken when it was loaded, whether or not anything was written. Enhanced entities track their own
+ * writes, so a flush only visits the entities whose setters were called.
+ *
+ * Run with -p tasks=100000, once as built and once unenhanced:
+ *   mvn clean -Pbenchmark verify -Dhibernate.enhance.phase=none -Djmh.args="-p tasks=100000 FlushBenchmark"
+ * The setup logs which of the two it is measuring. The transaction is rolled back at the end, so nothing
+ * flushed here is committed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class FlushBenchmark {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(FlushBenchmark.class);
+	
+	static final int MANAGED = 50_000;
+	
+	@State(Scope.Thread)
+	public static class Session {
+		
+		EntityManager entityManager;
+		
+		List<Task> tasks;
+		
+		private int next;
+		
+		@Setup(Level.Trial)
+		public void open(PersistenceState state) {
+			LOG.info("Task is {}bytecode enhanced", ManagedEntity.class.isAssignableFrom(Task.class) ? "" : "not ");
+			entityManager = state.context.getBean(EntityManagerFactory.class).createEntityManager();
+			entityManager.getTransaction().begin();
+			tasks = entityManager.createQuery("select t from Task t join fetch t.campaign left join fetch t.assignee order by t.id", Task.class)
+					.setMaxResults(MANAGED)
+					.getResultList();
+		}
+		
+		@TearDown(Level.Trial)
+		public void close() {
+			entityManager.getTransaction().rollback();
+			entityManager.close();
+		}
+		
+		Task nextTask() {
+			return tasks.get(next++ % tasks.size());
+		}
+	}
+	
+	// Nothing written: all the work is finding that out
+	@Benchmark
+	public void flushUnchanged(Session session) {
+		session.entityManager.flush();
+	}
+	
+	// One task written: one UPDATE, plus the search for it among the managed entities
+	@Benchmark
+	public void flushOneChange(Session session) {
+		Task task = session.nextTask();
+		task.setStatus(task.getStatus() == TaskStatus.DONE ? TaskStatus.TO_DO : TaskStatus.DONE);
+		session.entityManager.flush();
+	}
+	
+}
@@ -0,0 +1,125 @@
+package com.kelley.lsd.persistence.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.kelley.lsd.PersistenceProjectApplication;
+import com.kelley.lsd.persistence.aggregate.TaskCountReconciler;
+import com.kelley.lsd.persistence.deadline.DeadlineScheduler;
+import com.kelley.lsd.persistence.purge.CampaignPurgeService;
+import com.kelley.lsd.persistence.reactive.ReactiveCampaignRepository;
+import com.kelley.lsd.persistence.reactive.ReactiveTaskRepository;
+import com.kelley.lsd.persistence.repository.CampaignRepository;
+import com.kelley.lsd.persistence.repository.TaskCountRepository;
+import com.kelley.lsd.persistence.repository.TaskRepository;
+import com.kelley.lsd.persistence.search.SearchIndexInitializer;
+import com.kelley.lsd.persistence.workload.WorkloadInitializer;
+
+/*
+ * The application context with an in-memory H2 database holding `tasks` tasks, shared by every benchmark
+ * in a trial (one fork and one value of `tasks`).
+ *
+ * The data is seeded with INSERT ... SELECT from SYSTEM_RANGE, so a million tasks take seconds rather than
+ * the minutes saving entities would. The task_count aggregate and the search index are rebuilt afterwards,
+ * as they would be after any bulk load. Seeded ids start at SEED_ID_BASE, well clear of the ids Hibernate
+ * allocates from the sequences for the demo data and the benchmarks' own inserts.
+ *
+ * Seeded data:
+ * - one campaign per TASKS_PER_CAMPAIGN tasks, coded BENCH-1 to BENCH-n and named "Benchmark Campaign n"
+ * - WORKERS workers; every other task is assigned
+ * - due dates spread evenly over ten years from 2020-01-01, statuses in rotation
+ */
+@State(Scope.Benchmark)
+public class PersistenceState {
+	
+	static final int TASKS_PER_CAMPAIGN = 1000;
+	
+	static final int WORKERS = 100;
+	
+	private static final long SEED_ID_BASE = 1_000_000_000L;
+	
+	// Rows per INSERT ... SELECT, so a single statement's undo log stays small
+	private static final int SEED_CHUNK = 100_000;
+	
+	@Param({"1000", "100000", "1000000"})
+	public int tasks;
+	
+	int campaigns;
+	
+	ConfigurableApplicationContext context;
+	
+	CampaignRepository campaignRepository;
+	
+	TaskRepository taskRepository;
+	
+	TaskCountRepository taskCountRepository;
+	
+	CampaignPurgeService campaignPurgeService;
+	
+	ReactiveCampaignRepository reactiveCampaignRepository;
+	
+	ReactiveTaskRepository reactiveTaskRepository;
+	
+	@Setup(Level.Trial)
+	public void start() {
+		context = new SpringApplicationBuilder(PersistenceProjectApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties("spring.datasource.url=jdbc:h2:mem:benchmark",
+						"spring.main.banner-mode=off",
+						"spring.jpa.show-sql=false",
+						"logging.level.root=WARN",
+						"persistence.search.rebuild-on-startup=false",
+						"persistence.deadline.rebuild-on-startup=false",
+						"persistence.workload.rebuild-on-startup=false",
+						"persistence.task-count.reconcile-on-startup=false")
+				.run();
+		campaignRepository = context.getBean(CampaignRepository.class);
+		taskRepository = context.getBean(TaskRepository.class);
+		taskCountRepository = context.getBean(TaskCountRepository.class);
+		campaignPurgeService = context.getBean(CampaignPurgeService.class);
+		reactiveCampaignRepository = context.getBean(ReactiveCampaignRepository.class);
+		reactiveTaskRepository = context.getBean(ReactiveTaskRepository.class);
+		
+		campaigns = Math.max(1, tasks / TASKS_PER_CAMPAIGN);
+		seed(context.getBean(JdbcTemplate.class));
+		context.getBean(TaskCountReconciler.class).rebuild();
+		context.getBean(SearchIndexInitializer.class).rebuild();
+		context.getBean(DeadlineScheduler.class).rebuild();
+		context.getBean(WorkloadInitializer.class).rebuild();
+	}
+	
+	@TearDown(Level.Trial)
+	public void stop() {
+		context.close();
+	}
+	
+	String campaignCode(int n) {
+		return "BENCH-" + (1 + Math.floorMod(n, campaigns));
+	}
+	
+	private void seed(JdbcTemplate jdbcTemplate) {
+		jdbcTemplate.update("insert into worker (id, email, first_name, last_name) "
+				+ "select ? + x, 'bench' || x || '@test.com', 'First' || mod(x, 10), 'Last' || x from system_range(1, ?)",
+				SEED_ID_BASE, WORKERS);
+		jdbcTemplate.update("insert into campaign (id, code, name, description) "
+				+ "select ? + x, 'BENCH-' || x, 'Benchmark Campaign ' || x, 'Seeded for benchmarks' from system_range(1, ?)",
+				SEED_ID_BASE, campaigns);
+		for (long from = 1; from <= tasks; from += SEED_CHUNK) {
+			jdbcTemplate.update("insert into task (id, version, uuid, name, description, due_date, status, campaign_id, assignee_id) "
+					+ "select ? + x, 0, random_uuid(7), 'Benchmark Task ' || x, 'Seeded for benchmarks', "
+					+ "dateadd(day, mod(x, 3650), date '2020-01-01'), mod(x, 4), ? + 1 + mod(x, ?), "
+					+ "case when mod(x, 2) = 0 then ? + 1 + mod(x, ?) end "
+					+ "from system_range(?, ?)",
+					SEED_ID_BASE, SEED_ID_BASE, campaigns, SEED_ID_BASE, WORKERS, from, Math.min(tasks, from + SEED_CHUNK - 1));
+		}
+	}
+	
+}
@@ -0,0 +1,133 @@
+package com.kelley.lsd.persistence.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.kelley.lsd.persistence.model.TaskStatus;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/*
+ * The JPA repositories against their reactive counterparts (see the reactive package) under concurrent load. Each
+ * operation is a burst of `concurrency` reads in flight at once, so the score is the time to serve all of them.
+ *
+ * The JPA reads each run on a virtual thread of their own, as requests do (spring.threads.virtual.enabled); the
+ * reactive ones are merged with flatMap. Both paths have a pool of 20 connections, so beyond 20 the rest queue.
+ *
+ * H2's R2DBC driver runs each statement inside the embedded engine on the thread that subscribes; it has no network
+ * I/O to overlap, which is where a reactive driver saves threads. Each reactive read is therefore subscribed on
+ * Schedulers.parallel(), one thread per core, as many threads as carry the virtual threads. What is compared is the
+ * overhead of the two paths over the same engine: JPA's persistence context and entity loading against R2DBC's
+ * row mapping and Reactor's scheduling.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ReactiveReadBenchmark {
+	
+	// TO_DO tasks due in the first two weeks of the seeded range: about one task in a thousand (as in ReadBenchmark)
+	private static final LocalDate OVERDUE_BEFORE = LocalDate.of(2020, 1, 15);
+	
+	@State(Scope.Benchmark)
+	public static class Load {
+		
+		@Param({"1", "64", "512"})
+		public int concurrency;
+		
+		ExecutorService virtualThreads;
+		
+		@Setup(Level.Trial)
+		public void start() {
+			virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+		}
+		
+		@TearDown(Level.Trial)
+		public void stop() {
+			virtualThreads.close();
+		}
+		
+		// Runs `concurrency` reads on virtual threads and returns the total number of rows
+		long onVirtualThreads(IntFunction<Integer> read) throws InterruptedException, ExecutionException {
+			List<Future<Integer>> reads = new ArrayList<>(concurrency);
+			for (int i = 0; i < concurrency; i++) {
+				int n = i;
+				reads.add(virtualThreads.submit(() -> read.apply(n)));
+			}
+			long rows = 0;
+			for (Future<Integer> done : reads) rows += done.get();
+			return rows;
+		}
+		
+		// Merges `concurrency` reads and returns the total number of rows
+		long merged(IntFunction<Flux<?>> read) {
+			return Flux.range(0, concurrency)
+					.flatMap(n -> read.apply(n).count().subscribeOn(Schedulers.parallel()), concurrency)
+					.reduce(0L, Long::sum)
+					.block();
+		}
+	}
+	
+	// Where each burst starts in the campaigns, so lookups are not all served by the same cache entry
+	@State(Scope.Thread)
+	public static class Cursor {
+		
+		private int next;
+		
+		int advance(Load load) {
+			int start = next;
+			next += load.concurrency;
+			return start;
+		}
+	}
+	
+	@Benchmark
+	public long findByDueDateBeforeAndStatusEquals(PersistenceState state, Load load) throws Exception {
+		return load.onVirtualThreads(n -> state.taskRepository
+				.findByDueDateBeforeAndStatusEquals(OVERDUE_BEFORE, TaskStatus.TO_DO).size());
+	}
+	
+	@Benchmark
+	public long findByDueDateBeforeAndStatusEqualsReactive(PersistenceState state, Load load) {
+		return load.merged(n -> state.reactiveTaskRepository
+				.findByDueDateBeforeAndStatusEquals(OVERDUE_BEFORE, TaskStatus.TO_DO));
+	}
+	
+	// Mostly answered by the second-level cache
+	@Benchmark
+	public long findByCodeEquals(PersistenceState state, Load load, Cursor cursor) throws Exception {
+		int start = cursor.advance(load);
+		return load.onVirtualThreads(n -> state.campaignRepository.findByCodeEquals(state.campaignCode(start + n)).isPresent() ? 1 : 0);
+	}
+	
+	// Always a query: the reactive path has no cache
+	@Benchmark
+	public long findByCodeEqualsReactive(PersistenceState state, Load load, Cursor cursor) {
+		int start = cursor.advance(load);
+		return load.merged(n -> state.reactiveCampaignRepository.findByCodeEquals(state.campaignCode(start + n)).flux());
+	}
+	
+}
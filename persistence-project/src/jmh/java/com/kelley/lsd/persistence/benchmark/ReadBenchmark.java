@@ -0,0 +1,88 @@
+package com.kelley.lsd.persistence.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.projection.DueYearCount;
+import com.kelley.lsd.persistence.projection.TaskRow;
+
+/*
+ * Repository reads. Where a query has a projection or aggregate alternative, both are measured side by side.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ReadBenchmark {
+	
+	// TO_DO tasks due in the first two weeks of the seeded range: about one task in a thousand
+	private static final LocalDate OVERDUE_BEFORE = LocalDate.of(2020, 1, 15);
+	
+	// Walks through the campaigns, so lookups are not all served by the same cache entry
+	@State(Scope.Thread)
+	public static class Cursor {
+		
+		private int next;
+		
+		String nextCode(PersistenceState state) {
+			return state.campaignCode(next++);
+		}
+	}
+	
+	@Benchmark
+	public Optional<Campaign> findByCodeEquals(PersistenceState state, Cursor cursor) {
+		return state.campaignRepository.findByCodeEquals(cursor.nextCode(state));
+	}
+	
+	@Benchmark
+	public Iterable<Campaign> findByNameContaining(PersistenceState state) {
+		return state.campaignRepository.findByNameContaining("Campaign 7");
+	}
+	
+	@Benchmark
+	public List<Task> findByDueDateBeforeAndStatusEquals(PersistenceState state) {
+		return state.taskRepository.findByDueDateBeforeAndStatusEquals(OVERDUE_BEFORE, TaskStatus.TO_DO);
+	}
+	
+	@Benchmark
+	public List<TaskRow> findRowsByDueDateBeforeAndStatus(PersistenceState state) {
+		return state.taskRepository.findRowsByDueDateBeforeAndStatus(OVERDUE_BEFORE, TaskStatus.TO_DO);
+	}
+	
+	@Benchmark
+	public List<List<Integer>> countByDueYear(PersistenceState state) {
+		return state.taskRepository.countByDueYear();
+	}
+	
+	@Benchmark
+	public List<DueYearCount> countByDueYearFromAggregate(PersistenceState state) {
+		return state.taskCountRepository.countByDueYear();
+	}
+	
+	@Benchmark
+	public Optional<Campaign> findWithTasksByCode(PersistenceState state, Cursor cursor) {
+		return state.campaignRepository.findWithTasksByCode(cursor.nextCode(state));
+	}
+	
+	@Benchmark
+	public List<TaskRow> findRowsByCampaignCode(PersistenceState state, Cursor cursor) {
+		return state.taskRepository.findRowsByCampaignCode(cursor.nextCode(state));
+	}
+	
+}
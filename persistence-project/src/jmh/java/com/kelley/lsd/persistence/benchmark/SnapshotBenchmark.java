@@ -0,0 +1,104 @@
+package com.kelley.lsd.persistence.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.kelley.lsd.persistence.snapshot.DatabaseSnapshot;
+import com.kelley.lsd.persistence.snapshot.DatabaseSnapshot.Snapshot;
+
+/*
+ * Writing a snapshot of the seeded database, and restoring it into an empty one, which is what a restart with
+ * persistence.snapshot.restore-on-startup adds to startup in place of populating the database. Each operation is
+ * one whole snapshot or restore, so they are timed one at a time; the size of the snapshot is logged at setup.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SnapshotBenchmark {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(SnapshotBenchmark.class);
+	
+	@State(Scope.Thread)
+	public static class Snapshots {
+		
+		Path directory;
+		
+		DatabaseSnapshot source;
+		
+		JdbcDataSource target;
+		
+		DatabaseSnapshot restoring;
+		
+		@Setup(Level.Trial)
+		public void write(PersistenceState state) throws IOException {
+			directory = Files.createTempDirectory("snapshot-benchmark");
+			Path file = directory.resolve("benchmark.sql.gz");
+			source = new DatabaseSnapshot(state.context.getBean(DataSource.class), file, "benchmark");
+			Snapshot snapshot = source.write();
+			LOG.info("Snapshot of {} tasks: {} bytes", state.tasks, snapshot.bytes());
+			
+			target = new JdbcDataSource();
+			target.setURL("jdbc:h2:mem:snapshot-benchmark;DB_CLOSE_DELAY=-1");
+			restoring = new DatabaseSnapshot(target, file, "benchmark");
+		}
+		
+		// restore() only loads into an empty database
+		@Setup(Level.Invocation)
+		public void emptyTarget() throws SQLException {
+			execute("DROP ALL OBJECTS");
+		}
+		
+		@TearDown(Level.Trial)
+		public void delete() throws SQLException, IOException {
+			execute("SHUTDOWN");
+			try (Stream<Path> files = Files.list(directory)) {
+				for (Path file : files.toList()) Files.delete(file);
+			}
+			Files.delete(directory);
+		}
+		
+		private void execute(String sql) throws SQLException {
+			try (Connection connection = target.getConnection();
+					Statement statement = connection.createStatement()) {
+				statement.execute(sql);
+			}
+		}
+	}
+	
+	@Benchmark
+	public long write(Snapshots snapshots) {
+		return snapshots.source.write().bytes();
+	}
+	
+	@Benchmark
+	public boolean restore(Snapshots snapshots) {
+		return snapshots.restoring.restore();
+	}
+	
+}
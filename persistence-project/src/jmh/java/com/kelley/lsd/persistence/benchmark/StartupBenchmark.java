@@ -0,0 +1,143 @@
+package com.kelley.lsd.persistence.benchmark;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Time to first request: from starting a new JVM with the packaged application to its first successful response
+ * (GET /actuator/health, which also needs the database). Each measurement is one start; the instance is stopped
+ * again after it.
+ *
+ * Launches, for each value of `launch`:
+ * - jar: the executable jar in target, as it is deployed without the fast-start profile
+ * - aot: the jar extracted to target/fast-start, with the AOT-generated configuration (spring.aot.enabled)
+ * - aot-cds: the same with the CDS archive of the training run (-XX:SharedArchiveFile=application.jsa)
+ *
+ * The demo in PersistenceProjectApplication.run is off in all three, as for instances started for traffic, and
+ * the rest of the startup work (schema creation, data.sql, the in-memory indexes) is the same for all of them.
+ * Needs the fast-start build, so it is excluded from plain benchmark runs:
+ *   mvn -Pfast-start,benchmark verify -Djmh.args=StartupBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+	
+	private static final Path TARGET = Path.of("target");
+	
+	private static final Path FAST_START = TARGET.resolve("fast-start");
+	
+	private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+	
+	@Param({"jar", "aot", "aot-cds"})
+	public String launch;
+	
+	private List<String> command;
+	
+	private Path directory;
+	
+	private HttpClient httpClient;
+	
+	private Process instance;
+	
+	@Setup(Level.Trial)
+	public void prepare() throws IOException {
+		command = new ArrayList<>(List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+		if (launch.equals("jar")) {
+			directory = TARGET;
+		} else {
+			directory = FAST_START;
+			command.add("-Dspring.aot.enabled=true");
+			if (launch.equals("aot-cds")) {
+				if (!Files.exists(FAST_START.resolve("application.jsa"))) {
+					throw new IllegalStateException("No CDS archive in " + FAST_START.toAbsolutePath() + ": build with -Pfast-start");
+				}
+				command.add("-XX:SharedArchiveFile=application.jsa");
+			}
+		}
+		command.addAll(List.of("-jar", jar(directory).getFileName().toString(),
+				"--persistence.demo.enabled=false", "--logging.level.root=WARN", "--spring.main.banner-mode=off"));
+		httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+	}
+	
+	@TearDown(Level.Iteration)
+	public void stop() throws InterruptedException {
+		if (instance == null) return;
+		instance.destroy();
+		if (!instance.waitFor(30, TimeUnit.SECONDS)) instance.destroyForcibly().waitFor();
+		instance = null;
+	}
+	
+	@Benchmark
+	public int firstRequest() throws Exception {
+		int port = freePort();
+		List<String> started = new ArrayList<>(command);
+		started.add("--server.port=" + port);
+		instance = new ProcessBuilder(started)
+				.directory(directory.toFile())
+				.redirectOutput(ProcessBuilder.Redirect.DISCARD)
+				.redirectError(ProcessBuilder.Redirect.INHERIT)
+				.start();
+		
+		HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health")).build();
+		long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+		while (System.nanoTime() < deadline) {
+			if (!instance.isAlive()) throw new IllegalStateException("Exited with " + instance.exitValue() + ": " + started);
+			try {
+				HttpResponse<Void> response = httpClient.send(health, HttpResponse.BodyHandlers.discarding());
+				if (response.statusCode() == 200) return response.statusCode();
+			} catch (ConnectException notListeningYet) {
+				// Tomcat is started towards the end of the context refresh
+			}
+			Thread.sleep(5);
+		}
+		throw new IllegalStateException("No response within " + STARTUP_TIMEOUT + ": " + started);
+	}
+	
+	// The only jar directly in the directory: the repackaged application, or the extracted one with its lib folder
+	private static Path jar(Path directory) throws IOException {
+		if (!Files.isDirectory(directory)) {
+			throw new IllegalStateException(directory.toAbsolutePath() + " does not exist: build with -Pfast-start");
+		}
+		try (DirectoryStream<Path> jars = Files.newDirectoryStream(directory, "*.jar")) {
+			for (Path jar : jars) return jar;
+		}
+		throw new IllegalStateException("No jar in " + directory.toAbsolutePath());
+	}
+	
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+	
+}
@@ -0,0 +1,84 @@
+package com.kelley.lsd.persistence.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+
+/*
+ * Task inserts, one at a time and as a JDBC batch. Every insert also maintains the task_count aggregate,
+ * the search index and the unique uuid index, so those costs are included.
+ *
+ * saveAllRandomUuids is saveAll with random (version 4) uuids instead of time-ordered ones, to show what
+ * the ordering saves on the uuid index as the table grows.
+ *
+ * The tasks stay in the table, so it grows by whatever the iterations insert on top of the seeded rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class WriteBenchmark {
+	
+	// hibernate.jdbc.batch_size
+	private static final int BATCH = 50;
+	
+	@State(Scope.Thread)
+	public static class Target {
+		
+		private Campaign campaign;
+		
+		@Setup(Level.Trial)
+		public void load(PersistenceState state) {
+			campaign = state.campaignRepository.findByCodeEquals(state.campaignCode(0)).orElseThrow();
+		}
+		
+		Task newTask() {
+			return new Task("Written Task", "Inserted by WriteBenchmark", LocalDate.of(2030, 1, 1), TaskStatus.TO_DO, campaign);
+		}
+		
+		List<Task> newTasks(boolean randomUuids) {
+			List<Task> tasks = new ArrayList<>(BATCH);
+			for (int i = 0; i < BATCH; i++) {
+				Task task = newTask();
+				if (randomUuids) task.setUuid(UUID.randomUUID());
+				tasks.add(task);
+			}
+			return tasks;
+		}
+	}
+	
+	@Benchmark
+	public Task save(PersistenceState state, Target target) {
+		return state.taskRepository.save(target.newTask());
+	}
+	
+	@Benchmark
+	public Iterable<Task> saveAll(PersistenceState state, Target target) {
+		return state.taskRepository.saveAll(target.newTasks(false));
+	}
+	
+	@Benchmark
+	public Iterable<Task> saveAllRandomUuids(PersistenceState state, Target target) {
+		return state.taskRepository.saveAll(target.newTasks(true));
+	}
+	
+}
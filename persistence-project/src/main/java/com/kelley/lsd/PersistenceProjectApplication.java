@@ -10,10 +10,13 @@ import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.kelley.lsd.persistence.model.Campaign;
 import com.kelley.lsd.persistence.model.Task;
@@ -25,8 +28,12 @@ import com.kelley.lsd.persistence.repository.WorkerRepository;
 /**
  * Entry point for program.
  * I have extended ApplicationRunner and overriden run to add testing and demonstration methods for my repositories.
+ * Scheduling is enabled for DeadlineScheduler's periodic overdue check.
+ * R2dbcAutoConfiguration is excluded: its ConnectionFactory bean would replace the JDBC DataSource rather than sit
+ * next to it. The reactive repositories get their connections from ReactiveConfiguration instead.
  */
-@SpringBootApplication
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
+@EnableScheduling
 public class PersistenceProjectApplication implements ApplicationRunner {
 	
 	@Autowired
@@ -38,6 +45,10 @@ public class PersistenceProjectApplication implements ApplicationRunner {
 	@Autowired
 	private TaskRepository taskRepository;
 	
+	// Off for instances that only serve requests (see persistence.demo.enabled in application.properties)
+	@Value("${persistence.demo.enabled:true}")
+	private boolean demoEnabled;
+	
 	private static final Logger LOG = LoggerFactory.getLogger(PersistenceProjectApplication.class);
 	
 	/*
@@ -46,6 +57,8 @@ public class PersistenceProjectApplication implements ApplicationRunner {
 	@Override
 	public void run(ApplicationArguments args) throws Exception {
 		
+		if (!demoEnabled) return;
+		
 		LOG.info("Starting Spring Boot application.");
 		
 		
@@ -0,0 +1,142 @@
+package com.kelley.lsd.persistence.aggregate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.hibernate.Session;
+
+import com.kelley.lsd.persistence.model.TaskCountKey;
+import com.kelley.lsd.persistence.model.TaskStatus;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Net changes to the task_count aggregate (see TaskCount) made by one transaction.
+ *
+ * Changes are summed per group in memory, so a transaction that inserts 1000 tasks into one campaign writes
+ * one row, not 1000. apply() upserts every changed group with a standard SQL MERGE and then drops groups that
+ * reached zero. Groups are written in key order, so two transactions touching the same groups lock them in
+ * the same order and cannot deadlock on each other.
+ *
+ * Entity changes are collected by TaskCountEventListener. Code that deletes or updates tasks with bulk JPQL
+ * bypasses it and must use subtractTasks(), deleteCampaigns() or moveTasks() in the same transaction.
+ */
+public class TaskCountDeltas {
+	
+	private static final Comparator<TaskCountKey> KEY_ORDER = Comparator.comparing(TaskCountKey::getCampaignId)
+			.thenComparing(TaskCountKey::getDueYear)
+			.thenComparing(TaskCountKey::getStatus);
+	
+	private static final String MERGE = "merge into task_count t "
+			+ "using (values (cast(? as integer), cast(? as bigint), cast(? as smallint), cast(? as bigint))) s (due_year, campaign_id, status, delta) "
+			+ "on t.due_year = s.due_year and t.campaign_id = s.campaign_id and t.status = s.status "
+			+ "when matched then update set total = t.total + s.delta "
+			+ "when not matched then insert (due_year, campaign_id, status, total) values (s.due_year, s.campaign_id, s.status, s.delta)";
+	
+	private static final String DELETE_EMPTY = "delete from task_count where due_year = ? and campaign_id = ? and status = ? and total = 0";
+	
+	private final Map<TaskCountKey, Long> deltas = new TreeMap<>(KEY_ORDER);
+	
+	public void add(LocalDate dueDate, Long campaignId, TaskStatus status, long delta) {
+		if (dueDate == null) return;
+		add(dueDate.getYear(), campaignId, status, delta);
+	}
+	
+	public void add(Integer dueYear, Long campaignId, TaskStatus status, long delta) {
+		if (dueYear == null || campaignId == null || status == null) return;
+		deltas.merge(new TaskCountKey(dueYear, campaignId, status), delta, (a, b) -> a + b == 0 ? null : a + b);
+	}
+	
+	public boolean isEmpty() {
+		return deltas.isEmpty();
+	}
+	
+	public void apply(Session session) {
+		if (deltas.isEmpty()) return;
+		session.doWork(this::apply);
+		deltas.clear();
+	}
+	
+	private void apply(Connection connection) throws SQLException {
+		try (PreparedStatement merge = connection.prepareStatement(MERGE)) {
+			for (Map.Entry<TaskCountKey, Long> delta : deltas.entrySet()) {
+				bindKey(merge, delta.getKey());
+				merge.setLong(4, delta.getValue());
+				merge.addBatch();
+			}
+			merge.executeBatch();
+		}
+		
+		// Only a decrement can bring a group to zero
+		if (deltas.values().stream().noneMatch(delta -> delta < 0)) return;
+		try (PreparedStatement deleteEmpty = connection.prepareStatement(DELETE_EMPTY)) {
+			for (Map.Entry<TaskCountKey, Long> delta : deltas.entrySet()) {
+				if (delta.getValue() > 0) continue;
+				bindKey(deleteEmpty, delta.getKey());
+				deleteEmpty.addBatch();
+			}
+			deleteEmpty.executeBatch();
+		}
+	}
+	
+	private static void bindKey(PreparedStatement statement, TaskCountKey key) throws SQLException {
+		statement.setInt(1, key.getDueYear());
+		statement.setLong(2, key.getCampaignId());
+		statement.setInt(3, key.getStatus().ordinal());
+	}
+	
+	/*
+	 * Subtracts the given tasks from the aggregate. Call before deleting them with bulk JPQL.
+	 */
+	public static void subtractTasks(EntityManager entityManager, Collection<Long> taskIds) {
+		if (taskIds.isEmpty()) return;
+		TaskCountDeltas deltas = new TaskCountDeltas();
+		entityManager.createQuery("select t.dueDate, t.campaign.id, t.status from Task t where t.id in :ids", Object[].class)
+				.setParameter("ids", taskIds)
+				.getResultList()
+				.forEach(row -> deltas.add((LocalDate) row[0], (Long) row[1], (TaskStatus) row[2], -1));
+		deltas.apply(entityManager.unwrap(Session.class));
+	}
+	
+	/*
+	 * Moves the tasks matched by a bulk status update from one status to the other, one group at a time,
+	 * and returns how many tasks matched. Call right before the update, with the update's where clause
+	 * (alias t, including "t.status = :from") and its parameters other than from.
+	 */
+	public static long moveTasks(EntityManager entityManager, String whereClause, Map<String, ?> parameters,
+			TaskStatus from, TaskStatus to) {
+		TypedQuery<Object[]> groups = entityManager.createQuery("select year(t.dueDate), t.campaign.id, count(t) from Task t "
+				+ whereClause + " group by year(t.dueDate), t.campaign.id", Object[].class);
+		parameters.forEach(groups::setParameter);
+		groups.setParameter("from", from);
+		
+		TaskCountDeltas deltas = new TaskCountDeltas();
+		long matched = 0;
+		for (Object[] group : groups.getResultList()) {
+			long tasks = (Long) group[2];
+			deltas.add((Integer) group[0], (Long) group[1], from, -tasks);
+			deltas.add((Integer) group[0], (Long) group[1], to, tasks);
+			matched += tasks;
+		}
+		deltas.apply(entityManager.unwrap(Session.class));
+		return matched;
+	}
+	
+	/*
+	 * Drops every group of the given campaigns. Use when all of their tasks are deleted with bulk JPQL.
+	 */
+	public static void deleteCampaigns(EntityManager entityManager, Collection<Long> campaignIds) {
+		if (campaignIds.isEmpty()) return;
+		entityManager.createQuery("delete from TaskCount c where c.id.campaignId in :ids")
+				.setParameter("ids", campaignIds)
+				.executeUpdate();
+	}
+	
+}
@@ -0,0 +1,87 @@
+package com.kelley.lsd.persistence.aggregate;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+
+/*
+ * Keeps the task_count aggregate in step with the task table, inside the same transaction.
+ *
+ * This is a Hibernate event listener rather than a JPA entity listener (compare SearchIndexEntityListener)
+ * because it needs the old state of an updated Task to know which group it left, and because its writes must be
+ * part of the transaction rather than follow it. Every inserted, updated or deleted Task adds to the session's
+ * TaskCountDeltas, and a before-completion process writes them once the final flush has run, just before commit.
+ * A rolled-back transaction never reaches that point and its deltas are discarded.
+ *
+ * Registered by TaskCountIntegrator.
+ */
+public class TaskCountEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+	
+	private final Map<SharedSessionContractImplementor, TaskCountDeltas> pending = new ConcurrentHashMap<>();
+	
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		if (!isTask(event.getPersister())) return;
+		add(event.getSession(), event.getPersister(), event.getState(), 1);
+	}
+	
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		if (!isTask(event.getPersister()) || event.getOldState() == null) return;
+		add(event.getSession(), event.getPersister(), event.getOldState(), -1);
+		add(event.getSession(), event.getPersister(), event.getState(), 1);
+	}
+	
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		if (!isTask(event.getPersister())) return;
+		add(event.getSession(), event.getPersister(), event.getDeletedState(), -1);
+	}
+	
+	@Override
+	public boolean requiresPostCommitHandling(EntityPersister persister) {
+		return false;
+	}
+	
+	private static boolean isTask(EntityPersister persister) {
+		return persister.getMappedClass() == Task.class;
+	}
+	
+	private void add(EventSource session, EntityPersister persister, Object[] state, long delta) {
+		LocalDate dueDate = (LocalDate) state[persister.getPropertyIndex("dueDate")];
+		Campaign campaign = (Campaign) state[persister.getPropertyIndex("campaign")];
+		TaskStatus status = (TaskStatus) state[persister.getPropertyIndex("status")];
+		
+		// An update that moved neither the due year, campaign nor status nets out to nothing here
+		deltas(session).add(dueDate, campaign == null ? null : campaign.getId(), status, delta);
+	}
+	
+	private TaskCountDeltas deltas(EventSource session) {
+		return pending.computeIfAbsent(session, s -> {
+			TaskCountDeltas deltas = new TaskCountDeltas();
+			session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) completing -> {
+				pending.remove(s);
+				deltas.apply(completing);
+			});
+			session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completed) -> pending.remove(s));
+			return deltas;
+		});
+	}
+	
+}
@@ -0,0 +1,109 @@
+package com.kelley.lsd.persistence.aggregate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.kelley.lsd.persistence.model.TaskCountKey;
+import com.kelley.lsd.persistence.model.TaskStatus;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/*
+ * Checks the task_count aggregate against the task table, and rebuilds it from scratch.
+ *
+ * verify() computes the real counts with the GROUP BY that the aggregate exists to avoid, so it is meant for
+ * occasional checks, not for serving reads. rebuild() replaces the whole table with one INSERT ... SELECT;
+ * transactions that commit task changes while it runs may be counted twice or not at all, so run it when
+ * the task table is quiet (on startup it always is) and verify afterwards.
+ *
+ * On startup the aggregate is verified and rebuilt if it is wrong, e.g. after rows were loaded with plain SQL.
+ */
+@Component
+public class TaskCountReconciler {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(TaskCountReconciler.class);
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	private final TransactionTemplate transaction;
+	
+	private final boolean reconcileOnStartup;
+	
+	/*
+	 * A group whose stored count differs from the task table. A group missing on either side counts as 0.
+	 */
+	public record Mismatch(TaskCountKey key, long expected, long actual) {}
+	
+	public TaskCountReconciler(PlatformTransactionManager transactionManager,
+			@Value("${persistence.task-count.reconcile-on-startup:true}") boolean reconcileOnStartup) {
+		this.transaction = new TransactionTemplate(transactionManager);
+		this.reconcileOnStartup = reconcileOnStartup;
+	}
+	
+	@EventListener(ApplicationStartedEvent.class)
+	public void onStartup() {
+		if (!reconcileOnStartup) return;
+		List<Mismatch> mismatches = verify();
+		if (mismatches.isEmpty()) return;
+		
+		LOG.warn("Task count aggregate has {} wrong groups, rebuilding", mismatches.size());
+		rebuild();
+	}
+	
+	public List<Mismatch> verify() {
+		return transaction.execute(status -> {
+			Map<TaskCountKey, Long> expected = new HashMap<>();
+			entityManager.createQuery("select year(t.dueDate), t.campaign.id, t.status, count(t) from Task t "
+					+ "where t.dueDate is not null and t.status is not null "
+					+ "group by year(t.dueDate), t.campaign.id, t.status", Object[].class)
+					.getResultList()
+					.forEach(row -> expected.put(new TaskCountKey((Integer) row[0], (Long) row[1], (TaskStatus) row[2]), (Long) row[3]));
+			
+			Map<TaskCountKey, Long> actual = new HashMap<>();
+			entityManager.createQuery("select c.id, c.total from TaskCount c", Object[].class)
+					.getResultList()
+					.forEach(row -> actual.put((TaskCountKey) row[0], (Long) row[1]));
+			
+			Set<TaskCountKey> keys = new HashSet<>(expected.keySet());
+			keys.addAll(actual.keySet());
+			
+			List<Mismatch> mismatches = new ArrayList<>();
+			for (TaskCountKey key : keys) {
+				long expectedTotal = expected.getOrDefault(key, 0L);
+				long actualTotal = actual.getOrDefault(key, 0L);
+				if (expectedTotal != actualTotal) mismatches.add(new Mismatch(key, expectedTotal, actualTotal));
+			}
+			return mismatches;
+		});
+	}
+	
+	// Returns the number of groups written
+	public int rebuild() {
+		int groups = transaction.execute(status -> {
+			entityManager.createNativeQuery("delete from task_count").executeUpdate();
+			return entityManager.createNativeQuery("insert into task_count (due_year, campaign_id, status, total) "
+					+ "select extract(year from due_date), campaign_id, status, count(*) from task "
+					+ "where due_date is not null and status is not null "
+					+ "group by extract(year from due_date), campaign_id, status")
+					.executeUpdate();
+		});
+		LOG.info("Task count aggregate rebuilt: {} groups", groups);
+		return groups;
+	}
+	
+}
@@ -0,0 +1,135 @@
+package com.kelley.lsd.persistence.archive;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.kelley.lsd.persistence.aggregate.TaskCountDeltas;
+import com.kelley.lsd.persistence.model.ArchivedTask;
+import com.kelley.lsd.persistence.model.ChangeOperation;
+import com.kelley.lsd.persistence.model.ChangedEntity;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.outbox.OutboxEventListener;
+import com.kelley.lsd.persistence.search.SearchIndex;
+import com.kelley.lsd.persistence.workload.WorkloadDeltas;
+import com.kelley.lsd.persistence.workload.WorkloadIndex;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Moves DONE tasks that were due more than persistence.archive.age ago from the task table to archived_task
+ * (see ArchivedTask), every persistence.archive.interval.
+ *
+ * Tasks are moved a batch at a time (persistence.archive.batch-size), each batch in its own short transaction, like
+ * CampaignPurgeService: lock the next batch of ids through the (status, due_date, id) index, copy those rows with
+ * one INSERT ... SELECT, then one bulk DELETE by id. A run that fails part way has moved whole batches only, and
+ * the next run carries on where it stopped.
+ *
+ * The bulk DELETE bypasses the entity listeners, so the task_count aggregate, the workload index, the search index
+ * and the outbox are updated here. DONE tasks are not in the DeadlineTracker. All of them count live tasks only;
+ * for the change feed an archived task has been deleted.
+ */
+@Service
+public class TaskArchiver {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(TaskArchiver.class);
+	
+	private static final String COPY = "insert into archived_task "
+			+ "(id, uuid, version, name, description, due_date, status, campaign_id, assignee_id, archived_at) "
+			+ "select id, uuid, version, name, description, due_date, status, campaign_id, assignee_id, :archivedAt "
+			+ "from task where id in (:ids)";
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	private final TransactionTemplate batchTransaction;
+	
+	private final ObjectProvider<SearchIndex> searchIndex;
+	
+	private final ObjectProvider<WorkloadIndex> workloadIndex;
+	
+	private final Period age;
+	
+	private final int batchSize;
+	
+	public TaskArchiver(PlatformTransactionManager transactionManager, ObjectProvider<SearchIndex> searchIndex,
+			ObjectProvider<WorkloadIndex> workloadIndex, @Value("${persistence.archive.age:P90D}") Period age,
+			@Value("${persistence.archive.batch-size:1000}") int batchSize) {
+		this.batchTransaction = new TransactionTemplate(transactionManager);
+		this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.searchIndex = searchIndex;
+		this.workloadIndex = workloadIndex;
+		this.age = age;
+		this.batchSize = batchSize;
+	}
+	
+	@Scheduled(fixedDelayString = "${persistence.archive.interval:PT1H}",
+			initialDelayString = "${persistence.archive.interval:PT1H}")
+	public void archiveDue() {
+		archive(LocalDate.now().minus(age));
+	}
+	
+	/*
+	 * Archives every DONE task due before the given date and returns how many were moved.
+	 * Runs one at a time; a scheduled run and one started through the API do not compete for the same rows.
+	 */
+	public synchronized long archive(LocalDate dueBefore) {
+		long started = System.nanoTime();
+		long archived = 0;
+		int moved;
+		do {
+			moved = batchTransaction.execute(status -> archiveBatch(dueBefore));
+			archived += moved;
+		} while (moved == batchSize);
+		
+		if (archived > 0) {
+			LOG.info("Archived {} DONE tasks due before {} in {} ms", archived, dueBefore, (System.nanoTime() - started) / 1_000_000);
+		}
+		return archived;
+	}
+	
+	private int archiveBatch(LocalDate dueBefore) {
+		// Locked, so that none of them can be reopened or changed between the copy and the delete
+		List<Long> taskIds = entityManager.createQuery("select t.id from Task t where t.status = :done and t.dueDate < :dueBefore",
+				Long.class)
+				.setParameter("done", TaskStatus.DONE)
+				.setParameter("dueBefore", dueBefore)
+				.setLockMode(LockModeType.PESSIMISTIC_WRITE)
+				.setMaxResults(batchSize)
+				.getResultList();
+		if (taskIds.isEmpty()) return 0;
+		
+		TaskCountDeltas.subtractTasks(entityManager, taskIds);
+		workloadIndex.ifAvailable(index -> WorkloadDeltas.subtractTasks(entityManager, "where t.id in :ids", Map.of("ids", taskIds))
+				.applyAfterCommit(index));
+		// Declares the table written, otherwise Hibernate would evict every second-level cache region
+		entityManager.createNativeQuery(COPY)
+				.unwrap(NativeQuery.class)
+				.addSynchronizedEntityClass(ArchivedTask.class)
+				.setParameter("archivedAt", Instant.now())
+				.setParameter("ids", taskIds)
+				.executeUpdate();
+		entityManager.createQuery("delete from Task t where t.id in :ids")
+				.setParameter("ids", taskIds)
+				.executeUpdate();
+		OutboxEventListener.record(entityManager, ChangedEntity.TASK, ChangeOperation.DELETE, taskIds);
+		searchIndex.ifAvailable(index -> index.removeAfterCommit(List.of(), taskIds));
+		return taskIds.size();
+	}
+	
+}
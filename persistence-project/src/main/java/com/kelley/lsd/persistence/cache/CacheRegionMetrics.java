@@ -0,0 +1,79 @@
+package com.kelley.lsd.persistence.cache;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.cache.CacheManager;
+import javax.cache.management.CacheStatisticsMXBean;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/*
+ * Hit, miss, put and eviction counts for each second-level cache region.
+ *
+ * Ehcache keeps these per cache and publishes them as standard JCache CacheStatisticsMXBeans
+ * (enable-statistics in ehcache.xml). The MBean name contains the CacheManager URI, so the counters are read
+ * for the manager that belongs to this application's EntityManagerFactory (see ContextScopedJCacheRegionFactory).
+ *
+ * Evictions are entries dropped because a region reached its size limit; entries that expired after their TTL
+ * are not counted there, they simply show up as misses on the next read.
+ */
+@Component
+public class CacheRegionMetrics {
+	
+	private final CacheManager cacheManager;
+	
+	private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+	
+	public record RegionStatistics(String region, long hits, long misses, long puts, long evictions) {
+		
+		public double hitRatio() {
+			long reads = hits + misses;
+			return reads == 0 ? 0 : (double) hits / reads;
+		}
+	}
+	
+	public CacheRegionMetrics(EntityManagerFactory entityManagerFactory) {
+		JCacheRegionFactory regionFactory = (JCacheRegionFactory) entityManagerFactory
+				.unwrap(SessionFactoryImplementor.class).getCache().getRegionFactory();
+		this.cacheManager = regionFactory.getCacheManager();
+	}
+	
+	public List<RegionStatistics> regions() {
+		List<RegionStatistics> regions = new ArrayList<>();
+		for (String region : cacheManager.getCacheNames()) {
+			regions.add(region(region));
+		}
+		return regions;
+	}
+	
+	public RegionStatistics region(String region) {
+		CacheStatisticsMXBean statistics = JMX.newMXBeanProxy(mBeanServer, objectName(region), CacheStatisticsMXBean.class);
+		return new RegionStatistics(region, statistics.getCacheHits(), statistics.getCacheMisses(),
+				statistics.getCachePuts(), statistics.getCacheEvictions());
+	}
+	
+	// Same naming (and escaping) as Ehcache uses when it registers the MBean
+	private ObjectName objectName(String region) {
+		try {
+			return new ObjectName("javax.cache:type=CacheStatistics,CacheManager=" + sanitize(cacheManager.getURI().toString())
+					+ ",Cache=" + sanitize(region));
+		} catch (MalformedObjectNameException e) {
+			throw new IllegalArgumentException("Invalid cache region name: " + region, e);
+		}
+	}
+	
+	private static String sanitize(String value) {
+		return value == null ? "" : value.replaceAll(",|:|=|\n", ".");
+	}
+	
+}
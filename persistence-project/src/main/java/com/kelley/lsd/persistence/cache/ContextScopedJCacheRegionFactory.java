@@ -0,0 +1,40 @@
+package com.kelley.lsd.persistence.cache;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.spi.CachingProvider;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+/*
+ * Hibernate's JCache region factory, but with one CacheManager per SessionFactory.
+ *
+ * The stock factory asks the CachingProvider for the manager of hibernate.javax.cache.uri, and the provider
+ * hands out the same manager for the same URI. Two SessionFactories in one JVM (every cached Spring test
+ * context, or a second persistence unit) would then share the "campaign" region even though they talk to
+ * different databases, and could serve each other's rows by id.
+ *
+ * Here the configured URI gets a unique fragment. Ehcache still reads ehcache.xml from it (a URL's fragment
+ * is ignored when opening it), but registers a separate manager, with its own statistics MBeans.
+ * The manager is closed with the SessionFactory, as before.
+ */
+public class ContextScopedJCacheRegionFactory extends JCacheRegionFactory {
+	
+	@Override
+	protected CacheManager resolveCacheManager(SessionFactoryOptions settings, Map<String, Object> properties) {
+		URI configured = getUri(settings, properties);
+		if (properties.get(ConfigSettings.CACHE_MANAGER) != null || configured == null) {
+			return super.resolveCacheManager(settings, properties);
+		}
+		
+		CachingProvider provider = getCachingProvider(properties);
+		URI scoped = URI.create(configured + "#" + UUID.randomUUID());
+		return provider.getCacheManager(scoped, getClassLoader(provider));
+	}
+	
+}
@@ -0,0 +1,42 @@
+package com.kelley.lsd.persistence.deadline;
+
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/*
+ * JPA entity listener (see @EntityListeners on Task) that keeps the DeadlineTracker in sync, after commit,
+ * the same way SearchIndexEntityListener keeps the SearchIndex. The tracker is optional because slice tests
+ * such as @DataJpaTest do not contain one.
+ */
+public class DeadlineEntityListener {
+	
+	private final ObjectProvider<DeadlineTracker> deadlineTracker;
+	
+	public DeadlineEntityListener(ObjectProvider<DeadlineTracker> deadlineTracker) {
+		this.deadlineTracker = deadlineTracker;
+	}
+	
+	@PostPersist
+	@PostUpdate
+	void onSave(Task task) {
+		long id = task.getId();
+		LocalDate dueDate = task.getDueDate();
+		TaskStatus status = task.getStatus();
+		deadlineTracker.ifAvailable(tracker -> tracker.afterCommit(t -> t.track(id, dueDate, status)));
+	}
+	
+	@PostRemove
+	void onRemove(Task task) {
+		long id = task.getId();
+		deadlineTracker.ifAvailable(tracker -> tracker.afterCommit(t -> t.remove(id)));
+	}
+	
+}
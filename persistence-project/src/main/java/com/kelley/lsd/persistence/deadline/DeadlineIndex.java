@@ -0,0 +1,172 @@
+package com.kelley.lsd.persistence.deadline;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory deadline queue: task id -> due date (as an epoch day), with the ids grouped into one bucket per day.
+ *
+ * A calendar queue rather than a general priority queue: deadlines have a resolution of one day, so all tasks due on
+ * the same day share a bucket (a growable long[]), and the buckets are kept in a TreeMap keyed by day. pollDue(today)
+ * only touches the buckets of the days that have passed, so its cost is proportional to the number of tasks that
+ * have become due, not to the number of tasks tracked. The current due day of every task is kept in a
+ * LongIntHashMap, which also makes moving and removing a task O(1).
+ *
+ * Buckets are not rewritten when a task moves or is removed. The stale entry stays behind and is skipped when its
+ * bucket is polled because the task's current due day no longer matches. A task stays in the map after it has been
+ * returned by pollDue, so it is not returned again until its due date changes or it is removed and put back.
+ *
+ * Thread safe: every operation takes one lock. Each is a few array accesses, except pollDue, which is proportional to
+ * what it returns.
+ */
+public class DeadlineIndex {
+
+	private final LongIntHashMap dueDays = new LongIntHashMap();
+
+	private final NavigableMap<Integer, DayBucket> buckets = new TreeMap<>();
+
+	/*
+	 * Only used while the index is being rebuilt from the database: tasks put or removed by a live update during the
+	 * rebuild, so that a stale row read by the rebuild does not overwrite them. The value is unused. Dropped by
+	 * finishRebuild(); guarded by lock.
+	 */
+	private LongIntHashMap touched;
+
+	// Rows loaded by a rebuild that were already due before this day are recorded, but not returned by pollDue
+	private final int loadedDueFrom;
+
+	private final Lock lock = new ReentrantLock();
+
+	public DeadlineIndex() {
+		this(false, Integer.MIN_VALUE);
+	}
+
+	private DeadlineIndex(boolean rebuilding, int loadedDueFrom) {
+		this.touched = rebuilding ? new LongIntHashMap() : null;
+		this.loadedDueFrom = loadedDueFrom;
+	}
+
+	static DeadlineIndex forRebuild(int today) {
+		return new DeadlineIndex(true, today);
+	}
+
+	/*
+	 * Tracks the task as due on the given epoch day. A task already tracked for that day is left alone,
+	 * even if pollDue has returned it; any other day reschedules it.
+	 */
+	public void put(long taskId, int dueDay) {
+		lock.lock();
+		try {
+			if (touched != null) touched.put(taskId, 0);
+			putInternal(taskId, dueDay);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/*
+	 * Adds a row read by a rebuild, unless a live update has already put or removed this task.
+	 */
+	void load(long taskId, int dueDay) {
+		lock.lock();
+		try {
+			if (dueDays.containsKey(taskId) || (touched != null && touched.containsKey(taskId))) return;
+			if (dueDay < loadedDueFrom) {
+				dueDays.put(taskId, dueDay);
+			} else {
+				putInternal(taskId, dueDay);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void remove(long taskId) {
+		lock.lock();
+		try {
+			if (touched != null) touched.put(taskId, 0);
+			dueDays.remove(taskId);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	void finishRebuild() {
+		lock.lock();
+		try {
+			touched = null;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void putInternal(long taskId, int dueDay) {
+		if (dueDays.put(taskId, dueDay) != dueDay) {
+			buckets.computeIfAbsent(dueDay, day -> new DayBucket()).add(taskId);
+		}
+	}
+
+	/*
+	 * Removes the buckets of every day before today and returns the ids (sorted, without duplicates) of the tasks
+	 * in them that are still due on that day. The tasks stay tracked; see the class comment.
+	 */
+	public long[] pollDue(int today) {
+		lock.lock();
+		try {
+			Map<Integer, DayBucket> due = buckets.headMap(today, false);
+			if (due.isEmpty()) return new long[0];
+
+			long[] result = new long[16];
+			int count = 0;
+			for (Iterator<Map.Entry<Integer, DayBucket>> days = due.entrySet().iterator(); days.hasNext(); ) {
+				Map.Entry<Integer, DayBucket> day = days.next();
+				DayBucket bucket = day.getValue();
+				for (int i = 0; i < bucket.size; i++) {
+					long taskId = bucket.ids[i];
+					if (dueDays.get(taskId) != day.getKey()) continue;
+					if (count == result.length) result = Arrays.copyOf(result, count * 2);
+					result[count++] = taskId;
+				}
+				days.remove();
+			}
+
+			// A task removed and put back on the same day is in its bucket twice
+			Arrays.sort(result, 0, count);
+			int distinct = 0;
+			for (int i = 0; i < count; i++) {
+				if (distinct == 0 || result[distinct - 1] != result[i]) result[distinct++] = result[i];
+			}
+			return Arrays.copyOf(result, distinct);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// Number of tasks tracked, including those already returned by pollDue
+	public int size() {
+		lock.lock();
+		try {
+			return dueDays.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static final class DayBucket {
+
+		private long[] ids = new long[4];
+
+		private int size;
+
+		void add(long taskId) {
+			if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+			ids[size++] = taskId;
+		}
+	}
+
+}
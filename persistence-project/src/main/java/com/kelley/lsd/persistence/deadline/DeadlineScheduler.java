@@ -0,0 +1,150 @@
+package com.kelley.lsd.persistence.deadline;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.replica.ReplicaRouting;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/*
+ * Overdue-task detection from the DeadlineTracker instead of polling findByDueDateBeforeAndStatusEquals.
+ *
+ * At startup the tracker is filled with the due date of every task that is not DONE (one streamed query of
+ * (id, dueDate) tuples, like SearchIndexInitializer). From then on the check, every
+ * persistence.deadline.check-interval, asks the tracker for the tasks that have become due since the last check.
+ * On most checks there are none and no SQL is sent at all. After midnight it gets the tasks due the day before.
+ *
+ * Bulk statements may have completed or deleted some of those tasks without telling the tracker, so each batch
+ * is checked against the database with a primary-key lookup before it is published as a TasksOverdueEvent.
+ * The cost of a check therefore grows with the number of tasks that have become due, not with the size of the table.
+ */
+@Component
+public class DeadlineScheduler {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(DeadlineScheduler.class);
+	
+	private static final int FETCH_SIZE = 1000;
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	private final DeadlineTracker deadlineTracker;
+	
+	private final ApplicationEventPublisher eventPublisher;
+	
+	private final TransactionTemplate readOnlyTransaction;
+	
+	private final int batchSize;
+	
+	private final boolean rebuildOnStartup;
+	
+	public DeadlineScheduler(DeadlineTracker deadlineTracker, ApplicationEventPublisher eventPublisher,
+			PlatformTransactionManager transactionManager,
+			@Value("${persistence.deadline.batch-size:1000}") int batchSize,
+			@Value("${persistence.deadline.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+		this.deadlineTracker = deadlineTracker;
+		this.eventPublisher = eventPublisher;
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+		this.batchSize = batchSize;
+		this.rebuildOnStartup = rebuildOnStartup;
+	}
+	
+	@EventListener(ApplicationStartedEvent.class)
+	public void onStartup() {
+		if (rebuildOnStartup) rebuild();
+	}
+	
+	public void rebuild() {
+		rebuild(LocalDate.now());
+	}
+	
+	// Tasks due before today are tracked, but not published (see DeadlineTracker.rebuild).
+	// Read from the primary, like SearchIndexInitializer.rebuild().
+	public void rebuild(LocalDate today) {
+		ReplicaRouting.onPrimary(() -> deadlineTracker.rebuild(today, loader -> readOnlyTransaction.executeWithoutResult(status -> {
+			try (Stream<Object[]> tasks = entityManager
+					.createQuery("select t.id, t.dueDate from Task t where t.status <> :done and t.dueDate is not null", Object[].class)
+					.setParameter("done", TaskStatus.DONE)
+					.setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+					.getResultStream()) {
+				tasks.forEach(row -> loader.loadTask((Long) row[0], (LocalDate) row[1]));
+			}
+		})));
+	}
+	
+	@Scheduled(fixedDelayString = "${persistence.deadline.check-interval:PT1M}",
+			initialDelayString = "${persistence.deadline.check-interval:PT1M}")
+	public void checkDeadlines() {
+		publishOverdue(LocalDate.now());
+	}
+	
+	/*
+	 * Publishes the tasks that were due before today and have not been reported yet; returns how many.
+	 */
+	public int publishOverdue(LocalDate today) {
+		long[] due = deadlineTracker.pollOverdue(today);
+		if (due.length == 0) return 0;
+		
+		int published = 0;
+		for (int from = 0; from < due.length; from += batchSize) {
+			List<Long> batch = Arrays.stream(due, from, Math.min(from + batchSize, due.length)).boxed().toList();
+			List<Long> overdue = confirmOverdue(batch, today);
+			if (overdue.isEmpty()) continue;
+			eventPublisher.publishEvent(new TasksOverdueEvent(today, overdue));
+			published += overdue.size();
+		}
+		LOG.info("{} tasks overdue on {} ({} tracked)", published, today, deadlineTracker.size());
+		return published;
+	}
+	
+	/*
+	 * Keeps the tasks that still exist, are not DONE and are still due before today. The tracker entries of the others
+	 * are corrected, so that a task whose due date was moved is reported on its new date instead.
+	 * Read from the primary: on a lagging replica a task created since would look deleted.
+	 */
+	private List<Long> confirmOverdue(List<Long> taskIds, LocalDate today) {
+		List<Object[]> rows = ReplicaRouting.onPrimary(() -> readOnlyTransaction.execute(status -> entityManager
+				.createQuery("select t.id, t.dueDate, t.status from Task t where t.id in :ids order by t.id", Object[].class)
+				.setParameter("ids", taskIds)
+				.getResultList()));
+		
+		List<Long> overdue = new ArrayList<>(rows.size());
+		int next = 0;
+		for (Object[] row : rows) {
+			long id = (Long) row[0];
+			LocalDate dueDate = (LocalDate) row[1];
+			TaskStatus status = (TaskStatus) row[2];
+			// Both lists are in id order; ids skipped over were deleted
+			while (taskIds.get(next) != id) deadlineTracker.remove(taskIds.get(next++));
+			next++;
+			
+			if (status != TaskStatus.DONE && dueDate != null && dueDate.isBefore(today)) {
+				overdue.add(id);
+			} else {
+				deadlineTracker.track(id, dueDate, status);
+			}
+		}
+		while (next < taskIds.size()) deadlineTracker.remove(taskIds.get(next++));
+		return overdue;
+	}
+	
+}
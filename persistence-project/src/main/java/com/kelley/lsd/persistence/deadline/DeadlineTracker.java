@@ -0,0 +1,127 @@
+package com.kelley.lsd.persistence.deadline;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.kelley.lsd.persistence.model.TaskStatus;
+
+/**
+ * Due dates of every task that is not DONE, held in a DeadlineIndex so that overdue tasks can be found without
+ * querying the task table (see DeadlineScheduler).
+ *
+ * Kept current by DeadlineEntityListener after each commit, and rebuilt from the database at startup by
+ * DeadlineScheduler. Bulk JPQL updates and deletes bypass entity callbacks, so code that issues them must update
+ * the tracker itself. A task the tracker still holds after it was completed or deleted is only a wasted entry:
+ * DeadlineScheduler checks every due task against the database before reporting it.
+ */
+@Component
+public class DeadlineTracker {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(DeadlineTracker.class);
+	
+	private volatile DeadlineIndex live = new DeadlineIndex();
+	
+	// Non-null while a rebuild is running; live updates are applied to it as well so none are lost by the swap.
+	private volatile DeadlineIndex pending;
+	
+	/*
+	 * Passed to rebuild(); the caller feeds it every task that is not DONE.
+	 */
+	public interface Loader {
+		void loadTask(long id, LocalDate dueDate);
+	}
+	
+	// Tracks, reschedules or drops the task according to its current due date and status
+	public void track(long taskId, LocalDate dueDate, TaskStatus status) {
+		if (dueDate == null || status == TaskStatus.DONE) {
+			remove(taskId);
+		} else {
+			int dueDay = epochDay(dueDate);
+			apply(index -> index.put(taskId, dueDay));
+		}
+	}
+	
+	public void remove(long taskId) {
+		apply(index -> index.remove(taskId));
+	}
+	
+	/*
+	 * For code that deletes tasks with bulk JPQL: drops the given ids once the current transaction commits
+	 * (or immediately when there is none), mirroring what DeadlineEntityListener does for single entities.
+	 */
+	public void removeAfterCommit(Collection<Long> taskIds) {
+		afterCommit(tracker -> taskIds.forEach(tracker::remove));
+	}
+	
+	/*
+	 * Runs the update once the current transaction commits, or immediately when there is none,
+	 * so that a rolled-back change never reaches the tracker.
+	 */
+	public void afterCommit(Consumer<DeadlineTracker> update) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					update.accept(DeadlineTracker.this);
+				}
+			});
+		} else {
+			update.accept(this);
+		}
+	}
+	
+	/*
+	 * rebuild() publishes the fresh index as live before it clears pending, so reading pending first means an update
+	 * that misses the rebuild still lands in whichever index is live afterwards.
+	 */
+	private void apply(Consumer<DeadlineIndex> update) {
+		DeadlineIndex rebuilding = pending;
+		DeadlineIndex current = live;
+		update.accept(current);
+		if (rebuilding != null && rebuilding != current) update.accept(rebuilding);
+	}
+	
+	/*
+	 * Ids of the tracked tasks that were due before today and have not been returned by an earlier call,
+	 * in id order. They may since have been completed or deleted by a bulk statement.
+	 */
+	public long[] pollOverdue(LocalDate today) {
+		return live.pollDue(epochDay(today));
+	}
+	
+	public int size() {
+		return live.size();
+	}
+	
+	/*
+	 * Builds a fresh index from the rows the loader is given, then swaps it in. Tasks that were already overdue
+	 * before today are tracked but not reported again; they were reported before the restart, or can be listed
+	 * with TaskRepository.findRowsByDueDateBeforeAndStatus.
+	 */
+	public synchronized void rebuild(LocalDate today, Consumer<Loader> source) {
+		long started = System.nanoTime();
+		DeadlineIndex fresh = DeadlineIndex.forRebuild(epochDay(today));
+		pending = fresh;
+		try {
+			source.accept((id, dueDate) -> fresh.load(id, epochDay(dueDate)));
+			fresh.finishRebuild();
+			live = fresh;
+		} finally {
+			pending = null;
+		}
+		LOG.info("Deadline tracker rebuilt: {} open tasks in {} ms", fresh.size(), (System.nanoTime() - started) / 1_000_000);
+	}
+	
+	// Throws ArithmeticException for dates more than five million years away, which no task is due on
+	private static int epochDay(LocalDate date) {
+		return Math.toIntExact(date.toEpochDay());
+	}
+	
+}
@@ -0,0 +1,122 @@
+package com.kelley.lsd.persistence.deadline;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from long keys to int values, for DeadlineIndex.
+ *
+ * Keys and values live in two parallel primitive arrays, so an entry costs 12 bytes (plus free slots) instead of
+ * the ~80 bytes of a HashMap<Long, Integer> entry with its boxed key and value. Collisions are resolved by linear
+ * probing, and remove() shifts the following entries back instead of leaving tombstones, so lookups never slow
+ * down after many removals.
+ *
+ * Not thread safe; DeadlineIndex guards it with its lock. Long.MIN_VALUE marks a free slot and cannot be a key.
+ */
+final class LongIntHashMap {
+
+	static final int NO_VALUE = Integer.MIN_VALUE;
+
+	private static final long FREE = Long.MIN_VALUE;
+
+	private static final float LOAD_FACTOR = 0.6f;
+
+	private long[] keys;
+
+	private int[] values;
+
+	private int size;
+
+	private int resizeAt;
+
+	LongIntHashMap() {
+		allocate(16);
+	}
+
+	int size() {
+		return size;
+	}
+
+	// Returns the value for the key, or NO_VALUE
+	int get(long key) {
+		int mask = keys.length - 1;
+		for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+			long current = keys[slot];
+			if (current == key) return values[slot];
+			if (current == FREE) return NO_VALUE;
+		}
+	}
+
+	boolean containsKey(long key) {
+		return get(key) != NO_VALUE;
+	}
+
+	// Returns the previous value, or NO_VALUE
+	int put(long key, int value) {
+		if (key == FREE) throw new IllegalArgumentException("Key " + key + " is reserved");
+		int mask = keys.length - 1;
+		int slot = slot(key, mask);
+		for (; keys[slot] != FREE; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				int previous = values[slot];
+				values[slot] = value;
+				return previous;
+			}
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		if (++size >= resizeAt) rehash(keys.length * 2);
+		return NO_VALUE;
+	}
+
+	// Returns the removed value, or NO_VALUE
+	int remove(long key) {
+		int mask = keys.length - 1;
+		int slot = slot(key, mask);
+		while (keys[slot] != key) {
+			if (keys[slot] == FREE) return NO_VALUE;
+			slot = (slot + 1) & mask;
+		}
+		int removed = values[slot];
+		size--;
+
+		// Move back any later entry of the same probe run that could no longer be reached across the gap
+		int gap = slot;
+		for (int next = (gap + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+			int home = slot(keys[next], mask);
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				values[gap] = values[next];
+				gap = next;
+			}
+		}
+		keys[gap] = FREE;
+		return removed;
+	}
+
+	void clear() {
+		allocate(16);
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != FREE) put(oldKeys[i], oldValues[i]);
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		Arrays.fill(keys, FREE);
+		values = new int[capacity];
+		size = 0;
+		resizeAt = (int) (capacity * LOAD_FACTOR);
+	}
+
+	// Sequence-generated ids are consecutive, so the bits are mixed (Fibonacci hashing) before masking
+	private static int slot(long key, int mask) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+	}
+
+}
@@ -0,0 +1,11 @@
+package com.kelley.lsd.persistence.deadline;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/*
+ * Published by DeadlineScheduler (at most persistence.deadline.batch-size ids per event) for tasks that are not DONE
+ * and were due before the given day. Each task is reported once, unless its due date changes again.
+ * Listeners run on the scheduler thread, outside any transaction.
+ */
+public record TasksOverdueEvent(LocalDate today, List<Long> taskIds) {}
@@ -0,0 +1,185 @@
+package com.kelley.lsd.persistence.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.kelley.lsd.persistence.importer.ImportFormat;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.repository.TaskRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Writes tasks as CSV or NDJSON to an output stream, in constant memory.
+ *
+ * Tasks are read through the streaming TaskRepository methods and written as they arrive. After every chunk
+ * the output is flushed and the persistence context cleared, so at most one chunk of tasks (with their campaigns
+ * and assignees) is held at a time, however many tasks are exported.
+ *
+ * The columns are the ones BulkImportService.importTasks reads, so an export can be imported again.
+ */
+@Service
+public class TaskExportService {
+	
+	static final List<String> COLUMNS = List.of("uuid", "name", "description", "dueDate", "status", "campaignCode", "assigneeEmail");
+	
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	private final TaskRepository taskRepository;
+	
+	private final TransactionTemplate exportTransaction;
+	
+	private final int chunkSize;
+	
+	public TaskExportService(TaskRepository taskRepository, PlatformTransactionManager transactionManager,
+			@Value("${persistence.export.chunk-size:1000}") int chunkSize) {
+		this.taskRepository = taskRepository;
+		// Clearing the persistence context must not throw away a caller's unflushed changes, so the export never joins
+		this.exportTransaction = new TransactionTemplate(transactionManager);
+		this.exportTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.exportTransaction.setReadOnly(true);
+		this.chunkSize = chunkSize;
+	}
+	
+	/*
+	 * Exports every task, or only those due after dueAfter if it is not null, and returns the number exported.
+	 * The output stream is flushed but not closed.
+	 */
+	public long exportTasks(LocalDate dueAfter, ImportFormat format, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+		RowWriter rows = format == ImportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+		try {
+			long exported = exportTransaction.execute(status -> {
+				try (Stream<Task> tasks = dueAfter == null
+						? taskRepository.streamAllByOrderByIdAsc()
+						: taskRepository.streamByDueDateGreaterThan(dueAfter)) {
+					long count = 0;
+					for (Iterator<Task> iterator = tasks.iterator(); iterator.hasNext();) {
+						rows.write(iterator.next());
+						if (++count % chunkSize == 0) {
+							writer.flush();
+							entityManager.clear();
+						}
+					}
+					return count;
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			writer.flush();
+			return exported;
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+	
+	private static List<String> values(Task task) {
+		return List.of(
+				task.getUuid().toString(),
+				Objects.toString(task.getName(), ""),
+				Objects.toString(task.getDescription(), ""),
+				Objects.toString(task.getDueDate(), ""),
+				Objects.toString(task.getStatus(), ""),
+				task.getCampaign().getCode(),
+				task.getAssignee() == null ? "" : task.getAssignee().getEmail());
+	}
+	
+	private interface RowWriter {
+		
+		void write(Task task) throws IOException;
+	}
+	
+	/*
+	 * Header row, then one line per task. Empty fields are read back as null by the importer.
+	 */
+	private static class CsvRowWriter implements RowWriter {
+		
+		private final Writer writer;
+		
+		private boolean headerWritten;
+		
+		CsvRowWriter(Writer writer) {
+			this.writer = writer;
+		}
+		
+		@Override
+		public void write(Task task) throws IOException {
+			if (!headerWritten) {
+				writeLine(COLUMNS);
+				headerWritten = true;
+			}
+			writeLine(values(task));
+		}
+		
+		private void writeLine(List<String> values) throws IOException {
+			for (int i = 0; i < values.size(); i++) {
+				if (i > 0) writer.write(',');
+				writer.write(quote(values.get(i)));
+			}
+			writer.write('\n');
+		}
+		
+		/*
+		 * Quotes values containing commas or quotes. Line breaks are replaced with spaces, because the
+		 * importer reads one row per line.
+		 */
+		static String quote(String value) {
+			String singleLine = value.replace('\r', ' ').replace('\n', ' ');
+			if (singleLine.indexOf(',') < 0 && singleLine.indexOf('"') < 0) return singleLine;
+			return '"' + singleLine.replace("\"", "\"\"") + '"';
+		}
+	}
+	
+	/*
+	 * One JSON object per line. Empty values are written as null.
+	 */
+	private static class NdjsonRowWriter implements RowWriter {
+		
+		private final JsonGenerator generator;
+		
+		NdjsonRowWriter(Writer writer) throws IOException {
+			this.generator = new JsonFactory().createGenerator(writer)
+					.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+					.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+					.setRootValueSeparator(null);
+		}
+		
+		@Override
+		public void write(Task task) throws IOException {
+			List<String> values = values(task);
+			generator.writeStartObject();
+			for (int i = 0; i < COLUMNS.size(); i++) {
+				String value = values.get(i);
+				if (value.isEmpty()) generator.writeNullField(COLUMNS.get(i));
+				else generator.writeStringField(COLUMNS.get(i), value);
+			}
+			generator.writeEndObject();
+			generator.writeRaw('\n');
+			// Moves the generator's own buffer into the writer (without flushing the writer), so a chunk flush sees every row
+			generator.flush();
+		}
+	}
+	
+}
@@ -0,0 +1,268 @@
+package com.kelley.lsd.persistence.importer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.ImportCheckpoint;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.model.Worker;
+import com.kelley.lsd.persistence.repository.ImportCheckpointRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Streams campaigns, workers and tasks from CSV or NDJSON files into the database.
+ *
+ * Rows are read one at a time and written in chunks, each chunk in its own transaction.
+ * After every chunk the persistence context is flushed (as JDBC batches) and cleared, so memory use stays
+ * constant regardless of file size. Each chunk also advances an ImportCheckpoint in the same transaction;
+ * running a failed job again under the same job name skips the rows that were already committed.
+ *
+ * Task rows reference their campaign by "campaignCode" and their assignee by "assigneeEmail". These are
+ * resolved through a bounded NaturalKeyCache with one IN query per chunk for cache misses.
+ *
+ * Campaigns and workers must be imported before the tasks that reference them.
+ */
+@Service
+public class BulkImportService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BulkImportService.class);
+
+	private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(5);
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final ImportCheckpointRepository checkpointRepository;
+
+	private final TransactionTemplate chunkTransaction;
+
+	private final int chunkSize;
+
+	private final int keyCacheSize;
+
+	public BulkImportService(ImportCheckpointRepository checkpointRepository, PlatformTransactionManager transactionManager,
+			@Value("${persistence.import.chunk-size:1000}") int chunkSize,
+			@Value("${persistence.import.key-cache-size:10000}") int keyCacheSize) {
+		this.checkpointRepository = checkpointRepository;
+		// Every chunk commits on its own, even if the caller happens to be inside a transaction.
+		this.chunkTransaction = new TransactionTemplate(transactionManager);
+		this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.chunkSize = chunkSize;
+		this.keyCacheSize = keyCacheSize;
+	}
+
+	/*
+	 * Columns: code, name, description
+	 */
+	public ImportResult importCampaigns(String jobName, Path file) {
+		return run(jobName, file, (rows, firstRow) -> {
+			for (int i = 0; i < rows.size(); i++) {
+				Map<String, String> row = rows.get(i);
+				long rowNumber = firstRow + i;
+				entityManager.persist(new Campaign(required(row, "code", rowNumber), row.get("name"), row.get("description")));
+			}
+		});
+	}
+
+	/*
+	 * Columns: email, firstName, lastName
+	 */
+	public ImportResult importWorkers(String jobName, Path file) {
+		return run(jobName, file, (rows, firstRow) -> {
+			for (int i = 0; i < rows.size(); i++) {
+				Map<String, String> row = rows.get(i);
+				long rowNumber = firstRow + i;
+				entityManager.persist(new Worker(required(row, "email", rowNumber), row.get("firstName"), row.get("lastName")));
+			}
+		});
+	}
+
+	/*
+	 * Columns: uuid (optional), name, description, dueDate (yyyy-MM-dd), status (TaskStatus name),
+	 * campaignCode, assigneeEmail (optional)
+	 */
+	public ImportResult importTasks(String jobName, Path file) {
+		NaturalKeyCache campaignIds = new NaturalKeyCache(keyCacheSize);
+		NaturalKeyCache workerIds = new NaturalKeyCache(keyCacheSize);
+
+		ImportResult result = run(jobName, file, (rows, firstRow) -> {
+			Map<String, Long> campaigns = campaignIds.resolve(column(rows, "campaignCode"), this::findCampaignIds);
+			Map<String, Long> workers = workerIds.resolve(column(rows, "assigneeEmail"), this::findWorkerIds);
+
+			for (int i = 0; i < rows.size(); i++) {
+				Map<String, String> row = rows.get(i);
+				long rowNumber = firstRow + i;
+
+				String campaignCode = required(row, "campaignCode", rowNumber);
+				Long campaignId = campaigns.get(campaignCode);
+				if (campaignId == null) throw new ImportException("Row " + rowNumber + ": unknown campaign code " + campaignCode);
+
+				// getReference() hands back an uninitialized proxy, so no SELECT is issued for the campaign.
+				Task task = new Task(row.get("name"), row.get("description"), date(row, "dueDate", rowNumber),
+						status(row, rowNumber), entityManager.getReference(Campaign.class, campaignId));
+
+				if (row.get("uuid") != null) task.setUuid(uuid(row, rowNumber));
+
+				String assigneeEmail = row.get("assigneeEmail");
+				if (assigneeEmail != null) {
+					Long workerId = workers.get(assigneeEmail);
+					if (workerId == null) throw new ImportException("Row " + rowNumber + ": unknown assignee email " + assigneeEmail);
+					task.setAssignee(entityManager.getReference(Worker.class, workerId));
+				}
+
+				entityManager.persist(task);
+			}
+		});
+
+		LOG.info("Import {}: campaign key cache hits={} misses={}, worker key cache hits={} misses={}", jobName,
+				campaignIds.getHits(), campaignIds.getMisses(), workerIds.getHits(), workerIds.getMisses());
+		return result;
+	}
+
+	/*
+	 * Writes one chunk of rows inside the chunk transaction. firstRow is the 1-based row number of rows.get(0).
+	 */
+	@FunctionalInterface
+	private interface ChunkWriter {
+		void write(List<Map<String, String>> rows, long firstRow);
+	}
+
+	private ImportResult run(String jobName, Path file, ChunkWriter writer) {
+		ImportCheckpoint checkpoint = checkpointRepository.findById(jobName).orElseGet(() -> new ImportCheckpoint(jobName));
+
+		if (checkpoint.isCompleted()) {
+			LOG.info("Import {} already completed ({} rows), nothing to do", jobName, checkpoint.getLastCommittedRow());
+			return new ImportResult(jobName, 0, checkpoint.getLastCommittedRow(), 0, Duration.ZERO);
+		}
+
+		long started = System.nanoTime();
+		long lastReport = started;
+		long imported = 0;
+		int chunks = 0;
+
+		try (ImportRowReader reader = new ImportRowReader(file, ImportFormat.fromPath(file))) {
+			long skipped = reader.skip(checkpoint.getLastCommittedRow());
+			if (skipped > 0) LOG.info("Import {}: resuming after row {}", jobName, skipped);
+
+			List<Map<String, String>> chunk = new ArrayList<>(chunkSize);
+			boolean endOfFile = false;
+
+			while (!endOfFile) {
+				long firstRow = reader.getRowNumber() + 1;
+				chunk.clear();
+				Map<String, String> row;
+				while (chunk.size() < chunkSize && (row = reader.next()) != null) {
+					chunk.add(row);
+				}
+				endOfFile = chunk.size() < chunkSize;
+
+				long lastRow = reader.getRowNumber();
+				checkpoint.setLastCommittedRow(lastRow);
+				checkpoint.setCompleted(endOfFile);
+
+				try {
+					chunkTransaction.executeWithoutResult(status -> {
+						writer.write(chunk, firstRow);
+						entityManager.merge(checkpoint);
+						// Push the chunk out as JDBC batches, then drop it from the persistence context.
+						entityManager.flush();
+						entityManager.clear();
+					});
+				} catch (RuntimeException e) {
+					throw new ImportException("Import " + jobName + " failed in rows " + firstRow + "-" + lastRow
+							+ "; rows up to " + (firstRow - 1) + " are committed", e);
+				}
+
+				imported += chunk.size();
+				if (!chunk.isEmpty()) chunks++;
+
+				long now = System.nanoTime();
+				if (now - lastReport >= PROGRESS_INTERVAL.toNanos()) {
+					LOG.info("Import {}: {} rows committed, {} rows/sec", jobName, lastRow,
+							String.format("%.1f", imported * 1_000_000_000.0 / (now - started)));
+					lastReport = now;
+				}
+			}
+
+			ImportResult result = new ImportResult(jobName, imported, skipped, chunks, Duration.ofNanos(System.nanoTime() - started));
+			LOG.info("Import finished: {}", result);
+			return result;
+		}
+	}
+
+	private Map<String, Long> findCampaignIds(Set<String> codes) {
+		return entityManager.createQuery("select c.code, c.id from Campaign c where c.code in :codes", Object[].class)
+				.setParameter("codes", codes)
+				.getResultStream()
+				.collect(Collectors.toMap(r -> (String) r[0], r -> (Long) r[1]));
+	}
+
+	private Map<String, Long> findWorkerIds(Set<String> emails) {
+		return entityManager.createQuery("select w.email, w.id from Worker w where w.email in :emails", Object[].class)
+				.setParameter("emails", emails)
+				.getResultStream()
+				.collect(Collectors.toMap(r -> (String) r[0], r -> (Long) r[1]));
+	}
+
+	private static List<String> column(List<Map<String, String>> rows, String name) {
+		return rows.stream().map(row -> row.get(name)).filter(Objects::nonNull).toList();
+	}
+
+	private static String required(Map<String, String> row, String name, long rowNumber) {
+		String value = row.get(name);
+		if (value == null) throw new ImportException("Row " + rowNumber + ": missing required value " + name);
+		return value;
+	}
+
+	private static LocalDate date(Map<String, String> row, String name, long rowNumber) {
+		String value = row.get(name);
+		if (value == null) return null;
+		try {
+			return LocalDate.parse(value);
+		} catch (DateTimeParseException e) {
+			throw new ImportException("Row " + rowNumber + ": invalid " + name + " " + value, e);
+		}
+	}
+
+	// Existing string UUIDs of any version are kept as they are; only new tasks get time-ordered ones.
+	private static UUID uuid(Map<String, String> row, long rowNumber) {
+		String value = row.get("uuid");
+		try {
+			return UUID.fromString(value);
+		} catch (IllegalArgumentException e) {
+			throw new ImportException("Row " + rowNumber + ": invalid uuid " + value, e);
+		}
+	}
+
+	private static TaskStatus status(Map<String, String> row, long rowNumber) {
+		String value = row.get("status");
+		if (value == null) return TaskStatus.TO_DO;
+		try {
+			return TaskStatus.valueOf(value);
+		} catch (IllegalArgumentException e) {
+			throw new ImportException("Row " + rowNumber + ": invalid status " + value, e);
+		}
+	}
+
+}
@@ -0,0 +1,19 @@
+package com.kelley.lsd.persistence.importer;
+
+/*
+ * Thrown when an import file cannot be read or a row cannot be imported.
+ * Rows committed before the failure stay committed; re-running the same job resumes after them.
+ */
+public class ImportException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ImportException(String message) {
+		super(message);
+	}
+
+	public ImportException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+}
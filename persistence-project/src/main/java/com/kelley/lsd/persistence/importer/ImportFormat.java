@@ -0,0 +1,22 @@
+package com.kelley.lsd.persistence.importer;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/*
+ * Supported input formats.
+ * CSV files must start with a header row naming the columns. NDJSON files hold one JSON object per line.
+ * Both use the entity property names as column/field names, e.g. code,name,description for campaigns.
+ */
+public enum ImportFormat {
+	CSV,
+	NDJSON;
+	
+	public static ImportFormat fromPath(Path file) {
+		String fileName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+		if (fileName.endsWith(".csv")) return CSV;
+		if (fileName.endsWith(".ndjson") || fileName.endsWith(".jsonl")) return NDJSON;
+		
+		throw new ImportException("Cannot determine import format from file name: " + file);
+	}
+}
@@ -0,0 +1,21 @@
+package com.kelley.lsd.persistence.importer;
+
+import java.time.Duration;
+
+/*
+ * Summary of an import run.
+ * rowsSkipped counts rows committed by a previous run of the same job that were skipped on resume.
+ */
+public record ImportResult(String jobName, long rowsImported, long rowsSkipped, int chunks, Duration elapsed) {
+	
+	public double rowsPerSecond() {
+		long millis = Math.max(1, elapsed.toMillis());
+		return rowsImported * 1000.0 / millis;
+	}
+	
+	@Override
+	public String toString() {
+		return "ImportResult [jobName=" + jobName + ", rowsImported=" + rowsImported + ", rowsSkipped=" + rowsSkipped
+				+ ", chunks=" + chunks + ", elapsed=" + elapsed + ", rowsPerSecond=" + String.format("%.1f", rowsPerSecond()) + "]";
+	}
+}
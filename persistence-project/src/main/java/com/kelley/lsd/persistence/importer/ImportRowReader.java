@@ -0,0 +1,166 @@
+package com.kelley.lsd.persistence.importer;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Streams an import file one row at a time, so memory use does not depend on file size.
+ * Each row is returned as a map of column/field name to text value (null for missing or empty values).
+ *
+ * One line is one row in both formats. CSV fields may be quoted to contain commas and doubled quotes,
+ * but not line breaks.
+ */
+public class ImportRowReader implements Closeable {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final BufferedReader reader;
+	private final ImportFormat format;
+	private final List<String> header;
+
+	// Number of data rows returned so far (the CSV header is not counted).
+	private long rowNumber;
+
+	public ImportRowReader(Path file, ImportFormat format) {
+		this.format = format;
+		try {
+			this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+			this.header = format == ImportFormat.CSV ? readHeader(file) : List.of();
+		} catch (IOException e) {
+			throw new ImportException("Cannot open import file " + file, e);
+		}
+	}
+
+	private List<String> readHeader(Path file) throws IOException {
+		String line = reader.readLine();
+		if (line == null) throw new ImportException("CSV file has no header row: " + file);
+		return parseCsvLine(line).stream().map(String::strip).toList();
+	}
+
+	public long getRowNumber() {
+		return rowNumber;
+	}
+
+	/*
+	 * Skips rows without parsing them. Used when resuming a job from its checkpoint.
+	 */
+	public long skip(long rows) {
+		long skipped = 0;
+		try {
+			while (skipped < rows && nextLine() != null) {
+				skipped++;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		rowNumber += skipped;
+		return skipped;
+	}
+
+	/*
+	 * Returns the next row, or null at end of file.
+	 */
+	public Map<String, String> next() {
+		try {
+			String line = nextLine();
+			if (line == null) return null;
+			rowNumber++;
+			return format == ImportFormat.CSV ? toCsvRow(line) : toJsonRow(line);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	// Blank lines are ignored in both formats.
+	private String nextLine() throws IOException {
+		String line;
+		do {
+			line = reader.readLine();
+		} while (line != null && line.isBlank());
+		return line;
+	}
+
+	private Map<String, String> toCsvRow(String line) {
+		List<String> values = parseCsvLine(line);
+		if (values.size() > header.size()) {
+			throw new ImportException("Row " + (rowNumber) + " has " + values.size() + " values but the header has " + header.size());
+		}
+		Map<String, String> row = new HashMap<>();
+		for (int i = 0; i < values.size(); i++) {
+			String value = values.get(i);
+			row.put(header.get(i), value.isEmpty() ? null : value);
+		}
+		return row;
+	}
+
+	private Map<String, String> toJsonRow(String line) {
+		JsonNode node;
+		try {
+			node = MAPPER.readTree(line);
+		} catch (JsonProcessingException e) {
+			throw new ImportException("Row " + rowNumber + " is not valid JSON", e);
+		}
+		if (!node.isObject()) throw new ImportException("Row " + rowNumber + " is not a JSON object");
+
+		Map<String, String> row = new HashMap<>();
+		for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext();) {
+			Map.Entry<String, JsonNode> field = fields.next();
+			JsonNode value = field.getValue();
+			row.put(field.getKey(), value.isNull() || value.asText().isEmpty() ? null : value.asText());
+		}
+		return row;
+	}
+
+	static List<String> parseCsvLine(String line) {
+		List<String> values = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		boolean quoted = false;
+
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					current.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					current.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				values.add(current.toString());
+				current.setLength(0);
+			} else {
+				current.append(c);
+			}
+		}
+		values.add(current.toString());
+		return values;
+	}
+
+	@Override
+	public void close() {
+		try {
+			reader.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.kelley.lsd.persistence.importer;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/*
+ * Bounded least-recently-used cache of natural key -> database id, e.g. Campaign.code -> Campaign.id.
+ *
+ * Task rows reference their campaign and assignee by natural key. Rather than query once per row, the importer
+ * collects the keys of a whole chunk, takes what it can from here and loads the misses with a single IN query.
+ * The size bound keeps memory constant no matter how many distinct keys the file contains.
+ * Not thread safe; each import run uses its own instance.
+ */
+public class NaturalKeyCache {
+
+	private final Map<String, Long> ids;
+
+	private long hits;
+	private long misses;
+
+	public NaturalKeyCache(int maxSize) {
+		// accessOrder = true turns the LinkedHashMap into an LRU list
+		this.ids = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/*
+	 * Returns the ids for the given keys. Keys that are not cached are passed to the loader in one call;
+	 * keys the loader cannot find are absent from the result.
+	 */
+	public Map<String, Long> resolve(Collection<String> keys, Function<Set<String>, Map<String, Long>> loader) {
+		Map<String, Long> resolved = new HashMap<>();
+		Set<String> missing = new HashSet<>();
+
+		for (String key : keys) {
+			if (key == null || resolved.containsKey(key)) continue;
+			Long id = ids.get(key);
+			if (id != null) {
+				resolved.put(key, id);
+				hits++;
+			} else {
+				missing.add(key);
+			}
+		}
+
+		if (!missing.isEmpty()) {
+			misses += missing.size();
+			Map<String, Long> loaded = loader.apply(missing);
+			ids.putAll(loaded);
+			resolved.putAll(loaded);
+		}
+		return resolved;
+	}
+
+	public void put(String key, Long id) {
+		ids.put(key, id);
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.kelley.lsd.persistence.metrics;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Per-repository-method query metrics (see RepositoryMetricsInterceptor):
+ * - wraps the DataSource in QueryStatisticsDataSource, so statements and rows are counted
+ * - adds RepositoryMetricsInterceptor to every Spring Data repository proxy
+ * Entities are counted by QueryStatisticsEventListener, which Hibernate registers itself.
+ *
+ * Switch off with persistence.metrics.enabled=false. Slice tests (@DataJpaTest) do not load it unless imported.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "persistence.metrics.enabled", matchIfMissing = true)
+public class QueryMetricsConfiguration {
+	
+	@Bean
+	static BeanPostProcessor queryStatisticsDataSourcePostProcessor() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof DataSource dataSource && !(bean instanceof QueryStatisticsDataSource)) {
+					return new QueryStatisticsDataSource(dataSource);
+				}
+				return bean;
+			}
+		};
+	}
+	
+	// Before initialization, because the factory bean creates the repository proxy in afterPropertiesSet()
+	@Bean
+	static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessBeforeInitialization(Object bean, String beanName) {
+				if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+					factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+							(proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(new RepositoryMetricsInterceptor(
+									repositoryInformation.getRepositoryInterface(), meterRegistry))));
+				}
+				return bean;
+			}
+		};
+	}
+	
+}
@@ -0,0 +1,98 @@
+package com.kelley.lsd.persistence.metrics;
+
+import java.util.Locale;
+
+/*
+ * Counts the database work done on the current thread between open() and Scope.close():
+ * statements sent to the driver, how many of them were selects, rows read from result sets and
+ * entities Hibernate hydrated.
+ *
+ * The counts are fed by QueryStatisticsDataSource (statements and rows) and QueryStatisticsEventListener
+ * (entities). RepositoryMetricsInterceptor opens a scope around every repository call; tests can open one
+ * around any block of code, e.g. a finder plus the lazy loading that follows it.
+ *
+ * Scopes nest: closing an inner scope adds its counts to the enclosing one, so a repository call made from
+ * inside another is counted in both. Work on other threads (background purges, async exports) is not counted.
+ */
+public final class QueryStatistics {
+	
+	private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+	
+	private QueryStatistics() {}
+	
+	public record Counts(int statements, int selects, long rows, long entities) {
+		
+		@Override
+		public String toString() {
+			return "statements=" + statements + ", selects=" + selects + ", rows=" + rows + ", entities=" + entities;
+		}
+	}
+	
+	public static Scope open() {
+		Scope scope = new Scope(CURRENT.get());
+		CURRENT.set(scope);
+		return scope;
+	}
+	
+	public static final class Scope implements AutoCloseable {
+		
+		private final Scope parent;
+		
+		private int statements;
+		
+		private int selects;
+		
+		private long rows;
+		
+		private long entities;
+		
+		private boolean closed;
+		
+		private Scope(Scope parent) {
+			this.parent = parent;
+		}
+		
+		public Counts counts() {
+			return new Counts(statements, selects, rows, entities);
+		}
+		
+		// Scopes must be closed in the reverse order they were opened, as try-with-resources does
+		@Override
+		public void close() {
+			if (closed) return;
+			closed = true;
+			if (parent == null) {
+				CURRENT.remove();
+			} else {
+				CURRENT.set(parent);
+				parent.statements += statements;
+				parent.selects += selects;
+				parent.rows += rows;
+				parent.entities += entities;
+			}
+		}
+	}
+	
+	static void statementExecuted(String sql) {
+		Scope scope = CURRENT.get();
+		if (scope == null) return;
+		scope.statements++;
+		if (sql != null && isSelect(sql)) scope.selects++;
+	}
+	
+	static void rowRead() {
+		Scope scope = CURRENT.get();
+		if (scope != null) scope.rows++;
+	}
+	
+	static void entityLoaded() {
+		Scope scope = CURRENT.get();
+		if (scope != null) scope.entities++;
+	}
+	
+	private static boolean isSelect(String sql) {
+		String verb = sql.stripLeading().toLowerCase(Locale.ROOT);
+		return verb.startsWith("select") || verb.startsWith("with") || verb.startsWith("values");
+	}
+	
+}
@@ -0,0 +1,84 @@
+package com.kelley.lsd.persistence.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/*
+ * Reports every statement executed and every result set row read to QueryStatistics.
+ *
+ * Connections, statements and result sets are wrapped in JDK proxies, the same technique the tests'
+ * SqlStatementCounter uses. A batch counts as one statement, as it is one round trip. When no
+ * QueryStatistics scope is open on the thread the proxies only pass calls through.
+ */
+public class QueryStatisticsDataSource extends DelegatingDataSource {
+	
+	public QueryStatisticsDataSource(DataSource target) {
+		super(target);
+	}
+	
+	@Override
+	public Connection getConnection() throws SQLException {
+		return wrap(super.getConnection(), Connection.class, null);
+	}
+	
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return wrap(super.getConnection(username, password), Connection.class, null);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <T> T wrap(T target, Class<?> type, String sql) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new Handler(target, sql));
+	}
+	
+	/*
+	 * One handler for Connection, Statement and ResultSet proxies.
+	 * sql is the statement text for PreparedStatements, null otherwise.
+	 */
+	private record Handler(Object target, String sql) implements InvocationHandler {
+		
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			Object result;
+			try {
+				result = method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getTargetException();
+			}
+			
+			String name = method.getName();
+			if (target instanceof ResultSet) {
+				if (name.equals("next") && Boolean.TRUE.equals(result)) QueryStatistics.rowRead();
+				return result;
+			}
+			if (target instanceof Statement) {
+				switch (name) {
+					case "execute", "executeQuery", "executeUpdate", "executeLargeUpdate" ->
+						QueryStatistics.statementExecuted(args != null && args.length > 0 && args[0] instanceof String s ? s : sql);
+					case "executeBatch", "executeLargeBatch" -> QueryStatistics.statementExecuted(sql);
+					default -> {}
+				}
+				if (result instanceof ResultSet resultSet && (name.equals("executeQuery") || name.equals("getResultSet"))) {
+					return wrap(resultSet, ResultSet.class, null);
+				}
+				return result;
+			}
+			if (result instanceof Statement statement) {
+				String statementSql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+				return wrap(statement, method.getReturnType(), statementSql);
+			}
+			return result;
+		}
+	}
+	
+}
@@ -0,0 +1,16 @@
+package com.kelley.lsd.persistence.metrics;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+/*
+ * Reports every entity Hibernate hydrates, from a query, a lazy load or the second-level cache, to QueryStatistics.
+ */
+public class QueryStatisticsEventListener implements PostLoadEventListener {
+	
+	@Override
+	public void onPostLoad(PostLoadEvent event) {
+		QueryStatistics.entityLoaded();
+	}
+	
+}
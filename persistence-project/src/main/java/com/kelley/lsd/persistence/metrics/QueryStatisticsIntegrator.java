@@ -0,0 +1,27 @@
+package com.kelley.lsd.persistence.metrics;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/*
+ * Registers QueryStatisticsEventListener with every SessionFactory.
+ * Discovered by Hibernate through META-INF/services/org.hibernate.integrator.spi.Integrator.
+ */
+public class QueryStatisticsIntegrator implements Integrator {
+	
+	@Override
+	public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+		EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+		registry.appendListeners(EventType.POST_LOAD, new QueryStatisticsEventListener());
+	}
+	
+	@Override
+	public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+	}
+	
+}
@@ -0,0 +1,58 @@
+package com.kelley.lsd.persistence.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Added to every repository proxy by QueryMetricsConfiguration. Counts the statements, selects, rows and
+ * entities of each call (see QueryStatistics) and records them as distribution summaries tagged with the
+ * repository and method, next to Spring Boot's spring.data.repository.invocations timer for the same call.
+ *
+ * Only work done inside the call is counted. Lazy loading triggered afterwards, and rows read from a
+ * returned Stream, belong to the caller.
+ */
+class RepositoryMetricsInterceptor implements MethodInterceptor {
+	
+	static final String METRIC_PREFIX = "persistence.repository.";
+	
+	private final String repository;
+	
+	private final ObjectProvider<MeterRegistry> meterRegistry;
+	
+	RepositoryMetricsInterceptor(Class<?> repositoryInterface, ObjectProvider<MeterRegistry> meterRegistry) {
+		this.repository = repositoryInterface.getSimpleName();
+		this.meterRegistry = meterRegistry;
+	}
+	
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		try (QueryStatistics.Scope scope = QueryStatistics.open()) {
+			try {
+				return invocation.proceed();
+			} finally {
+				record(invocation.getMethod().getName(), scope.counts());
+			}
+		}
+	}
+	
+	private void record(String method, QueryStatistics.Counts counts) {
+		MeterRegistry registry = meterRegistry.getIfAvailable();
+		if (registry == null) return;
+		summary(registry, "statements", method).record(counts.statements());
+		summary(registry, "selects", method).record(counts.selects());
+		summary(registry, "rows", method).record(counts.rows());
+		summary(registry, "entities", method).record(counts.entities());
+	}
+	
+	private DistributionSummary summary(MeterRegistry registry, String name, String method) {
+		return DistributionSummary.builder(METRIC_PREFIX + name)
+				.tag("repository", repository)
+				.tag("method", method)
+				.register(registry);
+	}
+	
+}
@@ -0,0 +1,128 @@
+package com.kelley.lsd.persistence.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.type.SqlTypes;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/*
+ * A DONE task moved out of the task table by TaskArchiver. Same columns as Task, plus when it was archived.
+ *
+ * The task table, its indexes and the structures kept from it (task_count, the search, deadline and workload
+ * indexes) then only hold live tasks, and grow with active work rather than with all the work ever done.
+ * Archived tasks are read through ArchivedTaskRepository only, and are never changed.
+ *
+ * The id and uuid are the ones the task had, so links to an archived task can still be followed.
+ * The foreign keys are ON DELETE in the database: deleting a campaign (by any of the bulk paths, which never load
+ * archived tasks) removes its archived tasks with it, and deleting a worker leaves their archived tasks unassigned.
+ * db/task-archive.sql creates the table in an existing database.
+ */
+@Entity
+@Immutable
+@Table(name = "archived_task", indexes = {
+	@Index(name = "idx_archived_task_campaign_due_date", columnList = "campaign_id, due_date, id"),
+	@Index(name = "idx_archived_task_assignee", columnList = "assignee_id")
+})
+public class ArchivedTask {
+	
+	@Id
+	private Long id;
+	
+	@JdbcTypeCode(SqlTypes.UUID)
+	@Column(unique = true, nullable = false, updatable = false)
+	private UUID uuid;
+	
+	private long version;
+	
+	private String name;
+	
+	private String description;
+	
+	private LocalDate dueDate;
+	
+	private TaskStatus status;
+	
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
+	@OnDelete(action = OnDeleteAction.CASCADE)
+	private Campaign campaign;
+	
+	/*
+	 * The same column again, so that ArchivedTaskRepository can filter on it directly.
+	 * Filtering on campaign.id makes Spring Data join the campaign table first, and H2 then reads the archive without its index.
+	 */
+	@Column(name = "campaign_id", insertable = false, updatable = false)
+	private Long campaignId;
+	
+	@ManyToOne(fetch = FetchType.LAZY)
+	@OnDelete(action = OnDeleteAction.SET_NULL)
+	private Worker assignee;
+	
+	@Column(nullable = false)
+	private Instant archivedAt;
+	
+	protected ArchivedTask() {}
+	
+	@Override
+	public String toString() {
+		return "ArchivedTask [id=" + id + ", name=" + name + ", dueDate=" + dueDate + ", status=" + status
+				+ ", archivedAt=" + archivedAt + "]";
+	}
+	
+	public Long getId() {
+		return id;
+	}
+	
+	public UUID getUuid() {
+		return uuid;
+	}
+	
+	public long getVersion() {
+		return version;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public String getDescription() {
+		return description;
+	}
+	
+	public LocalDate getDueDate() {
+		return dueDate;
+	}
+	
+	public TaskStatus getStatus() {
+		return status;
+	}
+	
+	public Campaign getCampaign() {
+		return campaign;
+	}
+	
+	public Long getCampaignId() {
+		return campaignId;
+	}
+	
+	public Worker getAssignee() {
+		return assignee;
+	}
+	
+	public Instant getArchivedAt() {
+		return archivedAt;
+	}
+	
+}
@@ -4,27 +4,60 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
+import com.kelley.lsd.persistence.search.SearchIndexEntityListener;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 
+/*
+ * Named fetch plans for callers that need the tasks collection loaded up front.
+ * Repository methods opt in with @EntityGraph("Campaign.tasks"); everything else leaves the collection lazy.
+ */
+@NamedEntityGraph(name = "Campaign.tasks", attributeNodes = @NamedAttributeNode("tasks"))
+@NamedEntityGraph(name = "Campaign.tasksAndAssignees",
+	attributeNodes = @NamedAttributeNode(value = "tasks", subgraph = "tasks"),
+	subgraphs = @NamedSubgraph(name = "tasks", attributeNodes = @NamedAttributeNode("assignee")))
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "campaign")
+@NaturalIdCache(region = "campaign-natural-id")
+// Task.campaign is lazy too; missing campaigns are loaded in batches like workers (see Worker)
+@BatchSize(size = 50)
+@EntityListeners(SearchIndexEntityListener.class)
+// Serves the exact-name and name-prefix finders. code already has an index through its unique constraint.
+@Table(indexes = @Index(name = "idx_campaign_name", columnList = "name"))
 public class Campaign {
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "campaign_seq")
+	@SequenceGenerator(name = "campaign_seq", sequenceName = "campaign_seq", allocationSize = 50)
 	private Long id;
 	
 	/*
 	 * See Task class for notes on Natural ID.
 	 * Code will be the Campaign's business key.
+	 * 
+	 * Campaigns are read far more often than they change, so they are kept in the second-level cache (@Cache above).
+	 * @NaturalIdCache additionally caches code -> id, so CampaignRepository.findByCodeEquals can be answered
+	 * from memory without any SQL once the cache is warm (see CampaignRepositoryCustom).
 	 */
 	@NaturalId
 	@Column(unique = true, nullable = false, updatable = false)
@@ -38,10 +71,16 @@ public class Campaign {
 	 * Adding relationship to Task entity using @OneToMany annotation:
 	 * 1) Tasks should have a "campaign" field, which we are mapping to.
 	 * 2) If a Task is removed from the Campaign's list, that Task is removed from the database.
-	 * 3) Task entities are loaded immediately, regardless of whether they are currently needed.
+	 * 3) Task entities are loaded lazily, the first time the collection is accessed inside a transaction.
+	 *    Loading them eagerly meant every campaign query also fetched every task of every matching campaign.
+	 *    Use the "Campaign.tasks" entity graph (see CampaignRepository) when the tasks are needed.
 	 * 4) If a Campaign is persisted or removed, all associated Tasks are also persisted or removed.
+	 * 
+	 * @BatchSize lets Hibernate initialize the tasks of up to 50 campaigns with one IN query
+	 * instead of one query per campaign when iterating over a list of campaigns.
 	 */
-	@OneToMany(mappedBy="campaign", orphanRemoval=true, fetch=FetchType.EAGER, cascade = CascadeType.ALL)
+	@OneToMany(mappedBy="campaign", orphanRemoval=true, fetch=FetchType.LAZY, cascade = CascadeType.ALL)
+	@BatchSize(size = 50)
 	private Set<Task> tasks = new HashSet<>();
 	
 	public Campaign() {}
@@ -60,10 +99,10 @@ public class Campaign {
 		this.description = description;
 	}
 
+	// Tasks are left out on purpose: printing them would initialize the lazy collection (or fail outside a transaction).
 	@Override
 	public String toString() {
-		return "Campaign [id=" + id + ", code=" + code + ", name=" + name + ", description=" + description + ", tasks="
-				+ tasks + "]";
+		return "Campaign [id=" + id + ", code=" + code + ", name=" + name + ", description=" + description + "]";
 	}
 
 	public Long getId() {
@@ -0,0 +1,11 @@
+package com.kelley.lsd.persistence.model;
+
+/*
+ * What happened to an entity, as recorded in the outbox (see OutboxEntry).
+ * Stored by ordinal, like TaskStatus: only add new values at the end.
+ */
+public enum ChangeOperation {
+	INSERT,
+	UPDATE,
+	DELETE;
+}
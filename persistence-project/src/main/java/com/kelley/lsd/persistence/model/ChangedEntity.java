@@ -0,0 +1,20 @@
+package com.kelley.lsd.persistence.model;
+
+/*
+ * The entity types whose changes are recorded in the outbox (see OutboxEntry).
+ * Stored by ordinal, like TaskStatus: only add new values at the end.
+ */
+public enum ChangedEntity {
+	CAMPAIGN,
+	TASK,
+	WORKER;
+	
+	// The type an entity class is recorded as, or null if its changes are not recorded
+	public static ChangedEntity of(Class<?> entityClass) {
+		if (entityClass == Campaign.class) return CAMPAIGN;
+		if (entityClass == Task.class) return TASK;
+		if (entityClass == Worker.class) return WORKER;
+		return null;
+	}
+	
+}
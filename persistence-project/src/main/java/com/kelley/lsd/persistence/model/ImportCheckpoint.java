@@ -0,0 +1,65 @@
+package com.kelley.lsd.persistence.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/*
+ * Records how far a bulk import job has got.
+ * The checkpoint is written in the same transaction as each chunk of imported rows, so after a crash
+ * lastCommittedRow is exactly the number of rows whose data is in the database and the job can resume from there.
+ */
+@Entity
+public class ImportCheckpoint {
+	
+	// Caller-supplied job name, e.g. "tasks-2025-01.csv"
+	@Id
+	private String jobName;
+	
+	private long lastCommittedRow;
+	
+	private boolean completed;
+	
+	private Instant updatedAt;
+	
+	public ImportCheckpoint() {}
+	
+	public ImportCheckpoint(String jobName) {
+		this.jobName = jobName;
+		this.updatedAt = Instant.now();
+	}
+
+	public String getJobName() {
+		return jobName;
+	}
+
+	public long getLastCommittedRow() {
+		return lastCommittedRow;
+	}
+
+	public void setLastCommittedRow(long lastCommittedRow) {
+		this.lastCommittedRow = lastCommittedRow;
+		this.updatedAt = Instant.now();
+	}
+
+	public boolean isCompleted() {
+		return completed;
+	}
+
+	public void setCompleted(boolean completed) {
+		this.completed = completed;
+		this.updatedAt = Instant.now();
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+
+	@Override
+	public String toString() {
+		return "ImportCheckpoint [jobName=" + jobName + ", lastCommittedRow=" + lastCommittedRow + ", completed="
+				+ completed + ", updatedAt=" + updatedAt + "]";
+	}
+	
+}
@@ -0,0 +1,47 @@
+package com.kelley.lsd.persistence.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/*
+ * A downstream system reading the change feed, and the last outbox sequence number it has processed.
+ * ChangeFeed deletes outbox entries once every registered consumer has acknowledged them.
+ */
+@Entity
+public class OutboxConsumer {
+	
+	// Caller-supplied, e.g. "search-mirror"
+	@Id
+	private String name;
+	
+	private long acknowledged;
+	
+	private Instant updatedAt;
+	
+	protected OutboxConsumer() {}
+	
+	public OutboxConsumer(String name, long acknowledged) {
+		this.name = name;
+		acknowledge(acknowledged);
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public long getAcknowledged() {
+		return acknowledged;
+	}
+	
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+	
+	public void acknowledge(long sequenceNumber) {
+		this.acknowledged = sequenceNumber;
+		this.updatedAt = Instant.now();
+	}
+	
+}
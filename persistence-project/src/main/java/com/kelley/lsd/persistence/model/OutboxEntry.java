@@ -0,0 +1,79 @@
+package com.kelley.lsd.persistence.model;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/*
+ * One committed change to a Campaign, Task or Worker: the transactional outbox read by ChangeFeed.
+ *
+ * Rows are written by OutboxEventListener in the same transaction as the change itself, so an entry exists if and
+ * only if its change was committed. Only the entity's id is recorded, not its state: a consumer reads the current
+ * state of whatever changed, so several changes to one entity cost one read.
+ *
+ * The sequence number orders the entries and is the change feed's cursor. It comes from outbox_seq through the
+ * same pooled generator Hibernate would use, but is assigned by OutboxEventListener just before commit rather than
+ * on persist; the table is never written through this entity. A transaction usually writes many entries at once,
+ * so the generator reserves 1000 numbers per round trip rather than Task's 50.
+ *
+ * db/outbox.sql creates the tables in an existing database.
+ */
+@Entity
+@Immutable
+@Table(name = "outbox_entry")
+public class OutboxEntry {
+	
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+	@SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 1000)
+	private Long sequenceNumber;
+	
+	@Column(nullable = false)
+	private ChangedEntity entityType;
+	
+	@Column(nullable = false)
+	private long entityId;
+	
+	@Column(nullable = false)
+	private ChangeOperation operation;
+	
+	@Column(nullable = false)
+	private Instant changedAt;
+	
+	protected OutboxEntry() {}
+	
+	public Long getSequenceNumber() {
+		return sequenceNumber;
+	}
+	
+	public ChangedEntity getEntityType() {
+		return entityType;
+	}
+	
+	public long getEntityId() {
+		return entityId;
+	}
+	
+	public ChangeOperation getOperation() {
+		return operation;
+	}
+	
+	public Instant getChangedAt() {
+		return changedAt;
+	}
+	
+	@Override
+	public String toString() {
+		return "OutboxEntry [sequenceNumber=" + sequenceNumber + ", entityType=" + entityType + ", entityId=" + entityId
+				+ ", operation=" + operation + "]";
+	}
+	
+}
@@ -4,20 +4,55 @@ import java.time.LocalDate;
 import java.util.Objects;
 import java.util.UUID;
 
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.NaturalId;
+import org.hibernate.type.SqlTypes;
+
+import com.kelley.lsd.persistence.deadline.DeadlineEntityListener;
+import com.kelley.lsd.persistence.search.SearchIndexEntityListener;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
-
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+/*
+ * Secondary indexes for the TaskRepository finders:
+ * - (status, due_date, id) serves findByDueDateBeforeAndStatusEquals: equality on status, then a range on due_date,
+ *   with id so the keyset-scrolled variant can read rows in (dueDate, id) order straight from the index.
+ * - (due_date, id) serves findByDueDateGreaterThan and its keyset-scrolled variant.
+ * - assignee_id and campaign_id are the foreign keys, used for joins and for loading a campaign's tasks.
+ *   H2 indexes foreign keys on its own, but most databases do not, so they are declared explicitly.
+ * RepositoryQueryPlanIntegrationTest checks these are actually used.
+ */
 @Entity
+@EntityListeners({ SearchIndexEntityListener.class, DeadlineEntityListener.class })
+@Table(indexes = {
+	@Index(name = "idx_task_status_due_date", columnList = "status, due_date, id"),
+	@Index(name = "idx_task_due_date", columnList = "due_date, id"),
+	@Index(name = "idx_task_assignee", columnList = "assignee_id"),
+	@Index(name = "idx_task_campaign", columnList = "campaign_id")
+})
 public class Task {
 	
+	/*
+	 * IDENTITY generation forces Hibernate to execute each INSERT immediately to learn the generated key,
+	 * which silently disables JDBC batching. A sequence with a pooled optimizer lets Hibernate reserve
+	 * a block of ids (allocationSize) with a single round trip and batch the inserts at flush time.
+	 * allocationSize matches hibernate.jdbc.batch_size in application.properties.
+	 * Campaign and Worker use the same strategy with their own sequences.
+	 */
 	@Id
-	@GeneratedValue(strategy=GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+	@SequenceGenerator(name = "task_seq", sequenceName = "task_seq", allocationSize = 50)
 	public Long id;
 	
 	/*
@@ -26,16 +61,38 @@ public class Task {
 	 * the instance in the real world.
 	 * The @Id id above is only generated when persisted in the dataabase. Before persistence, it is null.
 	 * If we used this, then instances might be considered equal when they are clearly not. 
-	 * For Tasks, we will use a random UUID, and we can mark it with the @NaturalId annotation. 
-	 * Spring Data JPA doesn't provide functionality for this annotation. It is just being used here
-	 * for readability.
+	 * For Tasks, we will use a UUID, and we can mark it with the @NaturalId annotation. 
+	 * Spring Data JPA doesn't provide functionality for this annotation. Here it is just being used
+	 * for readability; Campaign and Worker use it with Hibernate's natural-id cache.
+	 * 
+	 * The UUID is stored in a native 16-byte UUID column (BINARY(16) on databases without one) rather than as
+	 * 36 characters of text, which more than halves the unique index. It is a time-ordered version 7 UUID
+	 * (see TimeOrderedUuids), so bulk inserts append to the index instead of splitting pages all over it.
+	 * It is still assigned when the object is created, so equals() and hashCode() work before persist.
+	 * db/task-uuid-to-binary.sql converts an existing varchar column.
 	 */
 	@NaturalId
+	@JdbcTypeCode(SqlTypes.UUID)
 	@Column(unique = true, nullable = false, updatable = false)
-	private String uuid = UUID.randomUUID().toString();
+	private UUID uuid = TimeOrderedUuids.next();
+	
+	/*
+	 * Optimistic locking. Hibernate adds "and version = ?" to every UPDATE and DELETE of a task and fails with
+	 * an OptimisticLockException if another transaction changed the row since it was read, instead of silently
+	 * overwriting that change. The bulk status transitions in TaskRepositoryCustom increment it as well.
+	 * db/task-add-version.sql adds the column to an existing database.
+	 */
+	@Version
+	private long version;
 	
 	private String name;
 	
+	/*
+	 * Not @Basic(fetch = LAZY), although the build enhances Task for it (see the hibernate-enhance-maven-plugin in
+	 * pom.xml). The column is a VARCHAR(255), not a LOB, and every reader of whole tasks (the REST responses, the
+	 * export) shows it, so lazy loading would only add a SELECT per task. A large text column would be mapped
+	 * lazy, in a @LazyGroup of its own.
+	 */
 	private String description;
 	
 	private LocalDate dueDate;
@@ -45,8 +102,15 @@ public class Task {
 	/*
 	 * Other side of relationship with campaign.
 	 * Many tasks can be associated with a single campaign.
+	 *
+	 * Lazy, like assignee below: loading a task no longer loads its campaign and assignee as well. Task is
+	 * bytecode enhanced, so the reference is not a proxy; getCampaign() loads the campaign on first access (from the
+	 * second-level cache when it is there), and getCampaign().getId() is answered without loading it. The finders
+	 * that return tasks for display fetch both in the same query (see TaskRepository). Reading them, or replacing
+	 * them (the enhanced setter compares the old value with equals()), on a task loaded outside such a finder
+	 * needs an open persistence context.
 	 */
-	@ManyToOne(optional=false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	private Campaign campaign;
 	
 	/*
@@ -54,7 +118,7 @@ public class Task {
 	 * Worker entity instances do not contain a Set of Tasks instances, unlike Campaign instances.
 	 * Based on the domain/business rules defined for this application, this is the best approach.
 	 */
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	private Worker assignee;
 	
 	public Task() {}
@@ -93,11 +157,15 @@ public class Task {
 		return id;
 	}
 	
-	public String getUuid() {
+	public long getVersion() {
+		return version;
+	}
+	
+	public UUID getUuid() {
 		return uuid;
 	}
 	
-	public void setUuid(String uuid) {
+	public void setUuid(UUID uuid) {
 		this.uuid = uuid;
 	}
 
@@ -0,0 +1,37 @@
+package com.kelley.lsd.persistence.model;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+
+/*
+ * Materialized aggregate: the number of tasks per (due year, campaign, status).
+ *
+ * Dashboard counts read these rows, so they cost one row per group instead of a scan over every task.
+ * The table is never written through this entity. TaskCountEventListener adds the changes of each transaction
+ * just before it commits, and TaskCountReconciler can verify it against the task table or rebuild it.
+ * Tasks without a due date or status are not counted.
+ */
+@Entity
+public class TaskCount {
+	
+	@EmbeddedId
+	private TaskCountKey id;
+	
+	private long total;
+	
+	public TaskCount() {}
+	
+	public TaskCountKey getId() {
+		return id;
+	}
+	
+	public long getTotal() {
+		return total;
+	}
+	
+	@Override
+	public String toString() {
+		return "TaskCount [id=" + id + ", total=" + total + "]";
+	}
+	
+}
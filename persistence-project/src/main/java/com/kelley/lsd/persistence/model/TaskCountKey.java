@@ -0,0 +1,63 @@
+package com.kelley.lsd.persistence.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import jakarta.persistence.Embeddable;
+
+/*
+ * Primary key of TaskCount: one group of tasks.
+ * campaignId is a plain column rather than an association, so that deleting a campaign never has to wait for
+ * (or be blocked by a foreign key from) its aggregate rows.
+ */
+@Embeddable
+public class TaskCountKey implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Integer dueYear;
+	
+	private Long campaignId;
+	
+	private TaskStatus status;
+	
+	public TaskCountKey() {}
+	
+	public TaskCountKey(Integer dueYear, Long campaignId, TaskStatus status) {
+		this.dueYear = dueYear;
+		this.campaignId = campaignId;
+		this.status = status;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (!(obj instanceof TaskCountKey other)) return false;
+		
+		return Objects.equals(dueYear, other.dueYear) && Objects.equals(campaignId, other.campaignId)
+				&& status == other.status;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(dueYear, campaignId, status);
+	}
+	
+	@Override
+	public String toString() {
+		return "TaskCountKey [dueYear=" + dueYear + ", campaignId=" + campaignId + ", status=" + status + "]";
+	}
+	
+	public Integer getDueYear() {
+		return dueYear;
+	}
+	
+	public Long getCampaignId() {
+		return campaignId;
+	}
+	
+	public TaskStatus getStatus() {
+		return status;
+	}
+	
+}
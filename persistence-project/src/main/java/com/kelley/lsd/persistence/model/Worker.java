@@ -2,21 +2,39 @@ package com.kelley.lsd.persistence.model;
 
 import java.util.Objects;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "worker")
+@NaturalIdCache(region = "worker-natural-id")
+/*
+ * Task.assignee is lazy. When the assignees of tasks that a query did not fetch are read, Hibernate loads
+ * the missing workers up to 50 ids per IN query rather than one SELECT per worker.
+ */
+@BatchSize(size = 50)
+// Serves TaskRepository.findByAssigneeFirstName, which joins task to worker on first_name.
+@Table(indexes = @Index(name = "idx_worker_first_name", columnList = "first_name"))
 public class Worker {
 	
 	@Id
-	@GeneratedValue(strategy=GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "worker_seq")
+	@SequenceGenerator(name = "worker_seq", sequenceName = "worker_seq", allocationSize = 50)
 	private Long id;
 	
+	// Cached like Campaign.code: WorkerRepository.findByEmail resolves email -> id -> Worker from the second-level cache.
 	@NaturalId
 	@Column(unique=true, nullable=false, updatable=false)
 	private String email;
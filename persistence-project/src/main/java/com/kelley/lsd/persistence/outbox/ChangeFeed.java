@@ -0,0 +1,151 @@
+package com.kelley.lsd.persistence.outbox;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.kelley.lsd.persistence.model.ChangeOperation;
+import com.kelley.lsd.persistence.model.ChangedEntity;
+import com.kelley.lsd.persistence.model.OutboxConsumer;
+import com.kelley.lsd.persistence.replica.ReplicaRouting;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Reads committed Campaign, Task and Worker changes from the outbox (see OutboxEntry) in sequence order.
+ *
+ * A consumer keeps the sequence number of the last change it has processed and asks for the changes after it,
+ * a batch at a time, through the primary key. What a sync costs then depends on how much has changed since the
+ * last one, not on the size of the tables; findAll() is only needed for the initial copy. Taking the cursor from
+ * head() before that copy means no change made during it is missed.
+ *
+ * Consumers that acknowledge what they have processed are registered as OutboxConsumers, and compact() deletes the
+ * entries every one of them has acknowledged, a batch per transaction. Without any registered consumer nothing is
+ * deleted, so a consumer that is no longer needed should be removed.
+ */
+@Service
+public class ChangeFeed {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(ChangeFeed.class);
+	
+	public record Change(long sequenceNumber, ChangedEntity entityType, long entityId, ChangeOperation operation,
+			Instant changedAt) {}
+	
+	// next is the cursor for the following read: the last change's sequence number, or the given one if there were none
+	public record ChangeBatch(List<Change> changes, long next, boolean hasMore) {}
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	private final TransactionTemplate transaction;
+	
+	private final TransactionTemplate batchTransaction;
+	
+	private final int compactionBatchSize;
+	
+	public ChangeFeed(PlatformTransactionManager transactionManager,
+			@Value("${persistence.outbox.compaction-batch-size:5000}") int compactionBatchSize) {
+		// Not read-only: visibleBelow() may have to take a sequence number
+		this.transaction = new TransactionTemplate(transactionManager);
+		this.batchTransaction = new TransactionTemplate(transactionManager);
+		this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.compactionBatchSize = compactionBatchSize;
+	}
+	
+	/*
+	 * Up to limit changes with a sequence number above after. Read from the primary: a replica may not have all of
+	 * the entries below visibleBelow() yet, and a consumer would skip the ones it lacks.
+	 */
+	public ChangeBatch read(long after, int limit) {
+		return ReplicaRouting.onPrimary(() -> transaction.execute(status -> {
+			List<Change> changes = entityManager.createQuery("select new com.kelley.lsd.persistence.outbox.ChangeFeed$Change("
+					+ "e.sequenceNumber, e.entityType, e.entityId, e.operation, e.changedAt) from OutboxEntry e "
+					+ "where e.sequenceNumber > :after and e.sequenceNumber < :visibleBelow order by e.sequenceNumber", Change.class)
+					.setParameter("after", after)
+					.setParameter("visibleBelow", visibleBelow())
+					.setMaxResults(limit + 1)
+					.getResultList();
+			boolean hasMore = changes.size() > limit;
+			if (hasMore) changes = changes.subList(0, limit);
+			return new ChangeBatch(changes, changes.isEmpty() ? after : changes.getLast().sequenceNumber(), hasMore);
+		}));
+	}
+	
+	/*
+	 * A cursor from which read() returns every change committed from now on.
+	 */
+	public long head() {
+		return ReplicaRouting.onPrimary(() -> transaction.execute(status -> visibleBelow() - 1));
+	}
+	
+	/*
+	 * Records that the consumer has processed every change up to the sequence number. A consumer is registered by its
+	 * first acknowledgement; its position never moves back.
+	 */
+	public void acknowledge(String consumer, long sequenceNumber) {
+		transaction.executeWithoutResult(status -> {
+			OutboxConsumer existing = entityManager.find(OutboxConsumer.class, consumer);
+			if (existing == null) {
+				entityManager.persist(new OutboxConsumer(consumer, sequenceNumber));
+			} else if (sequenceNumber > existing.getAcknowledged()) {
+				existing.acknowledge(sequenceNumber);
+			}
+		});
+	}
+	
+	// Returns whether the consumer was registered
+	public boolean removeConsumer(String consumer) {
+		return Boolean.TRUE.equals(transaction.execute(status -> entityManager.createQuery("delete from OutboxConsumer c where c.name = :name")
+				.setParameter("name", consumer)
+				.executeUpdate() > 0));
+	}
+	
+	/*
+	 * Deletes the entries every registered consumer has acknowledged, and returns how many.
+	 */
+	@Scheduled(fixedDelayString = "${persistence.outbox.compaction-interval:PT1M}",
+			initialDelayString = "${persistence.outbox.compaction-interval:PT1M}")
+	public long compact() {
+		Long acknowledged = transaction.execute(status -> entityManager.createQuery(
+				"select min(c.acknowledged) from OutboxConsumer c", Long.class).getSingleResult());
+		if (acknowledged == null) return 0;
+		
+		long compacted = 0;
+		int deleted;
+		do {
+			deleted = batchTransaction.execute(status -> deleteBatch(acknowledged));
+			compacted += deleted;
+		} while (deleted == compactionBatchSize);
+		
+		if (compacted > 0) LOG.debug("Compacted {} outbox entries up to {}", compacted, acknowledged);
+		return compacted;
+	}
+	
+	private int deleteBatch(long upTo) {
+		List<Long> batch = entityManager.createQuery("select e.sequenceNumber from OutboxEntry e "
+				+ "where e.sequenceNumber <= :upTo order by e.sequenceNumber", Long.class)
+				.setParameter("upTo", upTo)
+				.setMaxResults(compactionBatchSize)
+				.getResultList();
+		if (batch.isEmpty()) return 0;
+		return entityManager.createQuery("delete from OutboxEntry e where e.sequenceNumber <= :last")
+				.setParameter("last", batch.getLast())
+				.executeUpdate();
+	}
+	
+	private long visibleBelow() {
+		SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+		return OutboxEventListener.of(session.getFactory()).visibleBelow(session);
+	}
+	
+}
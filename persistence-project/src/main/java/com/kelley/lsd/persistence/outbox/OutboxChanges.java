@@ -0,0 +1,79 @@
+package com.kelley.lsd.persistence.outbox;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.Session;
+
+import com.kelley.lsd.persistence.model.ChangeOperation;
+import com.kelley.lsd.persistence.model.ChangedEntity;
+
+/**
+ * The outbox entries one transaction will write, at most one per entity.
+ *
+ * Changes to the same entity are combined as they arrive: an insert followed by updates is still an insert, an
+ * update followed by a delete is a delete, and an entity inserted and deleted again never appears at all. Entries
+ * keep the order in which their entities were first changed. write() inserts them all as one JDBC batch.
+ */
+public class OutboxChanges {
+	
+	private static final String INSERT = "insert into outbox_entry (sequence_number, entity_type, entity_id, operation, changed_at) "
+			+ "values (?, ?, ?, ?, ?)";
+	
+	private record Key(ChangedEntity entityType, long entityId) {}
+	
+	private final Map<Key, ChangeOperation> changes = new LinkedHashMap<>();
+	
+	public void add(ChangedEntity entityType, long entityId, ChangeOperation operation) {
+		changes.merge(new Key(entityType, entityId), operation, OutboxChanges::combine);
+	}
+	
+	public boolean isEmpty() {
+		return changes.isEmpty();
+	}
+	
+	public int size() {
+		return changes.size();
+	}
+	
+	// null removes the entry
+	private static ChangeOperation combine(ChangeOperation earlier, ChangeOperation later) {
+		if (earlier == ChangeOperation.INSERT) return later == ChangeOperation.DELETE ? null : ChangeOperation.INSERT;
+		if (earlier == ChangeOperation.DELETE && later == ChangeOperation.INSERT) return ChangeOperation.UPDATE;
+		return later;
+	}
+	
+	/*
+	 * Writes the entries, numbered in order from sequenceNumbers (one per entry), and clears them.
+	 */
+	public void write(Session session, long[] sequenceNumbers) {
+		if (changes.isEmpty()) return;
+		OffsetDateTime changedAt = OffsetDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
+		session.doWork(connection -> {
+			try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+				int next = 0;
+				for (Map.Entry<Key, ChangeOperation> change : changes.entrySet()) {
+					bind(insert, sequenceNumbers[next++], change.getKey(), change.getValue(), changedAt);
+					insert.addBatch();
+				}
+				insert.executeBatch();
+			}
+		});
+		changes.clear();
+	}
+	
+	private static void bind(PreparedStatement insert, long sequenceNumber, Key key, ChangeOperation operation,
+			OffsetDateTime changedAt) throws SQLException {
+		insert.setLong(1, sequenceNumber);
+		insert.setInt(2, key.entityType().ordinal());
+		insert.setLong(3, key.entityId());
+		insert.setInt(4, operation.ordinal());
+		insert.setObject(5, changedAt);
+	}
+	
+}
@@ -0,0 +1,156 @@
+package com.kelley.lsd.persistence.outbox;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.persister.entity.EntityPersister;
+
+import com.kelley.lsd.persistence.model.ChangeOperation;
+import com.kelley.lsd.persistence.model.ChangedEntity;
+import com.kelley.lsd.persistence.model.OutboxEntry;
+
+import jakarta.persistence.EntityManager;
+
+/*
+ * Records every insert, update and delete of a Campaign, Task or Worker in the outbox (see OutboxEntry), in the same
+ * transaction, the way TaskCountEventListener keeps task_count: changes are collected per session in OutboxChanges,
+ * and a before-completion process writes them as one JDBC batch once the final flush has run, just before commit.
+ * Code that changes these entities with bulk JPQL bypasses the events and must call record() in the same transaction.
+ *
+ * Sequence numbers are handed out in the before-completion process, but transactions do not commit in that order:
+ * while one that took numbers 100-120 is still committing, another may already have committed 121. A reader that
+ * went on from 121 would never see 100-120. So the numbers of each transaction count as in flight until it has
+ * committed or rolled back, and ChangeFeed only reads entries below visibleBelow(), the first number still in flight.
+ * The in-flight numbers are only known to this process: the change feed must be read from the instance that writes,
+ * like the other in-memory structures here (SearchIndex, WorkloadIndex).
+ *
+ * Registered by OutboxIntegrator.
+ */
+public class OutboxEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+	
+	private final Map<SharedSessionContractImplementor, OutboxChanges> pending = new ConcurrentHashMap<>();
+	
+	// First sequence number of every transaction that has written its entries but not yet finished; guarded by this
+	private final NavigableSet<Long> inFlight = new TreeSet<>();
+	
+	// Highest sequence number handed out so far by this process, 0 before the first; guarded by this
+	private long lastAllocated;
+	
+	private volatile BeforeExecutionGenerator sequence;
+	
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		add(event.getSession(), event.getPersister(), event.getId(), ChangeOperation.INSERT);
+	}
+	
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		add(event.getSession(), event.getPersister(), event.getId(), ChangeOperation.UPDATE);
+	}
+	
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		add(event.getSession(), event.getPersister(), event.getId(), ChangeOperation.DELETE);
+	}
+	
+	@Override
+	public boolean requiresPostCommitHandling(EntityPersister persister) {
+		return false;
+	}
+	
+	private void add(EventSource session, EntityPersister persister, Object id, ChangeOperation operation) {
+		ChangedEntity entityType = ChangedEntity.of(persister.getMappedClass());
+		if (entityType == null) return;
+		changes(session).add(entityType, (Long) id, operation);
+	}
+	
+	/*
+	 * Records changes made with bulk JPQL, which raises no entity events. Call inside the transaction that makes them.
+	 */
+	public static void record(EntityManager entityManager, ChangedEntity entityType, ChangeOperation operation,
+			Collection<Long> ids) {
+		if (ids.isEmpty()) return;
+		EventSource session = entityManager.unwrap(EventSource.class);
+		OutboxChanges changes = of(session.getFactory()).changes(session);
+		ids.forEach(id -> changes.add(entityType, id, operation));
+	}
+	
+	public static OutboxEventListener of(SessionFactoryImplementor sessionFactory) {
+		for (Object listener : sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class).getEventListenerGroup(EventType.POST_INSERT).listeners()) {
+			if (listener instanceof OutboxEventListener outbox) return outbox;
+		}
+		throw new IllegalStateException("No OutboxEventListener registered; see OutboxIntegrator");
+	}
+	
+	/*
+	 * Every entry numbered below this has been committed or rolled back. The session is needed to take a sequence
+	 * number when this process has not handed one out yet.
+	 */
+	public synchronized long visibleBelow(SharedSessionContractImplementor session) {
+		if (!inFlight.isEmpty()) return inFlight.first();
+		if (lastAllocated == 0) lastAllocated = nextSequenceNumber(session);
+		return lastAllocated + 1;
+	}
+	
+	private OutboxChanges changes(EventSource session) {
+		return pending.computeIfAbsent(session, s -> {
+			OutboxChanges changes = new OutboxChanges();
+			long[] first = new long[1];
+			session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) completing -> {
+				pending.remove(s);
+				if (changes.isEmpty()) return;
+				long[] sequenceNumbers = allocate(completing, changes.size());
+				first[0] = sequenceNumbers[0];
+				changes.write(completing, sequenceNumbers);
+			});
+			session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completed) -> {
+				pending.remove(s);
+				if (first[0] != 0) finished(first[0]);
+			});
+			return changes;
+		});
+	}
+	
+	private synchronized long[] allocate(SharedSessionContractImplementor session, int count) {
+		long[] sequenceNumbers = new long[count];
+		for (int i = 0; i < count; i++) {
+			sequenceNumbers[i] = nextSequenceNumber(session);
+		}
+		lastAllocated = sequenceNumbers[count - 1];
+		inFlight.add(sequenceNumbers[0]);
+		return sequenceNumbers;
+	}
+	
+	private synchronized void finished(long firstSequenceNumber) {
+		inFlight.remove(firstSequenceNumber);
+	}
+	
+	// outbox_seq through OutboxEntry's pooled generator: one round trip per 1000 numbers
+	private long nextSequenceNumber(SharedSessionContractImplementor session) {
+		BeforeExecutionGenerator generator = sequence;
+		if (generator == null) {
+			generator = (BeforeExecutionGenerator) session.getFactory().getMappingMetamodel()
+					.getEntityDescriptor(OutboxEntry.class).getGenerator();
+			sequence = generator;
+		}
+		return ((Number) generator.generate(session, null, null, org.hibernate.generator.EventType.INSERT)).longValue();
+	}
+	
+}
@@ -0,0 +1,13 @@
+package com.kelley.lsd.persistence.projection;
+
+/**
+ * Interface-based projection: Spring Data selects only the columns behind these getters.
+ * Useful for derived queries, where a JPQL constructor expression cannot be written by hand.
+ */
+public interface CampaignHeader {
+	
+	String getCode();
+	
+	String getName();
+	
+}
@@ -0,0 +1,23 @@
+package com.kelley.lsd.persistence.projection;
+
+import com.kelley.lsd.persistence.model.TaskStatus;
+
+/**
+ * A campaign with the number of its tasks in each status.
+ *
+ * Built by a single GROUP BY query (see CampaignRepository.findSummaryByCode) through a JPQL constructor
+ * expression. No Campaign or Task entity is loaded, so nothing enters the persistence context and there is
+ * no snapshot to dirty-check at flush.
+ */
+public record CampaignSummary(String code, String name, long totalTasks, long toDo, long inProgress, long onHold, long done) {
+	
+	public long count(TaskStatus status) {
+		return switch (status) {
+			case TO_DO -> toDo;
+			case IN_PROGRESS -> inProgress;
+			case ON_HOLD -> onHold;
+			case DONE -> done;
+		};
+	}
+	
+}
@@ -0,0 +1,7 @@
+package com.kelley.lsd.persistence.projection;
+
+/**
+ * Number of tasks due in one year, see TaskCountRepository.
+ */
+public record DueYearCount(int year, long tasks) {
+}
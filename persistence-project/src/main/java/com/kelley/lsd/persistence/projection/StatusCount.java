@@ -0,0 +1,9 @@
+package com.kelley.lsd.persistence.projection;
+
+import com.kelley.lsd.persistence.model.TaskStatus;
+
+/**
+ * Number of tasks in one status, see TaskCountRepository.
+ */
+public record StatusCount(TaskStatus status, long tasks) {
+}
@@ -0,0 +1,12 @@
+package com.kelley.lsd.persistence.projection;
+
+import java.time.LocalDate;
+
+import com.kelley.lsd.persistence.model.TaskStatus;
+
+/**
+ * One line of a task list: the task's own columns plus the assignee's email, read in one query.
+ * Loading Task entities instead would also load their campaign and assignee (see TaskRepository).
+ */
+public record TaskRow(Long id, String name, LocalDate dueDate, TaskStatus status, String assigneeEmail) {
+}
@@ -0,0 +1,173 @@
+package com.kelley.lsd.persistence.purge;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.kelley.lsd.persistence.aggregate.TaskCountDeltas;
+import com.kelley.lsd.persistence.deadline.DeadlineTracker;
+import com.kelley.lsd.persistence.model.ChangeOperation;
+import com.kelley.lsd.persistence.model.ChangedEntity;
+import com.kelley.lsd.persistence.outbox.OutboxEventListener;
+import com.kelley.lsd.persistence.search.SearchIndex;
+import com.kelley.lsd.persistence.workload.WorkloadDeltas;
+import com.kelley.lsd.persistence.workload.WorkloadIndex;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Deletes a campaign and all of its tasks in the background.
+ *
+ * CampaignRepository.deleteByNameContaining deletes everything in one transaction, which is fine for ordinary
+ * campaigns. A campaign with a million tasks would hold row locks and undo log for all of them until commit.
+ * Here the tasks are deleted a chunk at a time (persistence.purge.chunk-size), each chunk in its own short
+ * transaction: select the next chunk of task ids through the campaign_id index, then one bulk DELETE by id.
+ * The campaign row itself goes last.
+ *
+ * A purge that fails part way leaves a campaign with fewer tasks, and can simply be started again.
+ * Progress is available from the returned PurgeJob and is logged periodically.
+ */
+@Service
+public class CampaignPurgeService {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(CampaignPurgeService.class);
+	
+	private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(5);
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	private final AsyncTaskExecutor executor;
+	
+	private final TransactionTemplate chunkTransaction;
+	
+	private final ObjectProvider<SearchIndex> searchIndex;
+	
+	private final ObjectProvider<DeadlineTracker> deadlineTracker;
+	
+	private final ObjectProvider<WorkloadIndex> workloadIndex;
+	
+	private final int chunkSize;
+	
+	// Running and finished jobs by campaign id, so that a purge is never started twice for the same campaign
+	private final Map<Long, PurgeJob> jobs = new ConcurrentHashMap<>();
+	
+	// Qualified because the task scheduler (see @EnableScheduling) is an AsyncTaskExecutor too
+	public CampaignPurgeService(@Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor executor,
+			PlatformTransactionManager transactionManager,
+			ObjectProvider<SearchIndex> searchIndex, ObjectProvider<DeadlineTracker> deadlineTracker,
+			ObjectProvider<WorkloadIndex> workloadIndex, @Value("${persistence.purge.chunk-size:5000}") int chunkSize) {
+		this.executor = executor;
+		this.chunkTransaction = new TransactionTemplate(transactionManager);
+		this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.searchIndex = searchIndex;
+		this.deadlineTracker = deadlineTracker;
+		this.workloadIndex = workloadIndex;
+		this.chunkSize = chunkSize;
+	}
+	
+	/*
+	 * Starts purging the campaign and returns immediately. If a purge of the same campaign is still running,
+	 * that job is returned instead of starting another one.
+	 */
+	public PurgeJob purge(long campaignId) {
+		return jobs.compute(campaignId, (id, existing) -> {
+			if (existing != null && existing.getState() == PurgeJob.State.RUNNING) return existing;
+			
+			PurgeJob job = new PurgeJob(id, countTasks(id));
+			executor.execute(() -> run(job));
+			return job;
+		});
+	}
+	
+	public Optional<PurgeJob> getJob(long campaignId) {
+		return Optional.ofNullable(jobs.get(campaignId));
+	}
+	
+	private void run(PurgeJob job) {
+		long campaignId = job.getCampaignId();
+		LOG.info("Purge of campaign {} started: {} tasks", campaignId, job.getTotalTasks());
+		long lastProgress = System.nanoTime();
+		try {
+			// A chunk smaller than chunkSize was the last; tasks added after it are caught by deleteCampaign()
+			int deleted;
+			do {
+				deleted = chunkTransaction.execute(status -> deleteTaskChunk(campaignId));
+				job.chunkDeleted(deleted);
+				if (System.nanoTime() - lastProgress >= PROGRESS_INTERVAL.toNanos()) {
+					LOG.info("Purge of campaign {}: {}/{} tasks deleted", campaignId, job.getDeletedTasks(), job.getTotalTasks());
+					lastProgress = System.nanoTime();
+				}
+			} while (deleted == chunkSize);
+			chunkTransaction.executeWithoutResult(status -> deleteCampaign(campaignId));
+			
+			LOG.info("Purge of campaign {} finished: {} tasks deleted in {} ms", campaignId, job.getDeletedTasks(),
+					job.getElapsed().toMillis());
+			job.complete();
+		} catch (RuntimeException e) {
+			LOG.error("Purge of campaign {} failed after {} tasks", campaignId, job.getDeletedTasks(), e);
+			job.fail(e);
+		}
+	}
+	
+	private int deleteTaskChunk(long campaignId) {
+		List<Long> taskIds = entityManager.createQuery("select t.id from Task t where t.campaign.id = :campaignId", Long.class)
+				.setParameter("campaignId", campaignId)
+				.setMaxResults(chunkSize)
+				.getResultList();
+		if (taskIds.isEmpty()) return 0;
+		
+		TaskCountDeltas.subtractTasks(entityManager, taskIds);
+		workloadIndex.ifAvailable(index -> WorkloadDeltas.subtractTasks(entityManager, "where t.id in :ids", Map.of("ids", taskIds))
+				.applyAfterCommit(index));
+		entityManager.createQuery("delete from Task t where t.id in :ids")
+				.setParameter("ids", taskIds)
+				.executeUpdate();
+		OutboxEventListener.record(entityManager, ChangedEntity.TASK, ChangeOperation.DELETE, taskIds);
+		searchIndex.ifAvailable(index -> index.removeAfterCommit(List.of(), taskIds));
+		deadlineTracker.ifAvailable(tracker -> tracker.removeAfterCommit(taskIds));
+		return taskIds.size();
+	}
+	
+	private void deleteCampaign(long campaignId) {
+		// Catches tasks added to the campaign while the chunks were running
+		List<Long> taskIds = entityManager.createQuery("select t.id from Task t where t.campaign.id = :campaignId", Long.class)
+				.setParameter("campaignId", campaignId)
+				.getResultList();
+		workloadIndex.ifAvailable(index -> WorkloadDeltas.subtractTasks(entityManager, "where t.campaign.id = :campaignId",
+				Map.of("campaignId", campaignId)).applyAfterCommit(index));
+		entityManager.createQuery("delete from Task t where t.campaign.id = :campaignId")
+				.setParameter("campaignId", campaignId)
+				.executeUpdate();
+		OutboxEventListener.record(entityManager, ChangedEntity.TASK, ChangeOperation.DELETE, taskIds);
+		TaskCountDeltas.deleteCampaigns(entityManager, List.of(campaignId));
+		entityManager.createQuery("delete from Campaign c where c.id = :campaignId")
+				.setParameter("campaignId", campaignId)
+				.executeUpdate();
+		OutboxEventListener.record(entityManager, ChangedEntity.CAMPAIGN, ChangeOperation.DELETE, List.of(campaignId));
+		searchIndex.ifAvailable(index -> index.removeAfterCommit(List.of(campaignId), taskIds));
+		deadlineTracker.ifAvailable(tracker -> tracker.removeAfterCommit(taskIds));
+	}
+	
+	private long countTasks(long campaignId) {
+		return entityManager.createQuery("select count(t) from Task t where t.campaign.id = :campaignId", Long.class)
+				.setParameter("campaignId", campaignId)
+				.getSingleResult();
+	}
+	
+}
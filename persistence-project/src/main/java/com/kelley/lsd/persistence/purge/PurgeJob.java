@@ -0,0 +1,79 @@
+package com.kelley.lsd.persistence.purge;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one background campaign purge, see CampaignPurgeService.
+ *
+ * The counters are updated by the purge thread after every committed chunk and can be read from any thread.
+ */
+public class PurgeJob {
+	
+	public enum State { RUNNING, COMPLETED, FAILED }
+	
+	private final long campaignId;
+	
+	private final long totalTasks;
+	
+	private final AtomicLong deletedTasks = new AtomicLong();
+	
+	private final long startedNanos = System.nanoTime();
+	
+	private final CompletableFuture<PurgeJob> completion = new CompletableFuture<>();
+	
+	private volatile State state = State.RUNNING;
+	
+	PurgeJob(long campaignId, long totalTasks) {
+		this.campaignId = campaignId;
+		this.totalTasks = totalTasks;
+	}
+	
+	void chunkDeleted(int tasks) {
+		deletedTasks.addAndGet(tasks);
+	}
+	
+	void complete() {
+		state = State.COMPLETED;
+		completion.complete(this);
+	}
+	
+	void fail(Throwable cause) {
+		state = State.FAILED;
+		completion.completeExceptionally(cause);
+	}
+	
+	public long getCampaignId() {
+		return campaignId;
+	}
+	
+	// Number of tasks the campaign had when the purge started
+	public long getTotalTasks() {
+		return totalTasks;
+	}
+	
+	public long getDeletedTasks() {
+		return deletedTasks.get();
+	}
+	
+	public State getState() {
+		return state;
+	}
+	
+	public Duration getElapsed() {
+		return Duration.ofNanos(System.nanoTime() - startedNanos);
+	}
+	
+	// Completes when the campaign row is gone, or exceptionally if a chunk failed
+	public CompletableFuture<PurgeJob> getCompletion() {
+		return completion;
+	}
+	
+	@Override
+	public String toString() {
+		return "PurgeJob [campaignId=" + campaignId + ", state=" + state + ", deletedTasks=" + getDeletedTasks()
+				+ "/" + totalTasks + "]";
+	}
+	
+}
@@ -0,0 +1,16 @@
+package com.kelley.lsd.persistence.reactive;
+
+import io.r2dbc.spi.Readable;
+
+/**
+ * A campaign as read by the reactive repositories: its columns only, never its tasks.
+ */
+public record ReactiveCampaign(Long id, String code, String name, String description) {
+	
+	// The columns selected as <prefix>id, <prefix>code, ...
+	static ReactiveCampaign read(Readable row, String prefix) {
+		return new ReactiveCampaign(row.get(prefix + "id", Long.class), row.get(prefix + "code", String.class),
+				row.get(prefix + "name", String.class), row.get(prefix + "description", String.class));
+	}
+	
+}
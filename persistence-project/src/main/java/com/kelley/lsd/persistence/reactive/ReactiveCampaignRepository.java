@@ -0,0 +1,29 @@
+package com.kelley.lsd.persistence.reactive;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Mono;
+
+/*
+ * Reactive counterpart of CampaignRepository's code lookup. Unlike the JPA one there is no second-level cache in front
+ * of it: every call is a query on the unique code index.
+ */
+@Repository
+public class ReactiveCampaignRepository {
+	
+	private final DatabaseClient databaseClient;
+	
+	public ReactiveCampaignRepository(DatabaseClient databaseClient) {
+		this.databaseClient = databaseClient;
+	}
+	
+	// Empty when there is no such campaign
+	public Mono<ReactiveCampaign> findByCodeEquals(String code) {
+		return databaseClient.sql("select id, code, name, description from campaign where code = :code")
+				.bind("code", code)
+				.map(row -> ReactiveCampaign.read(row, ""))
+				.one();
+	}
+	
+}
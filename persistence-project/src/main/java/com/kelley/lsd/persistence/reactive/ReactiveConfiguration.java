@@ -0,0 +1,60 @@
+package com.kelley.lsd.persistence.reactive;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+
+/*
+ * The R2DBC side of the reactive repositories: a pool of R2DBC connections to the H2 database that spring.datasource.url
+ * points at, so both paths read the same tables (the schema is still created and owned by Hibernate).
+ *
+ * The pool is not a bean of its own, for the same reason as the replica pool in ReplicaRoutingConfiguration: Spring Boot
+ * switches off its DataSource auto-configuration as soon as there is an R2DBC ConnectionFactory bean. Only the
+ * DatabaseClient is exposed, and R2dbcAutoConfiguration is excluded (see PersistenceProjectApplication).
+ *
+ * Reads through this pool always go to the primary, whether or not replica routing is on, and are not counted by
+ * the persistence.repository.* metrics, which are taken from JDBC.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ReactiveConfiguration {
+	
+	private static final String H2_URL_PREFIX = "jdbc:h2:";
+	
+	@Bean
+	DatabaseClient reactiveDatabaseClient(Environment environment) {
+		return DatabaseClient.create(connectionPool(environment));
+	}
+	
+	@Bean
+	DisposableBean reactivePoolShutdown(DatabaseClient reactiveDatabaseClient) {
+		return ((ConnectionPool) reactiveDatabaseClient.getConnectionFactory())::dispose;
+	}
+	
+	private static ConnectionPool connectionPool(Environment environment) {
+		String url = environment.getRequiredProperty("spring.datasource.url");
+		if (!url.startsWith(H2_URL_PREFIX)) {
+			throw new IllegalStateException("The reactive repositories only support H2, not " + url);
+		}
+		H2ConnectionConfiguration connection = H2ConnectionConfiguration.builder()
+				.url(url.substring(H2_URL_PREFIX.length()))
+				.username(environment.getProperty("spring.datasource.username", "sa"))
+				.password(environment.getProperty("spring.datasource.password", ""))
+				.build();
+		return new ConnectionPool(ConnectionPoolConfiguration.builder(new H2ConnectionFactory(connection))
+				.name("reactive")
+				.maxSize(environment.getProperty("persistence.reactive.pool.max-size", Integer.class, 20))
+				.maxAcquireTime(environment.getProperty("persistence.reactive.pool.acquire-timeout", Duration.class,
+						Duration.ofSeconds(10)))
+				.build());
+	}
+	
+}
@@ -0,0 +1,25 @@
+package com.kelley.lsd.persistence.reactive;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import com.kelley.lsd.persistence.model.TaskStatus;
+
+import io.r2dbc.spi.Readable;
+
+/**
+ * A task as read by the reactive repositories, with its campaign and assignee (null when unassigned) read in the same
+ * query, as the JPA finders fetch them. These are values: nothing tracks or saves changes to them.
+ */
+public record ReactiveTask(Long id, UUID uuid, String name, String description, LocalDate dueDate, TaskStatus status,
+		ReactiveCampaign campaign, ReactiveWorker assignee) {
+	
+	// A row of ReactiveTaskRepository's select; status is the TINYINT ordinal Hibernate stores
+	static ReactiveTask read(Readable row) {
+		return new ReactiveTask(row.get("id", Long.class), row.get("uuid", UUID.class), row.get("name", String.class),
+				row.get("description", String.class), row.get("due_date", LocalDate.class),
+				TaskStatus.values()[((Number) row.get("status")).intValue()],
+				ReactiveCampaign.read(row, "campaign_"), ReactiveWorker.read(row, "assignee_"));
+	}
+	
+}
@@ -0,0 +1,94 @@
+package com.kelley.lsd.persistence.reactive;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.kelley.lsd.persistence.model.TaskStatus;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*
+ * Reactive counterparts of TaskRepository's hot finders, returning a Flux instead of a List and reading the task's
+ * campaign and assignee in the same statement, as the JPA finders do with their entity graphs and fetch joins.
+ *
+ * Nothing is managed: there is no persistence context, no second-level cache and no dirty checking, so these are for
+ * reads only. Writes still go through the JPA repositories, which keep the task_count aggregate, the in-memory indexes
+ * and the outbox in step.
+ */
+@Repository
+public class ReactiveTaskRepository {
+	
+	private static final String SELECT = "select t.id, t.uuid, t.name, t.description, t.due_date, t.status, "
+			+ "c.id as campaign_id, c.code as campaign_code, c.name as campaign_name, c.description as campaign_description, "
+			+ "a.id as assignee_id, a.email as assignee_email, a.first_name as assignee_first_name, a.last_name as assignee_last_name "
+			+ "from task t join campaign c on c.id = t.campaign_id ";
+	
+	private static final String LEFT_JOIN_ASSIGNEE = "left join worker a on a.id = t.assignee_id ";
+	
+	private final DatabaseClient databaseClient;
+	
+	private final int pageSize;
+	
+	public ReactiveTaskRepository(DatabaseClient databaseClient,
+			@Value("${persistence.reactive.page-size:500}") int pageSize) {
+		this.databaseClient = databaseClient;
+		this.pageSize = pageSize;
+	}
+	
+	// On idx_task_status_due_date, like the JPA finder
+	public Flux<ReactiveTask> findByDueDateBeforeAndStatusEquals(LocalDate dueDate, TaskStatus status) {
+		return databaseClient.sql(SELECT + LEFT_JOIN_ASSIGNEE + "where t.due_date < :dueDate and t.status = :status")
+				.bind("dueDate", dueDate)
+				.bind("status", status.ordinal())
+				.map(ReactiveTask::read)
+				.all();
+	}
+	
+	// An inner join, so the database can start from the first_name index (see TaskRepository.findByAssigneeFirstName)
+	public Flux<ReactiveTask> findByAssigneeFirstName(String firstName) {
+		return databaseClient.sql(SELECT + "join worker a on a.id = t.assignee_id where a.first_name = :firstName")
+				.bind("firstName", firstName)
+				.map(ReactiveTask::read)
+				.all();
+	}
+	
+	/*
+	 * Every task in id order, read as the subscriber asks for them.
+	 *
+	 * The tasks are read in keyset pages of persistence.reactive.page-size ("where t.id > :after order by t.id"), and a
+	 * page is only queried once the subscriber has requested every task of the previous one. A slow subscriber therefore
+	 * holds at most one page in memory, and no connection while it works through it: the connection goes back to the
+	 * pool after each page. TaskRepository.streamAllByOrderByIdAsc keeps its connection and transaction open until the
+	 * whole stream is read. The flip side is the same as with keyset scrolling: the pages are separate reads, so tasks
+	 * added or removed while streaming are seen or missed depending on their id.
+	 */
+	public Flux<ReactiveTask> streamAllByOrderByIdAsc() {
+		return streamAllByOrderByIdAsc(pageSize);
+	}
+	
+	/*
+	 * expand() queues the next page's query as each page arrives and runs them one after the other from a loop, so the
+	 * pipeline stays the same size however many pages there are. concatMap without prefetch asks it for the next page,
+	 * and so subscribes to that query, only once every task of the current page has been requested.
+	 */
+	Flux<ReactiveTask> streamAllByOrderByIdAsc(int pageSize) {
+		return pageAfter(Long.MIN_VALUE, pageSize)
+				.expand(page -> page.size() < pageSize ? Mono.empty() : pageAfter(page.getLast().id(), pageSize))
+				.concatMap(Flux::fromIterable, 0);
+	}
+	
+	private Mono<List<ReactiveTask>> pageAfter(long after, int pageSize) {
+		return databaseClient.sql(SELECT + LEFT_JOIN_ASSIGNEE + "where t.id > :after order by t.id limit :limit")
+				.bind("after", after)
+				.bind("limit", pageSize)
+				.map(ReactiveTask::read)
+				.all()
+				.collectList();
+	}
+	
+}
@@ -0,0 +1,18 @@
+package com.kelley.lsd.persistence.reactive;
+
+import io.r2dbc.spi.Readable;
+
+/**
+ * A worker as read by the reactive repositories.
+ */
+public record ReactiveWorker(Long id, String email, String firstName, String lastName) {
+	
+	// The columns selected as <prefix>id, <prefix>email, ...; null when there is none (an unassigned task's left join)
+	static ReactiveWorker read(Readable row, String prefix) {
+		Long id = row.get(prefix + "id", Long.class);
+		if (id == null) return null;
+		return new ReactiveWorker(id, row.get(prefix + "email", String.class), row.get(prefix + "first_name", String.class),
+				row.get(prefix + "last_name", String.class));
+	}
+	
+}
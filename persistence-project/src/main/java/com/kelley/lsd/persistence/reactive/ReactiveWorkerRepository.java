@@ -0,0 +1,39 @@
+package com.kelley.lsd.persistence.reactive;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*
+ * Reactive counterpart of WorkerRepository's lookups.
+ */
+@Repository
+public class ReactiveWorkerRepository {
+	
+	private static final String SELECT = "select id, email, first_name, last_name from worker ";
+	
+	private final DatabaseClient databaseClient;
+	
+	public ReactiveWorkerRepository(DatabaseClient databaseClient) {
+		this.databaseClient = databaseClient;
+	}
+	
+	// Empty when there is no such worker
+	public Mono<ReactiveWorker> findByEmail(String email) {
+		return databaseClient.sql(SELECT + "where email = :email")
+				.bind("email", email)
+				.map(row -> ReactiveWorker.read(row, ""))
+				.one();
+	}
+	
+	// On the first_name index (idx_worker_first_name)
+	public Flux<ReactiveWorker> findByFirstName(String firstName) {
+		return databaseClient.sql(SELECT + "where first_name = :firstName")
+				.bind("firstName", firstName)
+				.map(row -> ReactiveWorker.read(row, ""))
+				.all();
+	}
+	
+}
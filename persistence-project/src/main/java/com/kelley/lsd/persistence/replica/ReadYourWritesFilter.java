@@ -0,0 +1,26 @@
+package com.kelley.lsd.persistence.replica;
+
+import java.io.IOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/*
+ * Opens a ReplicaRouting request scope around each request, so that reads made after a write in the same
+ * request are served by the primary.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+	
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		try (ReplicaRouting.RequestScope scope = ReplicaRouting.openRequestScope()) {
+			filterChain.doFilter(request, response);
+		}
+	}
+	
+}
@@ -0,0 +1,82 @@
+package com.kelley.lsd.persistence.replica;
+
+import java.util.function.Supplier;
+
+/**
+ * Thread-bound routing hints for ReplicaRoutingDataSource.
+ *
+ * Read-only transactions go to the replica unless:
+ * - the current request has already written: once a request has taken a read-write connection, its later read-only
+ *   transactions stay on the primary (read-your-writes), because the replica may not have the write yet. The scope is
+ *   opened by ReadYourWritesFilter for every HTTP request; outside a scope nothing is remembered.
+ * - the code runs inside onPrimary(): used where a stale read would be wrong rather than just old, e.g. rebuilding the
+ *   in-memory indexes, which are then kept current from commits on the primary.
+ *
+ * With persistence.replica.enabled=false there is no routing and these hints have no effect.
+ */
+public final class ReplicaRouting {
+	
+	private static final ThreadLocal<RequestScope> REQUEST = new ThreadLocal<>();
+	
+	private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+	
+	private ReplicaRouting() {
+	}
+	
+	/*
+	 * Remembers writes until closed. Scopes do not nest: the outermost one is kept.
+	 */
+	public static final class RequestScope implements AutoCloseable {
+		
+		private final boolean owner;
+		
+		private boolean written;
+		
+		private RequestScope(boolean owner) {
+			this.owner = owner;
+		}
+		
+		@Override
+		public void close() {
+			if (owner) REQUEST.remove();
+		}
+	
+	}
+	
+	public static RequestScope openRequestScope() {
+		if (REQUEST.get() != null) return new RequestScope(false);
+		RequestScope scope = new RequestScope(true);
+		REQUEST.set(scope);
+		return scope;
+	}
+	
+	public static <T> T onPrimary(Supplier<T> work) {
+		if (Boolean.TRUE.equals(PRIMARY.get())) return work.get();
+		PRIMARY.set(Boolean.TRUE);
+		try {
+			return work.get();
+		} finally {
+			PRIMARY.remove();
+		}
+	}
+	
+	public static void onPrimary(Runnable work) {
+		onPrimary(() -> {
+			work.run();
+			return null;
+		});
+	}
+	
+	// Called when a read-write connection is taken from the primary
+	static void recordWrite() {
+		RequestScope scope = REQUEST.get();
+		if (scope != null) scope.written = true;
+	}
+	
+	static boolean primaryRequired() {
+		if (Boolean.TRUE.equals(PRIMARY.get())) return true;
+		RequestScope scope = REQUEST.get();
+		return scope != null && scope.written;
+	}
+	
+}
@@ -0,0 +1,92 @@
+package com.kelley.lsd.persistence.replica;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/*
+ * Read replica routing (see ReplicaRoutingDataSource), switched on with persistence.replica.enabled=true:
+ * - the DataSource Spring Boot configures from spring.datasource.* becomes the primary, and is wrapped together with a
+ *   replica pool for persistence.replica.url/username/password
+ * - ReadYourWritesFilter keeps a request on the primary once it has written
+ * - with persistence.replica.synchronize=true, ReplicaSynchronizer copies the primary to the replica (H2 only)
+ *
+ * The replica pool is not a bean of its own: a second DataSource bean would switch off Spring Boot's DataSource
+ * auto-configuration, and QueryMetricsConfiguration would count its statements twice. The "replica" profile
+ * (application-replica.properties) sets this up with a second in-memory H2 database.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "persistence.replica.enabled")
+public class ReplicaRoutingConfiguration {
+	
+	@Bean
+	static BeanPostProcessor replicaRoutingPostProcessor(Environment environment) {
+		return new RoutingPostProcessor(environment);
+	}
+	
+	@Bean
+	ReadYourWritesFilter readYourWritesFilter() {
+		return new ReadYourWritesFilter();
+	}
+	
+	@Bean
+	@ConditionalOnProperty(name = "persistence.replica.synchronize")
+	ReplicaSynchronizer replicaSynchronizer(DataSource dataSource) throws SQLException {
+		return new ReplicaSynchronizer(dataSource.unwrap(ReplicaRoutingDataSource.class));
+	}
+	
+	@Bean
+	DisposableBean replicaPoolShutdown(DataSource dataSource) throws SQLException {
+		return dataSource.unwrap(ReplicaRoutingDataSource.class)::close;
+	}
+	
+	/*
+	 * Ordered, so it runs before QueryMetricsConfiguration's post-processor, which then wraps the routing data source
+	 * and counts statements whichever database runs them.
+	 */
+	private static class RoutingPostProcessor implements BeanPostProcessor, Ordered {
+		
+		private final Environment environment;
+		
+		RoutingPostProcessor(Environment environment) {
+			this.environment = environment;
+		}
+		
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			if (!(bean instanceof DataSource primary) || !beanName.equals("dataSource")) return bean;
+			
+			HikariDataSource replica = DataSourceBuilder.create()
+					.type(HikariDataSource.class)
+					.url(environment.getRequiredProperty("persistence.replica.url"))
+					.username(environment.getProperty("persistence.replica.username"))
+					.password(environment.getProperty("persistence.replica.password"))
+					.build();
+			replica.setPoolName("replica");
+			replica.setMaximumPoolSize(environment.getProperty("persistence.replica.maximum-pool-size", Integer.class, 20));
+			
+			return new ReplicaRoutingDataSource(primary, replica,
+					environment.getProperty("persistence.replica.max-lag", Duration.class, Duration.ofSeconds(10)),
+					environment.getProperty("persistence.replica.synchronize", Boolean.class, false));
+		}
+		
+		@Override
+		public int getOrder() {
+			return Ordered.HIGHEST_PRECEDENCE;
+		}
+	
+	}
+	
+}
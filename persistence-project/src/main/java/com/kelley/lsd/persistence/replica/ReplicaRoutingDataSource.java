@@ -0,0 +1,108 @@
+package com.kelley.lsd.persistence.replica;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Sends read-only transactions to a replica database and everything else to the primary.
+ *
+ * Built on LazyConnectionDataSourceProxy: the physical connection is only taken when the first statement runs.
+ * By then the transaction manager has marked the connection read-only (for @Transactional(readOnly = true), which
+ * Spring Data puts on every read method of its repositories, and read-only TransactionTemplates), so the proxy can
+ * pick the read-only data source. A read inside a read-write transaction joins that transaction and stays on the
+ * primary, as do statements run outside a transaction.
+ *
+ * The read-only side falls back to the primary when:
+ * - ReplicaRouting says so (read-your-writes within a request, or onPrimary())
+ * - the replica is further behind than maxLag, or has not caught up at all yet. The lag is only known when
+ *   ReplicaSynchronizer does the replication; for a replica fed by the database's own replication it is not tracked.
+ *
+ * Entities read from the replica go into the second-level cache like any other. They can only be as stale as the
+ * replica, and ehcache.xml expires them anyway.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+	
+	private final DataSource primary;
+	
+	private final DataSource replica;
+	
+	private final Duration maxLag;
+	
+	private final boolean lagTracked;
+	
+	private volatile Instant caughtUpAt;
+	
+	public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration maxLag, boolean lagTracked) {
+		super(new DelegatingDataSource(primary) {
+			@Override
+			public Connection getConnection() throws SQLException {
+				ReplicaRouting.recordWrite();
+				return super.getConnection();
+			}
+		});
+		this.primary = primary;
+		this.replica = replica;
+		this.maxLag = maxLag;
+		this.lagTracked = lagTracked;
+		setReadOnlyDataSource(new DelegatingDataSource(replica) {
+			@Override
+			public Connection getConnection() throws SQLException {
+				return (useReplica() ? replica : primary).getConnection();
+			}
+		});
+		
+		// Otherwise the proxy reads them from the first connection it takes, which would count as a write
+		try (Connection connection = primary.getConnection()) {
+			checkDefaultConnectionProperties(connection);
+		} catch (SQLException e) {
+			throw new CannotGetJdbcConnectionException("Could not read the primary's connection defaults", e);
+		}
+	}
+	
+	public DataSource getPrimary() {
+		return primary;
+	}
+	
+	public DataSource getReplica() {
+		return replica;
+	}
+	
+	/*
+	 * The replica now has everything the primary had committed at asOf.
+	 */
+	public void caughtUp(Instant asOf) {
+		caughtUpAt = asOf;
+	}
+	
+	/*
+	 * How far the replica is behind, or null if that is not tracked.
+	 */
+	public Duration lag() {
+		if (!lagTracked) return null;
+		Instant asOf = caughtUpAt;
+		return asOf == null ? ChronoUnit.FOREVER.getDuration() : Duration.between(asOf, Instant.now());
+	}
+	
+	boolean useReplica() {
+		if (ReplicaRouting.primaryRequired()) return false;
+		Duration lag = lag();
+		return lag == null || lag.compareTo(maxLag) <= 0;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		if (replica instanceof Closeable closeable) closeable.close();
+	}
+	
+}
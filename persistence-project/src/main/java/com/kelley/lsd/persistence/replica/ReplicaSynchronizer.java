@@ -0,0 +1,127 @@
+package com.kelley.lsd.persistence.replica;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Stand-in for database replication, so that replica routing can be run and tested with two in-memory H2 databases.
+ * Not for production: a real replica is fed by the database's own replication.
+ *
+ * Every sync-interval the primary is dumped with H2's SCRIPT command and the replica is overwritten with it, so the
+ * replica lags the primary by up to one interval plus the time a sync takes, and ReplicaRoutingDataSource can tell
+ * by how much. The first sync creates the schema. Later ones only replace the rows, in one replica transaction:
+ * readers keep seeing the previous copy until it commits, as they would with asynchronous replication.
+ *
+ * The dump is read from the primary in a serializable transaction, so all tables are copied as of the same moment.
+ * Cost is proportional to the size of the database, which is fine for the data sets this is meant for.
+ */
+public class ReplicaSynchronizer {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(ReplicaSynchronizer.class);
+	
+	private final ReplicaRoutingDataSource routingDataSource;
+	
+	private boolean schemaCopied;
+	
+	public ReplicaSynchronizer(ReplicaRoutingDataSource routingDataSource) {
+		this.routingDataSource = routingDataSource;
+	}
+	
+	// Until the first sync has finished, read-only transactions use the primary
+	@Scheduled(fixedDelayString = "${persistence.replica.sync-interval:PT1S}",
+			initialDelayString = "${persistence.replica.sync-interval:PT1S}")
+	public void scheduledSync() {
+		try {
+			sync();
+		} catch (DataAccessResourceFailureException e) {
+			// Reads fall back to the primary once the replica is max-lag behind; try again next time
+			LOG.warn("Replica sync failed", e);
+		}
+	}
+	
+	public synchronized void sync() {
+		long started = System.nanoTime();
+		// Taken before the dump starts, so the lag reported is never less than the real one
+		Instant asOf = Instant.now();
+		try (Connection primary = routingDataSource.getPrimary().getConnection();
+				Connection replica = routingDataSource.getReplica().getConnection()) {
+			primary.setAutoCommit(false);
+			primary.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+			replica.setAutoCommit(false);
+			
+			int statements;
+			if (schemaCopied) {
+				statements = copyRows(primary, replica);
+			} else {
+				statements = copyAll(primary, replica);
+				schemaCopied = true;
+			}
+			replica.commit();
+			primary.commit();
+			
+			routingDataSource.caughtUp(asOf);
+			LOG.debug("Replica synced: {} statements in {} ms", statements, (System.nanoTime() - started) / 1_000_000);
+		} catch (SQLException e) {
+			throw new DataAccessResourceFailureException("Could not copy the primary database to the replica", e);
+		}
+	}
+	
+	/*
+	 * Schema and rows. The foreign keys are then switched off on the replica: the rows of later syncs arrive
+	 * table by table, not in dependency order, and only ever as a consistent copy of the primary.
+	 */
+	private static int copyAll(Connection primary, Connection replica) throws SQLException {
+		int statements = 0;
+		try (Statement source = primary.createStatement();
+				ResultSet script = source.executeQuery("SCRIPT NOPASSWORDS NOSETTINGS DROP");
+				Statement target = replica.createStatement()) {
+			while (script.next()) {
+				target.execute(script.getString(1));
+				statements++;
+			}
+			target.execute("SET REFERENTIAL_INTEGRITY FALSE");
+		}
+		return statements;
+	}
+	
+	private static int copyRows(Connection primary, Connection replica) throws SQLException {
+		int inserts = 0;
+		try (Statement source = primary.createStatement();
+				Statement target = replica.createStatement()) {
+			for (String table : tables(replica)) {
+				target.executeUpdate("DELETE FROM \"PUBLIC\".\"" + table + "\"");
+			}
+			
+			try (ResultSet script = source.executeQuery("SCRIPT NOPASSWORDS NOSETTINGS")) {
+				while (script.next()) {
+					String statement = script.getString(1);
+					if (!statement.startsWith("INSERT INTO ")) continue;
+					target.executeUpdate(statement);
+					inserts++;
+				}
+			}
+		}
+		return inserts;
+	}
+	
+	private static List<String> tables(Connection connection) throws SQLException {
+		List<String> tables = new ArrayList<>();
+		try (Statement statement = connection.createStatement();
+				ResultSet rows = statement.executeQuery("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES "
+						+ "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE'")) {
+			while (rows.next()) tables.add(rows.getString(1));
+		}
+		return tables;
+	}
+	
+}
@@ -0,0 +1,38 @@
+package com.kelley.lsd.persistence.repository;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.kelley.lsd.persistence.model.ArchivedTask;
+import com.kelley.lsd.persistence.scroll.ScrollTokens;
+
+/*
+ * History: tasks TaskArchiver has moved out of the task table. TaskRepository never sees them.
+ *
+ * Read-only, so it only extends Repository and declares its finders. Each one is served by an index on
+ * archived_task (see ArchivedTask), which RepositoryQueryPlanIntegrationTest checks.
+ */
+@Transactional(readOnly = true)
+public interface ArchivedTaskRepository extends Repository<ArchivedTask, Long> {
+	
+	// Keyset properties of findByCampaignIdOrderByDueDateAscIdAsc, for ScrollTokens.decode()
+	Map<String, Class<?>> SCROLL_KEYS = ScrollTokens.keys("dueDate", LocalDate.class, "id", Long.class);
+	
+	@EntityGraph(attributePaths = {"campaign", "assignee"})
+	Optional<ArchivedTask> findById(Long id);
+	
+	// A campaign's history, oldest due first
+	@EntityGraph(attributePaths = {"campaign", "assignee"})
+	Window<ArchivedTask> findByCampaignIdOrderByDueDateAscIdAsc(Long campaignId, ScrollPosition position, Limit limit);
+	
+	long countByCampaignId(Long campaignId);
+	
+}
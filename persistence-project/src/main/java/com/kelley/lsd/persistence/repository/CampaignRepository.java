@@ -2,25 +2,39 @@ package com.kelley.lsd.persistence.repository;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.projection.CampaignHeader;
+import com.kelley.lsd.persistence.projection.CampaignSummary;
+import com.kelley.lsd.persistence.scroll.ScrollTokens;
 
-import jakarta.transaction.Transactional;
-
-public interface CampaignRepository extends CrudRepository<Campaign, Long> {
+/*
+ * Spring Data only gives the inherited CrudRepository methods a transaction; the query methods declared here get this
+ * read-only one, so that with replica routing they are served by the replica (see ReplicaRoutingDataSource).
+ */
+@Transactional(readOnly = true)
+public interface CampaignRepository extends CrudRepository<Campaign, Long>, CampaignRepositoryCustom {
 	
 	// Find campaigns by their code.
+	// Implemented by CampaignRepositoryCustomImpl: a natural-id lookup that is answered from the second-level cache when warm.
 	Optional<Campaign> findByCodeEquals(String code);
 	
 	// Find number of campaigns with a particular name.
 	int countByName(String name);
 	
 	// Find campaigns containing a certain substring in their name
+	// (a '%substring%' LIKE scans the whole table; SearchIndex answers the same question from memory)
 	Iterable<Campaign> findByNameContaining(String substring);
 	
 	/*
@@ -54,6 +68,9 @@ public interface CampaignRepository extends CrudRepository<Campaign, Long> {
 	/*
 	 * Delete methods
 	 * All custom delete methods need to be executed within a transaction (@Transactional) 
+	 * 
+	 * The two below are implemented in CampaignRepositoryCustomImpl with bulk DELETE statements rather than
+	 * derived from their names, which would load and delete every campaign and task one row at a time.
 	 */
 	
 	// Can use Long to return the number of entities deleted, otherwise void.
@@ -142,4 +159,76 @@ public interface CampaignRepository extends CrudRepository<Campaign, Long> {
 	// Side note: Not covered explicitly in this section, but when using @Query, we need to sanitize parameters ourselves when
 	// they come from an unknown source.
 	
+	/*
+	 * FETCH PLANS
+	 *
+	 * Campaign.tasks is lazy, so the finders above load campaigns only.
+	 * The variants below load the tasks in the same SQL statement for callers that need them.
+	 *
+	 * @EntityGraph names one of the graphs declared on the Campaign entity (or lists attributePaths directly),
+	 * and Spring Data turns it into a LEFT JOIN FETCH. Anything between "find" and "By" in a derived
+	 * method name is ignored, so "findWithTasksByCode" is still a query on code.
+	 */
+	
+	@EntityGraph("Campaign.tasks")
+	Optional<Campaign> findWithTasksByCode(String code);
+	
+	@EntityGraph("Campaign.tasksAndAssignees")
+	Optional<Campaign> findWithTasksAndAssigneesByCode(String code);
+	
+	@EntityGraph("Campaign.tasks")
+	List<Campaign> findWithTasksByNameContaining(String substring);
+	
+	@EntityGraph("Campaign.tasks")
+	List<Campaign> findAllWithTasksBy();
+	
+	/*
+	 * The same plan written as explicit fetch joins. Distinct stops each campaign appearing once per task.
+	 * Task.assignee is fetched too: callers read it, and leaving it out of a fetch join query costs an
+	 * extra SELECT per distinct worker.
+	 */
+	@Query("select distinct c from Campaign c left join fetch c.tasks t left join fetch t.assignee where c.code in :codes")
+	List<Campaign> findWithTasksByCodeIn(@Param("codes") Collection<String> codes);
+	
+	/*
+	 * KEYSET SCROLLING
+	 * 
+	 * Windowed variants of the name finders, ordered by the unique business key.
+	 * See TaskRepository for how ScrollPosition and Limit are applied.
+	 * Spring Data always appends the id to a keyset sort, so it is part of the scroll keys even though code is unique.
+	 */
+	Map<String, Class<?>> CODE_SCROLL_KEYS = ScrollTokens.keys("code", String.class, "id", Long.class);
+	
+	Window<Campaign> findByNameContainingOrderByCodeAsc(String substring, ScrollPosition position, Limit limit);
+	
+	Window<Campaign> findByNameStartingWithOrderByCodeAsc(String name, ScrollPosition position, Limit limit);
+	
+	Window<Campaign> findAllByOrderByCodeAsc(ScrollPosition position, Limit limit);
+	
+	/*
+	 * PROJECTIONS
+	 * 
+	 * For callers that only display data. Instead of entities these return read-only values
+	 * (see the projection package), so nothing is added to the persistence context or dirty-checked.
+	 * 
+	 * The summaries count tasks per status in the database with one GROUP BY statement:
+	 * "sum(case when ... then 1 else 0 end)" counts the rows of one status, and the left join keeps
+	 * campaigns that have no tasks at all.
+	 */
+	String SUMMARY_SELECT = "select new com.kelley.lsd.persistence.projection.CampaignSummary(c.code, c.name, count(t), "
+			+ "sum(case when t.status = com.kelley.lsd.persistence.model.TaskStatus.TO_DO then 1 else 0 end), "
+			+ "sum(case when t.status = com.kelley.lsd.persistence.model.TaskStatus.IN_PROGRESS then 1 else 0 end), "
+			+ "sum(case when t.status = com.kelley.lsd.persistence.model.TaskStatus.ON_HOLD then 1 else 0 end), "
+			+ "sum(case when t.status = com.kelley.lsd.persistence.model.TaskStatus.DONE then 1 else 0 end)) "
+			+ "from Campaign c left join c.tasks t ";
+	
+	@Query(SUMMARY_SELECT + "where c.code = :code group by c.id, c.code, c.name")
+	Optional<CampaignSummary> findSummaryByCode(@Param("code") String code);
+	
+	@Query(SUMMARY_SELECT + "where c.name like concat(:prefix, '%') group by c.id, c.code, c.name order by c.code")
+	List<CampaignSummary> findSummariesByNameStartingWith(@Param("prefix") String prefix);
+	
+	// Interface projection on a derived query; unlike findNameByCode above, the code is a parameter.
+	Optional<CampaignHeader> findHeaderByCode(String code);
+	
 }
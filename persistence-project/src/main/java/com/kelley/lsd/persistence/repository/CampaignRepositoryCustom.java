@@ -0,0 +1,40 @@
+package com.kelley.lsd.persistence.repository;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import com.kelley.lsd.persistence.model.Campaign;
+
+/*
+ * Custom repository fragment, implemented by CampaignRepositoryCustomImpl.
+ * Spring Data routes a CampaignRepository method with the same signature to the implementation.
+ */
+public interface CampaignRepositoryCustom {
+	
+	/*
+	 * A derived query such as findByCodeEquals always becomes a SELECT, because Spring Data knows nothing about
+	 * Hibernate's natural-id cache. The implementation goes through Session.bySimpleNaturalId() instead: Hibernate
+	 * resolves code -> id from the natural-id cache region and then the Campaign from its entity region,
+	 * so a warm lookup does not touch the database at all.
+	 */
+	Optional<Campaign> findByCodeEquals(String code);
+	
+	/*
+	 * Set-based deletes. A derived deleteBy loads every matching Campaign and, through cascade = ALL on tasks,
+	 * every one of their tasks, then deletes them row by row. These issue bulk DELETEs by id instead, for up to
+	 * a thousand tasks or campaigns each, so neither the statements nor the ids read grow with the whole delete.
+	 * Bulk deletes skip entity callbacks, so the SearchIndex, DeadlineTracker, WorkloadIndex, task_count aggregate
+	 * and outbox are updated here explicitly; Hibernate evicts the Campaign cache regions itself. Campaigns already
+	 * loaded in the caller's persistence context are not detached.
+	 *
+	 * For campaigns with very many tasks use CampaignPurgeService, which deletes in short chunked transactions.
+	 */
+	// name is a literal substring: % and _ in it match only themselves
+	Long deleteByNameContaining(String name);
+	
+	void removeByNameContaining(String name);
+	
+	// Returns the number of campaigns deleted
+	int deleteAllWithTasksById(Collection<Long> ids);
+	
+}
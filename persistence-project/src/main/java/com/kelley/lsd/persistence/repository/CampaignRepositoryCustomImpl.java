@@ -0,0 +1,120 @@
+package com.kelley.lsd.persistence.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.kelley.lsd.persistence.aggregate.TaskCountDeltas;
+import com.kelley.lsd.persistence.deadline.DeadlineTracker;
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.ChangeOperation;
+import com.kelley.lsd.persistence.model.ChangedEntity;
+import com.kelley.lsd.persistence.outbox.OutboxEventListener;
+import com.kelley.lsd.persistence.search.SearchIndex;
+import com.kelley.lsd.persistence.workload.WorkloadDeltas;
+import com.kelley.lsd.persistence.workload.WorkloadIndex;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/*
+ * Read-only transaction by default, so that a lookup made outside any transaction still has a Session to unwrap.
+ * The SearchIndex, DeadlineTracker and WorkloadIndex are optional because slice tests such as @DataJpaTest do not contain them.
+ */
+@Transactional(readOnly = true)
+class CampaignRepositoryCustomImpl implements CampaignRepositoryCustom {
+	
+	// Ids per IN list, and so per statement: bounds both the statements and the ids held in memory at once
+	static final int DELETE_BATCH_SIZE = 1000;
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	private final ObjectProvider<SearchIndex> searchIndex;
+	
+	private final ObjectProvider<DeadlineTracker> deadlineTracker;
+	
+	private final ObjectProvider<WorkloadIndex> workloadIndex;
+	
+	CampaignRepositoryCustomImpl(ObjectProvider<SearchIndex> searchIndex, ObjectProvider<DeadlineTracker> deadlineTracker,
+			ObjectProvider<WorkloadIndex> workloadIndex) {
+		this.searchIndex = searchIndex;
+		this.deadlineTracker = deadlineTracker;
+		this.workloadIndex = workloadIndex;
+	}
+	
+	@Override
+	public Optional<Campaign> findByCodeEquals(String code) {
+		return entityManager.unwrap(Session.class).bySimpleNaturalId(Campaign.class).loadOptional(code);
+	}
+	
+	@Override
+	@Transactional
+	public Long deleteByNameContaining(String name) {
+		// name is matched literally, so its own % and _ are not wildcards
+		List<Long> ids = entityManager.createQuery("select c.id from Campaign c where c.name like :pattern escape '\\'", Long.class)
+				.setParameter("pattern", "%" + escapeLike(name) + "%")
+				.getResultList();
+		return (long) deleteAllWithTasksById(ids);
+	}
+	
+	private static String escapeLike(String value) {
+		return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+	
+	@Override
+	@Transactional
+	public void removeByNameContaining(String name) {
+		deleteByNameContaining(name);
+	}
+	
+	@Override
+	@Transactional
+	public int deleteAllWithTasksById(Collection<Long> ids) {
+		List<Long> campaignIds = List.copyOf(ids);
+		int deleted = 0;
+		for (int from = 0; from < campaignIds.size(); from += DELETE_BATCH_SIZE) {
+			deleted += deleteBatch(campaignIds.subList(from, Math.min(from + DELETE_BATCH_SIZE, campaignIds.size())));
+		}
+		return deleted;
+	}
+	
+	private int deleteBatch(List<Long> ids) {
+		// The tasks go a batch of ids at a time, however many the campaigns have; each select finds the next batch
+		// because the previous one is already deleted. Only ids are read, no Task entity is loaded.
+		List<Long> taskIds;
+		do {
+			taskIds = entityManager.createQuery("select t.id from Task t where t.campaign.id in :ids", Long.class)
+					.setParameter("ids", ids)
+					.setMaxResults(DELETE_BATCH_SIZE)
+					.getResultList();
+			if (!taskIds.isEmpty()) deleteTasks(taskIds);
+		} while (taskIds.size() == DELETE_BATCH_SIZE);
+		
+		TaskCountDeltas.deleteCampaigns(entityManager, ids);
+		int deleted = entityManager.createQuery("delete from Campaign c where c.id in :ids")
+				.setParameter("ids", ids)
+				.executeUpdate();
+		OutboxEventListener.record(entityManager, ChangedEntity.CAMPAIGN, ChangeOperation.DELETE, ids);
+		searchIndex.ifAvailable(index -> index.removeAfterCommit(ids, List.of()));
+		return deleted;
+	}
+	
+	// The task_count groups are dropped with the campaigns, by deleteBatch()
+	private void deleteTasks(List<Long> taskIds) {
+		workloadIndex.ifAvailable(index -> WorkloadDeltas.subtractTasks(entityManager, "where t.id in :ids", Map.of("ids", taskIds))
+				.applyAfterCommit(index));
+		entityManager.createQuery("delete from Task t where t.id in :ids")
+				.setParameter("ids", taskIds)
+				.executeUpdate();
+		OutboxEventListener.record(entityManager, ChangedEntity.TASK, ChangeOperation.DELETE, taskIds);
+		searchIndex.ifAvailable(index -> index.removeAfterCommit(List.of(), taskIds));
+		deadlineTracker.ifAvailable(tracker -> tracker.removeAfterCommit(taskIds));
+	}
+	
+}
@@ -0,0 +1,8 @@
+package com.kelley.lsd.persistence.repository;
+
+import org.springframework.data.repository.CrudRepository;
+
+import com.kelley.lsd.persistence.model.ImportCheckpoint;
+
+public interface ImportCheckpointRepository extends CrudRepository<ImportCheckpoint, String> {
+}
@@ -0,0 +1,33 @@
+package com.kelley.lsd.persistence.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import com.kelley.lsd.persistence.model.TaskCount;
+import com.kelley.lsd.persistence.model.TaskCountKey;
+import com.kelley.lsd.persistence.projection.DueYearCount;
+import com.kelley.lsd.persistence.projection.StatusCount;
+
+/*
+ * Typed dashboard counts read from the task_count aggregate (see TaskCount).
+ * Each query touches one row per group, however many tasks there are.
+ */
+public interface TaskCountRepository extends CrudRepository<TaskCount, TaskCountKey> {
+	
+	// Replaces TaskRepository.countByDueYear, which groups the whole task table on every call
+	@Query("select new com.kelley.lsd.persistence.projection.DueYearCount(c.id.dueYear, sum(c.total)) from TaskCount c "
+			+ "group by c.id.dueYear having sum(c.total) > 0 order by c.id.dueYear")
+	List<DueYearCount> countByDueYear();
+	
+	@Query("select new com.kelley.lsd.persistence.projection.StatusCount(c.id.status, sum(c.total)) from TaskCount c "
+			+ "where c.id.campaignId = :campaignId group by c.id.status having sum(c.total) > 0 order by c.id.status")
+	List<StatusCount> countByStatusForCampaign(@Param("campaignId") long campaignId);
+	
+	@Query("select new com.kelley.lsd.persistence.projection.StatusCount(c.id.status, sum(c.total)) from TaskCount c "
+			+ "where c.id.dueYear = :year group by c.id.status having sum(c.total) > 0 order by c.id.status")
+	List<StatusCount> countByStatusForDueYear(@Param("year") int year);
+	
+}
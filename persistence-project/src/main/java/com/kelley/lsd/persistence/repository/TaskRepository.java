@@ -2,15 +2,47 @@ package com.kelley.lsd.persistence.repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.kelley.lsd.persistence.model.Task;
 import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.projection.TaskRow;
+import com.kelley.lsd.persistence.scroll.ScrollTokens;
+
+import jakarta.persistence.QueryHint;
 
-public interface TaskRepository extends CrudRepository<Task, Long> {
+// Read-only for the query methods declared here, like CampaignRepository
+@Transactional(readOnly = true)
+public interface TaskRepository extends CrudRepository<Task, Long>, TaskRepositoryCustom {
+	/*
+	 * Task.campaign and Task.assignee are lazy, but every reader of a task (the REST responses, the export)
+	 * goes on to read both, so every finder returning tasks fetches them in the same query with @EntityGraph
+	 * (or join fetch). Without it each distinct campaign and worker not already in the persistence context
+	 * or second-level cache is loaded on first access (in batches, see Worker), or, once the transaction
+	 * has ended, cannot be read at all. NPlusOneGuardIntegrationTest holds these finders to a single select.
+	 */
+	
+	// CrudRepository.findById with the same graph, as ArchivedTaskRepository.findById
+	@Override
+	@EntityGraph(attributePaths = {"campaign", "assignee"})
+	Optional<Task> findById(Long id);
+	
 	// Find all tasks with a due date after the given date.
+	@EntityGraph(attributePaths = {"campaign", "assignee"})
 	List<Task> findByDueDateGreaterThan(LocalDate dueDate);
 	
 	/*
@@ -31,6 +63,7 @@ public interface TaskRepository extends CrudRepository<Task, Long> {
 	 * Example:
 	 * Find all Tasks which have passed due date (before dueDate argument), and still have status TO_DO
 	 */
+	@EntityGraph(attributePaths = {"campaign", "assignee"})
 	List<Task>findByDueDateBeforeAndStatusEquals(LocalDate dueDate, TaskStatus status);
 	
 	/*
@@ -38,8 +71,14 @@ public interface TaskRepository extends CrudRepository<Task, Long> {
 	 * 
 	 * We can traverse to a nested property through the parent.
 	 * In the query below, AssigneeFirstName is interpreted as assignee.firstName
+	 *
+	 * Because assignee is optional, the derived query joins worker with a LEFT OUTER JOIN. The database then has to
+	 * read task first and cannot start from the first_name index on worker. The @Query below is the same query
+	 * with an inner join (tasks without an assignee could never match anyway), which lets it use the index.
+	 * The join is a fetch join, so the matched assignee is not loaded again.
 	 */
-	List<Task> findByAssigneeFirstName(String name);
+	@Query("select t from Task t join fetch t.assignee a join fetch t.campaign where a.firstName = :name")
+	List<Task> findByAssigneeFirstName(@Param("name") String name);
 	
 	/*
 	 * Custom query to get the number of Tasks that are due each year.
@@ -49,13 +88,87 @@ public interface TaskRepository extends CrudRepository<Task, Long> {
 	 * 
 	 * The outer list represents a collection of result rows.
 	 * Inner list contains two values - one for grouped year and the other for the corresponding number of tasks due that year.
+	 * 
+	 * This reads every task on each call. TaskCountRepository.countByDueYear returns the same numbers, typed,
+	 * from the task_count aggregate.
 	 */
 	@Query("select count(*), year(t.dueDate) from Task t group by year(t.dueDate)")
 	List<List<Integer>> countByDueYear();
 	
+	/*
+	 * KEYSET SCROLLING
+	 * 
+	 * The finders above return every matching row. The variants below return one Window at a time.
+	 * Passing a ScrollPosition (built from the last row of the previous window, see ScrollTokens) makes
+	 * Spring Data add "where (dueDate, id) > (?, ?)" to the query, and Limit caps the window size.
+	 * The sort must be unique for this to be stable, hence the id tie-breaker after dueDate.
+	 * 
+	 * Task.campaign and Task.assignee are fetched in the same query with @EntityGraph; otherwise
+	 * each window would be followed by one SELECT per distinct campaign and worker read.
+	 * 
+	 * The *_SCROLL_KEYS constants list the keyset properties for ScrollTokens.decode().
+	 */
+	Map<String, Class<?>> DUE_DATE_SCROLL_KEYS = ScrollTokens.keys("dueDate", LocalDate.class, "id", Long.class);
+	
+	Map<String, Class<?>> ID_SCROLL_KEYS = ScrollTokens.keys("id", Long.class);
+	
+	@EntityGraph(attributePaths = {"campaign", "assignee"})
+	Window<Task> findByDueDateGreaterThanOrderByDueDateAscIdAsc(LocalDate dueDate, ScrollPosition position, Limit limit);
+	
+	@EntityGraph(attributePaths = {"campaign", "assignee"})
+	Window<Task> findByDueDateBeforeAndStatusEqualsOrderByDueDateAscIdAsc(LocalDate dueDate, TaskStatus status,
+			ScrollPosition position, Limit limit);
+	
+	@EntityGraph(attributePaths = {"campaign", "assignee"})
+	Window<Task> findByAssigneeFirstNameOrderByIdAsc(String name, ScrollPosition position, Limit limit);
+	
+	@EntityGraph(attributePaths = {"campaign", "assignee"})
+	Window<Task> findAllByOrderByIdAsc(ScrollPosition position, Limit limit);
+	
+	/*
+	 * PROJECTIONS
+	 * 
+	 * Task list rows (see TaskRow) read straight into records. The assignee is a left join,
+	 * so unassigned tasks are listed with a null email.
+	 */
+	@Query("select new com.kelley.lsd.persistence.projection.TaskRow(t.id, t.name, t.dueDate, t.status, a.email) "
+			+ "from Task t join t.campaign c left join t.assignee a where c.code = :code order by t.dueDate, t.id")
+	List<TaskRow> findRowsByCampaignCode(@Param("code") String code);
+	
+	@Query("select new com.kelley.lsd.persistence.projection.TaskRow(t.id, t.name, t.dueDate, t.status, a.email) "
+			+ "from Task t left join t.assignee a where t.dueDate < :dueDate and t.status = :status order by t.dueDate, t.id")
+	List<TaskRow> findRowsByDueDateBeforeAndStatus(@Param("dueDate") LocalDate dueDate, @Param("status") TaskStatus status);
+	
+	/*
+	 * STREAMING
+	 * 
+	 * findAll() and the List finders above build the whole result in memory before returning. These return a Stream
+	 * backed by an open JDBC result set instead, read EXPORT_FETCH_SIZE rows per round trip. They must be called in a
+	 * transaction and the stream closed (try-with-resources) when done.
+	 * 
+	 * The tasks are loaded read-only, so Hibernate keeps no snapshot for dirty checking, but it still keeps every
+	 * loaded entity in the persistence context. Callers that read many rows must clear it as they go
+	 * (see TaskExportService). Campaign and assignee are fetched in the same query.
+	 */
+	String EXPORT_FETCH_SIZE = "1000";
+	
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("select t from Task t join fetch t.campaign left join fetch t.assignee order by t.id")
+	Stream<Task> streamAllByOrderByIdAsc();
+	
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("select t from Task t join fetch t.campaign left join fetch t.assignee where t.dueDate > :dueDate order by t.dueDate, t.id")
+	Stream<Task> streamByDueDateGreaterThan(@Param("dueDate") LocalDate dueDate);
+	
+	
 	
 	
 	
 	
-
 }
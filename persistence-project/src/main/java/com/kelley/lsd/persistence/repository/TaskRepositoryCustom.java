@@ -0,0 +1,47 @@
+package com.kelley.lsd.persistence.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.projection.TaskRow;
+
+/*
+ * Custom repository fragment, implemented by TaskRepositoryCustomImpl.
+ *
+ * Set-based status transitions. Each moves every matching task that is currently in status "from" to status "to"
+ * with a single UPDATE statement, without loading any Task, and returns the number of tasks changed.
+ * The matching tasks are locked (SELECT ... FOR UPDATE) until the transaction ends; beyond a thousand of them
+ * the UPDATE is issued once per thousand.
+ * Task.version is incremented, so a concurrent edit of one of those tasks through its entity fails with an
+ * optimistic locking error instead of overwriting the new status.
+ *
+ * The task_count aggregate and the outbox are updated in the same transaction. After commit the WorkloadIndex is
+ * updated, and the DeadlineTracker when tasks enter or leave DONE. The search index only holds task names and is not
+ * affected. Like @Modifying(clearAutomatically = true), the caller's persistence context is flushed before and
+ * cleared after, so no stale Task is left in it.
+ */
+public interface TaskRepositoryCustom {
+	
+	// E.g. every overdue TO_DO task to ON_HOLD
+	int updateStatusByDueDateBefore(LocalDate dueDate, TaskStatus from, TaskStatus to);
+	
+	int updateStatusByCampaignId(long campaignId, TaskStatus from, TaskStatus to);
+	
+	int updateStatusByIdIn(Collection<Long> ids, TaskStatus from, TaskStatus to);
+	
+	/*
+	 * The TaskRow finders of TaskRepository, one Window at a time. Spring Data only scrolls derived queries, not
+	 * @Query constructor expressions, so the keyset predicate "(dueDate, id) > (?, ?)" is added here. The position
+	 * is decoded with TaskRepository.DUE_DATE_SCROLL_KEYS; rows come in the same order as from the List finders.
+	 */
+	Window<TaskRow> scrollRowsByCampaignCode(String code, ScrollPosition position, Limit limit);
+	
+	Window<TaskRow> scrollRowsByDueDateBeforeAndStatus(LocalDate dueDate, TaskStatus status, ScrollPosition position,
+			Limit limit);
+	
+}
@@ -0,0 +1,170 @@
+package com.kelley.lsd.persistence.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.kelley.lsd.persistence.aggregate.TaskCountDeltas;
+import com.kelley.lsd.persistence.deadline.DeadlineTracker;
+import com.kelley.lsd.persistence.model.ChangeOperation;
+import com.kelley.lsd.persistence.model.ChangedEntity;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.outbox.OutboxEventListener;
+import com.kelley.lsd.persistence.projection.TaskRow;
+import com.kelley.lsd.persistence.workload.WorkloadDeltas;
+import com.kelley.lsd.persistence.workload.WorkloadIndex;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+/*
+ * The DeadlineTracker and WorkloadIndex are optional because slice tests such as @DataJpaTest do not contain them.
+ */
+@Transactional
+class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+	
+	// Tasks per IN list once the matching ones are locked
+	private static final int UPDATE_BATCH_SIZE = 1000;
+	
+	// As in TaskRepository.findRowsByCampaignCode and findRowsByDueDateBeforeAndStatus
+	private static final String SELECT_ROWS = "select new com.kelley.lsd.persistence.projection.TaskRow("
+			+ "t.id, t.name, t.dueDate, t.status, a.email) from Task t ";
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	private final ObjectProvider<DeadlineTracker> deadlineTracker;
+	
+	private final ObjectProvider<WorkloadIndex> workloadIndex;
+	
+	TaskRepositoryCustomImpl(ObjectProvider<DeadlineTracker> deadlineTracker, ObjectProvider<WorkloadIndex> workloadIndex) {
+		this.deadlineTracker = deadlineTracker;
+		this.workloadIndex = workloadIndex;
+	}
+	
+	@Override
+	public int updateStatusByDueDateBefore(LocalDate dueDate, TaskStatus from, TaskStatus to) {
+		return updateStatus("t.dueDate < :dueDate", Map.of("dueDate", dueDate), from, to);
+	}
+	
+	@Override
+	public int updateStatusByCampaignId(long campaignId, TaskStatus from, TaskStatus to) {
+		return updateStatus("t.campaign.id = :campaignId", Map.of("campaignId", campaignId), from, to);
+	}
+	
+	@Override
+	public int updateStatusByIdIn(Collection<Long> ids, TaskStatus from, TaskStatus to) {
+		if (ids.isEmpty()) return 0;
+		return updateStatus("t.id in :ids", Map.of("ids", ids), from, to);
+	}
+	
+	/*
+	 * The matching tasks are selected FOR UPDATE first, in id order so that two transitions over the same tasks lock
+	 * them in the same order. Everything after works on exactly those ids: no other transaction can change their
+	 * status until this one ends, and a task that starts to match the condition meanwhile is left alone, so the
+	 * aggregate, the indexes and the outbox are adjusted for exactly the rows the UPDATE changes. The ids are also
+	 * needed for the outbox, which has one entry per task.
+	 */
+	private int updateStatus(String condition, Map<String, ?> parameters, TaskStatus from, TaskStatus to) {
+		if (from == to) return 0;
+		
+		entityManager.flush();
+		TypedQuery<Long> matching = entityManager.createQuery("select t.id from Task t where " + condition
+				+ " and t.status = :from order by t.id", Long.class);
+		parameters.forEach(matching::setParameter);
+		List<Long> ids = matching.setParameter("from", from).setLockMode(LockModeType.PESSIMISTIC_WRITE).getResultList();
+		
+		for (int start = 0; start < ids.size(); start += UPDATE_BATCH_SIZE) {
+			updateStatus(ids.subList(start, Math.min(start + UPDATE_BATCH_SIZE, ids.size())), from, to);
+		}
+		entityManager.clear();
+		return ids.size();
+	}
+	
+	// One batch of locked tasks, all still in status from
+	private void updateStatus(List<Long> ids, TaskStatus from, TaskStatus to) {
+		String where = "where t.id in :ids and t.status = :from";
+		Map<String, ?> parameters = Map.of("ids", ids);
+		
+		TaskCountDeltas.moveTasks(entityManager, where, parameters, from, to);
+		if (from == TaskStatus.DONE || to == TaskStatus.DONE) trackDeadlines(where, parameters, from, to);
+		workloadIndex.ifAvailable(index -> WorkloadDeltas.moveTasks(entityManager, where, parameters, from, to).applyAfterCommit(index));
+		OutboxEventListener.record(entityManager, ChangedEntity.TASK, ChangeOperation.UPDATE, ids);
+		
+		entityManager.createQuery("update Task t set t.status = :to, t.version = t.version + 1 " + where)
+				.setParameter("ids", ids)
+				.setParameter("from", from)
+				.setParameter("to", to)
+				.executeUpdate();
+	}
+	
+	/*
+	 * Tasks leaving DONE have a deadline again and tasks entering DONE no longer have one. The DeadlineTracker is told
+	 * after commit; this reads the (id, dueDate) of the matching tasks only, and only for transitions to or from DONE.
+	 */
+	private void trackDeadlines(String where, Map<String, ?> parameters, TaskStatus from, TaskStatus to) {
+		DeadlineTracker tracker = deadlineTracker.getIfAvailable();
+		if (tracker == null) return;
+		
+		TypedQuery<Object[]> query = entityManager.createQuery("select t.id, t.dueDate from Task t " + where, Object[].class);
+		parameters.forEach(query::setParameter);
+		List<Object[]> tasks = query.setParameter("from", from).getResultList();
+		tracker.afterCommit(t -> tasks.forEach(row -> t.track((Long) row[0], (LocalDate) row[1], to)));
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public Window<TaskRow> scrollRowsByCampaignCode(String code, ScrollPosition position, Limit limit) {
+		return scrollRows("join t.campaign c left join t.assignee a where c.code = :code", Map.of("code", code),
+				position, limit);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public Window<TaskRow> scrollRowsByDueDateBeforeAndStatus(LocalDate dueDate, TaskStatus status,
+			ScrollPosition position, Limit limit) {
+		return scrollRows("left join t.assignee a where t.dueDate < :dueDate and t.status = :status",
+				Map.of("dueDate", dueDate, "status", status), position, limit);
+	}
+	
+	/*
+	 * One row more than the limit is read to tell whether another window follows. The position is the (dueDate, id)
+	 * of the last row of the previous window, or empty for the first window.
+	 */
+	private Window<TaskRow> scrollRows(String condition, Map<String, ?> parameters, ScrollPosition position, Limit limit) {
+		if (!(position instanceof KeysetScrollPosition keyset) || keyset.scrollsBackward()) {
+			throw new IllegalArgumentException("Only forward keyset positions are supported: " + position);
+		}
+		boolean first = keyset.getKeys().isEmpty();
+		TypedQuery<TaskRow> query = entityManager.createQuery(SELECT_ROWS + condition
+				+ (first ? "" : " and (t.dueDate > :afterDueDate or (t.dueDate = :afterDueDate and t.id > :afterId))")
+				+ " order by t.dueDate, t.id", TaskRow.class);
+		parameters.forEach(query::setParameter);
+		if (!first) {
+			query.setParameter("afterDueDate", keyset.getKeys().get("dueDate")).setParameter("afterId", keyset.getKeys().get("id"));
+		}
+		if (limit.isLimited()) query.setMaxResults(limit.max() + 1);
+		
+		List<TaskRow> rows = query.getResultList();
+		boolean hasNext = limit.isLimited() && rows.size() > limit.max();
+		List<TaskRow> window = hasNext ? rows.subList(0, limit.max()) : rows;
+		return Window.from(window, index -> {
+			Map<String, Object> keys = new LinkedHashMap<>();
+			keys.put("dueDate", window.get(index).dueDate());
+			keys.put("id", window.get(index).id());
+			return ScrollPosition.forward(keys);
+		}, hasNext);
+	}
+	
+}
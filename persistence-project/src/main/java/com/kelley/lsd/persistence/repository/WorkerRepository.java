@@ -4,5 +4,5 @@ import org.springframework.data.repository.CrudRepository;
 
 import com.kelley.lsd.persistence.model.Worker;
 
-public interface WorkerRepository extends CrudRepository<Worker, Long> {
+public interface WorkerRepository extends CrudRepository<Worker, Long>, WorkerRepositoryCustom {
 }
@@ -0,0 +1,15 @@
+package com.kelley.lsd.persistence.repository;
+
+import java.util.Optional;
+
+import com.kelley.lsd.persistence.model.Worker;
+
+/*
+ * Custom repository fragment, implemented by WorkerRepositoryCustomImpl.
+ * Natural-id lookup by email, served from the second-level cache when warm (see CampaignRepositoryCustom).
+ */
+public interface WorkerRepositoryCustom {
+	
+	Optional<Worker> findByEmail(String email);
+	
+}
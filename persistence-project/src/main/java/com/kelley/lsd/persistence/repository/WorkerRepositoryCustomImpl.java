@@ -0,0 +1,24 @@
+package com.kelley.lsd.persistence.repository;
+
+import java.util.Optional;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.kelley.lsd.persistence.model.Worker;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+@Transactional(readOnly = true)
+class WorkerRepositoryCustomImpl implements WorkerRepositoryCustom {
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Override
+	public Optional<Worker> findByEmail(String email) {
+		return entityManager.unwrap(Session.class).bySimpleNaturalId(Worker.class).loadOptional(email);
+	}
+	
+}
@@ -0,0 +1,19 @@
+package com.kelley.lsd.persistence.scroll;
+
+/*
+ * Thrown by ScrollTokens.decode for a token the client sent that it did not get from the same query.
+ * The message is meant for the client; it names the expected keys at most, never the token's content.
+ */
+public class InvalidScrollTokenException extends IllegalArgumentException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidScrollTokenException(String message) {
+		super(message);
+	}
+
+	public InvalidScrollTokenException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+}
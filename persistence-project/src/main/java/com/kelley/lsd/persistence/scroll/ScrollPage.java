@@ -0,0 +1,28 @@
+package com.kelley.lsd.persistence.scroll;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Window;
+
+/*
+ * One window of a keyset scroll, as handed to callers.
+ * nextToken is null on the last window; otherwise it is passed back to fetch the next one.
+ */
+public record ScrollPage<T>(List<T> items, String nextToken) {
+	
+	public static <T> ScrollPage<T> of(Window<T> window) {
+		String nextToken = window.hasNext() && !window.isEmpty()
+				? ScrollTokens.encode(window.positionAt(window.size() - 1))
+				: null;
+		return new ScrollPage<>(window.getContent(), nextToken);
+	}
+	
+	public <R> ScrollPage<R> map(Function<? super T, ? extends R> mapper) {
+		return new ScrollPage<>(items.stream().<R>map(mapper).toList(), nextToken);
+	}
+	
+	public boolean hasNext() {
+		return nextToken != null;
+	}
+}
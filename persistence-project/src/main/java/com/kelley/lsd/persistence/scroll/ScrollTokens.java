@@ -0,0 +1,91 @@
+package com.kelley.lsd.persistence.scroll;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Converts keyset scroll positions to and from opaque continuation tokens.
+ *
+ * A keyset position is the sort key of the last row a caller has seen, e.g. {dueDate=2025-01-12, id=42}.
+ * The next window is fetched with "where (dueDate, id) > (:dueDate, :id) order by dueDate, id limit n",
+ * which an index can serve directly. Unlike OFFSET paging, the database never reads and discards the
+ * rows of earlier pages, so the 10,000th window costs the same as the first.
+ *
+ * Tokens are URL-safe Base64 JSON. They are not signed; decoding only accepts the keys (and value types)
+ * the calling query expects, so a tampered token can at worst move the cursor.
+ */
+public final class ScrollTokens {
+	
+	private static final ObjectMapper MAPPER = new ObjectMapper()
+			.registerModule(new JavaTimeModule())
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+	
+	private ScrollTokens() {}
+	
+	/*
+	 * The keyTypes of a query sorted by these keys, in sort order. Map.of would not do: its iteration order is
+	 * unspecified, and decode() builds the position in the order keyTypes iterates.
+	 */
+	public static Map<String, Class<?>> keys(String key, Class<?> type) {
+		return Collections.unmodifiableMap(new LinkedHashMap<>(Map.of(key, type)));
+	}
+	
+	public static Map<String, Class<?>> keys(String first, Class<?> firstType, String second, Class<?> secondType) {
+		Map<String, Class<?>> keys = new LinkedHashMap<>();
+		keys.put(first, firstType);
+		keys.put(second, secondType);
+		return Collections.unmodifiableMap(keys);
+	}
+	
+	public static String encode(ScrollPosition position) {
+		if (!(position instanceof KeysetScrollPosition keyset)) {
+			throw new IllegalArgumentException("Only keyset scroll positions can be encoded: " + position);
+		}
+		try {
+			byte[] json = MAPPER.writeValueAsBytes(keyset.getKeys());
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Cannot encode scroll position " + position, e);
+		}
+	}
+	
+	/*
+	 * Returns the position encoded in the token, or the start of the scroll when the token is null or blank.
+	 * keyTypes lists the sort keys of the query in order, e.g. {dueDate=LocalDate.class, id=Long.class}.
+	 * Throws InvalidScrollTokenException when the token is not one encode() made for those keys.
+	 */
+	public static ScrollPosition decode(String token, Map<String, Class<?>> keyTypes) {
+		if (token == null || token.isBlank()) return ScrollPosition.keyset();
+		
+		Map<?, ?> raw;
+		try {
+			raw = MAPPER.readValue(Base64.getUrlDecoder().decode(token), Map.class);
+		} catch (IllegalArgumentException | IOException e) {
+			throw new InvalidScrollTokenException("Invalid scroll token", e);
+		}
+		if (!raw.keySet().equals(keyTypes.keySet())) {
+			throw new InvalidScrollTokenException("Invalid scroll token: expected keys " + keyTypes.keySet());
+		}
+		
+		Map<String, Object> keys = new LinkedHashMap<>();
+		for (Map.Entry<String, Class<?>> key : keyTypes.entrySet()) {
+			try {
+				keys.put(key.getKey(), MAPPER.convertValue(raw.get(key.getKey()), key.getValue()));
+			} catch (IllegalArgumentException e) {
+				throw new InvalidScrollTokenException("Invalid scroll token: bad value for " + key.getKey(), e);
+			}
+		}
+		return ScrollPosition.forward(keys);
+	}
+}
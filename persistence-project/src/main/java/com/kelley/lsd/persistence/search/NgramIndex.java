@@ -0,0 +1,201 @@
+package com.kelley.lsd.persistence.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over one text field, e.g. Campaign.name.
+ *
+ * Every indexed text is lower-cased and split into overlapping 3-character grams ("spring" -> spr, pri, rin, ing).
+ * For each gram the index keeps the set of ids whose text contains it. A substring query is answered by
+ * intersecting the id sets of the query's own grams, smallest first, and then checking the few remaining
+ * candidates with String.contains() to drop false positives. That replaces a full-table '%query%' LIKE scan
+ * with a handful of hash lookups.
+ *
+ * Queries shorter than three characters have no grams and fall back to checking every text.
+ *
+ * Thread safe: updates take the write lock, searches the read lock.
+ */
+public class NgramIndex {
+
+	static final int GRAM_LENGTH = 3;
+
+	private final Map<String, Set<Long>> postings = new HashMap<>();
+
+	// Current text per id, needed to remove the old grams on update and to verify candidates.
+	private final Map<Long, String> texts = new HashMap<>();
+
+	/*
+	 * Only used while the index is being rebuilt from the database: ids removed by a live update during the rebuild,
+	 * so that a stale row read by the rebuild does not bring them back. Dropped by finishRebuild(), after which
+	 * removals no longer need remembering.
+	 */
+	private Set<Long> tombstones;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	public NgramIndex() {
+		this(false);
+	}
+
+	private NgramIndex(boolean rebuilding) {
+		this.tombstones = rebuilding ? new HashSet<>() : null;
+	}
+
+	static NgramIndex forRebuild() {
+		return new NgramIndex(true);
+	}
+
+	/*
+	 * One search hit. rank is lower for better matches: 0 exact, 1 prefix, 2 start of a word, 3 anywhere.
+	 */
+	public record Match(long id, int rank, int length) {
+
+		static final Comparator<Match> BEST_FIRST = Comparator.comparingInt(Match::rank)
+				.thenComparingInt(Match::length)
+				.thenComparingLong(Match::id);
+	}
+
+	public void put(long id, String text) {
+		lock.writeLock().lock();
+		try {
+			if (tombstones != null) tombstones.remove(id);
+			putInternal(id, text);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*
+	 * Adds a row read by a rebuild, unless a live update has already put or removed this id.
+	 */
+	void load(long id, String text) {
+		lock.writeLock().lock();
+		try {
+			if (texts.containsKey(id) || (tombstones != null && tombstones.contains(id))) return;
+			putInternal(id, text);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(long id) {
+		lock.writeLock().lock();
+		try {
+			removeInternal(id);
+			if (tombstones != null) tombstones.add(id);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	void finishRebuild() {
+		lock.writeLock().lock();
+		try {
+			tombstones = null;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void putInternal(long id, String text) {
+		removeInternal(id);
+		if (text == null || text.isEmpty()) return;
+
+		String normalized = normalize(text);
+		texts.put(id, normalized);
+		for (String gram : grams(normalized)) {
+			postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+		}
+	}
+
+	private void removeInternal(long id) {
+		String previous = texts.remove(id);
+		if (previous == null) return;
+		for (String gram : grams(previous)) {
+			Set<Long> ids = postings.get(gram);
+			if (ids != null && ids.remove(id) && ids.isEmpty()) postings.remove(gram);
+		}
+	}
+
+	/*
+	 * Returns every id whose text contains the query (case-insensitive), best matches first.
+	 */
+	public List<Match> search(String query) {
+		if (query == null || query.isEmpty()) return List.of();
+		String normalized = normalize(query);
+
+		lock.readLock().lock();
+		try {
+			List<Match> matches = new ArrayList<>();
+			for (long id : candidates(normalized)) {
+				String text = texts.get(id);
+				int position = text.indexOf(normalized);
+				if (position >= 0) matches.add(new Match(id, rank(text, normalized, position), text.length()));
+			}
+			matches.sort(Match.BEST_FIRST);
+			return matches;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return texts.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private Set<Long> candidates(String query) {
+		Set<String> queryGrams = grams(query);
+		if (queryGrams.isEmpty()) return texts.keySet();
+
+		List<Set<Long>> lists = new ArrayList<>(queryGrams.size());
+		for (String gram : queryGrams) {
+			Set<Long> ids = postings.get(gram);
+			if (ids == null) return Set.of();
+			lists.add(ids);
+		}
+		lists.sort(Comparator.comparingInt(Set::size));
+
+		Set<Long> result = new HashSet<>(lists.get(0));
+		for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+			result.retainAll(lists.get(i));
+		}
+		return result;
+	}
+
+	private static int rank(String text, String query, int firstPosition) {
+		if (text.length() == query.length()) return 0;
+		if (firstPosition == 0) return 1;
+		for (int position = firstPosition; position >= 0; position = text.indexOf(query, position + 1)) {
+			if (!Character.isLetterOrDigit(text.charAt(position - 1))) return 2;
+		}
+		return 3;
+	}
+
+	static String normalize(String text) {
+		return text.toLowerCase(Locale.ROOT);
+	}
+
+	static Set<String> grams(String normalized) {
+		if (normalized.length() < GRAM_LENGTH) return Set.of();
+		Set<String> grams = new HashSet<>();
+		for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+			grams.add(normalized.substring(i, i + GRAM_LENGTH));
+		}
+		return grams;
+	}
+
+}
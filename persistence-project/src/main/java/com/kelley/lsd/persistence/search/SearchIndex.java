@@ -0,0 +1,164 @@
+package com.kelley.lsd.persistence.search;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.kelley.lsd.persistence.search.NgramIndex.Match;
+
+/**
+ * Substring search over Campaign.name, Campaign.description and Task.name.
+ *
+ * Replaces the leading-wildcard LIKE finders (findByNameContaining, findWithDescriptionIsLike,
+ * findDistinctByTasksNameContaining...) for interactive search: those scan every row because no B-tree index
+ * can serve '%query%', while this answers from in-memory trigram indexes and returns ids, best match first.
+ * Callers load the entities they need with findAllById.
+ *
+ * The indexes are kept current by SearchIndexEntityListener after each commit, and rebuilt from the database
+ * at startup by SearchIndexInitializer. Bulk JPQL updates and deletes bypass entity callbacks, so code that
+ * issues them must update this index itself.
+ */
+@Component
+public class SearchIndex {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(SearchIndex.class);
+	
+	// A match in the description ranks below any match in the name
+	private static final int DESCRIPTION_RANK_OFFSET = 4;
+	
+	private volatile Indexes live = new Indexes(new NgramIndex(), new NgramIndex(), new NgramIndex());
+	
+	// Non-null while a rebuild is running; live updates are applied to it as well so none are lost by the swap.
+	private volatile Indexes pending;
+	
+	private record Indexes(NgramIndex campaignNames, NgramIndex campaignDescriptions, NgramIndex taskNames) {}
+	
+	/*
+	 * Passed to rebuild(); the caller feeds it every row from the database.
+	 */
+	public interface Loader {
+		void loadCampaign(long id, String name, String description);
+		
+		void loadTask(long id, String name);
+	}
+	
+	public void indexCampaign(long id, String name, String description) {
+		apply(indexes -> {
+			indexes.campaignNames().put(id, name);
+			indexes.campaignDescriptions().put(id, description);
+		});
+	}
+	
+	public void removeCampaign(long id) {
+		apply(indexes -> {
+			indexes.campaignNames().remove(id);
+			indexes.campaignDescriptions().remove(id);
+		});
+	}
+	
+	public void indexTask(long id, String name) {
+		apply(indexes -> indexes.taskNames().put(id, name));
+	}
+	
+	public void removeTask(long id) {
+		apply(indexes -> indexes.taskNames().remove(id));
+	}
+	
+	/*
+	 * For code that deletes rows with bulk JPQL: drops the given ids once the current transaction commits
+	 * (or immediately when there is none), mirroring what SearchIndexEntityListener does for single entities.
+	 */
+	public void removeAfterCommit(Collection<Long> campaignIds, Collection<Long> taskIds) {
+		Runnable removal = () -> {
+			campaignIds.forEach(this::removeCampaign);
+			taskIds.forEach(this::removeTask);
+		};
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					removal.run();
+				}
+			});
+		} else {
+			removal.run();
+		}
+	}
+	
+	/*
+	 * pending is read before live: rebuild() sets live before it clears pending, so an update that finds no pending
+	 * rebuild is sure to see the new indexes if the swap has happened. Read the other way round, an update could see
+	 * the old live indexes and then no pending ones, and apply itself only to the indexes being dropped.
+	 */
+	private void apply(Consumer<Indexes> update) {
+		Indexes rebuilding = pending;
+		Indexes current = live;
+		update.accept(current);
+		if (rebuilding != null && rebuilding != current) update.accept(rebuilding);
+	}
+	
+	/*
+	 * Ids of campaigns whose name or description contains the query, case-insensitive, best first:
+	 * exact, then prefix, then word-start, then anywhere; name matches before description matches.
+	 */
+	public List<Long> searchCampaignIds(String query, int limit) {
+		Indexes current = live;
+		Map<Long, Match> best = new HashMap<>();
+		for (Match match : current.campaignNames().search(query)) {
+			best.put(match.id(), match);
+		}
+		for (Match match : current.campaignDescriptions().search(query)) {
+			Match offset = new Match(match.id(), match.rank() + DESCRIPTION_RANK_OFFSET, match.length());
+			best.merge(match.id(), offset, (a, b) -> Match.BEST_FIRST.compare(a, b) <= 0 ? a : b);
+		}
+		return best.values().stream().sorted(Match.BEST_FIRST).limit(limit).map(Match::id).toList();
+	}
+	
+	/*
+	 * Ids of tasks whose name contains the query, best first.
+	 */
+	public List<Long> searchTaskIds(String query, int limit) {
+		return live.taskNames().search(query).stream().limit(limit).map(Match::id).toList();
+	}
+	
+	/*
+	 * Builds fresh indexes from the rows the loader is given, then swaps them in.
+	 * Searches keep using the old indexes until the swap.
+	 */
+	public synchronized void rebuild(Consumer<Loader> source) {
+		long started = System.nanoTime();
+		Indexes fresh = new Indexes(NgramIndex.forRebuild(), NgramIndex.forRebuild(), NgramIndex.forRebuild());
+		pending = fresh;
+		try {
+			source.accept(new Loader() {
+				@Override
+				public void loadCampaign(long id, String name, String description) {
+					fresh.campaignNames().load(id, name);
+					fresh.campaignDescriptions().load(id, description);
+				}
+				
+				@Override
+				public void loadTask(long id, String name) {
+					fresh.taskNames().load(id, name);
+				}
+			});
+			fresh.campaignNames().finishRebuild();
+			fresh.campaignDescriptions().finishRebuild();
+			fresh.taskNames().finishRebuild();
+			live = fresh;
+		} finally {
+			pending = null;
+		}
+		LOG.info("Search index rebuilt: {} campaigns, {} tasks in {} ms", fresh.campaignNames().size(),
+				fresh.taskNames().size(), (System.nanoTime() - started) / 1_000_000);
+	}
+	
+}
@@ -0,0 +1,75 @@
+package com.kelley.lsd.persistence.search;
+
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/*
+ * JPA entity listener (see @EntityListeners on Campaign and Task) that keeps the SearchIndex in sync.
+ *
+ * Hibernate creates listener instances through Spring, so the SearchIndex can be injected. It is looked up
+ * through an ObjectProvider because slice tests such as @DataJpaTest do not contain a SearchIndex bean.
+ *
+ * The callbacks fire when the SQL is executed, before commit, so the index update is deferred until the
+ * transaction commits; a rolled-back change never reaches the index.
+ */
+public class SearchIndexEntityListener {
+	
+	private final ObjectProvider<SearchIndex> searchIndex;
+	
+	public SearchIndexEntityListener(ObjectProvider<SearchIndex> searchIndex) {
+		this.searchIndex = searchIndex;
+	}
+	
+	@PostPersist
+	@PostUpdate
+	void onSave(Object entity) {
+		if (entity instanceof Campaign campaign) {
+			long id = campaign.getId();
+			String name = campaign.getName();
+			String description = campaign.getDescription();
+			afterCommit(index -> index.indexCampaign(id, name, description));
+		} else if (entity instanceof Task task) {
+			long id = task.getId();
+			String name = task.getName();
+			afterCommit(index -> index.indexTask(id, name));
+		}
+	}
+	
+	@PostRemove
+	void onRemove(Object entity) {
+		if (entity instanceof Campaign campaign) {
+			long id = campaign.getId();
+			afterCommit(index -> index.removeCampaign(id));
+		} else if (entity instanceof Task task) {
+			long id = task.getId();
+			afterCommit(index -> index.removeTask(id));
+		}
+	}
+	
+	private void afterCommit(Consumer<SearchIndex> update) {
+		SearchIndex index = searchIndex.getIfAvailable();
+		if (index == null) return;
+		
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					update.accept(index);
+				}
+			});
+		} else {
+			update.accept(index);
+		}
+	}
+	
+}
@@ -0,0 +1,71 @@
+package com.kelley.lsd.persistence.search;
+
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.kelley.lsd.persistence.replica.ReplicaRouting;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/*
+ * Fills the SearchIndex from the database when the application starts (before ApplicationRunners such as
+ * PersistenceProjectApplication.run), and on demand through rebuild().
+ *
+ * Rows are streamed as (id, text) tuples, not entities, so the rebuild neither hydrates entities nor
+ * grows the persistence context.
+ */
+@Component
+public class SearchIndexInitializer {
+	
+	private static final int FETCH_SIZE = 1000;
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	private final SearchIndex searchIndex;
+	
+	private final TransactionTemplate readOnlyTransaction;
+	
+	private final boolean rebuildOnStartup;
+	
+	public SearchIndexInitializer(SearchIndex searchIndex, PlatformTransactionManager transactionManager,
+			@Value("${persistence.search.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+		this.searchIndex = searchIndex;
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+		this.rebuildOnStartup = rebuildOnStartup;
+	}
+	
+	@EventListener(ApplicationStartedEvent.class)
+	public void onStartup() {
+		if (rebuildOnStartup) rebuild();
+	}
+	
+	// From the primary: a replica may not have the latest commits, and the index is only kept current from here on
+	public void rebuild() {
+		ReplicaRouting.onPrimary(() -> searchIndex.rebuild(loader -> readOnlyTransaction.executeWithoutResult(status -> {
+			try (Stream<Object[]> campaigns = entityManager
+					.createQuery("select c.id, c.name, c.description from Campaign c", Object[].class)
+					.setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+					.getResultStream()) {
+				campaigns.forEach(row -> loader.loadCampaign((Long) row[0], (String) row[1], (String) row[2]));
+			}
+			
+			try (Stream<Object[]> tasks = entityManager
+					.createQuery("select t.id, t.name from Task t", Object[].class)
+					.setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+					.getResultStream()) {
+				tasks.forEach(row -> loader.loadTask((Long) row[0], (String) row[1]));
+			}
+		})));
+	}
+	
+}
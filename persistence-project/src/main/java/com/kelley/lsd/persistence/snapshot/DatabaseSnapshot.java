@@ -0,0 +1,174 @@
+package com.kelley.lsd.persistence.snapshot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HexFormat;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+/**
+ * A copy of the whole H2 database in one file, so that an in-memory database can be brought back after a restart
+ * without saving every entity again.
+ *
+ * The snapshot is written with H2's SCRIPT command (as ReplicaSynchronizer copies the primary), deflate-compressed,
+ * from a serializable transaction so all tables are as of the same moment. It holds the schema, the rows and the
+ * current values of the sequences. Next to it, <file>.sha256 holds the SHA-256 of the compressed file, and
+ * <file>.schema the fingerprint of the entity mappings it was written for (see SchemaFingerprint). All three are
+ * written under temporary names and then moved into place, so a snapshot interrupted part way leaves the previous one
+ * (or a checksum that does not match, which is treated as no snapshot). A snapshot of another schema is not restored
+ * either: its tables would not match the entities.
+ *
+ * A restore runs the file with RUNSCRIPT, inside the engine: the time it takes is reading and decompressing the
+ * file and inserting rows, with none of Hibernate's work per entity. See SnapshotConfiguration for when it runs.
+ */
+public class DatabaseSnapshot {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(DatabaseSnapshot.class);
+	
+	// What was written. fileName is the name only: it is returned to clients, who have no business knowing the path
+	public record Snapshot(String fileName, long bytes, String sha256) {}
+	
+	private final DataSource dataSource;
+	
+	private final Path file;
+	
+	private final Path checksumFile;
+	
+	private final Path schemaFile;
+	
+	private final String schema;
+	
+	private volatile boolean restored;
+	
+	// schema identifies the entity mappings the database is created from; snapshots are only restored for the same one
+	public DatabaseSnapshot(DataSource dataSource, Path file, String schema) {
+		this.dataSource = dataSource;
+		this.file = file.toAbsolutePath();
+		this.checksumFile = this.file.resolveSibling(this.file.getFileName() + ".sha256");
+		this.schemaFile = this.file.resolveSibling(this.file.getFileName() + ".schema");
+		this.schema = schema;
+	}
+	
+	public synchronized Snapshot write() {
+		long started = System.nanoTime();
+		Path script = file.resolveSibling(file.getFileName() + ".tmp");
+		Path checksum = checksumFile.resolveSibling(checksumFile.getFileName() + ".tmp");
+		Path schemaStamp = schemaFile.resolveSibling(schemaFile.getFileName() + ".tmp");
+		try {
+			Files.createDirectories(file.getParent());
+			// SCRIPT TO will not overwrite a file left behind by a snapshot that failed
+			Files.deleteIfExists(script);
+			try (Connection connection = dataSource.getConnection();
+					Statement statement = connection.createStatement()) {
+				connection.setAutoCommit(false);
+				connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+				statement.execute("SCRIPT NOPASSWORDS NOSETTINGS DROP TO " + literal(script) + " COMPRESSION DEFLATE");
+				connection.commit();
+			}
+			String sha256 = sha256(script);
+			Files.writeString(checksum, sha256 + "  " + file.getFileName() + "\n");
+			Files.writeString(schemaStamp, schema + "\n");
+			Files.move(script, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			Files.move(checksum, checksumFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			Files.move(schemaStamp, schemaFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			
+			long bytes = Files.size(file);
+			LOG.info("Database snapshot written to {}: {} bytes in {} ms", file, bytes, (System.nanoTime() - started) / 1_000_000);
+			return new Snapshot(file.getFileName().toString(), bytes, sha256);
+		} catch (SQLException | IOException e) {
+			throw new DataAccessResourceFailureException("Could not write the database snapshot to " + file, e);
+		}
+	}
+	
+	/*
+	 * Loads the snapshot into the database, which has to be empty: a snapshot is never restored over existing tables.
+	 * Returns false, leaving the database empty, if there is no snapshot, its checksum does not match, it was written
+	 * for another schema, or it fails to run; the caller then creates the schema as it would without one.
+	 */
+	public synchronized boolean restore() {
+		long started = System.nanoTime();
+		try {
+			if (!Files.exists(file)) {
+				LOG.info("No database snapshot at {}", file);
+				return false;
+			}
+			String expected = Files.exists(checksumFile) ? Files.readString(checksumFile).split("\\s+", 2)[0] : null;
+			String actual = sha256(file);
+			if (!actual.equals(expected)) {
+				LOG.warn("Database snapshot {} is corrupt or incomplete (SHA-256 {}, expected {}), not restored", file, actual, expected);
+				return false;
+			}
+			String written = Files.exists(schemaFile) ? Files.readString(schemaFile).strip() : null;
+			if (!schema.equals(written)) {
+				LOG.warn("Database snapshot {} was written for another schema ({}, expected {}), not restored", file, written, schema);
+				return false;
+			}
+		} catch (IOException e) {
+			LOG.warn("Could not read database snapshot {}, not restored", file, e);
+			return false;
+		}
+		
+		try (Connection connection = dataSource.getConnection();
+				Statement statement = connection.createStatement()) {
+			if (hasTables(statement)) {
+				LOG.warn("Database is not empty, snapshot {} not restored", file);
+				return false;
+			}
+			try {
+				statement.execute("RUNSCRIPT FROM " + literal(file) + " COMPRESSION DEFLATE");
+			} catch (SQLException e) {
+				LOG.warn("Database snapshot {} failed to run, not restored", file, e);
+				// Whatever the script created before it failed, so the schema can be created from scratch
+				statement.execute("DROP ALL OBJECTS");
+				return false;
+			}
+		} catch (SQLException e) {
+			throw new DataAccessResourceFailureException("Could not restore the database snapshot " + file, e);
+		}
+		restored = true;
+		LOG.info("Database restored from snapshot {} in {} ms", file, (System.nanoTime() - started) / 1_000_000);
+		return true;
+	}
+	
+	// Whether restore() has loaded the snapshot since startup
+	public boolean isRestored() {
+		return restored;
+	}
+	
+	private static boolean hasTables(Statement statement) throws SQLException {
+		try (ResultSet tables = statement.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES "
+				+ "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE'")) {
+			tables.next();
+			return tables.getLong(1) > 0;
+		}
+	}
+	
+	// SCRIPT and RUNSCRIPT take the file name as a literal, not as a parameter
+	private static String literal(Path path) {
+		return "'" + path.toString().replace("'", "''") + "'";
+	}
+	
+	private static String sha256(Path path) throws IOException {
+		try (DigestInputStream in = new DigestInputStream(Files.newInputStream(path), MessageDigest.getInstance("SHA-256"))) {
+			in.transferTo(OutputStream.nullOutputStream());
+			return HexFormat.of().formatHex(in.getMessageDigest().digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+}
@@ -0,0 +1,72 @@
+package com.kelley.lsd.persistence.snapshot;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.util.ClassUtils;
+
+/*
+ * A SHA-256 of the entity mappings, stamped on each snapshot so that one written for other entities is not restored.
+ *
+ * It has to be known before the EntityManagerFactory exists (the restore runs while it is being built), so it is taken
+ * from the classes Hibernate will map rather than from its metamodel: for each managed class and its superclasses, the
+ * class annotations and, in name order, each persistent field's name, type and annotations, plus the constants of enum
+ * fields, which H2 columns list. A change to any of these changes the fingerprint, including some that leave the
+ * schema as it was; such a snapshot is skipped like a corrupt one, and the schema is created from scratch.
+ */
+final class SchemaFingerprint {
+	
+	private SchemaFingerprint() {}
+	
+	static String of(PersistenceManagedTypes managedTypes) {
+		StringBuilder mappings = new StringBuilder();
+		managedTypes.getManagedClassNames().stream().sorted().forEach(name -> {
+			for (Class<?> type = load(name); type != Object.class; type = type.getSuperclass()) {
+				describe(type, mappings);
+			}
+		});
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(mappings.toString().getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(digest);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static void describe(Class<?> type, StringBuilder mappings) {
+		mappings.append(type.getName()).append(annotations(type.getAnnotations())).append('\n');
+		Field[] fields = type.getDeclaredFields();
+		Arrays.sort(fields, Comparator.comparing(Field::getName));
+		for (Field field : fields) {
+			if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) continue;
+			mappings.append('\t').append(field.getName()).append(' ').append(field.getGenericType().getTypeName())
+					.append(annotations(field.getAnnotations()));
+			if (field.getType().isEnum()) {
+				mappings.append(Arrays.stream(field.getType().getEnumConstants()).map(c -> ((Enum<?>) c).name()).toList());
+			}
+			mappings.append('\n');
+		}
+	}
+	
+	// Annotation.toString() lists every member, defaults included
+	private static String annotations(Annotation[] annotations) {
+		return Arrays.stream(annotations).map(Annotation::toString).sorted().toList().toString();
+	}
+	
+	private static Class<?> load(String name) {
+		try {
+			return ClassUtils.forName(name, SchemaFingerprint.class.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException("Managed class " + name + " not found", e);
+		}
+	}
+	
+}
@@ -0,0 +1,72 @@
+package com.kelley.lsd.persistence.snapshot;
+
+import java.nio.file.Path;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+
+/*
+ * When DatabaseSnapshot writes and restores:
+ * - on POST /snapshots (see SnapshotController), always
+ * - with persistence.snapshot.write-on-shutdown=true, when the application stops (see SnapshotOnShutdown)
+ * - with persistence.snapshot.restore-on-startup=true, at startup, before anything else uses the database
+ *
+ * The restore runs while the EntityManagerFactory is being built, from its Hibernate properties customizer: the
+ * DataSource exists by then, and nothing has read from it. A snapshot written for other entity mappings (an older
+ * version of the application) is not restored, as if it were corrupt: its fingerprint (see SchemaFingerprint) does not
+ * match. When the snapshot is restored, Hibernate validates the restored schema against the entities instead of
+ * creating it (ddl-auto would drop and recreate the restored tables), and data.sql is not run again. Otherwise startup
+ * carries on as without a snapshot, with the configured ddl-auto. The in-memory indexes and the task_count check are
+ * then built from the restored tables as usual.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+public class SnapshotConfiguration {
+	
+	@Bean
+	DatabaseSnapshot databaseSnapshot(DataSource dataSource, PersistenceManagedTypes managedTypes,
+			@Value("${persistence.snapshot.file:snapshots/testdb.sql.gz}") String file) {
+		return new DatabaseSnapshot(dataSource, Path.of(file), SchemaFingerprint.of(managedTypes));
+	}
+	
+	@Bean
+	HibernatePropertiesCustomizer snapshotRestore(DatabaseSnapshot databaseSnapshot,
+			@Value("${persistence.snapshot.restore-on-startup:false}") boolean restoreOnStartup) {
+		return properties -> {
+			if (restoreOnStartup && databaseSnapshot.restore()) {
+				properties.put(AvailableSettings.HBM2DDL_AUTO, "validate");
+			}
+		};
+	}
+	
+	// Replaces Spring Boot's data.sql initializer, which backs off when there is one
+	@Bean
+	SqlDataSourceScriptDatabaseInitializer dataSourceScriptDatabaseInitializer(DataSource dataSource,
+			SqlInitializationProperties properties, DatabaseSnapshot databaseSnapshot) {
+		return new SqlDataSourceScriptDatabaseInitializer(dataSource, properties) {
+			
+			@Override
+			public boolean initializeDatabase() {
+				return !databaseSnapshot.isRestored() && super.initializeDatabase();
+			}
+		};
+	}
+	
+	@Bean
+	@ConditionalOnProperty(name = "persistence.snapshot.write-on-shutdown")
+	SmartLifecycle snapshotOnShutdown(DatabaseSnapshot databaseSnapshot) {
+		return new SnapshotOnShutdown(databaseSnapshot);
+	}
+	
+}
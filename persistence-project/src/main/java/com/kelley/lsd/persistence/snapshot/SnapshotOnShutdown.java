@@ -0,0 +1,54 @@
+package com.kelley.lsd.persistence.snapshot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+
+/*
+ * Writes a snapshot when the application context stops.
+ *
+ * Lifecycles stop from the highest phase down. Phase 0 is below the web server's (it stops taking requests and
+ * finishes the ones in flight first), and stop() runs before any bean is destroyed: the EntityManagerFactory is still
+ * open, so ddl-auto=create-drop has not dropped the tables yet, and the connection pool still keeps the in-memory
+ * database alive.
+ */
+class SnapshotOnShutdown implements SmartLifecycle {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(SnapshotOnShutdown.class);
+	
+	private final DatabaseSnapshot databaseSnapshot;
+	
+	private volatile boolean running;
+	
+	SnapshotOnShutdown(DatabaseSnapshot databaseSnapshot) {
+		this.databaseSnapshot = databaseSnapshot;
+	}
+	
+	@Override
+	public void start() {
+		running = true;
+	}
+	
+	@Override
+	public void stop() {
+		running = false;
+		try {
+			databaseSnapshot.write();
+		} catch (DataAccessException e) {
+			// The previous snapshot, if any, is still in place
+			LOG.error("Database snapshot on shutdown failed", e);
+		}
+	}
+	
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+	
+	@Override
+	public int getPhase() {
+		return 0;
+	}
+	
+}
@@ -0,0 +1,62 @@
+package com.kelley.lsd.persistence.web;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.kelley.lsd.persistence.scroll.InvalidScrollTokenException;
+
+/*
+ * Maps persistence-layer exceptions to HTTP statuses (as RFC 9457 problem details).
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(ApiExceptionHandler.class);
+	
+	// Seconds a client is asked to wait after a 503
+	private static final String RETRY_AFTER = "1";
+	
+	/*
+	 * Malformed or mismatched scroll tokens (ScrollTokens.decode). Only this exception is a client error: any other
+	 * IllegalArgumentException is a bug on the server, left to the default handling, and its message is not echoed.
+	 */
+	@ExceptionHandler(InvalidScrollTokenException.class)
+	public ProblemDetail badRequest(InvalidScrollTokenException e) {
+		return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+	}
+	
+	// Unique or foreign key violations, e.g. a campaign code that is already taken
+	@ExceptionHandler(DataIntegrityViolationException.class)
+	public ProblemDetail conflict(DataIntegrityViolationException e) {
+		return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, "The request conflicts with existing data");
+	}
+	
+	// A task changed since the client read it (stale version), e.g. by a bulk status transition
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ProblemDetail staleData(OptimisticLockingFailureException e) {
+		return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, "The data was changed by someone else; read it again and retry");
+	}
+	
+	/*
+	 * With virtual threads there is no small request thread pool to queue in front of the database, so the
+	 * connection pool is the limit: a request that could not get a connection within
+	 * spring.datasource.hikari.connection-timeout ends up here and is told to retry, rather than waiting forever.
+	 */
+	@ExceptionHandler(CannotCreateTransactionException.class)
+	public ResponseEntity<ProblemDetail> unavailable(CannotCreateTransactionException e) {
+		LOG.warn("No database connection available: {}", e.getMessage());
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, RETRY_AFTER)
+				.body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, "Database busy, retry later"));
+	}
+	
+}
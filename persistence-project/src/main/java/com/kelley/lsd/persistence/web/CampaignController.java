@@ -0,0 +1,132 @@
+package com.kelley.lsd.persistence.web;
+
+import java.net.URI;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.projection.CampaignSummary;
+import com.kelley.lsd.persistence.projection.TaskRow;
+import com.kelley.lsd.persistence.purge.CampaignPurgeService;
+import com.kelley.lsd.persistence.purge.PurgeJob;
+import com.kelley.lsd.persistence.repository.CampaignRepository;
+import com.kelley.lsd.persistence.repository.TaskRepository;
+import com.kelley.lsd.persistence.scroll.ScrollPage;
+import com.kelley.lsd.persistence.scroll.ScrollTokens;
+
+/*
+ * Campaigns are addressed by their business key (code), which is served from the natural-id cache.
+ * Responses are records, never entities: Campaign.tasks is lazy and open-in-view is off, so serializing
+ * an entity would fail (or, with open-in-view, quietly load every task).
+ */
+@RestController
+@RequestMapping("/campaigns")
+public class CampaignController {
+	
+	private final CampaignRepository campaignRepository;
+	
+	private final TaskRepository taskRepository;
+	
+	private final CampaignPurgeService campaignPurgeService;
+	
+	public record CampaignRequest(String code, String name, String description) {}
+	
+	public record CampaignResponse(Long id, String code, String name, String description) {
+		
+		static CampaignResponse from(Campaign campaign) {
+			return new CampaignResponse(campaign.getId(), campaign.getCode(), campaign.getName(), campaign.getDescription());
+		}
+	}
+	
+	public record PurgeResponse(long campaignId, PurgeJob.State state, long deletedTasks, long totalTasks) {
+		
+		static PurgeResponse from(PurgeJob job) {
+			return new PurgeResponse(job.getCampaignId(), job.getState(), job.getDeletedTasks(), job.getTotalTasks());
+		}
+	}
+	
+	public CampaignController(CampaignRepository campaignRepository, TaskRepository taskRepository,
+			CampaignPurgeService campaignPurgeService) {
+		this.campaignRepository = campaignRepository;
+		this.taskRepository = taskRepository;
+		this.campaignPurgeService = campaignPurgeService;
+	}
+	
+	// Keyset-scrolled list ordered by code; pass the returned nextToken as "after" for the next window
+	@GetMapping
+	public ScrollPage<CampaignResponse> list(@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "50") int limit) {
+		return ScrollPage.of(campaignRepository.findAllByOrderByCodeAsc(
+				ScrollTokens.decode(after, CampaignRepository.CODE_SCROLL_KEYS), Limit.of(WebLimits.clamp(limit))))
+				.map(CampaignResponse::from);
+	}
+	
+	@GetMapping("/{code}")
+	public CampaignResponse get(@PathVariable String code) {
+		return CampaignResponse.from(find(code));
+	}
+	
+	@GetMapping("/{code}/summary")
+	public CampaignSummary summary(@PathVariable String code) {
+		return campaignRepository.findSummaryByCode(code).orElseThrow(() -> notFound(code));
+	}
+	
+	@GetMapping("/{code}/tasks")
+	public ScrollPage<TaskRow> tasks(@PathVariable String code, @RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "50") int limit) {
+		return ScrollPage.of(taskRepository.scrollRowsByCampaignCode(code,
+				ScrollTokens.decode(after, TaskRepository.DUE_DATE_SCROLL_KEYS), Limit.of(WebLimits.clamp(limit))));
+	}
+	
+	@PostMapping
+	public ResponseEntity<CampaignResponse> create(@RequestBody CampaignRequest request) {
+		Campaign campaign = campaignRepository.save(new Campaign(request.code(), request.name(), request.description()));
+		return ResponseEntity.created(URI.create("/campaigns/" + campaign.getCode())).body(CampaignResponse.from(campaign));
+	}
+	
+	// code is the natural id and cannot change
+	@PutMapping("/{code}")
+	@Transactional
+	public CampaignResponse update(@PathVariable String code, @RequestBody CampaignRequest request) {
+		Campaign campaign = find(code);
+		campaign.setName(request.name());
+		campaign.setDescription(request.description());
+		return CampaignResponse.from(campaign);
+	}
+	
+	// Deletes in the background (see CampaignPurgeService); poll the purge resource for progress
+	@DeleteMapping("/{code}")
+	public ResponseEntity<PurgeResponse> delete(@PathVariable String code) {
+		PurgeJob job = campaignPurgeService.purge(find(code).getId());
+		return ResponseEntity.accepted().location(URI.create("/campaigns/purges/" + job.getCampaignId()))
+				.body(PurgeResponse.from(job));
+	}
+	
+	@GetMapping("/purges/{campaignId}")
+	public PurgeResponse purge(@PathVariable long campaignId) {
+		return campaignPurgeService.getJob(campaignId).map(PurgeResponse::from)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No purge for campaign " + campaignId));
+	}
+	
+	private Campaign find(String code) {
+		return campaignRepository.findByCodeEquals(code).orElseThrow(() -> notFound(code));
+	}
+	
+	private static ResponseStatusException notFound(String code) {
+		return new ResponseStatusException(HttpStatus.NOT_FOUND, "No campaign with code " + code);
+	}
+	
+}
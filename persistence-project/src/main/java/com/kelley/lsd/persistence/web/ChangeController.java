@@ -0,0 +1,60 @@
+package com.kelley.lsd.persistence.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.kelley.lsd.persistence.outbox.ChangeFeed;
+import com.kelley.lsd.persistence.outbox.ChangeFeed.ChangeBatch;
+
+/*
+ * The change feed (see ChangeFeed). A consumer reads GET /changes?after=<cursor> until hasMore is false, passing the
+ * returned next each time, and then acknowledges the last cursor it has processed so the entries can be compacted.
+ */
+@RestController
+@RequestMapping("/changes")
+public class ChangeController {
+	
+	private final ChangeFeed changeFeed;
+	
+	public record HeadResponse(long cursor) {}
+	
+	public record AcknowledgeRequest(Long acknowledged) {}
+	
+	public ChangeController(ChangeFeed changeFeed) {
+		this.changeFeed = changeFeed;
+	}
+	
+	@GetMapping
+	public ChangeBatch read(@RequestParam(defaultValue = "0") long after, @RequestParam(defaultValue = "500") int limit) {
+		return changeFeed.read(after, WebLimits.clamp(limit));
+	}
+	
+	// Where to start reading after an initial full copy taken from now on
+	@GetMapping("/head")
+	public HeadResponse head() {
+		return new HeadResponse(changeFeed.head());
+	}
+	
+	@PutMapping("/consumers/{name}")
+	public ResponseEntity<Void> acknowledge(@PathVariable String name, @RequestBody AcknowledgeRequest request) {
+		if (request.acknowledged() == null) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "acknowledged is required");
+		changeFeed.acknowledge(name, request.acknowledged());
+		return ResponseEntity.noContent().build();
+	}
+	
+	@DeleteMapping("/consumers/{name}")
+	public ResponseEntity<Void> removeConsumer(@PathVariable String name) {
+		if (!changeFeed.removeConsumer(name)) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No consumer " + name);
+		return ResponseEntity.noContent().build();
+	}
+	
+}
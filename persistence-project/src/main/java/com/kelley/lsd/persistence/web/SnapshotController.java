@@ -0,0 +1,26 @@
+package com.kelley.lsd.persistence.web;
+
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.kelley.lsd.persistence.snapshot.DatabaseSnapshot;
+import com.kelley.lsd.persistence.snapshot.DatabaseSnapshot.Snapshot;
+
+// Writes a database snapshot now (see DatabaseSnapshot), replacing the previous one
+@RestController
+@RequestMapping("/snapshots")
+public class SnapshotController {
+	
+	private final DatabaseSnapshot databaseSnapshot;
+	
+	public SnapshotController(DatabaseSnapshot databaseSnapshot) {
+		this.databaseSnapshot = databaseSnapshot;
+	}
+	
+	@PostMapping
+	public Snapshot write() {
+		return databaseSnapshot.write();
+	}
+	
+}
@@ -0,0 +1,278 @@
+package com.kelley.lsd.persistence.web;
+
+import java.net.URI;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.kelley.lsd.persistence.archive.TaskArchiver;
+import com.kelley.lsd.persistence.export.TaskExportService;
+import com.kelley.lsd.persistence.importer.ImportFormat;
+import com.kelley.lsd.persistence.model.ArchivedTask;
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.model.Worker;
+import com.kelley.lsd.persistence.projection.TaskRow;
+import com.kelley.lsd.persistence.repository.ArchivedTaskRepository;
+import com.kelley.lsd.persistence.repository.CampaignRepository;
+import com.kelley.lsd.persistence.repository.TaskRepository;
+import com.kelley.lsd.persistence.repository.WorkerRepository;
+import com.kelley.lsd.persistence.scroll.ScrollPage;
+import com.kelley.lsd.persistence.scroll.ScrollTokens;
+import com.kelley.lsd.persistence.workload.TaskAssignmentService;
+import com.kelley.lsd.persistence.workload.TaskAssignmentService.Assignment;
+
+/*
+ * Tasks reference their campaign by code and their assignee by email, both resolved through natural-id lookups.
+ */
+@RestController
+@RequestMapping("/tasks")
+public class TaskController {
+	
+	private final TaskRepository taskRepository;
+	
+	private final CampaignRepository campaignRepository;
+	
+	private final WorkerRepository workerRepository;
+	
+	private final TaskExportService taskExportService;
+	
+	private final TaskAssignmentService taskAssignmentService;
+	
+	private final ArchivedTaskRepository archivedTaskRepository;
+	
+	private final TaskArchiver taskArchiver;
+	
+	/*
+	 * version is the one the client last read. When given on update it must still be current,
+	 * otherwise someone else changed the task in the meantime and the update is rejected with 409.
+	 */
+	public record TaskRequest(String name, String description, LocalDate dueDate, TaskStatus status, String campaignCode,
+			String assigneeEmail, Long version) {}
+	
+	public record TaskResponse(Long id, UUID uuid, long version, String name, String description, LocalDate dueDate,
+			TaskStatus status, String campaignCode, String assigneeEmail) {
+		
+		static TaskResponse from(Task task) {
+			return new TaskResponse(task.getId(), task.getUuid(), task.getVersion(), task.getName(), task.getDescription(),
+					task.getDueDate(), task.getStatus(), task.getCampaign().getCode(),
+					task.getAssignee() == null ? null : task.getAssignee().getEmail());
+		}
+	}
+	
+	/*
+	 * Selects the tasks by exactly one of dueBefore, campaignCode or ids.
+	 */
+	public record StatusTransitionRequest(LocalDate dueBefore, String campaignCode, List<Long> ids, TaskStatus from,
+			TaskStatus to) {}
+	
+	public record StatusTransitionResponse(int updated) {}
+	
+	public record ArchivedTaskResponse(Long id, UUID uuid, long version, String name, String description, LocalDate dueDate,
+			TaskStatus status, String campaignCode, String assigneeEmail, Instant archivedAt) {
+		
+		static ArchivedTaskResponse from(ArchivedTask task) {
+			return new ArchivedTaskResponse(task.getId(), task.getUuid(), task.getVersion(), task.getName(), task.getDescription(),
+					task.getDueDate(), task.getStatus(), task.getCampaign().getCode(),
+					task.getAssignee() == null ? null : task.getAssignee().getEmail(), task.getArchivedAt());
+		}
+	}
+	
+	public record ArchivalRequest(LocalDate dueBefore) {}
+	
+	public record ArchivalResponse(long archived) {}
+	
+	// Either the ids of the tasks to assign, or how many of the unassigned tasks to assign (earliest due first)
+	public record AssignmentRequest(List<Long> ids, Integer limit) {}
+	
+	public TaskController(TaskRepository taskRepository, CampaignRepository campaignRepository,
+			WorkerRepository workerRepository, TaskExportService taskExportService, TaskAssignmentService taskAssignmentService,
+			ArchivedTaskRepository archivedTaskRepository, TaskArchiver taskArchiver) {
+		this.taskRepository = taskRepository;
+		this.campaignRepository = campaignRepository;
+		this.workerRepository = workerRepository;
+		this.taskExportService = taskExportService;
+		this.taskAssignmentService = taskAssignmentService;
+		this.archivedTaskRepository = archivedTaskRepository;
+		this.taskArchiver = taskArchiver;
+	}
+	
+	// Keyset-scrolled list ordered by id; pass the returned nextToken as "after" for the next window
+	@GetMapping
+	public ScrollPage<TaskResponse> list(@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "50") int limit) {
+		return ScrollPage.of(taskRepository.findAllByOrderByIdAsc(
+				ScrollTokens.decode(after, TaskRepository.ID_SCROLL_KEYS), Limit.of(WebLimits.clamp(limit))))
+				.map(TaskResponse::from);
+	}
+	
+	@GetMapping("/{id}")
+	public TaskResponse get(@PathVariable long id) {
+		return TaskResponse.from(find(id));
+	}
+	
+	// Tasks still in the given status (TO_DO by default) that were due before the given date (today by default)
+	@GetMapping("/overdue")
+	public ScrollPage<TaskRow> overdue(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate before,
+			@RequestParam(defaultValue = "TO_DO") TaskStatus status, @RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "50") int limit) {
+		return ScrollPage.of(taskRepository.scrollRowsByDueDateBeforeAndStatus(before == null ? LocalDate.now() : before,
+				status, ScrollTokens.decode(after, TaskRepository.DUE_DATE_SCROLL_KEYS), Limit.of(WebLimits.clamp(limit))));
+	}
+	
+	/*
+	 * Every task (or those due after dueAfter) as ndjson or csv, in the format BulkImportService reads.
+	 * The body is written by TaskExportService on an async thread while the tasks are still being read,
+	 * so nothing is buffered beyond one chunk; see spring.mvc.async.request-timeout for long exports.
+	 */
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueAfter) {
+		ImportFormat exportFormat = format(format);
+		String fileName = "tasks." + exportFormat.name().toLowerCase(Locale.ROOT);
+		return ResponseEntity.ok()
+				.contentType(exportFormat == ImportFormat.CSV ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON)
+				.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+				.body(out -> taskExportService.exportTasks(dueAfter, exportFormat, out));
+	}
+	
+	@PostMapping
+	@Transactional
+	public ResponseEntity<TaskResponse> create(@RequestBody TaskRequest request) {
+		Task task = new Task(request.name(), request.description(), request.dueDate(),
+				request.status() == null ? TaskStatus.TO_DO : request.status(), campaign(request.campaignCode()));
+		task.setAssignee(assignee(request.assigneeEmail()));
+		taskRepository.save(task);
+		return ResponseEntity.created(URI.create("/tasks/" + task.getId())).body(TaskResponse.from(task));
+	}
+	
+	// The campaign of an existing task cannot be changed here
+	@PutMapping("/{id}")
+	@Transactional
+	public TaskResponse update(@PathVariable long id, @RequestBody TaskRequest request) {
+		Task task = find(id);
+		if (request.version() != null && request.version() != task.getVersion()) {
+			throw new ObjectOptimisticLockingFailureException(Task.class, id);
+		}
+		task.setName(request.name());
+		task.setDescription(request.description());
+		task.setDueDate(request.dueDate());
+		if (request.status() != null) task.setStatus(request.status());
+		task.setAssignee(assignee(request.assigneeEmail()));
+		return TaskResponse.from(task);
+	}
+	
+	// Moves every selected task in status "from" to status "to" with one UPDATE (see TaskRepositoryCustom)
+	@PostMapping("/status-transitions")
+	public StatusTransitionResponse transition(@RequestBody StatusTransitionRequest request) {
+		if (request.from() == null || request.to() == null) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from and to are required");
+		}
+		int selectors = (request.dueBefore() == null ? 0 : 1) + (request.campaignCode() == null ? 0 : 1) + (request.ids() == null ? 0 : 1);
+		if (selectors != 1) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Give exactly one of dueBefore, campaignCode or ids");
+		}
+		if (request.ids() != null && request.ids().size() > WebLimits.MAX_LIMIT) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + WebLimits.MAX_LIMIT + " ids");
+		}
+		
+		int updated;
+		if (request.dueBefore() != null) {
+			updated = taskRepository.updateStatusByDueDateBefore(request.dueBefore(), request.from(), request.to());
+		} else if (request.campaignCode() != null) {
+			updated = taskRepository.updateStatusByCampaignId(campaign(request.campaignCode()).getId(), request.from(), request.to());
+		} else {
+			updated = taskRepository.updateStatusByIdIn(request.ids(), request.from(), request.to());
+		}
+		return new StatusTransitionResponse(updated);
+	}
+	
+	// Distributes unassigned tasks over all workers, least loaded first (see TaskAssignmentService)
+	@PostMapping("/assignments")
+	public List<Assignment> assign(@RequestBody AssignmentRequest request) {
+		if (request.ids() != null) {
+			if (request.ids().size() > WebLimits.MAX_LIMIT) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + WebLimits.MAX_LIMIT + " ids");
+			}
+			return taskAssignmentService.assign(request.ids());
+		}
+		return taskAssignmentService.assignUnassigned(WebLimits.clamp(request.limit() == null ? WebLimits.MAX_LIMIT : request.limit()));
+	}
+	
+	/*
+	 * ARCHIVE
+	 * 
+	 * DONE tasks moved out of the task table by TaskArchiver. They are no longer returned by the endpoints above.
+	 */
+	
+	// A campaign's archived tasks, keyset-scrolled by due date like the live ones
+	@GetMapping("/archive")
+	public ScrollPage<ArchivedTaskResponse> listArchived(@RequestParam String campaignCode,
+			@RequestParam(required = false) String after, @RequestParam(defaultValue = "50") int limit) {
+		return ScrollPage.of(archivedTaskRepository.findByCampaignIdOrderByDueDateAscIdAsc(campaign(campaignCode).getId(),
+				ScrollTokens.decode(after, ArchivedTaskRepository.SCROLL_KEYS), Limit.of(WebLimits.clamp(limit))))
+				.map(ArchivedTaskResponse::from);
+	}
+	
+	@GetMapping("/archive/{id}")
+	public ArchivedTaskResponse getArchived(@PathVariable long id) {
+		return archivedTaskRepository.findById(id)
+				.map(ArchivedTaskResponse::from)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No archived task with id " + id));
+	}
+	
+	// Archives the DONE tasks due before dueBefore now, rather than waiting for the scheduled run
+	@PostMapping("/archivals")
+	public ArchivalResponse archive(@RequestBody ArchivalRequest request) {
+		if (request.dueBefore() == null) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "dueBefore is required");
+		return new ArchivalResponse(taskArchiver.archive(request.dueBefore()));
+	}
+	
+	private Task find(long id) {
+		return taskRepository.findById(id)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No task with id " + id));
+	}
+	
+	private static ImportFormat format(String format) {
+		for (ImportFormat candidate : ImportFormat.values()) {
+			if (candidate.name().equalsIgnoreCase(format)) return candidate;
+		}
+		throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown format " + format + "; use csv or ndjson");
+	}
+	
+	private Campaign campaign(String code) {
+		if (code == null) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "campaignCode is required");
+		return campaignRepository.findByCodeEquals(code)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "No campaign with code " + code));
+	}
+	
+	private Worker assignee(String email) {
+		if (email == null) return null;
+		return workerRepository.findByEmail(email)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "No worker with email " + email));
+	}
+	
+}
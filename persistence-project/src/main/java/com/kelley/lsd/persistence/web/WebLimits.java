@@ -0,0 +1,16 @@
+package com.kelley.lsd.persistence.web;
+
+/*
+ * Bounds for client-supplied window sizes, so one request cannot ask for the whole table.
+ */
+final class WebLimits {
+	
+	static final int MAX_LIMIT = 500;
+	
+	private WebLimits() {}
+	
+	static int clamp(int limit) {
+		return Math.max(1, Math.min(limit, MAX_LIMIT));
+	}
+	
+}
@@ -0,0 +1,69 @@
+package com.kelley.lsd.persistence.web;
+
+import java.net.URI;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.kelley.lsd.persistence.model.Worker;
+import com.kelley.lsd.persistence.repository.WorkerRepository;
+import com.kelley.lsd.persistence.workload.WorkerWorkload;
+import com.kelley.lsd.persistence.workload.WorkloadIndex;
+
+@RestController
+@RequestMapping("/workers")
+public class WorkerController {
+	
+	private final WorkerRepository workerRepository;
+	
+	private final WorkloadIndex workloadIndex;
+	
+	public record WorkerRequest(String email, String firstName, String lastName) {}
+	
+	public record WorkerResponse(Long id, String email, String firstName, String lastName) {
+		
+		static WorkerResponse from(Worker worker) {
+			return new WorkerResponse(worker.getId(), worker.getEmail(), worker.getFirstName(), worker.getLastName());
+		}
+	}
+	
+	public WorkerController(WorkerRepository workerRepository, WorkloadIndex workloadIndex) {
+		this.workerRepository = workerRepository;
+		this.workloadIndex = workloadIndex;
+	}
+	
+	@GetMapping("/{id}")
+	public WorkerResponse get(@PathVariable long id) {
+		return workerRepository.findById(id).map(WorkerResponse::from)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No worker with id " + id));
+	}
+	
+	// Tasks assigned to the worker per status, from the in-memory WorkloadIndex rather than a count over the task table
+	@GetMapping("/{id}/workload")
+	public WorkerWorkload workload(@PathVariable long id) {
+		if (workerRepository.findById(id).isEmpty()) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No worker with id " + id);
+		return workloadIndex.get(id);
+	}
+	
+	// Lookup by email (a query parameter, since emails do not make good path segments)
+	@GetMapping
+	public WorkerResponse findByEmail(@RequestParam String email) {
+		return workerRepository.findByEmail(email).map(WorkerResponse::from)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No worker with email " + email));
+	}
+	
+	@PostMapping
+	public ResponseEntity<WorkerResponse> create(@RequestBody WorkerRequest request) {
+		Worker worker = workerRepository.save(new Worker(request.email(), request.firstName(), request.lastName()));
+		return ResponseEntity.created(URI.create("/workers/" + worker.getId())).body(WorkerResponse.from(worker));
+	}
+	
+}
@@ -0,0 +1,118 @@
+package com.kelley.lsd.persistence.workload;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.kelley.lsd.persistence.model.ChangeOperation;
+import com.kelley.lsd.persistence.model.ChangedEntity;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.model.Worker;
+import com.kelley.lsd.persistence.outbox.OutboxEventListener;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+/*
+ * Distributes unassigned tasks across all workers by current load, in one transaction.
+ *
+ * Workers are kept in a priority queue ordered by their open tasks in the WorkloadIndex (ties by id), and each task,
+ * earliest due first, goes to the least loaded worker. No Task entity is loaded: the tasks are read as
+ * (id, status, dueDate) tuples and written with one UPDATE per worker that received any, so a batch of 1000 tasks over
+ * 10 workers is 10 statements rather than 1000 loads and 1000 dirty-checked updates.
+ *
+ * Like the bulk status transitions, the tasks are selected FOR UPDATE, in id order, and the UPDATEs increment
+ * Task.version. No other transaction can assign them or change their status until this one ends, so the WorkloadIndex
+ * deltas, computed from the status read, are those of the rows the UPDATEs change.
+ */
+@Service
+public class TaskAssignmentService {
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	private final WorkloadIndex workloadIndex;
+	
+	// The tasks given to one worker by a batch
+	public record Assignment(long workerId, List<Long> taskIds) {}
+	
+	private record Load(long workerId, long openTasks) {
+		
+		static final Comparator<Load> LEAST_LOADED = Comparator.comparingLong(Load::openTasks).thenComparingLong(Load::workerId);
+	}
+	
+	public TaskAssignmentService(WorkloadIndex workloadIndex) {
+		this.workloadIndex = workloadIndex;
+	}
+	
+	/*
+	 * Assigns up to limit of the unassigned tasks that are not DONE, earliest due first.
+	 */
+	@Transactional
+	public List<Assignment> assignUnassigned(int limit) {
+		List<Long> taskIds = entityManager.createQuery("select t.id from Task t where t.assignee is null and t.status <> :done "
+				+ "order by t.dueDate, t.id", Long.class)
+				.setParameter("done", TaskStatus.DONE)
+				.setMaxResults(limit)
+				.getResultList();
+		return assign(taskIds);
+	}
+	
+	/*
+	 * Assigns those of the given tasks that are unassigned. Returns one Assignment per worker that received tasks,
+	 * in worker id order; empty if there are no such tasks or no workers.
+	 */
+	@Transactional
+	public List<Assignment> assign(Collection<Long> taskIds) {
+		if (taskIds.isEmpty()) return List.of();
+		entityManager.flush();
+		
+		List<Object[]> tasks = new ArrayList<>(entityManager.createQuery("select t.id, t.status, t.dueDate from Task t "
+				+ "where t.id in :ids and t.assignee is null order by t.id", Object[].class)
+				.setParameter("ids", taskIds)
+				.setLockMode(LockModeType.PESSIMISTIC_WRITE)
+				.getResultList());
+		List<Long> workerIds = entityManager.createQuery("select w.id from Worker w", Long.class).getResultList();
+		if (tasks.isEmpty() || workerIds.isEmpty()) return List.of();
+		// Locked in id order, handed out earliest due first
+		tasks.sort(Comparator.comparing((Object[] task) -> (LocalDate) task[2]).thenComparing(task -> (Long) task[0]));
+		
+		PriorityQueue<Load> loads = new PriorityQueue<>(workerIds.size(), Load.LEAST_LOADED);
+		workerIds.forEach(id -> loads.add(new Load(id, workloadIndex.openTasks(id))));
+		
+		Map<Long, List<Long>> assigned = new TreeMap<>();
+		WorkloadDeltas deltas = new WorkloadDeltas();
+		for (Object[] task : tasks) {
+			long taskId = (Long) task[0];
+			TaskStatus status = (TaskStatus) task[1];
+			Load least = loads.poll();
+			assigned.computeIfAbsent(least.workerId(), id -> new ArrayList<>()).add(taskId);
+			deltas.add(least.workerId(), status, 1);
+			loads.add(new Load(least.workerId(), least.openTasks() + (status == TaskStatus.DONE ? 0 : 1)));
+		}
+		
+		List<Assignment> assignments = new ArrayList<>(assigned.size());
+		for (Map.Entry<Long, List<Long>> worker : assigned.entrySet()) {
+			entityManager.createQuery("update Task t set t.assignee = :worker, t.version = t.version + 1 where t.id in :ids")
+					.setParameter("worker", entityManager.getReference(Worker.class, worker.getKey()))
+					.setParameter("ids", worker.getValue())
+					.executeUpdate();
+			OutboxEventListener.record(entityManager, ChangedEntity.TASK, ChangeOperation.UPDATE, worker.getValue());
+			assignments.add(new Assignment(worker.getKey(), List.copyOf(worker.getValue())));
+		}
+		
+		entityManager.clear();
+		deltas.applyAfterCommit(workloadIndex);
+		return assignments;
+	}
+	
+}
@@ -0,0 +1,24 @@
+package com.kelley.lsd.persistence.workload;
+
+import com.kelley.lsd.persistence.model.TaskStatus;
+
+/**
+ * Number of tasks assigned to one worker in each status, read from the WorkloadIndex.
+ * Open tasks are those not DONE.
+ */
+public record WorkerWorkload(long workerId, long toDo, long inProgress, long onHold, long done) {
+	
+	public long count(TaskStatus status) {
+		return switch (status) {
+			case TO_DO -> toDo;
+			case IN_PROGRESS -> inProgress;
+			case ON_HOLD -> onHold;
+			case DONE -> done;
+		};
+	}
+	
+	public long openTasks() {
+		return toDo + inProgress + onHold;
+	}
+	
+}
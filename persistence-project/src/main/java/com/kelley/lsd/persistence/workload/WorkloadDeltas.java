@@ -0,0 +1,94 @@
+package com.kelley.lsd.persistence.workload;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.kelley.lsd.persistence.model.TaskStatus;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Net changes to the WorkloadIndex made by one transaction, summed per worker and status.
+ *
+ * Entity changes are collected by WorkloadEventListener. Code that deletes or updates assigned tasks with bulk JPQL
+ * bypasses it and must use subtractTasks() or moveTasks() before the statement, then applyAfterCommit().
+ * Both read one grouped count of the affected tasks, not the tasks themselves.
+ */
+public class WorkloadDeltas {
+	
+	private record Key(long workerId, TaskStatus status) {}
+	
+	private final Map<Key, Long> deltas = new HashMap<>();
+	
+	public void add(Long workerId, TaskStatus status, long delta) {
+		if (workerId == null || status == null) return;
+		deltas.merge(new Key(workerId, status), delta, (a, b) -> a + b == 0 ? null : a + b);
+	}
+	
+	public boolean isEmpty() {
+		return deltas.isEmpty();
+	}
+	
+	public void apply(WorkloadIndex index) {
+		deltas.forEach((key, delta) -> index.add(key.workerId(), key.status(), delta));
+	}
+	
+	/*
+	 * Applies the deltas once the current transaction commits (or immediately when there is none),
+	 * so that a rolled-back change never reaches the index.
+	 */
+	public void applyAfterCommit(WorkloadIndex index) {
+		if (deltas.isEmpty()) return;
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					apply(index);
+				}
+			});
+		} else {
+			apply(index);
+		}
+	}
+	
+	/*
+	 * Subtracts the assigned tasks matched by the where clause (alias t). Call before deleting them with bulk JPQL.
+	 */
+	public static WorkloadDeltas subtractTasks(EntityManager entityManager, String whereClause, Map<String, ?> parameters) {
+		WorkloadDeltas deltas = new WorkloadDeltas();
+		for (Object[] group : countByWorkerAndStatus(entityManager, whereClause, parameters)) {
+			deltas.add((Long) group[0], (TaskStatus) group[1], -(Long) group[2]);
+		}
+		return deltas;
+	}
+	
+	/*
+	 * Moves the assigned tasks matched by a bulk status update from one status to the other. Call right before the
+	 * update, with the update's where clause (alias t, including "t.status = :from") and its parameters other than from.
+	 */
+	public static WorkloadDeltas moveTasks(EntityManager entityManager, String whereClause, Map<String, ?> parameters,
+			TaskStatus from, TaskStatus to) {
+		Map<String, Object> withFrom = new HashMap<>(parameters);
+		withFrom.put("from", from);
+		WorkloadDeltas deltas = new WorkloadDeltas();
+		for (Object[] group : countByWorkerAndStatus(entityManager, whereClause, withFrom)) {
+			long tasks = (Long) group[2];
+			deltas.add((Long) group[0], from, -tasks);
+			deltas.add((Long) group[0], to, tasks);
+		}
+		return deltas;
+	}
+	
+	private static Iterable<Object[]> countByWorkerAndStatus(EntityManager entityManager, String whereClause,
+			Map<String, ?> parameters) {
+		TypedQuery<Object[]> groups = entityManager.createQuery("select t.assignee.id, t.status, count(t) from Task t "
+				+ whereClause + " and t.assignee is not null group by t.assignee.id, t.status", Object[].class);
+		parameters.forEach(groups::setParameter);
+		return groups.getResultList();
+	}
+	
+}
@@ -0,0 +1,89 @@
+package com.kelley.lsd.persistence.workload;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.model.Worker;
+
+/*
+ * Keeps the WorkloadIndex in step with task assignments.
+ *
+ * A Hibernate event listener, like TaskCountEventListener, because reassigning a task or changing its status must
+ * be subtracted from the worker and status it had before, which only the old state of the update tells.
+ * Changes are summed per session in WorkloadDeltas and applied by an after-completion process once the
+ * transaction has committed; a rolled-back transaction's deltas are discarded.
+ *
+ * Registered by WorkloadInitializer, which owns the index; there is no Integrator because the listener needs the bean.
+ */
+public class WorkloadEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+	
+	private final WorkloadIndex workloadIndex;
+	
+	private final Map<SharedSessionContractImplementor, WorkloadDeltas> pending = new ConcurrentHashMap<>();
+	
+	public WorkloadEventListener(WorkloadIndex workloadIndex) {
+		this.workloadIndex = workloadIndex;
+	}
+	
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		if (!isTask(event.getPersister())) return;
+		add(event.getSession(), event.getPersister(), event.getState(), 1);
+	}
+	
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		if (!isTask(event.getPersister()) || event.getOldState() == null) return;
+		add(event.getSession(), event.getPersister(), event.getOldState(), -1);
+		add(event.getSession(), event.getPersister(), event.getState(), 1);
+	}
+	
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		if (!isTask(event.getPersister())) return;
+		add(event.getSession(), event.getPersister(), event.getDeletedState(), -1);
+	}
+	
+	@Override
+	public boolean requiresPostCommitHandling(EntityPersister persister) {
+		return false;
+	}
+	
+	private static boolean isTask(EntityPersister persister) {
+		return persister.getMappedClass() == Task.class;
+	}
+	
+	private void add(EventSource session, EntityPersister persister, Object[] state, long delta) {
+		Worker assignee = (Worker) state[persister.getPropertyIndex("assignee")];
+		if (assignee == null) return;
+		TaskStatus status = (TaskStatus) state[persister.getPropertyIndex("status")];
+		
+		// An update that changed neither the assignee nor the status nets out to nothing here
+		deltas(session).add(assignee.getId(), status, delta);
+	}
+	
+	private WorkloadDeltas deltas(EventSource session) {
+		return pending.computeIfAbsent(session, s -> {
+			WorkloadDeltas deltas = new WorkloadDeltas();
+			session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completed) -> {
+				pending.remove(s);
+				if (success) deltas.apply(workloadIndex);
+			});
+			return deltas;
+		});
+	}
+	
+}
@@ -0,0 +1,108 @@
+package com.kelley.lsd.persistence.workload;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.kelley.lsd.persistence.model.TaskStatus;
+
+/**
+ * Number of tasks assigned to each worker, per TaskStatus, held in memory.
+ *
+ * Task.assignee is a unidirectional many-to-one, so "how many open tasks does each worker have" would otherwise be
+ * a GROUP BY over the whole task table. Here it is a map lookup. Each worker has one LongAdder per status: adders
+ * spread concurrent increments over striped cells instead of retrying a CAS on one contended value, so request
+ * threads committing task changes for the same worker do not serialize on it. Reads sum the cells, and are therefore
+ * a moment-in-time approximation while updates are in flight, which is all load balancing needs.
+ *
+ * Kept current after each commit by WorkloadEventListener (registered by WorkloadInitializer), and by WorkloadDeltas
+ * for bulk JPQL statements, which bypass entity events. Rebuilt from the database at startup by WorkloadInitializer.
+ */
+@Component
+public class WorkloadIndex {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(WorkloadIndex.class);
+	
+	private static final TaskStatus[] STATUSES = TaskStatus.values();
+	
+	private volatile Map<Long, LongAdder[]> counts = new ConcurrentHashMap<>();
+	
+	// Non-null while a rebuild is running: the counts being loaded, which live changes are added to as well.
+	private volatile Map<Long, LongAdder[]> pending;
+	
+	/*
+	 * Passed to rebuild(); the caller feeds it the number of tasks per worker and status.
+	 */
+	public interface Loader {
+		void loadCount(long workerId, TaskStatus status, long tasks);
+	}
+	
+	/*
+	 * pending is read before counts, because rebuild() swaps the new counts in before it clears pending: a change
+	 * that finds no rebuild running is then added to the counts that are live afterwards, never only to the old ones.
+	 */
+	public void add(long workerId, TaskStatus status, long delta) {
+		Map<Long, LongAdder[]> rebuilding = pending;
+		Map<Long, LongAdder[]> current = counts;
+		add(current, workerId, status, delta);
+		if (rebuilding != null && rebuilding != current) add(rebuilding, workerId, status, delta);
+	}
+	
+	private static void add(Map<Long, LongAdder[]> counts, long workerId, TaskStatus status, long delta) {
+		counts.computeIfAbsent(workerId, id -> newCounters())[status.ordinal()].add(delta);
+	}
+	
+	public WorkerWorkload get(long workerId) {
+		LongAdder[] counters = counts.get(workerId);
+		if (counters == null) return new WorkerWorkload(workerId, 0, 0, 0, 0);
+		return new WorkerWorkload(workerId, counters[TaskStatus.TO_DO.ordinal()].sum(),
+				counters[TaskStatus.IN_PROGRESS.ordinal()].sum(), counters[TaskStatus.ON_HOLD.ordinal()].sum(),
+				counters[TaskStatus.DONE.ordinal()].sum());
+	}
+	
+	public long openTasks(long workerId) {
+		LongAdder[] counters = counts.get(workerId);
+		if (counters == null) return 0;
+		long open = 0;
+		for (TaskStatus status : STATUSES) {
+			if (status != TaskStatus.DONE) open += counters[status.ordinal()].sum();
+		}
+		return open;
+	}
+	
+	/*
+	 * Replaces every count with the ones the loader is given, then swaps them in; reads see the old counts until then.
+	 *
+	 * Changes committed while the loader reads are added to the new counts as well as to the old. The counts are sums,
+	 * so the order does not matter: the new counts end up as what the loader read plus every change committed after
+	 * that read, provided the loader reads one consistent snapshot (a single statement) taken after rebuild() starts.
+	 * Only a change whose transaction committed before the snapshot but had not yet reached add() when the rebuild
+	 * started is counted twice, which takes a commit racing the start of the rebuild.
+	 */
+	public synchronized void rebuild(Consumer<Loader> source) {
+		long started = System.nanoTime();
+		Map<Long, LongAdder[]> fresh = new ConcurrentHashMap<>();
+		pending = fresh;
+		try {
+			source.accept((workerId, status, tasks) -> add(fresh, workerId, status, tasks));
+			counts = fresh;
+		} finally {
+			pending = null;
+		}
+		LOG.info("Workload index rebuilt: {} workers with tasks in {} ms", fresh.size(), (System.nanoTime() - started) / 1_000_000);
+	}
+	
+	private static LongAdder[] newCounters() {
+		LongAdder[] counters = new LongAdder[STATUSES.length];
+		for (int i = 0; i < counters.length; i++) {
+			counters[i] = new LongAdder();
+		}
+		return counters;
+	}
+	
+}
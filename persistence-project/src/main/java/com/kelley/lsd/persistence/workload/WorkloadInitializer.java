@@ -0,0 +1,70 @@
+package com.kelley.lsd.persistence.workload;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.replica.ReplicaRouting;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+
+/*
+ * Connects the WorkloadIndex to Hibernate and fills it from the database when the application starts
+ * (like SearchIndexInitializer), and on demand through rebuild().
+ *
+ * The rebuild is one GROUP BY over the assigned tasks, returning a row per worker and status. Being one statement,
+ * it reads one snapshot of the table, which is what WorkloadIndex.rebuild() needs to merge in the changes committed
+ * while it runs, so requests served during the startup rebuild keep their changes.
+ */
+@Component
+public class WorkloadInitializer {
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	private final WorkloadIndex workloadIndex;
+	
+	private final TransactionTemplate readOnlyTransaction;
+	
+	private final boolean rebuildOnStartup;
+	
+	public WorkloadInitializer(WorkloadIndex workloadIndex, EntityManagerFactory entityManagerFactory,
+			PlatformTransactionManager transactionManager,
+			@Value("${persistence.workload.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+		this.workloadIndex = workloadIndex;
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+		this.rebuildOnStartup = rebuildOnStartup;
+		
+		WorkloadEventListener listener = new WorkloadEventListener(workloadIndex);
+		EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+				.getServiceRegistry().getService(EventListenerRegistry.class);
+		registry.appendListeners(EventType.POST_INSERT, listener);
+		registry.appendListeners(EventType.POST_UPDATE, listener);
+		registry.appendListeners(EventType.POST_DELETE, listener);
+	}
+	
+	@EventListener(ApplicationStartedEvent.class)
+	public void onStartup() {
+		if (rebuildOnStartup) rebuild();
+	}
+	
+	// From the primary, like SearchIndexInitializer.rebuild()
+	public void rebuild() {
+		ReplicaRouting.onPrimary(() -> workloadIndex.rebuild(loader -> readOnlyTransaction.executeWithoutResult(status -> entityManager
+				.createQuery("select t.assignee.id, t.status, count(t) from Task t where t.assignee is not null "
+						+ "group by t.assignee.id, t.status", Object[].class)
+				.getResultList()
+				.forEach(row -> loader.loadCount((Long) row[0], (TaskStatus) row[1], (Long) row[2])))));
+	}
+	
+}
@@ -0,0 +1,21 @@
+-- Creates the transactional outbox (OutboxEntry, written by OutboxEventListener) and its consumers
+-- (OutboxConsumer, kept by ChangeFeed) in an existing database.
+--
+-- Not run automatically (the schema is created by Hibernate). Run it once, with the application stopped,
+-- against a database created before the outbox existed. Consumers start from GET /changes/head after a full copy.
+
+CREATE SEQUENCE outbox_seq START WITH 1 INCREMENT BY 1000;
+
+CREATE TABLE outbox_entry (
+	sequence_number BIGINT NOT NULL PRIMARY KEY,
+	entity_type TINYINT NOT NULL,
+	entity_id BIGINT NOT NULL,
+	operation TINYINT NOT NULL,
+	changed_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE outbox_consumer (
+	name VARCHAR(255) NOT NULL PRIMARY KEY,
+	acknowledged BIGINT NOT NULL,
+	updated_at TIMESTAMP(6) WITH TIME ZONE
+);
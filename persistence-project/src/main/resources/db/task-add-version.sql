@@ -0,0 +1,6 @@
+-- Adds the optimistic locking column (Task.version) to the task table of an existing database.
+--
+-- Not run automatically (the schema is created by Hibernate). Run it once, with the application stopped,
+-- against a database created before Task had a @Version field. Existing rows start at version 0.
+
+ALTER TABLE task ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
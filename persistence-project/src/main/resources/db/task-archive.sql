@@ -0,0 +1,20 @@
+-- Creates the archive table for DONE tasks (ArchivedTask, filled by TaskArchiver) in an existing database.
+--
+-- Not run automatically (the schema is created by Hibernate). Run it once, with the application stopped,
+-- against a database created before ArchivedTask existed. Tasks are archived by the next scheduled run.
+
+CREATE TABLE archived_task (
+	id BIGINT NOT NULL PRIMARY KEY,
+	uuid UUID NOT NULL UNIQUE,
+	version BIGINT NOT NULL,
+	name VARCHAR(255),
+	description VARCHAR(255),
+	due_date DATE,
+	status TINYINT,
+	campaign_id BIGINT NOT NULL REFERENCES campaign (id) ON DELETE CASCADE,
+	assignee_id BIGINT REFERENCES worker (id) ON DELETE SET NULL,
+	archived_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_archived_task_campaign_due_date ON archived_task (campaign_id, due_date, id);
+CREATE INDEX idx_archived_task_assignee ON archived_task (assignee_id);
@@ -0,0 +1,21 @@
+-- Converts task.uuid from VARCHAR(255) text to a native UUID column in an existing database.
+--
+-- Not run automatically (the schema is created by Hibernate). Run it once, with the application stopped,
+-- against a database created before Task.uuid became a java.util.UUID.
+-- Existing values keep their identity: the text form is parsed into the same 128-bit value, so tasks
+-- exported or referenced elsewhere by uuid still match. Only tasks created afterwards get version 7 values.
+-- The statements are standard SQL as understood by H2; adjust the type name for other databases
+-- (e.g. BINARY(16) on MySQL, UNIQUEIDENTIFIER on SQL Server).
+
+ALTER TABLE task ADD COLUMN uuid_binary UUID;
+
+UPDATE task SET uuid_binary = CAST(uuid AS UUID);
+
+ALTER TABLE task ALTER COLUMN uuid_binary SET NOT NULL;
+
+-- Dropping the old column drops its unique constraint with it
+ALTER TABLE task DROP COLUMN uuid;
+
+ALTER TABLE task ALTER COLUMN uuid_binary RENAME TO uuid;
+
+ALTER TABLE task ADD CONSTRAINT uk_task_uuid UNIQUE (uuid);
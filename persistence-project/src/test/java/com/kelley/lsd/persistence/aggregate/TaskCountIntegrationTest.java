@@ -0,0 +1,154 @@
+package com.kelley.lsd.persistence.aggregate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.projection.DueYearCount;
+import com.kelley.lsd.persistence.projection.StatusCount;
+import com.kelley.lsd.persistence.repository.CampaignRepository;
+import com.kelley.lsd.persistence.repository.TaskCountRepository;
+import com.kelley.lsd.persistence.repository.TaskRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/*
+ * The aggregate is written just before commit, so the test transaction is switched off
+ * and every change commits on its own. Each test ends by checking the aggregate against the task table.
+ */
+@DataJpaTest
+@Import(TaskCountReconciler.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "persistence.task-count.reconcile-on-startup=false")
+public class TaskCountIntegrationTest {
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	TaskRepository taskRepository;
+
+	@Autowired
+	TaskCountRepository taskCountRepository;
+
+	@Autowired
+	TaskCountReconciler reconciler;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@PersistenceContext
+	EntityManager entityManager;
+
+	TransactionTemplate transaction;
+
+	@BeforeEach
+	@AfterEach
+	void cleanUp() {
+		campaignRepository.deleteAll();
+		reconciler.rebuild();
+		transaction = new TransactionTemplate(transactionManager);
+	}
+
+	@Test
+	void givenNewTasks_whenCommitted_thenCountedPerYearAndStatus() {
+		Campaign campaign = campaignRepository.save(campaign("AGG-1", 2025, 2025, 2025, 2026));
+
+		assertThat(taskCountRepository.countByDueYear())
+				.containsExactly(new DueYearCount(2025, 3), new DueYearCount(2026, 1));
+		assertThat(taskCountRepository.countByStatusForCampaign(campaign.getId()))
+				.containsExactly(new StatusCount(TaskStatus.TO_DO, 4));
+		assertThat(reconciler.verify()).isEmpty();
+	}
+
+	@Test
+	void givenTask_whenStatusAndDueDateChange_thenMovedBetweenGroups() {
+		Campaign campaign = campaignRepository.save(campaign("AGG-2", 2025, 2025));
+		Task task = taskRepository.findRowsByCampaignCode("AGG-2").stream().findFirst()
+				.map(row -> taskRepository.findById(row.id()).get()).get();
+
+		task.setStatus(TaskStatus.DONE);
+		task.setDueDate(LocalDate.of(2027, 3, 1));
+		taskRepository.save(task);
+
+		assertThat(taskCountRepository.countByStatusForCampaign(campaign.getId()))
+				.containsExactly(new StatusCount(TaskStatus.TO_DO, 1), new StatusCount(TaskStatus.DONE, 1));
+		assertThat(taskCountRepository.countByStatusForDueYear(2027)).containsExactly(new StatusCount(TaskStatus.DONE, 1));
+		assertThat(reconciler.verify()).isEmpty();
+	}
+
+	@Test
+	void givenTasks_whenDeletedThroughCampaign_thenGroupsRemoved() {
+		Campaign campaign = campaignRepository.save(campaign("AGG-3", 2025, 2026));
+
+		transaction.executeWithoutResult(status -> {
+			Campaign loaded = campaignRepository.findWithTasksByCode("AGG-3").get();
+			loaded.getTasks().removeIf(task -> task.getDueDate().getYear() == 2026);
+		});
+		assertThat(taskCountRepository.countByDueYear()).containsExactly(new DueYearCount(2025, 1));
+
+		campaignRepository.deleteById(campaign.getId());
+		assertThat(taskCountRepository.count()).isZero();
+	}
+
+	@Test
+	void givenTasks_whenBulkDeleted_thenGroupsRemoved() {
+		campaignRepository.save(campaign("AGG-4", 2025, 2026));
+
+		campaignRepository.deleteByNameContaining("AGG-4");
+
+		assertThat(taskCountRepository.count()).isZero();
+		assertThat(reconciler.verify()).isEmpty();
+	}
+
+	@Test
+	void givenRolledBackTransaction_whenTasksAdded_thenNotCounted() {
+		assertThatThrownBy(() -> transaction.executeWithoutResult(status -> {
+			campaignRepository.save(campaign("AGG-5", 2025));
+			entityManager.flush();
+			throw new IllegalStateException("roll back");
+		})).isInstanceOf(IllegalStateException.class);
+
+		assertThat(taskCountRepository.count()).isZero();
+	}
+
+	@Test
+	void givenDrift_whenVerifiedAndRebuilt_thenRepaired() {
+		campaignRepository.save(campaign("AGG-6", 2025, 2025));
+		transaction.executeWithoutResult(status -> entityManager.createNativeQuery("update task_count set total = 7").executeUpdate());
+
+		assertThat(reconciler.verify()).singleElement()
+				.satisfies(mismatch -> assertThat(mismatch.expected()).isEqualTo(2))
+				.satisfies(mismatch -> assertThat(mismatch.actual()).isEqualTo(7));
+
+		assertThat(reconciler.rebuild()).isEqualTo(1);
+		assertThat(reconciler.verify()).isEmpty();
+	}
+
+	// One TO_DO task per given due year
+	private static Campaign campaign(String code, int... dueYears) {
+		Campaign campaign = new Campaign(code, code, "Description");
+		for (int year : dueYears) {
+			campaign.getTasks().add(new Task("Aggregate Task", "Description", LocalDate.of(year, 6, 1), TaskStatus.TO_DO, campaign));
+		}
+		return campaign;
+	}
+
+}
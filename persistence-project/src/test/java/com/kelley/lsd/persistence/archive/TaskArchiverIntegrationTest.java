@@ -0,0 +1,163 @@
+package com.kelley.lsd.persistence.archive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.kelley.lsd.persistence.aggregate.TaskCountReconciler;
+import com.kelley.lsd.persistence.model.ArchivedTask;
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.model.Worker;
+import com.kelley.lsd.persistence.repository.ArchivedTaskRepository;
+import com.kelley.lsd.persistence.repository.CampaignRepository;
+import com.kelley.lsd.persistence.repository.TaskRepository;
+import com.kelley.lsd.persistence.repository.WorkerRepository;
+import com.kelley.lsd.persistence.search.SearchIndex;
+import com.kelley.lsd.persistence.search.SearchIndexInitializer;
+import com.kelley.lsd.persistence.workload.WorkerWorkload;
+import com.kelley.lsd.persistence.workload.WorkloadIndex;
+import com.kelley.lsd.persistence.workload.WorkloadInitializer;
+
+/*
+ * Each batch commits in its own transaction, so the test transaction is switched off and the tables are emptied
+ * around each test instead. A batch size of 2 makes every archive run several batches.
+ */
+@DataJpaTest
+@Import({ TaskArchiver.class, TaskCountReconciler.class, WorkloadIndex.class, WorkloadInitializer.class,
+	SearchIndex.class, SearchIndexInitializer.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = { "persistence.archive.batch-size=2", "persistence.task-count.reconcile-on-startup=false" })
+public class TaskArchiverIntegrationTest {
+
+	private static final LocalDate CUTOFF = LocalDate.of(2025, 1, 1);
+
+	@Autowired
+	TaskArchiver taskArchiver;
+
+	@Autowired
+	TaskCountReconciler taskCountReconciler;
+
+	@Autowired
+	WorkloadIndex workloadIndex;
+
+	@Autowired
+	WorkloadInitializer workloadInitializer;
+
+	@Autowired
+	SearchIndex searchIndex;
+
+	@Autowired
+	SearchIndexInitializer searchIndexInitializer;
+
+	@Autowired
+	ArchivedTaskRepository archivedTaskRepository;
+
+	@Autowired
+	TaskRepository taskRepository;
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	WorkerRepository workerRepository;
+
+	Worker ada;
+
+	@BeforeEach
+	void setUp() {
+		cleanUp();
+		ada = workerRepository.save(new Worker("ada@archive.test", "Ada", "Archivist"));
+		workloadInitializer.rebuild();
+		searchIndexInitializer.rebuild();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		campaignRepository.deleteAll();
+		workerRepository.deleteAll();
+	}
+
+	@Test
+	void givenOldDoneTasks_whenArchived_thenMovedInBatchesAndLiveStructuresFollow() {
+		Campaign campaign = new Campaign("ARCHIVE-1", "Archive Campaign", null);
+		for (int t = 0; t < 5; t++) addTask(campaign, "Archived " + t, CUTOFF.minusDays(10 - t), TaskStatus.DONE, ada);
+		Task open = addTask(campaign, "Still open", CUTOFF.minusDays(30), TaskStatus.IN_PROGRESS, ada);
+		Task recent = addTask(campaign, "Recently done", CUTOFF, TaskStatus.DONE, ada);
+		campaignRepository.save(campaign);
+		UUID firstUuid = campaign.getTasks().stream().filter(task -> task.getName().equals("Archived 0")).findFirst()
+				.orElseThrow().getUuid();
+
+		assertThat(taskArchiver.archive(CUTOFF)).isEqualTo(5);
+
+		// Only the old DONE tasks left the task table
+		assertThat(taskRepository.findAll()).extracting(Task::getId).containsExactlyInAnyOrder(open.getId(), recent.getId());
+		assertThat(archivedTaskRepository.countByCampaignId(campaign.getId())).isEqualTo(5);
+		assertThat(taskCountReconciler.verify()).isEmpty();
+		assertThat(workloadIndex.get(ada.getId())).isEqualTo(new WorkerWorkload(ada.getId(), 0, 1, 0, 1));
+		assertThat(searchIndex.searchTaskIds("Archived", 10)).isEmpty();
+		assertThat(searchIndex.searchTaskIds("Recently", 10)).containsExactly(recent.getId());
+
+		// The archive is read in due date order, with the task's original identity
+		Window<ArchivedTask> first = archivedTaskRepository.findByCampaignIdOrderByDueDateAscIdAsc(campaign.getId(),
+				ScrollPosition.keyset(), Limit.of(3));
+		assertThat(first).extracting(ArchivedTask::getName).containsExactly("Archived 0", "Archived 1", "Archived 2");
+		assertThat(first.getContent().get(0).getUuid()).isEqualTo(firstUuid);
+		assertThat(first.getContent().get(0).getAssignee()).isEqualTo(ada);
+		Window<ArchivedTask> rest = archivedTaskRepository.findByCampaignIdOrderByDueDateAscIdAsc(campaign.getId(),
+				first.positionAt(first.size() - 1), Limit.of(3));
+		assertThat(rest).extracting(ArchivedTask::getName).containsExactly("Archived 3", "Archived 4");
+
+		// Nothing left to do
+		assertThat(taskArchiver.archive(CUTOFF)).isZero();
+		assertMatchesRebuild();
+	}
+
+	@Test
+	void givenArchivedTasks_whenCampaignAndWorkerDeleted_thenArchiveFollows() {
+		Campaign deleted = new Campaign("ARCHIVE-1", "Deleted Campaign", null);
+		addTask(deleted, "Archived", CUTOFF.minusDays(1), TaskStatus.DONE, null);
+		Campaign kept = new Campaign("ARCHIVE-2", "Kept Campaign", null);
+		addTask(kept, "Archived", CUTOFF.minusDays(1), TaskStatus.DONE, ada);
+		campaignRepository.saveAll(List.of(deleted, kept));
+		assertThat(taskArchiver.archive(CUTOFF)).isEqualTo(2);
+
+		campaignRepository.deleteAllWithTasksById(List.of(deleted.getId()));
+		workerRepository.delete(ada);
+
+		assertThat(archivedTaskRepository.countByCampaignId(deleted.getId())).isZero();
+		assertThat(archivedTaskRepository.findByCampaignIdOrderByDueDateAscIdAsc(kept.getId(), ScrollPosition.keyset(), Limit.of(10)))
+				.singleElement()
+				.satisfies(task -> assertThat(task.getAssignee()).isNull());
+	}
+
+	private void assertMatchesRebuild() {
+		WorkerWorkload live = workloadIndex.get(ada.getId());
+		workloadInitializer.rebuild();
+		assertThat(workloadIndex.get(ada.getId())).isEqualTo(live);
+	}
+
+	private Task addTask(Campaign campaign, String name, LocalDate dueDate, TaskStatus status, Worker assignee) {
+		Task task = new Task(name, null, dueDate, status, campaign);
+		task.setAssignee(assignee);
+		campaign.getTasks().add(task);
+		return task;
+	}
+
+}
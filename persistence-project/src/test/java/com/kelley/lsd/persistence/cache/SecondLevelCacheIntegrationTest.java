@@ -0,0 +1,107 @@
+package com.kelley.lsd.persistence.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.kelley.lsd.persistence.cache.CacheRegionMetrics.RegionStatistics;
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Worker;
+import com.kelley.lsd.persistence.repository.CampaignRepository;
+import com.kelley.lsd.persistence.repository.WorkerRepository;
+import com.kelley.lsd.persistence.support.SqlStatementCounter;
+
+/*
+ * The second-level cache is only filled and read across transactions, so the test transaction is switched off
+ * and every repository call runs (and commits) on its own.
+ */
+@DataJpaTest
+@Import({ SqlStatementCounter.class, CacheRegionMetrics.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheIntegrationTest {
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	WorkerRepository workerRepository;
+
+	@Autowired
+	SqlStatementCounter sqlStatementCounter;
+
+	@Autowired
+	CacheRegionMetrics cacheRegionMetrics;
+
+	@BeforeEach
+	@AfterEach
+	void cleanUp() {
+		campaignRepository.deleteAll();
+		workerRepository.deleteAll();
+	}
+
+	@Test
+	void givenWarmCache_whenFindByCode_thenNoSql() {
+		campaignRepository.save(new Campaign("CACHE-1", "Cached Campaign", "Description"));
+		campaignRepository.findByCodeEquals("CACHE-1");
+
+		RegionStatistics campaignBefore = cacheRegionMetrics.region("campaign");
+		RegionStatistics naturalIdBefore = cacheRegionMetrics.region("campaign-natural-id");
+		sqlStatementCounter.reset();
+
+		assertThat(campaignRepository.findByCodeEquals("CACHE-1")).get()
+				.extracting(Campaign::getName).isEqualTo("Cached Campaign");
+
+		assertThat(sqlStatementCounter.getStatements()).isEmpty();
+		assertThat(cacheRegionMetrics.region("campaign").hits()).isGreaterThan(campaignBefore.hits());
+		assertThat(cacheRegionMetrics.region("campaign-natural-id").hits()).isGreaterThan(naturalIdBefore.hits());
+	}
+
+	@Test
+	void givenUnknownCode_whenFindByCode_thenMissAndQuery() {
+		RegionStatistics before = cacheRegionMetrics.region("campaign-natural-id");
+		sqlStatementCounter.reset();
+
+		assertThat(campaignRepository.findByCodeEquals("NO-SUCH-CODE")).isEmpty();
+
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(1);
+		assertThat(cacheRegionMetrics.region("campaign-natural-id").misses()).isGreaterThan(before.misses());
+	}
+
+	@Test
+	void givenCachedCampaign_whenUpdated_thenLookupSeesNewValue() {
+		Campaign campaign = campaignRepository.save(new Campaign("CACHE-2", "Old Name", "Description"));
+		campaignRepository.findByCodeEquals("CACHE-2");
+
+		campaign.setName("New Name");
+		campaignRepository.save(campaign);
+
+		assertThat(campaignRepository.findByCodeEquals("CACHE-2")).get()
+				.extracting(Campaign::getName).isEqualTo("New Name");
+	}
+
+	@Test
+	void givenWarmCache_whenFindByEmail_thenNoSql() {
+		workerRepository.save(new Worker("cached@test.com", "Cached", "Worker"));
+		workerRepository.findByEmail("cached@test.com");
+		sqlStatementCounter.reset();
+
+		assertThat(workerRepository.findByEmail("cached@test.com")).get()
+				.extracting(Worker::getFirstName).isEqualTo("Cached");
+
+		assertThat(sqlStatementCounter.getStatements()).isEmpty();
+	}
+
+	@Test
+	void givenRegions_whenListed_thenEveryConfiguredRegionReported() {
+		assertThat(cacheRegionMetrics.regions()).extracting(RegionStatistics::region)
+				.contains("campaign", "campaign-natural-id", "worker", "worker-natural-id");
+	}
+
+}
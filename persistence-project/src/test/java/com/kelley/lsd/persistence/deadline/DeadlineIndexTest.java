@@ -0,0 +1,97 @@
+package com.kelley.lsd.persistence.deadline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class DeadlineIndexTest {
+
+	@Test
+	void givenTasksOnSeveralDays_whenPollDue_thenOnlyPastDaysReturnedOnce() {
+		DeadlineIndex index = new DeadlineIndex();
+		index.put(3, 100);
+		index.put(1, 100);
+		index.put(2, 101);
+		index.put(4, 102);
+
+		assertThat(index.pollDue(100)).isEmpty();
+		assertThat(index.pollDue(102)).containsExactly(1, 2, 3);
+		assertThat(index.pollDue(102)).isEmpty();
+		assertThat(index.pollDue(103)).containsExactly(4);
+		// Reported tasks are still tracked
+		assertThat(index.size()).isEqualTo(4);
+	}
+
+	@Test
+	void givenMovedAndRemovedTasks_whenPollDue_thenCurrentDueDayUsed() {
+		DeadlineIndex index = new DeadlineIndex();
+		index.put(1, 100);
+		index.put(1, 105);
+		index.put(2, 100);
+		index.remove(2);
+		index.put(3, 100);
+		index.remove(3);
+		index.put(3, 100);
+
+		assertThat(index.pollDue(101)).containsExactly(3);
+		assertThat(index.pollDue(106)).containsExactly(1);
+	}
+
+	@Test
+	void givenReportedTask_whenPutOnSameDayAgain_thenNotReportedAgainUntilMoved() {
+		DeadlineIndex index = new DeadlineIndex();
+		index.put(1, 100);
+		assertThat(index.pollDue(101)).containsExactly(1);
+
+		// E.g. the overdue task's description was edited
+		index.put(1, 100);
+		assertThat(index.pollDue(102)).isEmpty();
+
+		// Its due date was moved, and has passed again
+		index.put(1, 101);
+		assertThat(index.pollDue(102)).containsExactly(1);
+	}
+
+	@Test
+	void givenRebuildingIndex_whenRowsLoaded_thenPastDueTracked_andLiveUpdatesWin() {
+		DeadlineIndex index = DeadlineIndex.forRebuild(100);
+		index.put(1, 110);
+		index.remove(2);
+
+		index.load(1, 90);
+		index.load(2, 110);
+		index.load(3, 99);
+		index.load(4, 100);
+		index.finishRebuild();
+
+		// Task 3 was already due when the rebuild started, so it is tracked but not reported
+		assertThat(index.size()).isEqualTo(3);
+		assertThat(index.pollDue(101)).containsExactly(4);
+		assertThat(index.pollDue(111)).containsExactly(1);
+	}
+
+	@Test
+	void givenManyIdsPutAndRemoved_whenLookedUp_thenMapStaysConsistent() {
+		LongIntHashMap map = new LongIntHashMap();
+		Random random = new Random(42);
+		for (long id = 1; id <= 10_000; id++) {
+			map.put(id, (int) (id % 365));
+		}
+		for (int i = 0; i < 5_000; i++) {
+			map.remove(1 + random.nextInt(10_000));
+		}
+
+		int present = 0;
+		for (long id = 1; id <= 10_000; id++) {
+			int value = map.get(id);
+			if (value == LongIntHashMap.NO_VALUE) continue;
+			assertThat(value).isEqualTo((int) (id % 365));
+			present++;
+		}
+		assertThat(present).isEqualTo(map.size());
+		assertThat(map.get(10_001)).isEqualTo(LongIntHashMap.NO_VALUE);
+	}
+
+}
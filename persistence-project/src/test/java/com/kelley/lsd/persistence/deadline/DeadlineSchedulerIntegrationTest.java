@@ -0,0 +1,177 @@
+package com.kelley.lsd.persistence.deadline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.kelley.lsd.persistence.aggregate.TaskCountReconciler;
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.repository.CampaignRepository;
+import com.kelley.lsd.persistence.repository.TaskRepository;
+import com.kelley.lsd.persistence.support.SqlStatementCounter;
+
+import jakarta.persistence.EntityManager;
+
+/*
+ * The tracker is updated after commit, so each repository call here runs in its own committed transaction
+ * instead of the usual rolled-back test transaction. The scheduler is driven by hand, day by day.
+ */
+@DataJpaTest
+@Import({ DeadlineTracker.class, DeadlineScheduler.class, TaskCountReconciler.class, SqlStatementCounter.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RecordApplicationEvents
+@TestPropertySource(properties = { "persistence.deadline.rebuild-on-startup=false", "persistence.deadline.check-interval=PT1H",
+		"persistence.deadline.batch-size=2", "persistence.task-count.reconcile-on-startup=false" })
+public class DeadlineSchedulerIntegrationTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+
+	@Autowired
+	DeadlineScheduler deadlineScheduler;
+
+	@Autowired
+	DeadlineTracker deadlineTracker;
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	TaskRepository taskRepository;
+
+	@Autowired
+	TaskCountReconciler reconciler;
+
+	@Autowired
+	SqlStatementCounter sqlStatementCounter;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	EntityManager entityManager;
+
+	@Autowired
+	ApplicationEvents events;
+
+	@BeforeEach
+	@AfterEach
+	void cleanUp() {
+		campaignRepository.deleteAll();
+		reconciler.rebuild();
+	}
+
+	@Test
+	void givenOpenTasks_whenDaysRollOver_thenEachReportedOnceTheDayAfterItIsDue() {
+		Campaign campaign = new Campaign("DEADLINE-1", "Deadline Campaign", null);
+		Task dueToday = addTask(campaign, TODAY, TaskStatus.TO_DO);
+		Task dueTomorrow = addTask(campaign, TODAY.plusDays(1), TaskStatus.IN_PROGRESS);
+		Task alsoDueTomorrow = addTask(campaign, TODAY.plusDays(1), TaskStatus.ON_HOLD);
+		Task laterDue = addTask(campaign, TODAY.plusDays(1), TaskStatus.TO_DO);
+		addTask(campaign, TODAY.plusDays(1), TaskStatus.DONE);
+		addTask(campaign, TODAY.minusDays(10), TaskStatus.TO_DO);
+		campaignRepository.save(campaign);
+		deadlineScheduler.rebuild(TODAY);
+
+		// Nothing has become due: no SQL at all
+		sqlStatementCounter.reset();
+		assertThat(deadlineScheduler.publishOverdue(TODAY)).isZero();
+		assertThat(sqlStatementCounter.getStatements()).isEmpty();
+
+		assertThat(deadlineScheduler.publishOverdue(TODAY.plusDays(1))).isEqualTo(1);
+		assertThat(deadlineScheduler.publishOverdue(TODAY.plusDays(1))).isZero();
+		assertThat(deadlineScheduler.publishOverdue(TODAY.plusDays(2))).isEqualTo(3);
+
+		// batch-size is 2, so the three tasks due tomorrow come in two events, in id order
+		List<TasksOverdueEvent> published = events.stream(TasksOverdueEvent.class).toList();
+		assertThat(published).extracting(TasksOverdueEvent::today)
+				.containsExactly(TODAY.plusDays(1), TODAY.plusDays(2), TODAY.plusDays(2));
+		assertThat(published.get(0).taskIds()).containsExactly(dueToday.getId());
+		assertThat(published.subList(1, 3)).flatExtracting(TasksOverdueEvent::taskIds).isSorted()
+				.containsExactlyInAnyOrder(dueTomorrow.getId(), alsoDueTomorrow.getId(), laterDue.getId());
+		assertThat(published.get(1).taskIds()).hasSize(2);
+	}
+
+	@Test
+	void givenTasksChangedThroughEntities_whenDue_thenTrackerFollowsCommits() {
+		deadlineScheduler.rebuild(TODAY);
+		Campaign campaign = new Campaign("DEADLINE-1", "Deadline Campaign", null);
+		Task moved = addTask(campaign, TODAY, TaskStatus.TO_DO);
+		Task completed = addTask(campaign, TODAY, TaskStatus.TO_DO);
+		Task deleted = addTask(campaign, TODAY, TaskStatus.TO_DO);
+		Task reopened = addTask(campaign, TODAY, TaskStatus.DONE);
+		campaignRepository.save(campaign);
+		assertThat(deadlineTracker.size()).isEqualTo(3);
+
+		moved = taskRepository.findById(moved.getId()).orElseThrow();
+		moved.setDueDate(TODAY.plusDays(5));
+		taskRepository.save(moved);
+		completed = taskRepository.findById(completed.getId()).orElseThrow();
+		completed.setStatus(TaskStatus.DONE);
+		taskRepository.save(completed);
+		reopened = taskRepository.findById(reopened.getId()).orElseThrow();
+		reopened.setStatus(TaskStatus.TO_DO);
+		taskRepository.save(reopened);
+		taskRepository.deleteById(deleted.getId());
+
+		assertThat(deadlineTracker.size()).isEqualTo(2);
+		assertThat(deadlineScheduler.publishOverdue(TODAY.plusDays(1))).isEqualTo(1);
+		assertThat(deadlineScheduler.publishOverdue(TODAY.plusDays(6))).isEqualTo(1);
+		assertThat(events.stream(TasksOverdueEvent.class).flatMap(event -> event.taskIds().stream()).toList())
+				.containsExactly(reopened.getId(), moved.getId());
+	}
+
+	@Test
+	void givenBulkChanges_whenDue_thenOnlyOpenExistingTasksReported() {
+		Campaign completedInBulk = new Campaign("DEADLINE-1", "Completed", null);
+		addTask(completedInBulk, TODAY, TaskStatus.TO_DO);
+		Campaign deletedInBulk = new Campaign("DEADLINE-2", "Deleted", null);
+		addTask(deletedInBulk, TODAY, TaskStatus.TO_DO);
+		Campaign reopenedInBulk = new Campaign("DEADLINE-3", "Reopened", null);
+		Task reopened = addTask(reopenedInBulk, TODAY, TaskStatus.DONE);
+		Campaign movedBehindTrackersBack = new Campaign("DEADLINE-4", "Moved", null);
+		Task moved = addTask(movedBehindTrackersBack, TODAY, TaskStatus.TO_DO);
+		campaignRepository.saveAll(List.of(completedInBulk, deletedInBulk, reopenedInBulk, movedBehindTrackersBack));
+		deadlineScheduler.rebuild(TODAY);
+
+		taskRepository.updateStatusByCampaignId(completedInBulk.getId(), TaskStatus.TO_DO, TaskStatus.DONE);
+		campaignRepository.deleteAllWithTasksById(List.of(deletedInBulk.getId()));
+		taskRepository.updateStatusByCampaignId(reopenedInBulk.getId(), TaskStatus.DONE, TaskStatus.IN_PROGRESS);
+		// A bulk statement that does not tell the tracker; the check against the database catches it
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> entityManager
+				.createQuery("update Task t set t.dueDate = :dueDate where t.id = :id")
+				.setParameter("dueDate", TODAY.plusDays(3))
+				.setParameter("id", moved.getId())
+				.executeUpdate());
+
+		assertThat(deadlineScheduler.publishOverdue(TODAY.plusDays(1))).isEqualTo(1);
+		assertThat(deadlineScheduler.publishOverdue(TODAY.plusDays(4))).isEqualTo(1);
+		assertThat(events.stream(TasksOverdueEvent.class).toList()).containsExactly(
+				new TasksOverdueEvent(TODAY.plusDays(1), List.of(reopened.getId())),
+				new TasksOverdueEvent(TODAY.plusDays(4), List.of(moved.getId())));
+		assertThat(deadlineTracker.size()).isEqualTo(2);
+	}
+
+	private Task addTask(Campaign campaign, LocalDate dueDate, TaskStatus status) {
+		Task task = new Task("Deadline Task", null, dueDate, status, campaign);
+		campaign.getTasks().add(task);
+		return task;
+	}
+
+}
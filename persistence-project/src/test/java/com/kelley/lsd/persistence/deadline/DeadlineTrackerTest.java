@@ -0,0 +1,62 @@
+package com.kelley.lsd.persistence.deadline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.kelley.lsd.persistence.model.TaskStatus;
+
+/*
+ * Live updates racing rebuilds; the map stands in for the task table, written before the tracker is told.
+ */
+public class DeadlineTrackerTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2025, 1, 12);
+
+	private static final int TASKS = 5_000;
+
+	@Test
+	void givenTasksTrackedDuringRebuilds_whenRebuildsFinish_thenEveryTaskTracked() {
+		DeadlineTracker tracker = new DeadlineTracker();
+		Map<Long, LocalDate> database = new ConcurrentHashMap<>();
+		AtomicBoolean writing = new AtomicBoolean(true);
+
+		CompletableFuture<Void> rebuilds = CompletableFuture.runAsync(() -> {
+			while (writing.get()) {
+				tracker.rebuild(TODAY, loader -> database.forEach(loader::loadTask));
+			}
+		});
+		for (long id = 1; id <= TASKS; id++) {
+			database.put(id, TODAY.plusDays(1));
+			tracker.track(id, TODAY.plusDays(1), TaskStatus.TO_DO);
+		}
+		writing.set(false);
+		rebuilds.join();
+
+		assertThat(tracker.size()).isEqualTo(TASKS);
+		assertThat(tracker.pollOverdue(TODAY.plusDays(2))).hasSize(TASKS);
+	}
+
+	@Test
+	void givenTaskCompletedFromOtherThreadMidRebuild_whenStaleRowLoadedAfter_thenNotTracked() {
+		DeadlineTracker tracker = new DeadlineTracker();
+		tracker.track(1, TODAY, TaskStatus.TO_DO);
+
+		tracker.rebuild(TODAY, loader -> {
+			CompletableFuture.runAsync(() -> tracker.track(1, TODAY, TaskStatus.DONE)).join();
+			// Read by the rebuild before the task was completed
+			loader.loadTask(1, TODAY);
+			loader.loadTask(2, TODAY);
+		});
+
+		assertThat(tracker.pollOverdue(TODAY.plusDays(1))).containsExactly(2L);
+		assertThat(tracker.size()).isEqualTo(1);
+	}
+
+}
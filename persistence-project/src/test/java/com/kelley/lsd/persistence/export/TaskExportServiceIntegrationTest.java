@@ -0,0 +1,164 @@
+package com.kelley.lsd.persistence.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.kelley.lsd.persistence.importer.ImportFormat;
+import com.kelley.lsd.persistence.importer.ImportRowReader;
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.model.Worker;
+import com.kelley.lsd.persistence.repository.CampaignRepository;
+import com.kelley.lsd.persistence.repository.WorkerRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/*
+ * The export runs in its own transaction, so the test transaction is switched off
+ * and the tables are emptied around each test instead.
+ */
+@DataJpaTest
+@Import(TaskExportService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "persistence.export.chunk-size=50")
+public class TaskExportServiceIntegrationTest {
+
+	private static final int CAMPAIGNS = 3;
+
+	private static final int TASKS_PER_CAMPAIGN = 100;
+
+	private static final int WORKERS = 5;
+
+	@Autowired
+	TaskExportService taskExportService;
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	WorkerRepository workerRepository;
+
+	// Resolves to the export's own persistence context while the export is writing
+	@PersistenceContext
+	EntityManager entityManager;
+
+	@TempDir
+	Path tempDir;
+
+	@BeforeEach
+	void setUp() {
+		cleanUp();
+		List<Worker> workers = new ArrayList<>();
+		for (int w = 0; w < WORKERS; w++) {
+			workers.add(workerRepository.save(new Worker("export" + w + "@test.com", "Export", "Worker " + w)));
+		}
+		for (int c = 0; c < CAMPAIGNS; c++) {
+			Campaign campaign = new Campaign("EXPORT-" + c, "Export Campaign " + c, null);
+			for (int t = 0; t < TASKS_PER_CAMPAIGN; t++) {
+				Task task = new Task("Export Task " + t, "Needs \"quotes\", commas\nand lines", LocalDate.of(2030, 1, 1).plusDays(t),
+						TaskStatus.values()[t % TaskStatus.values().length], campaign);
+				// Every other task unassigned
+				if (t % 2 == 0) task.setAssignee(workers.get(t % WORKERS));
+				campaign.getTasks().add(task);
+			}
+			campaignRepository.save(campaign);
+		}
+	}
+
+	@AfterEach
+	void cleanUp() {
+		campaignRepository.deleteAll();
+		workerRepository.deleteAll();
+	}
+
+	@Test
+	void givenManyTasks_whenExported_thenPersistenceContextNeverHoldsMoreThanAChunk() throws IOException {
+		List<Integer> managedEntities = new ArrayList<>();
+		ByteArrayOutputStream out = new ByteArrayOutputStream() {
+			@Override
+			public void write(byte[] bytes, int offset, int length) {
+				managedEntities.add(entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+				super.write(bytes, offset, length);
+			}
+		};
+
+		long exported = taskExportService.exportTasks(null, ImportFormat.NDJSON, out);
+
+		assertThat(exported).isEqualTo(CAMPAIGNS * TASKS_PER_CAMPAIGN);
+		assertThat(out.toString().lines()).hasSize(CAMPAIGNS * TASKS_PER_CAMPAIGN);
+		// One chunk of tasks plus the campaigns and workers they reference
+		assertThat(managedEntities).isNotEmpty().allSatisfy(count -> assertThat(count).isLessThanOrEqualTo(50 + CAMPAIGNS + WORKERS));
+	}
+
+	@Test
+	void givenTasks_whenExportedAsCsvAndNdjson_thenImporterReadsThemBack() throws IOException {
+		for (ImportFormat format : ImportFormat.values()) {
+			Path file = tempDir.resolve("tasks." + format.name().toLowerCase());
+			try (var out = Files.newOutputStream(file)) {
+				taskExportService.exportTasks(null, format, out);
+			}
+
+			List<Map<String, String>> rows = new ArrayList<>();
+			try (ImportRowReader reader = new ImportRowReader(file, format)) {
+				for (Map<String, String> row = reader.next(); row != null; row = reader.next()) rows.add(row);
+			}
+
+			assertThat(rows).as("%s rows", format).hasSize(CAMPAIGNS * TASKS_PER_CAMPAIGN);
+			// Campaign.tasks is a set, so ids are not assigned in creation order
+			assertThat(row(rows, "EXPORT-0", "Export Task 0")).as("%s assigned row", format)
+					.containsEntry("name", "Export Task 0")
+					// JSON escapes the line break; CSV rows are single lines, so it becomes a space
+					.containsEntry("description", format == ImportFormat.NDJSON
+							? "Needs \"quotes\", commas\nand lines" : "Needs \"quotes\", commas and lines")
+					.containsEntry("dueDate", "2030-01-01")
+					.containsEntry("status", "TO_DO")
+					.containsEntry("campaignCode", "EXPORT-0")
+					.containsEntry("assigneeEmail", "export0@test.com")
+					.containsKey("uuid");
+			assertThat(row(rows, "EXPORT-0", "Export Task 1").get("assigneeEmail")).as("%s unassigned row", format).isNull();
+		}
+	}
+
+	private static Map<String, String> row(List<Map<String, String>> rows, String campaignCode, String name) {
+		return rows.stream()
+				.filter(row -> row.get("campaignCode").equals(campaignCode) && row.get("name").equals(name))
+				.findFirst().orElseThrow();
+	}
+
+	@Test
+	void givenDueAfter_whenExported_thenOnlyLaterTasksInDueDateOrder() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		long exported = taskExportService.exportTasks(LocalDate.of(2030, 1, 1).plusDays(89), ImportFormat.CSV, out);
+
+		// Days 90 to 99 of each campaign, plus the header
+		assertThat(exported).isEqualTo(CAMPAIGNS * 10);
+		List<String> lines = out.toString().lines().toList();
+		assertThat(lines).hasSize(CAMPAIGNS * 10 + 1);
+		assertThat(lines.get(1)).contains("2030-04-01");
+		assertThat(lines.get(lines.size() - 1)).contains("2030-04-10");
+	}
+
+}
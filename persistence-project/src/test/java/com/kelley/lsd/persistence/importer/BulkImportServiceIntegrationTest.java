@@ -0,0 +1,143 @@
+package com.kelley.lsd.persistence.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.repository.CampaignRepository;
+import com.kelley.lsd.persistence.repository.ImportCheckpointRepository;
+import com.kelley.lsd.persistence.repository.TaskRepository;
+import com.kelley.lsd.persistence.repository.WorkerRepository;
+
+/*
+ * The importer commits each chunk in its own transaction, so the usual @DataJpaTest rollback
+ * is switched off and the tables are emptied around each test instead (this also removes the
+ * rows inserted by PersistenceProjectApplication.run on startup).
+ */
+@DataJpaTest
+@Import(BulkImportService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "persistence.import.chunk-size=10")
+public class BulkImportServiceIntegrationTest {
+
+	@Autowired
+	BulkImportService bulkImportService;
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	WorkerRepository workerRepository;
+
+	@Autowired
+	TaskRepository taskRepository;
+
+	@Autowired
+	ImportCheckpointRepository checkpointRepository;
+
+	@TempDir
+	Path tempDir;
+
+	@BeforeEach
+	@AfterEach
+	void cleanUp() {
+		// Tasks are removed through the Campaign cascade
+		campaignRepository.deleteAll();
+		workerRepository.deleteAll();
+		checkpointRepository.deleteAll();
+	}
+
+	@Test
+	void givenCsvFiles_whenImport_thenAllRowsPersistedAndLinked() throws IOException {
+		Path campaigns = write("campaigns.csv", "code,name,description",
+				"C1,Campaign 1,\"Description, with comma\"",
+				"C2,Campaign 2,About Campaign 2");
+		Path workers = write("workers.csv", "email,firstName,lastName", "john@test.com,John,Doe");
+
+		List<String> taskLines = new ArrayList<>(List.of("name,description,dueDate,status,campaignCode,assigneeEmail"));
+		for (int i = 0; i < 25; i++) {
+			taskLines.add("Task " + i + ",Description " + i + ",2025-01-12,TO_DO," + (i % 2 == 0 ? "C1" : "C2") + ","
+					+ (i < 5 ? "john@test.com" : ""));
+		}
+		Path tasks = write("tasks.csv", taskLines.toArray(String[]::new));
+
+		bulkImportService.importCampaigns("campaigns", campaigns);
+		bulkImportService.importWorkers("workers", workers);
+		ImportResult result = bulkImportService.importTasks("tasks", tasks);
+
+		assertThat(result.rowsImported()).isEqualTo(25);
+		assertThat(result.chunks()).isEqualTo(3);
+		assertThat(taskRepository.count()).isEqualTo(25);
+		assertThat(taskRepository.findByAssigneeFirstName("John")).hasSize(5);
+		assertThat(campaignRepository.findByCodeEquals("C1").get().getDescription()).isEqualTo("Description, with comma");
+	}
+
+	@Test
+	void givenNdjsonFile_whenImport_thenAllRowsPersisted() throws IOException {
+		Path campaigns = write("campaigns.ndjson",
+				"{\"code\":\"C1\",\"name\":\"Campaign 1\",\"description\":\"About Campaign 1\"}");
+		Path tasks = write("tasks.ndjson",
+				"{\"name\":\"Task 1\",\"dueDate\":\"2025-01-12\",\"status\":\"DONE\",\"campaignCode\":\"C1\"}",
+				"{\"name\":\"Task 2\",\"dueDate\":\"2025-02-10\",\"campaignCode\":\"C1\",\"assigneeEmail\":null}");
+
+		bulkImportService.importCampaigns("campaigns", campaigns);
+		bulkImportService.importTasks("tasks", tasks);
+
+		assertThat(taskRepository.count()).isEqualTo(2);
+		assertThat(taskRepository.findByDueDateBeforeAndStatusEquals(LocalDate.of(2025, 2, 1), TaskStatus.DONE)).hasSize(1);
+	}
+
+	@Test
+	void givenFailureMidFile_whenImportRerun_thenResumesFromLastCommittedChunk() throws IOException {
+		bulkImportService.importCampaigns("campaigns", write("campaigns.csv", "code,name,description", "C1,Campaign 1,About"));
+
+		List<String> taskLines = new ArrayList<>(List.of("name,dueDate,campaignCode"));
+		for (int i = 0; i < 30; i++) {
+			// Row 15 references a campaign that does not exist yet
+			taskLines.add("Task " + i + ",2025-01-12," + (i == 14 ? "C2" : "C1"));
+		}
+		Path tasks = write("tasks.csv", taskLines.toArray(String[]::new));
+
+		assertThatThrownBy(() -> bulkImportService.importTasks("tasks", tasks))
+				.isInstanceOf(ImportException.class)
+				.hasMessageContaining("rows 11-20");
+
+		// First chunk committed, the failing chunk rolled back
+		assertThat(taskRepository.count()).isEqualTo(10);
+		assertThat(checkpointRepository.findById("tasks").get().getLastCommittedRow()).isEqualTo(10);
+
+		bulkImportService.importCampaigns("campaigns-2", write("campaigns-2.csv", "code,name,description", "C2,Campaign 2,About"));
+		ImportResult result = bulkImportService.importTasks("tasks", tasks);
+
+		assertThat(result.rowsSkipped()).isEqualTo(10);
+		assertThat(result.rowsImported()).isEqualTo(20);
+		assertThat(taskRepository.count()).isEqualTo(30);
+
+		// A completed job is not imported twice
+		assertThat(bulkImportService.importTasks("tasks", tasks).rowsImported()).isZero();
+		assertThat(taskRepository.count()).isEqualTo(30);
+	}
+
+	private Path write(String fileName, String... lines) throws IOException {
+		return Files.write(tempDir.resolve(fileName), List.of(lines));
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.kelley.lsd.persistence.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.model.Worker;
+import com.kelley.lsd.persistence.repository.CampaignRepository;
+import com.kelley.lsd.persistence.repository.TaskRepository;
+import com.kelley.lsd.persistence.support.QueryGuard;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@Import({ QueryMetricsConfiguration.class, QueryMetricsIntegrationTest.MeterRegistryConfiguration.class })
+public class QueryMetricsIntegrationTest {
+
+	private static final int TASKS = 5;
+
+	@TestConfiguration
+	static class MeterRegistryConfiguration {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	TaskRepository taskRepository;
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		Worker worker = entityManager.persist(new Worker("metrics@test.com", "Metrics", "Worker"));
+		Campaign campaign = new Campaign("METRICS-1", "Metrics Campaign", null);
+		for (int t = 0; t < TASKS; t++) {
+			Task task = new Task("Metrics Task " + t, null, LocalDate.of(2030, 1, 1), TaskStatus.TO_DO, campaign);
+			task.setAssignee(worker);
+			campaign.getTasks().add(task);
+		}
+		entityManager.persist(campaign);
+		entityManager.flush();
+		entityManager.clear();
+		meterRegistry.clear();
+	}
+
+	@Test
+	void whenRepositoryMethodCalled_thenCountsRecordedPerMethod() {
+		campaignRepository.findWithTasksAndAssigneesByCode("METRICS-1");
+		campaignRepository.findWithTasksAndAssigneesByCode("METRICS-1");
+
+		// One joined select returning a row per task, hydrating the campaign, its tasks and their assignee
+		assertThat(summary("statements", "CampaignRepository", "findWithTasksAndAssigneesByCode"))
+				.satisfies(summary -> {
+					assertThat(summary.count()).isEqualTo(2);
+					assertThat(summary.max()).isEqualTo(1);
+				});
+		assertThat(summary("rows", "CampaignRepository", "findWithTasksAndAssigneesByCode").max()).isEqualTo(TASKS);
+		assertThat(summary("entities", "CampaignRepository", "findWithTasksAndAssigneesByCode").max()).isEqualTo(1 + TASKS + 1);
+	}
+
+	@Test
+	void whenLazyLoadingAfterCall_thenCountedByGuardButNotByRepositoryMetric() {
+		QueryStatistics.Counts counts = QueryGuard.measure(() -> campaignRepository.findByCodeEquals("METRICS-1")
+				.orElseThrow().getTasks().size());
+
+		// The lazy task collection is loaded by the caller, after the repository call has returned
+		assertThat(summary("selects", "CampaignRepository", "findByCodeEquals").totalAmount()).isEqualTo(1);
+		assertThat(counts.selects()).isEqualTo(2);
+		assertThat(counts.rows()).isEqualTo(1 + TASKS);
+	}
+
+	@Test
+	void givenNestedScopes_whenClosed_thenInnerCountsAddedToOuter() {
+		try (QueryStatistics.Scope outer = QueryStatistics.open()) {
+			taskRepository.count();
+			QueryStatistics.Counts inner = QueryGuard.measure(() -> taskRepository.count());
+
+			assertThat(inner.selects()).isEqualTo(1);
+			assertThat(outer.counts().selects()).isEqualTo(2);
+		}
+	}
+
+	private DistributionSummary summary(String name, String repository, String method) {
+		return meterRegistry.get(RepositoryMetricsInterceptor.METRIC_PREFIX + name)
+				.tag("repository", repository).tag("method", method).summary();
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.kelley.lsd.persistence.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+/*
+ * Runs db/task-uuid-to-binary.sql against a task table in the old shape (uuid as text),
+ * in a private in-memory database.
+ */
+public class TaskUuidMigrationTest {
+
+	private Connection connection;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:task-uuid-migration;DB_CLOSE_DELAY=-1", "sa", "");
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("create table task (id bigint primary key, uuid varchar(255) not null unique, name varchar(255))");
+		}
+	}
+
+	@AfterEach
+	void tearDown() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("drop all objects");
+		}
+		connection.close();
+	}
+
+	@Test
+	void givenTextUuids_whenMigrated_thenSameValuesInNativeUniqueColumn() throws SQLException {
+		List<UUID> existing = new ArrayList<>();
+		try (PreparedStatement insert = connection.prepareStatement("insert into task (id, uuid, name) values (?, ?, ?)")) {
+			for (int i = 1; i <= 3; i++) {
+				UUID uuid = UUID.randomUUID();
+				existing.add(uuid);
+				insert.setLong(1, i);
+				insert.setString(2, uuid.toString());
+				insert.setString(3, "Task " + i);
+				insert.executeUpdate();
+			}
+		}
+
+		ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/task-uuid-to-binary.sql"));
+
+		try (Statement statement = connection.createStatement();
+				ResultSet type = statement.executeQuery(
+						"select data_type from information_schema.columns where table_name = 'TASK' and column_name = 'UUID'")) {
+			type.next();
+			assertThat(type.getString(1)).isEqualTo("UUID");
+		}
+
+		List<UUID> migrated = new ArrayList<>();
+		try (Statement statement = connection.createStatement();
+				ResultSet rows = statement.executeQuery("select uuid from task order by id")) {
+			while (rows.next()) {
+				migrated.add(rows.getObject(1, UUID.class));
+			}
+		}
+		assertThat(migrated).isEqualTo(existing);
+
+		try (PreparedStatement duplicate = connection.prepareStatement("insert into task (id, uuid, name) values (4, ?, 'Copy')")) {
+			duplicate.setObject(1, existing.get(0));
+			assertThatThrownBy(duplicate::executeUpdate).isInstanceOf(SQLException.class);
+		}
+	}
+
+}
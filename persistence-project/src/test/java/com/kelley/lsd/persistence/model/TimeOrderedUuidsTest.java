@@ -0,0 +1,59 @@
+package com.kelley.lsd.persistence.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class TimeOrderedUuidsTest {
+
+	@Test
+	void whenGenerated_thenVersion7WithRfcVariant() {
+		UUID uuid = TimeOrderedUuids.next();
+
+		assertThat(uuid.version()).isEqualTo(7);
+		assertThat(uuid.variant()).isEqualTo(2);
+	}
+
+	@Test
+	void whenGenerated_thenTimestampIsCurrentTime() {
+		long before = System.currentTimeMillis();
+		UUID uuid = TimeOrderedUuids.next();
+		long after = System.currentTimeMillis();
+
+		// The counter may borrow a millisecond ahead when many values are generated at once
+		assertThat(TimeOrderedUuids.timestamp(uuid)).isBetween(before, after + 1000);
+	}
+
+	@Test
+	void givenManyValuesInSameMillisecond_whenGenerated_thenStrictlyIncreasing() {
+		List<UUID> uuids = new ArrayList<>();
+		for (int i = 0; i < 100_000; i++) {
+			uuids.add(TimeOrderedUuids.next());
+		}
+
+		assertThat(uuids).doesNotHaveDuplicates().isSortedAccordingTo(Comparator.naturalOrder());
+		// Unsigned byte order, as a database compares UUID/BINARY(16) values, agrees with generation order
+		assertThat(uuids).isSortedAccordingTo(Comparator.comparing(UUID::toString));
+	}
+
+	@Test
+	void givenRandomUuid_whenReadingTimestamp_thenRejected() {
+		assertThatThrownBy(() -> TimeOrderedUuids.timestamp(UUID.randomUUID())).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void givenTasks_whenComparedByUuid_thenEqualityUnchanged() {
+		Task task = new Task();
+		Task copy = new Task();
+		copy.setUuid(task.getUuid());
+
+		assertThat(task).isEqualTo(copy).hasSameHashCodeAs(copy).isNotEqualTo(new Task());
+	}
+
+}
@@ -0,0 +1,217 @@
+package com.kelley.lsd.persistence.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.event.spi.EventSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.ChangeOperation;
+import com.kelley.lsd.persistence.model.ChangedEntity;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.model.Worker;
+import com.kelley.lsd.persistence.outbox.ChangeFeed.Change;
+import com.kelley.lsd.persistence.outbox.ChangeFeed.ChangeBatch;
+import com.kelley.lsd.persistence.repository.CampaignRepository;
+import com.kelley.lsd.persistence.repository.TaskRepository;
+import com.kelley.lsd.persistence.repository.WorkerRepository;
+
+/*
+ * Outbox entries are written just before commit, so each change here runs in its own committed transaction
+ * instead of the usual rolled-back test transaction. Every test reads from the head it took at the start.
+ */
+@DataJpaTest
+@Import(ChangeFeed.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "persistence.outbox.compaction-batch-size=2")
+public class ChangeFeedIntegrationTest {
+
+	private static final LocalDate DUE = LocalDate.of(2025, 6, 1);
+
+	@Autowired
+	ChangeFeed changeFeed;
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	TaskRepository taskRepository;
+
+	@Autowired
+	WorkerRepository workerRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	TestEntityManager testEntityManager;
+
+	long head;
+
+	@BeforeEach
+	void setUp() {
+		cleanUp();
+		head = changeFeed.head();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		campaignRepository.deleteAll();
+		workerRepository.deleteAll();
+		changeFeed.removeConsumer("first");
+		changeFeed.removeConsumer("second");
+	}
+
+	@Test
+	void givenEntityChanges_whenCommitted_thenOneEntryPerEntityAndTransaction() {
+		Worker worker = workerRepository.save(new Worker("ada@outbox.test", "Ada", "Outbox"));
+		Campaign campaign = new Campaign("OUTBOX-1", "Outbox Campaign", null);
+		Task updated = addTask(campaign, "Updated");
+		Task deleted = addTask(campaign, "Deleted");
+		campaignRepository.save(campaign);
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			Task task = taskRepository.findById(updated.getId()).orElseThrow();
+			task.setAssignee(worker);
+			testEntityManager.flush();
+			// A second change to the same task in the same transaction
+			task.setStatus(TaskStatus.IN_PROGRESS);
+			taskRepository.deleteById(deleted.getId());
+		});
+		// Inserted and deleted again before commit: never visible outside, so not recorded
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			workerRepository.delete(workerRepository.save(new Worker("gone@outbox.test", "Gone", "Outbox")));
+		});
+		// Rolled back: not recorded
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			workerRepository.save(new Worker("rolled.back@outbox.test", "Rolled", "Back"));
+			testEntityManager.flush();
+			status.setRollbackOnly();
+		});
+
+		ChangeBatch batch = changeFeed.read(head, 100);
+		assertThat(batch.changes()).hasSize(6);
+		assertThat(batch.changes().subList(0, 2)).extracting(Change::entityType, Change::entityId, Change::operation)
+				.containsExactly(
+						tuple(ChangedEntity.WORKER, worker.getId(), ChangeOperation.INSERT),
+						tuple(ChangedEntity.CAMPAIGN, campaign.getId(), ChangeOperation.INSERT));
+		// Campaign.tasks is a HashSet, so the tasks of one flush are inserted in no particular order
+		assertThat(batch.changes().subList(2, 4)).extracting(Change::entityType, Change::entityId, Change::operation)
+				.containsExactlyInAnyOrder(
+						tuple(ChangedEntity.TASK, updated.getId(), ChangeOperation.INSERT),
+						tuple(ChangedEntity.TASK, deleted.getId(), ChangeOperation.INSERT));
+		assertThat(batch.changes().subList(4, 6)).extracting(Change::entityType, Change::entityId, Change::operation)
+				.containsExactlyInAnyOrder(
+						tuple(ChangedEntity.TASK, updated.getId(), ChangeOperation.UPDATE),
+						tuple(ChangedEntity.TASK, deleted.getId(), ChangeOperation.DELETE));
+		assertThat(batch.hasMore()).isFalse();
+		assertThat(batch.next()).isEqualTo(batch.changes().getLast().sequenceNumber());
+
+		// Read in batches from the cursor
+		ChangeBatch first = changeFeed.read(head, 4);
+		assertThat(first.hasMore()).isTrue();
+		assertThat(changeFeed.read(first.next(), 4).changes()).isEqualTo(batch.changes().subList(4, 6));
+		assertThat(changeFeed.read(batch.next(), 4).changes()).isEmpty();
+	}
+
+	@Test
+	void givenBulkStatements_whenCommitted_thenRecordedPerTask() {
+		Campaign campaign = new Campaign("OUTBOX-1", "Outbox Campaign", null);
+		Task task = addTask(campaign, "Bulk");
+		campaignRepository.save(campaign);
+		long afterInsert = changeFeed.read(head, 100).next();
+
+		taskRepository.updateStatusByCampaignId(campaign.getId(), TaskStatus.TO_DO, TaskStatus.ON_HOLD);
+		campaignRepository.deleteAllWithTasksById(List.of(campaign.getId()));
+
+		assertThat(changeFeed.read(afterInsert, 100).changes())
+				.extracting(Change::entityType, Change::entityId, Change::operation)
+				.containsExactly(
+						tuple(ChangedEntity.TASK, task.getId(), ChangeOperation.UPDATE),
+						tuple(ChangedEntity.TASK, task.getId(), ChangeOperation.DELETE),
+						tuple(ChangedEntity.CAMPAIGN, campaign.getId(), ChangeOperation.DELETE));
+	}
+
+	@Test
+	void givenEarlierTransactionStillCommitting_whenRead_thenLaterChangesWait() throws Exception {
+		CountDownLatch committing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		// Holds the first transaction between writing its outbox entries and committing them
+		CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> new TransactionTemplate(transactionManager)
+				.executeWithoutResult(status -> {
+					workerRepository.save(new Worker("slow@outbox.test", "Slow", "Outbox"));
+					testEntityManager.flush();
+					testEntityManager.getEntityManager().unwrap(EventSource.class).getActionQueue()
+							.registerProcess((BeforeTransactionCompletionProcess) session -> {
+								committing.countDown();
+								await(release);
+							});
+				}));
+		assertThat(committing.await(10, TimeUnit.SECONDS)).isTrue();
+
+		Worker fast = workerRepository.save(new Worker("fast@outbox.test", "Fast", "Outbox"));
+		assertThat(changeFeed.read(head, 100).changes()).isEmpty();
+
+		release.countDown();
+		slow.get(10, TimeUnit.SECONDS);
+		assertThat(changeFeed.read(head, 100).changes()).extracting(Change::entityId).hasSize(2).last().isEqualTo(fast.getId());
+	}
+
+	@Test
+	void givenConsumers_whenCompacted_thenEntriesAcknowledgedByAllDeleted() {
+		for (int w = 0; w < 5; w++) workerRepository.save(new Worker("worker" + w + "@outbox.test", "Worker", "Outbox"));
+		List<Change> changes = changeFeed.read(head, 100).changes();
+		assertThat(changes).hasSize(5);
+
+		// No consumer: nothing is known to be consumed
+		assertThat(changeFeed.compact()).isZero();
+
+		changeFeed.acknowledge("first", changes.get(4).sequenceNumber());
+		changeFeed.acknowledge("second", changes.get(2).sequenceNumber());
+		// Positions never move back
+		changeFeed.acknowledge("second", changes.get(0).sequenceNumber());
+
+		// Everything before head and the first three of these; two per batch
+		assertThat(changeFeed.compact()).isGreaterThanOrEqualTo(3);
+		assertThat(changeFeed.read(head, 100).changes()).isEqualTo(changes.subList(3, 5));
+
+		changeFeed.removeConsumer("second");
+		assertThat(changeFeed.compact()).isEqualTo(2);
+		assertThat(changeFeed.read(head, 100).changes()).isEmpty();
+	}
+
+	private Task addTask(Campaign campaign, String name) {
+		Task task = new Task(name, null, DUE, TaskStatus.TO_DO, campaign);
+		campaign.getTasks().add(task);
+		return task;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
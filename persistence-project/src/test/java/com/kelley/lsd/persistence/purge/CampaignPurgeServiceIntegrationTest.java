@@ -0,0 +1,163 @@
+package com.kelley.lsd.persistence.purge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.kelley.lsd.persistence.deadline.DeadlineTracker;
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.repository.CampaignRepository;
+import com.kelley.lsd.persistence.repository.TaskRepository;
+import com.kelley.lsd.persistence.search.SearchIndex;
+import com.kelley.lsd.persistence.support.SqlStatementCounter;
+
+/*
+ * The purge commits each chunk on a background thread, so the test transaction is switched off
+ * and the tables are emptied around each test instead.
+ */
+@DataJpaTest
+@Import({ CampaignPurgeService.class, DeadlineTracker.class, SqlStatementCounter.class })
+@ImportAutoConfiguration(TaskExecutionAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "persistence.purge.chunk-size=" + CampaignPurgeServiceIntegrationTest.CHUNK_SIZE)
+public class CampaignPurgeServiceIntegrationTest {
+
+	static final int CHUNK_SIZE = 25;
+
+	@Autowired
+	CampaignPurgeService campaignPurgeService;
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	SqlStatementCounter sqlStatementCounter;
+
+	@Autowired
+	TaskRepository taskRepository;
+
+	@Autowired
+	SearchIndex searchIndex;
+
+	@Autowired
+	DeadlineTracker deadlineTracker;
+
+	@Autowired
+	LastChunkHook lastChunkHook;
+
+	@BeforeEach
+	@AfterEach
+	void cleanUp() {
+		campaignRepository.deleteAll();
+	}
+
+	@Test
+	void givenLargeCampaign_whenPurged_thenTasksDeletedInChunksAndCampaignRemoved() throws Exception {
+		Campaign purged = campaignRepository.save(campaignWithTasks("PURGE-1", 110));
+		Campaign kept = campaignRepository.save(campaignWithTasks("PURGE-2", 5));
+		sqlStatementCounter.reset();
+
+		PurgeJob job = campaignPurgeService.purge(purged.getId());
+		job.getCompletion().get(30, TimeUnit.SECONDS);
+
+		assertThat(job.getState()).isEqualTo(PurgeJob.State.COMPLETED);
+		assertThat(job.getTotalTasks()).isEqualTo(110);
+		assertThat(job.getDeletedTasks()).isEqualTo(110);
+		// 5 chunks of at most 25 tasks, then the leftover-task sweep, the campaign's task counts and the campaign itself
+		assertThat(sqlStatementCounter.getDeletes()).isEqualTo(8);
+
+		assertThat(campaignRepository.findById(purged.getId())).isEmpty();
+		assertThat(campaignRepository.findWithTasksByCode("PURGE-2")).get()
+				.satisfies(campaign -> assertThat(campaign.getTasks()).hasSize(5));
+		assertThat(campaignPurgeService.getJob(purged.getId())).containsSame(job);
+		assertThat(campaignPurgeService.getJob(kept.getId())).isEmpty();
+	}
+
+	@Test
+	void givenTaskAddedAfterLastChunk_whenPurged_thenSweptFromIndexes() throws Exception {
+		Campaign purged = campaignRepository.save(campaignWithTasks("PURGE-1", 30));
+		lastChunkHook.action = () -> taskRepository.save(new Task("Late Arrival", "Description", LocalDate.of(2025, 1, 12),
+				TaskStatus.TO_DO, purged));
+		assertThat(searchIndex.searchTaskIds("purge task", 100)).hasSize(30);
+		assertThat(deadlineTracker.size()).isEqualTo(30);
+
+		campaignPurgeService.purge(purged.getId()).getCompletion().get(30, TimeUnit.SECONDS);
+
+		assertThat(lastChunkHook.action).isNull();
+		assertThat(taskRepository.count()).isZero();
+		assertThat(searchIndex.searchTaskIds("late arrival", 10)).isEmpty();
+		assertThat(searchIndex.searchTaskIds("purge task", 100)).isEmpty();
+		assertThat(deadlineTracker.size()).isZero();
+	}
+
+	/*
+	 * Runs the action once the last (short) chunk has committed, before the final sweep: what it commits is left for
+	 * the sweep. It runs on another thread, so in a transaction of its own rather than the one just committed.
+	 */
+	static class LastChunkHook {
+
+		volatile Runnable action;
+
+		void onChunk(Collection<Long> taskIds) {
+			Runnable run = action;
+			if (run == null || taskIds.size() >= CHUNK_SIZE) return;
+			action = null;
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					CompletableFuture.runAsync(run).join();
+				}
+			});
+		}
+	}
+
+	@TestConfiguration
+	static class Hooks {
+
+		@Bean
+		LastChunkHook lastChunkHook() {
+			return new LastChunkHook();
+		}
+
+		@Bean
+		SearchIndex searchIndex(LastChunkHook hook) {
+			return new SearchIndex() {
+				@Override
+				public void removeAfterCommit(Collection<Long> campaignIds, Collection<Long> taskIds) {
+					if (campaignIds.isEmpty()) hook.onChunk(taskIds);
+					super.removeAfterCommit(campaignIds, taskIds);
+				}
+			};
+		}
+	}
+
+	private static Campaign campaignWithTasks(String code, int tasks) {
+		Campaign campaign = new Campaign(code, "Purge " + code, "Description");
+		for (int t = 0; t < tasks; t++) {
+			campaign.getTasks().add(new Task("Purge Task " + t, "Description", LocalDate.of(2025, 1, 12), TaskStatus.TO_DO, campaign));
+		}
+		return campaign;
+	}
+
+}
@@ -0,0 +1,144 @@
+package com.kelley.lsd.persistence.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.model.Worker;
+import com.kelley.lsd.persistence.repository.CampaignRepository;
+import com.kelley.lsd.persistence.repository.TaskRepository;
+import com.kelley.lsd.persistence.repository.WorkerRepository;
+
+import reactor.test.StepVerifier;
+
+/*
+ * The reactive repositories read through their own R2DBC pool, which only the full application sets up (a @DataJpaTest
+ * replaces the DataSource with a database R2DBC cannot see). The data is written through the JPA repositories and
+ * committed, so it is removed again after each test.
+ *
+ * A database of its own: the contexts of other @SpringBootTests are cached and would share testdb, and each one
+ * recreates the schema (and restarts the sequences) underneath the others. The R2DBC pool follows the changed URL.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:reactive")
+public class ReactiveRepositoryIntegrationTest {
+
+	private static final LocalDate OVERDUE_BEFORE = LocalDate.of(2001, 1, 1);
+
+	@Autowired
+	ReactiveCampaignRepository reactiveCampaignRepository;
+
+	@Autowired
+	ReactiveTaskRepository reactiveTaskRepository;
+
+	@Autowired
+	ReactiveWorkerRepository reactiveWorkerRepository;
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	TaskRepository taskRepository;
+
+	@Autowired
+	WorkerRepository workerRepository;
+
+	@AfterEach
+	void cleanUp() {
+		campaignRepository.findByCodeEquals("REACTIVE-1").ifPresent(campaign ->
+				campaignRepository.deleteAllWithTasksById(List.of(campaign.getId())));
+		workerRepository.findByEmail("reactive.worker@test.com").ifPresent(workerRepository::delete);
+	}
+
+	@Test
+	void givenCampaignWithTasks_whenReadReactively_thenSameAsJpaFinders() {
+		Worker worker = workerRepository.save(new Worker("reactive.worker@test.com", "Reactiva", "Worker"));
+		Campaign campaign = new Campaign("REACTIVE-1", "Reactive Campaign", "Read over R2DBC");
+		Task overdue = addTask(campaign, "Overdue", OVERDUE_BEFORE.minusDays(1), TaskStatus.TO_DO, worker);
+		Task unassigned = addTask(campaign, "Unassigned", OVERDUE_BEFORE.minusDays(2), TaskStatus.TO_DO, null);
+		addTask(campaign, "Done", OVERDUE_BEFORE.minusDays(1), TaskStatus.DONE, worker);
+		addTask(campaign, "Not due", OVERDUE_BEFORE, TaskStatus.TO_DO, null);
+		campaignRepository.save(campaign);
+
+		StepVerifier.create(reactiveCampaignRepository.findByCodeEquals("REACTIVE-1"))
+				.expectNext(new ReactiveCampaign(campaign.getId(), "REACTIVE-1", "Reactive Campaign", "Read over R2DBC"))
+				.verifyComplete();
+		StepVerifier.create(reactiveCampaignRepository.findByCodeEquals("NO-SUCH-CODE")).verifyComplete();
+
+		ReactiveWorker reactiveWorker = new ReactiveWorker(worker.getId(), "reactive.worker@test.com", "Reactiva", "Worker");
+		StepVerifier.create(reactiveWorkerRepository.findByEmail("reactive.worker@test.com"))
+				.expectNext(reactiveWorker)
+				.verifyComplete();
+
+		List<ReactiveTask> overdueTasks = reactiveTaskRepository
+				.findByDueDateBeforeAndStatusEquals(OVERDUE_BEFORE, TaskStatus.TO_DO).collectList().block();
+		assertThat(overdueTasks).extracting(ReactiveTask::id).containsExactlyInAnyOrderElementsOf(taskRepository
+				.findByDueDateBeforeAndStatusEquals(OVERDUE_BEFORE, TaskStatus.TO_DO).stream().map(Task::getId).toList());
+		assertThat(overdueTasks).filteredOn(task -> task.id().equals(overdue.getId())).singleElement()
+				.satisfies(task -> {
+					assertThat(task.uuid()).isEqualTo(overdue.getUuid());
+					assertThat(task.dueDate()).isEqualTo(overdue.getDueDate());
+					assertThat(task.status()).isEqualTo(TaskStatus.TO_DO);
+					assertThat(task.campaign().code()).isEqualTo("REACTIVE-1");
+					assertThat(task.assignee()).isEqualTo(reactiveWorker);
+				});
+		assertThat(overdueTasks).filteredOn(task -> task.id().equals(unassigned.getId())).singleElement()
+				.satisfies(task -> assertThat(task.assignee()).isNull());
+
+		assertThat(reactiveTaskRepository.findByAssigneeFirstName("Reactiva").collectList().block())
+				.extracting(ReactiveTask::name)
+				.containsExactlyInAnyOrder("Overdue", "Done");
+	}
+
+	@Test
+	void givenTasks_whenStreamed_thenNextPageQueriedOnlyOnDemand() {
+		Campaign campaign = new Campaign("REACTIVE-1", "Reactive Campaign", null);
+		for (int t = 0; t < 5; t++) addTask(campaign, "Streamed " + t, OVERDUE_BEFORE, TaskStatus.TO_DO, null);
+		campaignRepository.save(campaign);
+		long total = taskRepository.count();
+
+		List<ReactiveTask> streamed = new ArrayList<>();
+		StepVerifier.create(reactiveTaskRepository.streamAllByOrderByIdAsc(2), 2)
+				.recordWith(() -> streamed)
+				.expectNextCount(2)
+				// Added after the first page was read: only seen because later pages are queried later
+				.then(() -> taskRepository.save(new Task("Added while streaming", null, OVERDUE_BEFORE, TaskStatus.TO_DO, campaign)))
+				.thenRequest(Long.MAX_VALUE)
+				.expectNextCount(total - 1)
+				.verifyComplete();
+
+		assertThat(streamed).extracting(ReactiveTask::id).isSorted().doesNotHaveDuplicates();
+		assertThat(streamed.getLast().name()).isEqualTo("Added while streaming");
+	}
+
+	@Test
+	void givenHundredsOfPages_whenStreamed_thenEveryTaskOnce() {
+		Campaign campaign = new Campaign("REACTIVE-1", "Reactive Campaign", null);
+		for (int t = 0; t < 1_000; t++) addTask(campaign, "Paged " + t, OVERDUE_BEFORE, TaskStatus.TO_DO, null);
+		campaignRepository.save(campaign);
+		long total = taskRepository.count();
+
+		// One task per page, so well over a thousand queries chained by expand()
+		List<ReactiveTask> streamed = reactiveTaskRepository.streamAllByOrderByIdAsc(1).collectList().block();
+
+		assertThat(streamed).hasSize((int) total);
+		assertThat(streamed).extracting(ReactiveTask::id).isSorted().doesNotHaveDuplicates();
+	}
+
+	private Task addTask(Campaign campaign, String name, LocalDate dueDate, TaskStatus status, Worker assignee) {
+		Task task = new Task(name, null, dueDate, status, campaign);
+		task.setAssignee(assignee);
+		campaign.getTasks().add(task);
+		return task;
+	}
+
+}
@@ -0,0 +1,117 @@
+package com.kelley.lsd.persistence.replica;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/*
+ * Each database has a one-row table saying which one it is, so every test just asks a connection where it went.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+	private static final Duration MAX_LAG = Duration.ofSeconds(10);
+
+	ReplicaRoutingDataSource routing;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		routing = new ReplicaRoutingDataSource(database("primary"), database("replica"), MAX_LAG, true);
+		routing.caughtUp(Instant.now());
+	}
+
+	@Test
+	void givenReadWriteConnection_whenUsed_thenPrimary() throws SQLException {
+		assertThat(databaseUsed(false)).isEqualTo("primary");
+	}
+
+	@Test
+	void givenReadOnlyConnection_whenReplicaCurrent_thenReplica() throws SQLException {
+		assertThat(databaseUsed(true)).isEqualTo("replica");
+	}
+
+	@Test
+	void givenReplicaBehind_whenReadOnly_thenPrimary() throws SQLException {
+		routing.caughtUp(Instant.now().minus(MAX_LAG).minusSeconds(1));
+		assertThat(databaseUsed(true)).isEqualTo("primary");
+
+		ReplicaRoutingDataSource neverSynced = new ReplicaRoutingDataSource(database("primary"), database("replica"), MAX_LAG, true);
+		assertThat(neverSynced.lag()).isGreaterThan(MAX_LAG);
+		try (Connection connection = neverSynced.getConnection()) {
+			connection.setReadOnly(true);
+			assertThat(whoAmI(connection)).isEqualTo("primary");
+		}
+	}
+
+	@Test
+	void givenLagNotTracked_whenReadOnly_thenReplica() throws SQLException {
+		routing = new ReplicaRoutingDataSource(database("primary"), database("replica"), MAX_LAG, false);
+		assertThat(routing.lag()).isNull();
+		assertThat(databaseUsed(true)).isEqualTo("replica");
+	}
+
+	@Test
+	void givenRequestThatWrote_whenReadOnly_thenPrimaryUntilRequestEnds() throws SQLException {
+		try (ReplicaRouting.RequestScope scope = ReplicaRouting.openRequestScope()) {
+			assertThat(databaseUsed(true)).isEqualTo("replica");
+			assertThat(databaseUsed(false)).isEqualTo("primary");
+			assertThat(databaseUsed(true)).isEqualTo("primary");
+		}
+		assertThat(databaseUsed(true)).isEqualTo("replica");
+
+		// Outside a request, writes are not remembered
+		assertThat(databaseUsed(false)).isEqualTo("primary");
+		assertThat(databaseUsed(true)).isEqualTo("replica");
+	}
+
+	@Test
+	void givenOnPrimary_whenReadOnly_thenPrimary() throws SQLException {
+		assertThat(ReplicaRouting.onPrimary(() -> {
+			try {
+				return databaseUsed(true);
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		})).isEqualTo("primary");
+		assertThat(databaseUsed(true)).isEqualTo("replica");
+	}
+
+	private String databaseUsed(boolean readOnly) throws SQLException {
+		try (Connection connection = routing.getConnection()) {
+			// As the transaction manager does: flags first, the physical connection is taken by the first statement
+			connection.setReadOnly(readOnly);
+			return whoAmI(connection);
+		}
+	}
+
+	private static String whoAmI(Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement();
+				ResultSet rows = statement.executeQuery("select name from whoami")) {
+			rows.next();
+			return rows.getString(1);
+		}
+	}
+
+	private static DataSource database(String name) throws SQLException {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+		try (Connection connection = dataSource.getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.execute("create table if not exists whoami(name varchar(10))");
+			statement.execute("delete from whoami");
+			statement.execute("insert into whoami values ('" + name + "')");
+		}
+		return dataSource;
+	}
+
+}
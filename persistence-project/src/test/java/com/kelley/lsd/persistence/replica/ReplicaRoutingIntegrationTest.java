@@ -0,0 +1,82 @@
+package com.kelley.lsd.persistence.replica;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.repository.CampaignRepository;
+
+/*
+ * Two in-memory databases of its own, with ReplicaSynchronizer only run when a test calls sync(),
+ * so the replica lags the primary by exactly the writes made since.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"spring.datasource.url=jdbc:h2:mem:routing-test-primary",
+		"persistence.replica.enabled=true",
+		"persistence.replica.url=jdbc:h2:mem:routing-test-replica",
+		"persistence.replica.username=sa",
+		"persistence.replica.synchronize=true",
+		"persistence.replica.sync-interval=PT1H" })
+public class ReplicaRoutingIntegrationTest {
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	ReplicaSynchronizer replicaSynchronizer;
+
+	@Autowired
+	ReadYourWritesFilter readYourWritesFilter;
+
+	@Autowired
+	DataSource dataSource;
+
+	@BeforeEach
+	@AfterEach
+	void cleanUp() {
+		campaignRepository.findByCodeEquals("REPLICA-1").ifPresent(campaignRepository::delete);
+		replicaSynchronizer.sync();
+	}
+
+	@Test
+	void givenCommittedWrite_whenReadOnlyBeforeSync_thenReplicaStaleUntilSynced() throws SQLException {
+		campaignRepository.save(new Campaign("REPLICA-1", "Replica Campaign", null));
+
+		assertThat(campaignRepository.findWithCodeIn(Set.of("REPLICA-1"))).isEmpty();
+		assertThat(ReplicaRouting.onPrimary(() -> campaignRepository.findWithCodeIn(Set.of("REPLICA-1")))).hasSize(1);
+
+		replicaSynchronizer.sync();
+		assertThat(campaignRepository.findWithCodeIn(Set.of("REPLICA-1"))).extracting(Campaign::getName)
+				.containsExactly("Replica Campaign");
+		assertThat(dataSource.unwrap(ReplicaRoutingDataSource.class).lag()).isLessThan(Duration.ofSeconds(10));
+	}
+
+	@Test
+	void givenRequestThatWrote_whenReadingBack_thenSeesItsWrite() throws Exception {
+		List<List<Campaign>> readBack = new ArrayList<>();
+		readYourWritesFilter.doFilter(new MockHttpServletRequest("POST", "/campaigns"), new MockHttpServletResponse(), (request, response) -> {
+			campaignRepository.save(new Campaign("REPLICA-1", "Replica Campaign", null));
+			readBack.add(campaignRepository.findWithCodeIn(Set.of("REPLICA-1")));
+		});
+
+		assertThat(readBack).singleElement().satisfies(campaigns -> assertThat(campaigns).hasSize(1));
+		// The next request reads from the replica again
+		assertThat(campaignRepository.findWithCodeIn(Set.of("REPLICA-1"))).isEmpty();
+	}
+
+}
@@ -2,6 +2,8 @@ package com.kelley.lsd.persistence.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
@@ -10,6 +12,8 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
 import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
 
 /*
  * @DataJpaTest invokes several Spring Boot auto-configurations, including enabling scanning of
@@ -90,5 +94,35 @@ public class CampaignRepositoryIntegrationTest {
 		assertThat(entityManager.find(Campaign.class, newCampaign.getId())).isNull();
 	}
 	
+	@Test
+	void givenUnderscore_whenDeleteByNameContaining_thenOnlyLiteralUnderscoreMatched() {
+		Campaign underscored = new Campaign("CTEST-1", "Test_Campaign", "Description");
+		Campaign spaced = new Campaign("CTEST-2", "Test Campaign", "Description");
+		entityManager.persist(underscored);
+		entityManager.persist(spaced);
+		
+		assertThat(campaignRepository.deleteByNameContaining("_")).isEqualTo(1);
+		assertThat(campaignRepository.deleteByNameContaining("100%")).isZero();
+		
+		entityManager.clear();
+		assertThat(entityManager.find(Campaign.class, underscored.getId())).isNull();
+		assertThat(entityManager.find(Campaign.class, spaced.getId())).isNotNull();
+	}
+	
+	@Test
+	void givenMoreTasksThanOneBatch_whenDeleteAllWithTasksById_thenAllDeleted() {
+		Campaign campaign = new Campaign("CTEST-1", "Test Campaign 1", "Description");
+		for (int t = 0; t <= CampaignRepositoryCustomImpl.DELETE_BATCH_SIZE; t++) {
+			campaign.getTasks().add(new Task("Task " + t, "Description", LocalDate.of(2025, 1, 12), TaskStatus.TO_DO, campaign));
+		}
+		entityManager.persist(campaign);
+		
+		assertThat(campaignRepository.deleteAllWithTasksById(List.of(campaign.getId()))).isEqualTo(1);
+		
+		assertThat(entityManager.getEntityManager().createQuery("select count(t) from Task t where t.campaign.id = :id", Long.class)
+				.setParameter("id", campaign.getId())
+				.getSingleResult()).isZero();
+	}
+	
 	
 }
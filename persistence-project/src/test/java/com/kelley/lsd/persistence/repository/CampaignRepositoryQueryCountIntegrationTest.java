@@ -0,0 +1,177 @@
+package com.kelley.lsd.persistence.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.model.Worker;
+import com.kelley.lsd.persistence.support.SqlStatementCounter;
+
+/*
+ * Asserts how many SQL statements each CampaignRepository finder sends.
+ * Campaign.tasks is lazy, so plain finders must load campaigns with a single SELECT and leave the
+ * tasks uninitialized, while the fetch-plan variants must load campaigns and tasks in one statement.
+ */
+@DataJpaTest
+@Import(SqlStatementCounter.class)
+public class CampaignRepositoryQueryCountIntegrationTest {
+
+	private static final int TASKS_PER_CAMPAIGN = 5;
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	@Autowired
+	SqlStatementCounter sqlStatementCounter;
+
+	@BeforeEach
+	void setUp() {
+		Worker worker = entityManager.persist(new Worker("john@test.com", "John", "Doe"));
+		for (int c = 1; c <= 3; c++) {
+			Campaign campaign = new Campaign("CQC-" + c, "Query Count " + c, "About Query Count " + c);
+			for (int t = 0; t < TASKS_PER_CAMPAIGN; t++) {
+				Task task = new Task("Count Task " + t, "Description", LocalDate.of(2025, 1, 12), TaskStatus.TO_DO, campaign);
+				task.setAssignee(worker);
+				campaign.getTasks().add(task);
+			}
+			entityManager.persist(campaign);
+		}
+		entityManager.flush();
+		entityManager.clear();
+		sqlStatementCounter.reset();
+	}
+
+	@Test
+	void whenFindByCodeEquals_thenOneSelectAndTasksNotLoaded() {
+		Campaign campaign = campaignRepository.findByCodeEquals("CQC-1").get();
+
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(1);
+		assertThat(Hibernate.isInitialized(campaign.getTasks())).isFalse();
+	}
+
+	@Test
+	void whenCountByName_thenOneSelect() {
+		campaignRepository.countByName("Query Count 1");
+
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(1);
+	}
+
+	@Test
+	void whenFindByNameContaining_thenOneSelect() {
+		Iterable<Campaign> campaigns = campaignRepository.findByNameContaining("Query Count");
+
+		assertThat(campaigns).hasSize(3).allMatch(c -> !Hibernate.isInitialized(c.getTasks()));
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(1);
+	}
+
+	@Test
+	void whenFindByNameStartingWith_thenOneSelect() {
+		assertThat(campaignRepository.findByNameStartingWith("Query")).hasSize(3);
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(1);
+	}
+
+	@Test
+	void whenFindDistinctByTasksNameContaining_thenOneSelect() {
+		assertThat(campaignRepository.findDistinctByTasksNameContaining("Count Task")).hasSize(3);
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(1);
+	}
+
+	@Test
+	void whenFindAll_thenOneSelect() {
+		campaignRepository.findAll();
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(1);
+	}
+
+	@Test
+	void whenCustomQueries_thenOneSelectEach() {
+		campaignRepository.findWithNameAndDescription();
+		campaignRepository.findNameByCode();
+		campaignRepository.findSingleCampaign();
+		campaignRepository.findWithNameAndDescriptionPositionalBind("Query Count 1", "About Query Count 1");
+		campaignRepository.findWithNameAndDescriptionNameBind("About Query Count 1", "Query Count 1");
+		campaignRepository.findWithCodeIn(Set.of("CQC-1", "CQC-2"));
+		campaignRepository.findWithDescriptionIsLike("Query");
+		campaignRepository.findWithDescriptionWithPrefixAndSuffix("About", "1");
+
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(8);
+	}
+
+	@Test
+	void givenLazyTasks_whenIteratingCampaigns_thenTasksBatchFetched() {
+		List<Campaign> campaigns = campaignRepository.findWithCodeIn(Set.of("CQC-1", "CQC-2", "CQC-3"));
+		campaigns.forEach(c -> assertThat(c.getTasks()).hasSize(TASKS_PER_CAMPAIGN));
+
+		// One query for the campaigns and one batched IN query for all three task collections
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(2);
+	}
+
+	@Test
+	void whenFindWithTasksByCode_thenOneSelectAndTasksLoaded() {
+		Campaign campaign = campaignRepository.findWithTasksByCode("CQC-1").get();
+
+		assertThat(Hibernate.isInitialized(campaign.getTasks())).isTrue();
+		assertThat(campaign.getTasks()).hasSize(TASKS_PER_CAMPAIGN);
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(1);
+	}
+
+	@Test
+	void whenFindWithTasksAndAssigneesByCode_thenOneSelectAndAssigneesLoaded() {
+		Campaign campaign = campaignRepository.findWithTasksAndAssigneesByCode("CQC-1").get();
+
+		assertThat(campaign.getTasks()).hasSize(TASKS_PER_CAMPAIGN)
+				.allMatch(t -> Hibernate.isInitialized(t.getAssignee()));
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(1);
+	}
+
+	@Test
+	void whenFindWithTasksByNameContaining_thenOneSelectAndTasksLoaded() {
+		List<Campaign> campaigns = campaignRepository.findWithTasksByNameContaining("Query Count");
+
+		assertThat(campaigns).hasSize(3).allMatch(c -> c.getTasks().size() == TASKS_PER_CAMPAIGN);
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(1);
+	}
+
+	@Test
+	void whenFindAllWithTasks_thenOneSelectAndTasksLoaded() {
+		List<Campaign> campaigns = campaignRepository.findAllWithTasksBy();
+
+		assertThat(campaigns).allMatch(c -> Hibernate.isInitialized(c.getTasks()));
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(1);
+	}
+
+	@Test
+	void whenFindWithTasksByCodeIn_thenOneSelectAndTasksLoaded() {
+		List<Campaign> campaigns = campaignRepository.findWithTasksByCodeIn(Set.of("CQC-1", "CQC-2"));
+
+		assertThat(campaigns).hasSize(2).allMatch(c -> c.getTasks().size() == TASKS_PER_CAMPAIGN);
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(1);
+	}
+
+	@Test
+	void whenDeleteByNameContaining_thenBulkDeletesIndependentOfTaskCount() {
+		Long deleted = campaignRepository.deleteByNameContaining("Query Count");
+
+		assertThat(deleted).isEqualTo(3);
+		// Campaign ids and task ids, then one DELETE each for the tasks, their task counts and the campaigns
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(2);
+		assertThat(sqlStatementCounter.getDeletes()).isEqualTo(3);
+		assertThat(campaignRepository.findByNameContaining("Query Count")).isEmpty();
+	}
+
+}
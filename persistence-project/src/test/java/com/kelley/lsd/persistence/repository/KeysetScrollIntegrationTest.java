@@ -0,0 +1,156 @@
+package com.kelley.lsd.persistence.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.projection.TaskRow;
+import com.kelley.lsd.persistence.scroll.ScrollPage;
+import com.kelley.lsd.persistence.scroll.ScrollTokens;
+import com.kelley.lsd.persistence.support.SqlStatementCounter;
+
+@DataJpaTest
+@Import(SqlStatementCounter.class)
+public class KeysetScrollIntegrationTest {
+
+	@Autowired
+	TaskRepository taskRepository;
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	@Autowired
+	SqlStatementCounter sqlStatementCounter;
+
+	@BeforeEach
+	void setUp() {
+		for (int c = 0; c < 12; c++) {
+			Campaign campaign = new Campaign(String.format("SCROLL-%02d", c), "Scroll Campaign " + c, "Description");
+			// Only three distinct due dates, so the id tie-breaker matters
+			for (int t = 0; t < 4; t++) {
+				campaign.getTasks().add(new Task("Scroll Task", "Description", LocalDate.of(2031, 1, 1 + (c + t) % 3), TaskStatus.TO_DO, campaign));
+			}
+			entityManager.persist(campaign);
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void givenTasks_whenScrollingByDueDate_thenEveryTaskReturnedOnceInOrder() {
+		List<Task> scrolled = new ArrayList<>();
+		String token = null;
+		int windows = 0;
+		do {
+			sqlStatementCounter.reset();
+			ScrollPage<Task> page = ScrollPage.of(taskRepository.findByDueDateGreaterThanOrderByDueDateAscIdAsc(
+					LocalDate.of(2030, 12, 31), ScrollTokens.decode(token, TaskRepository.DUE_DATE_SCROLL_KEYS), Limit.of(10)));
+
+			// Every window is a single bounded query that seeks past the previous one, never an OFFSET
+			assertThat(sqlStatementCounter.getStatements()).singleElement()
+					.satisfies(sql -> assertThat(sql.toLowerCase()).doesNotContain("offset"));
+
+			scrolled.addAll(page.items());
+			token = page.nextToken();
+			windows++;
+		} while (token != null);
+
+		assertThat(windows).isEqualTo(5);
+		assertThat(scrolled).hasSize(48).doesNotHaveDuplicates()
+				.isSortedAccordingTo(Comparator.comparing(Task::getDueDate).thenComparing(Task::getId));
+	}
+
+	@Test
+	void givenCampaigns_whenScrollingByCode_thenEveryCampaignReturnedOnceInOrder() {
+		List<String> codes = new ArrayList<>();
+		String token = null;
+		do {
+			ScrollPage<Campaign> page = ScrollPage.of(campaignRepository.findByNameStartingWithOrderByCodeAsc(
+					"Scroll", ScrollTokens.decode(token, CampaignRepository.CODE_SCROLL_KEYS), Limit.of(5)));
+			page.items().forEach(c -> codes.add(c.getCode()));
+			token = page.nextToken();
+		} while (token != null);
+
+		assertThat(codes).hasSize(12).doesNotHaveDuplicates().isSorted();
+	}
+
+	@Test
+	void givenOverdueRows_whenScrolling_thenEveryRowReturnedOnceInOrder() {
+		List<TaskRow> scrolled = new ArrayList<>();
+		String token = null;
+		int windows = 0;
+		do {
+			ScrollPage<TaskRow> page = ScrollPage.of(taskRepository.scrollRowsByDueDateBeforeAndStatus(LocalDate.of(2031, 1, 3),
+					TaskStatus.TO_DO, ScrollTokens.decode(token, TaskRepository.DUE_DATE_SCROLL_KEYS), Limit.of(10)));
+			scrolled.addAll(page.items());
+			token = page.nextToken();
+			windows++;
+		} while (token != null);
+
+		// Every row the List finder returns, in the same order, with windows ending between tasks due on the same day
+		List<TaskRow> expected = taskRepository.findRowsByDueDateBeforeAndStatus(LocalDate.of(2031, 1, 3), TaskStatus.TO_DO);
+		assertThat(expected).hasSizeGreaterThanOrEqualTo(32);
+		assertThat(scrolled).isEqualTo(expected).doesNotHaveDuplicates();
+		assertThat(windows).isEqualTo((expected.size() + 9) / 10);
+	}
+
+	@Test
+	void givenWindowEndingOnLastRow_whenScrolling_thenNoFurtherWindow() {
+		ScrollPage<TaskRow> first = ScrollPage.of(taskRepository.scrollRowsByCampaignCode("SCROLL-00",
+				ScrollTokens.decode(null, TaskRepository.DUE_DATE_SCROLL_KEYS), Limit.of(2)));
+		assertThat(first.items()).hasSize(2);
+		assertThat(first.hasNext()).isTrue();
+
+		ScrollPage<TaskRow> last = ScrollPage.of(taskRepository.scrollRowsByCampaignCode("SCROLL-00",
+				ScrollTokens.decode(first.nextToken(), TaskRepository.DUE_DATE_SCROLL_KEYS), Limit.of(2)));
+		assertThat(last.items()).hasSize(2).doesNotContainAnyElementsOf(first.items());
+		assertThat(last.hasNext()).isFalse();
+
+		assertThat(ScrollPage.of(taskRepository.scrollRowsByCampaignCode("SCROLL-00",
+				ScrollTokens.decode(null, TaskRepository.DUE_DATE_SCROLL_KEYS), Limit.of(4))).hasNext()).isFalse();
+	}
+
+	@Test
+	void givenTokenForOtherQuery_whenDecoding_thenRejected() {
+		ScrollPage<Campaign> page = ScrollPage.of(campaignRepository.findAllByOrderByCodeAsc(
+				ScrollTokens.decode(null, CampaignRepository.CODE_SCROLL_KEYS), Limit.of(1)));
+
+		assertThatThrownBy(() -> ScrollTokens.decode(page.nextToken(), TaskRepository.DUE_DATE_SCROLL_KEYS))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> ScrollTokens.decode("not a token", TaskRepository.DUE_DATE_SCROLL_KEYS))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void givenToken_whenDecoded_thenKeysInSortOrder() {
+		String token = ScrollTokens.encode(ScrollPosition.forward(Map.of("id", 42L, "dueDate", LocalDate.of(2025, 1, 12))));
+
+		KeysetScrollPosition position = (KeysetScrollPosition) ScrollTokens.decode(token, TaskRepository.DUE_DATE_SCROLL_KEYS);
+		assertThat(position.getKeys().keySet()).containsExactly("dueDate", "id");
+		assertThat(TaskRepository.DUE_DATE_SCROLL_KEYS.keySet()).containsExactly("dueDate", "id");
+		assertThat(CampaignRepository.CODE_SCROLL_KEYS.keySet()).containsExactly("code", "id");
+		assertThat(ArchivedTaskRepository.SCROLL_KEYS.keySet()).containsExactly("dueDate", "id");
+	}
+
+}
@@ -0,0 +1,127 @@
+package com.kelley.lsd.persistence.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+
+import com.kelley.lsd.persistence.metrics.QueryMetricsConfiguration;
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.model.Worker;
+import com.kelley.lsd.persistence.support.QueryGuard;
+
+/*
+ * N+1 regression guards for the two associations that cause them: the Campaign.tasks collection and the
+ * Task.assignee (and Task.campaign) references, all of them lazy.
+ *
+ * Every guarded block reads the associations the way a caller would, with the persistence context and the
+ * second-level cache empty, so that each campaign and worker has to come from the database. With
+ * CAMPAIGNS campaigns and WORKERS workers involved, an N+1 shows up as CAMPAIGNS or WORKERS extra selects.
+ */
+@DataJpaTest
+@Import(QueryMetricsConfiguration.class)
+public class NPlusOneGuardIntegrationTest {
+
+	private static final int CAMPAIGNS = 10;
+
+	private static final int TASKS_PER_CAMPAIGN = 10;
+
+	private static final int WORKERS = 10;
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	TaskRepository taskRepository;
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	@BeforeEach
+	void setUp() {
+		List<Worker> workers = new ArrayList<>();
+		for (int w = 0; w < WORKERS; w++) {
+			workers.add(entityManager.persist(new Worker("guard" + w + "@test.com", "Guard" + w, "Worker")));
+		}
+		for (int c = 0; c < CAMPAIGNS; c++) {
+			Campaign campaign = new Campaign("GUARD-" + c, "Guard Campaign " + c, null);
+			for (int t = 0; t < TASKS_PER_CAMPAIGN; t++) {
+				Task task = new Task("Guard Task " + t, null, LocalDate.of(2020, 1, 1).plusDays(t), TaskStatus.TO_DO, campaign);
+				task.setAssignee(workers.get(t % WORKERS));
+				campaign.getTasks().add(task);
+			}
+			entityManager.persist(campaign);
+		}
+		entityManager.flush();
+		coldStart();
+	}
+
+	@Test
+	void givenCampaigns_whenIteratingLazyTasks_thenTasksBatchFetched() {
+		// Campaigns, then one IN query for all task collections
+		QueryGuard.assertMaxSelects(2, () -> {
+			campaignRepository.findByNameContaining("Guard").forEach(campaign -> assertThat(campaign.getTasks()).hasSize(TASKS_PER_CAMPAIGN));
+			return null;
+		});
+	}
+
+	@Test
+	void givenCampaignWithTasks_whenReadingAssignees_thenNoSelectPerAssignee() {
+		// Campaign with tasks, then the assignees in one batch
+		assertThat(QueryGuard.assertMaxSelects(2, () -> assigneeEmails(campaignRepository.findWithTasksByCode("GUARD-1").orElseThrow())))
+				.hasSize(TASKS_PER_CAMPAIGN);
+		coldStart();
+		QueryGuard.assertMaxSelects(2, () -> {
+			campaignRepository.findWithTasksByNameContaining("Guard").forEach(NPlusOneGuardIntegrationTest::assigneeEmails);
+			return null;
+		});
+		coldStart();
+		QueryGuard.assertMaxSelects(1, () -> assigneeEmails(campaignRepository.findWithTasksAndAssigneesByCode("GUARD-1").orElseThrow()));
+		coldStart();
+		QueryGuard.assertMaxSelects(1, () -> {
+			campaignRepository.findWithTasksByCodeIn(Set.of("GUARD-1", "GUARD-2")).forEach(NPlusOneGuardIntegrationTest::assigneeEmails);
+			return null;
+		});
+	}
+
+	@Test
+	void whenFindingTasks_thenCampaignsAndAssigneesFetchedInSameSelect() {
+		assertThat(QueryGuard.assertMaxSelects(1, () -> taskRepository.findByDueDateBeforeAndStatusEquals(LocalDate.of(2021, 1, 1), TaskStatus.TO_DO)))
+				.hasSize(CAMPAIGNS * TASKS_PER_CAMPAIGN);
+		coldStart();
+		QueryGuard.assertMaxSelects(1, () -> taskRepository.findByDueDateGreaterThan(LocalDate.of(2019, 1, 1)));
+		coldStart();
+		QueryGuard.assertMaxSelects(1, () -> taskRepository.findByAssigneeFirstName("Guard1"));
+		coldStart();
+		QueryGuard.assertMaxSelects(1, () -> taskRepository.findAllByOrderByIdAsc(ScrollPosition.keyset(), Limit.of(50)));
+	}
+
+	@Test
+	void whenFindingAllTasks_thenCampaignsAndAssigneesBatchFetched() {
+		// Tasks, then one IN query each for their campaigns and their assignees
+		QueryGuard.assertMaxSelects(3, () -> taskRepository.findAll());
+	}
+
+	private static List<String> assigneeEmails(Campaign campaign) {
+		return campaign.getTasks().stream().map(task -> task.getAssignee().getEmail()).toList();
+	}
+
+	private void coldStart() {
+		entityManager.clear();
+		entityManager.getEntityManager().getEntityManagerFactory().getCache().evictAll();
+	}
+
+}
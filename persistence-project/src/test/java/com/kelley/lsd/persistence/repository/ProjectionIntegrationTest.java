@@ -0,0 +1,118 @@
+package com.kelley.lsd.persistence.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.model.Worker;
+import com.kelley.lsd.persistence.projection.CampaignSummary;
+import com.kelley.lsd.persistence.projection.TaskRow;
+import com.kelley.lsd.persistence.support.SqlStatementCounter;
+
+/*
+ * Projections must come from one statement and leave the persistence context empty,
+ * where the equivalent entity reads load (and snapshot for dirty checking) every row.
+ */
+@DataJpaTest
+@Import(SqlStatementCounter.class)
+public class ProjectionIntegrationTest {
+
+	private static final int TASKS_PER_CAMPAIGN = 20;
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	TaskRepository taskRepository;
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	@Autowired
+	SqlStatementCounter sqlStatementCounter;
+
+	@BeforeEach
+	void setUp() {
+		Worker worker = entityManager.persist(new Worker("projection@test.com", "Pro", "Jection"));
+		for (int c = 1; c <= 2; c++) {
+			Campaign campaign = new Campaign("PROJ-" + c, "Projection " + c, "Description");
+			for (int t = 0; t < TASKS_PER_CAMPAIGN; t++) {
+				Task task = new Task("Projection Task " + t, "Description", LocalDate.of(2025, 1, 1).plusDays(t),
+						TaskStatus.values()[t % TaskStatus.values().length], campaign);
+				if (t % 2 == 0) task.setAssignee(worker);
+				campaign.getTasks().add(task);
+			}
+			entityManager.persist(campaign);
+		}
+		entityManager.persist(new Campaign("PROJ-EMPTY", "Projection Empty", "Description"));
+		entityManager.flush();
+		entityManager.clear();
+		sqlStatementCounter.reset();
+	}
+
+	@Test
+	void whenFindSummaryByCode_thenCountsPerStatusFromOneSelect() {
+		CampaignSummary summary = campaignRepository.findSummaryByCode("PROJ-1").get();
+
+		assertThat(summary.name()).isEqualTo("Projection 1");
+		assertThat(summary.totalTasks()).isEqualTo(TASKS_PER_CAMPAIGN);
+		for (TaskStatus status : TaskStatus.values()) {
+			assertThat(summary.count(status)).as("%s", status).isEqualTo(TASKS_PER_CAMPAIGN / TaskStatus.values().length);
+		}
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(1);
+		assertThat(managedEntities()).isZero();
+	}
+
+	@Test
+	void givenCampaignWithoutTasks_whenFindSummaries_thenZeroCounts() {
+		List<CampaignSummary> summaries = campaignRepository.findSummariesByNameStartingWith("Projection");
+
+		assertThat(summaries).extracting(CampaignSummary::code).containsExactly("PROJ-1", "PROJ-2", "PROJ-EMPTY");
+		assertThat(summaries.get(2).totalTasks()).isZero();
+		assertThat(summaries.get(2).toDo()).isZero();
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(1);
+	}
+
+	@Test
+	void whenFindRowsByCampaignCode_thenRowsWithAssigneeEmailAndNoEntitiesLoaded() {
+		List<TaskRow> rows = taskRepository.findRowsByCampaignCode("PROJ-1");
+
+		assertThat(rows).hasSize(TASKS_PER_CAMPAIGN).isSortedAccordingTo((a, b) -> a.dueDate().compareTo(b.dueDate()));
+		assertThat(rows.get(0).assigneeEmail()).isEqualTo("projection@test.com");
+		assertThat(rows.get(1).assigneeEmail()).isNull();
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(1);
+		assertThat(managedEntities()).isZero();
+	}
+
+	@Test
+	void givenEntityRead_whenComparedWithProjection_thenEveryRowIsManaged() {
+		campaignRepository.findWithTasksAndAssigneesByCode("PROJ-1");
+
+		// 1 campaign, its tasks and their one assignee, all held with snapshots until the session ends
+		assertThat(managedEntities()).isEqualTo(1 + TASKS_PER_CAMPAIGN + 1);
+	}
+
+	@Test
+	void whenFindHeaderByCode_thenOnlyCodeAndName() {
+		assertThat(campaignRepository.findHeaderByCode("PROJ-2")).get()
+				.satisfies(header -> assertThat(header.getName()).isEqualTo("Projection 2"));
+		assertThat(managedEntities()).isZero();
+	}
+
+	private int managedEntities() {
+		return entityManager.getEntityManager().unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities();
+	}
+
+}
@@ -0,0 +1,259 @@
+package com.kelley.lsd.persistence.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.model.Worker;
+import com.kelley.lsd.persistence.support.SqlStatementCounter;
+import com.kelley.lsd.persistence.support.SqlStatementCounter.ExecutedStatement;
+
+/*
+ * Query-plan regression suite.
+ *
+ * Every query method declared in TaskRepository and CampaignRepository, or in their custom fragments, and in
+ * ArchivedTaskRepository is called once. The SQL it sends
+ * (and its bind values) is captured and run through H2's EXPLAIN on the same connection. Methods listed
+ * under INDEXED fail the test if any of their statements reads a table with a full table scan.
+ * Methods listed under SCANS are expected to scan, with the reason given next to them; they are still
+ * executed and explained so that the suite notices when they stop working.
+ *
+ * A new repository method that is in neither list fails everyRepositoryMethodIsClassified().
+ */
+@DataJpaTest
+@Import(SqlStatementCounter.class)
+public class RepositoryQueryPlanIntegrationTest {
+
+	// H2 prints this in the plan when a table is read without an index
+	private static final String TABLE_SCAN = "tableScan";
+
+	private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+
+	@Autowired
+	TaskRepository taskRepository;
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	ArchivedTaskRepository archivedTaskRepository;
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	@Autowired
+	SqlStatementCounter sqlStatementCounter;
+
+	@Autowired
+	DataSource dataSource;
+
+	private final Map<String, Runnable> indexed = new LinkedHashMap<>();
+
+	private final Map<String, Runnable> scans = new LinkedHashMap<>();
+
+	@BeforeEach
+	void setUp() {
+		// Enough rows that H2's cost model prefers an index wherever one applies
+		List<Worker> workers = new ArrayList<>();
+		for (int w = 0; w < 50; w++) {
+			workers.add(entityManager.persist(new Worker("worker" + w + "@test.com", "First" + w, "Last" + w)));
+		}
+		for (int c = 0; c < 40; c++) {
+			Campaign campaign = new Campaign("PLAN-" + c, "Plan Campaign " + c, "About Plan Campaign " + c);
+			for (int t = 0; t < 50; t++) {
+				Task task = new Task("Plan Task " + t, "Description", TODAY.plusDays((c * 50 + t) % 720 - 360),
+						TaskStatus.values()[t % TaskStatus.values().length], campaign);
+				task.setAssignee(workers.get((c + t) % workers.size()));
+				campaign.getTasks().add(task);
+			}
+			entityManager.persist(campaign);
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		/*
+		 * TaskRepository
+		 */
+		indexed.put("findByDueDateGreaterThan", () -> taskRepository.findByDueDateGreaterThan(TODAY.plusDays(350)));
+		indexed.put("findByDueDateBeforeAndStatusEquals", () -> taskRepository.findByDueDateBeforeAndStatusEquals(TODAY, TaskStatus.TO_DO));
+		indexed.put("findByAssigneeFirstName", () -> taskRepository.findByAssigneeFirstName("First1"));
+		indexed.put("findByDueDateGreaterThanOrderByDueDateAscIdAsc", () -> taskRepository
+				.findByDueDateGreaterThanOrderByDueDateAscIdAsc(TODAY, ScrollPosition.keyset(), Limit.of(20)));
+		indexed.put("findByDueDateBeforeAndStatusEqualsOrderByDueDateAscIdAsc", () -> taskRepository
+				.findByDueDateBeforeAndStatusEqualsOrderByDueDateAscIdAsc(TODAY, TaskStatus.TO_DO, ScrollPosition.keyset(), Limit.of(20)));
+		indexed.put("findByAssigneeFirstNameOrderByIdAsc", () -> taskRepository
+				.findByAssigneeFirstNameOrderByIdAsc("First1", ScrollPosition.keyset(), Limit.of(20)));
+		indexed.put("findAllByOrderByIdAsc", () -> taskRepository
+				.findAllByOrderByIdAsc(ScrollPosition.forward(Map.of("id", 1000L)), Limit.of(20)));
+
+		indexed.put("findRowsByCampaignCode", () -> taskRepository.findRowsByCampaignCode("PLAN-1"));
+		indexed.put("findRowsByDueDateBeforeAndStatus", () -> taskRepository.findRowsByDueDateBeforeAndStatus(TODAY, TaskStatus.TO_DO));
+		indexed.put("scrollRowsByCampaignCode", () -> taskRepository.scrollRowsByCampaignCode("PLAN-1",
+				ScrollPosition.forward(Map.of("dueDate", TODAY, "id", 1000L)), Limit.of(20)));
+		indexed.put("scrollRowsByDueDateBeforeAndStatus", () -> taskRepository.scrollRowsByDueDateBeforeAndStatus(TODAY,
+				TaskStatus.TO_DO, ScrollPosition.forward(Map.of("dueDate", TODAY.minusDays(100), "id", 1000L)), Limit.of(20)));
+		indexed.put("streamAllByOrderByIdAsc", () -> {
+			try (Stream<Task> tasks = taskRepository.streamAllByOrderByIdAsc()) {
+				tasks.limit(20).count();
+			}
+		});
+		indexed.put("streamByDueDateGreaterThan", () -> {
+			try (Stream<Task> tasks = taskRepository.streamByDueDateGreaterThan(TODAY.plusDays(350))) {
+				tasks.count();
+			}
+		});
+		// Bulk status transitions (TaskRepositoryCustom): the grouped count before the UPDATE is explained
+		indexed.put("updateStatusByDueDateBefore", () -> taskRepository.updateStatusByDueDateBefore(TODAY, TaskStatus.TO_DO, TaskStatus.ON_HOLD));
+		indexed.put("updateStatusByCampaignId", () -> taskRepository.updateStatusByCampaignId(
+				campaignRepository.findByCodeEquals("PLAN-1").orElseThrow().getId(), TaskStatus.TO_DO, TaskStatus.ON_HOLD));
+		indexed.put("updateStatusByIdIn", () -> taskRepository.updateStatusByIdIn(List.of(1L, 2L, 3L), TaskStatus.TO_DO, TaskStatus.ON_HOLD));
+		indexed.put("deleteAllWithTasksById", () -> campaignRepository.deleteAllWithTasksById(
+				List.of(campaignRepository.findByCodeEquals("PLAN-1").orElseThrow().getId())));
+
+		// Groups every task by year: reads the whole table by definition
+		scans.put("countByDueYear", () -> taskRepository.countByDueYear());
+
+		/*
+		 * CampaignRepository
+		 */
+		indexed.put("findByCodeEquals", () -> campaignRepository.findByCodeEquals("PLAN-1"));
+		indexed.put("countByName", () -> campaignRepository.countByName("Plan Campaign 1"));
+		indexed.put("findByNameStartingWith", () -> campaignRepository.findByNameStartingWith("Plan Campaign 1"));
+		indexed.put("findWithNameAndDescription", () -> campaignRepository.findWithNameAndDescription());
+		indexed.put("findNameByCode", () -> campaignRepository.findNameByCode());
+		indexed.put("findWithNameAndDescriptionPositionalBind", () -> campaignRepository
+				.findWithNameAndDescriptionPositionalBind("Plan Campaign 1", "About Plan Campaign 1"));
+		indexed.put("findWithNameAndDescriptionNameBind", () -> campaignRepository
+				.findWithNameAndDescriptionNameBind("About Plan Campaign 1", "Plan Campaign 1"));
+		indexed.put("findWithCodeIn", () -> campaignRepository.findWithCodeIn(Set.of("PLAN-1", "PLAN-2")));
+		indexed.put("findWithTasksByCode", () -> campaignRepository.findWithTasksByCode("PLAN-1"));
+		indexed.put("findWithTasksAndAssigneesByCode", () -> campaignRepository.findWithTasksAndAssigneesByCode("PLAN-1"));
+		indexed.put("findWithTasksByCodeIn", () -> campaignRepository.findWithTasksByCodeIn(Set.of("PLAN-1", "PLAN-2")));
+		indexed.put("findByNameStartingWithOrderByCodeAsc", () -> campaignRepository
+				.findByNameStartingWithOrderByCodeAsc("Plan Campaign 1", ScrollPosition.keyset(), Limit.of(5)));
+		indexed.put("findAllByOrderByCodeAsc", () -> campaignRepository
+				.findAllByOrderByCodeAsc(ScrollPosition.forward(Map.of("code", "PLAN-1", "id", 1L)), Limit.of(5)));
+		indexed.put("findSummaryByCode", () -> campaignRepository.findSummaryByCode("PLAN-1"));
+		indexed.put("findSummariesByNameStartingWith", () -> campaignRepository.findSummariesByNameStartingWith("Plan Campaign 1"));
+		indexed.put("findHeaderByCode", () -> campaignRepository.findHeaderByCode("PLAN-1"));
+
+		// Leading-wildcard LIKE: no B-tree index can serve '%x%'
+		scans.put("findByNameContaining", () -> campaignRepository.findByNameContaining("Campaign 1"));
+		scans.put("findDistinctByTasksNameContaining", () -> campaignRepository.findDistinctByTasksNameContaining("Task 1"));
+		scans.put("deleteByNameContaining", () -> campaignRepository.deleteByNameContaining("no such campaign"));
+		scans.put("removeByNameContaining", () -> campaignRepository.removeByNameContaining("no such campaign"));
+		scans.put("findWithDescriptionIsLike", () -> campaignRepository.findWithDescriptionIsLike("Plan"));
+		scans.put("findWithTasksByNameContaining", () -> campaignRepository.findWithTasksByNameContaining("Campaign 1"));
+		scans.put("findByNameContainingOrderByCodeAsc", () -> campaignRepository
+				.findByNameContainingOrderByCodeAsc("Campaign 1", ScrollPosition.keyset(), Limit.of(5)));
+		// Pattern is built from two parameters, so the prefix is unknown when the plan is made
+		scans.put("findWithDescriptionWithPrefixAndSuffix", () -> campaignRepository.findWithDescriptionWithPrefixAndSuffix("About", "1"));
+		// Whole-table reads; a scan is the cheapest plan
+		scans.put("findSingleCampaign", () -> campaignRepository.findSingleCampaign());
+		scans.put("findAllWithTasksBy", () -> campaignRepository.findAllWithTasksBy());
+
+		/*
+		 * ArchivedTaskRepository
+		 */
+		// Also declared by TaskRepository, with the same graph
+		indexed.put("findById", () -> {
+			taskRepository.findById(1L);
+			archivedTaskRepository.findById(1L);
+		});
+		indexed.put("findByCampaignIdOrderByDueDateAscIdAsc", () -> archivedTaskRepository
+				.findByCampaignIdOrderByDueDateAscIdAsc(1L, ScrollPosition.forward(Map.of("dueDate", TODAY, "id", 1L)), Limit.of(20)));
+		indexed.put("countByCampaignId", () -> archivedTaskRepository.countByCampaignId(1L));
+	}
+
+	@Test
+	void everyRepositoryMethodIsClassified() {
+		Set<String> declared = new HashSet<>();
+		Stream.of(TaskRepository.class, TaskRepositoryCustom.class, CampaignRepository.class, CampaignRepositoryCustom.class,
+				ArchivedTaskRepository.class)
+				.flatMap(repository -> Arrays.stream(repository.getDeclaredMethods()))
+				.filter(method -> !method.isDefault() && !Modifier.isStatic(method.getModifiers()) && !method.isSynthetic())
+				.map(Method::getName)
+				.forEach(declared::add);
+
+		Set<String> classified = new HashSet<>(indexed.keySet());
+		classified.addAll(scans.keySet());
+
+		assertThat(classified).containsExactlyInAnyOrderElementsOf(declared);
+	}
+
+	@Test
+	void hotQueriesUseIndexes() throws SQLException {
+		SoftAssertions softly = new SoftAssertions();
+		for (Map.Entry<String, Runnable> query : indexed.entrySet()) {
+			for (String plan : explain(query.getValue())) {
+				softly.assertThat(plan).as("plan for %s", query.getKey()).doesNotContain(TABLE_SCAN);
+			}
+		}
+		softly.assertAll();
+	}
+
+	@Test
+	void expectedScansStillExplain() throws SQLException {
+		for (Map.Entry<String, Runnable> query : scans.entrySet()) {
+			assertThat(explain(query.getValue())).as("plan for %s", query.getKey()).isNotEmpty();
+		}
+	}
+
+	/*
+	 * Runs the repository call, then EXPLAINs every SELECT it sent, with the same bind values.
+	 * The connection is the one bound to the test transaction, so the rows inserted in setUp are visible.
+	 */
+	private List<String> explain(Runnable repositoryCall) throws SQLException {
+		entityManager.clear();
+		sqlStatementCounter.reset();
+		repositoryCall.run();
+		List<ExecutedStatement> statements = sqlStatementCounter.getExecutedStatements();
+
+		List<String> plans = new ArrayList<>();
+		Connection connection = DataSourceUtils.getConnection(dataSource);
+		for (ExecutedStatement statement : statements) {
+			if (!statement.sql().stripLeading().toLowerCase().startsWith("select")) continue;
+			try (PreparedStatement explain = connection.prepareStatement("explain " + statement.sql())) {
+				for (Map.Entry<Integer, Object> parameter : statement.parameters().entrySet()) {
+					explain.setObject(parameter.getKey(), parameter.getValue());
+				}
+				try (ResultSet result = explain.executeQuery()) {
+					result.next();
+					plans.add(result.getString(1));
+				}
+			}
+		}
+		return plans;
+	}
+
+}
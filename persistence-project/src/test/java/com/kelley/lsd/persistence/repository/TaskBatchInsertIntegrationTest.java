@@ -0,0 +1,84 @@
+package com.kelley.lsd.persistence.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.support.SqlStatementCounter;
+
+/*
+ * Regression test for JDBC batching.
+ * With IDENTITY keys every Task was inserted with its own statement. With pooled sequences and
+ * hibernate.jdbc.batch_size the inserts should reach the driver as roughly N / batchSize batches.
+ */
+@DataJpaTest
+@Import(SqlStatementCounter.class)
+public class TaskBatchInsertIntegrationTest {
+
+	// Must match spring.jpa.properties.hibernate.jdbc.batch_size
+	private static final int BATCH_SIZE = 50;
+
+	private static final int TASK_COUNT = 500;
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	TaskRepository taskRepository;
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	@Autowired
+	SqlStatementCounter sqlStatementCounter;
+
+	@Test
+	void givenCampaignWithManyTasks_whenSaveAll_thenTaskInsertsAreBatched() {
+		Campaign campaign = new Campaign("CBATCH-1", "Batch Campaign", "Description");
+		for (int i = 0; i < TASK_COUNT; i++) {
+			campaign.getTasks().add(new Task("Task " + i, "Description " + i, LocalDate.of(2025, 1, 1), TaskStatus.TO_DO, campaign));
+		}
+
+		sqlStatementCounter.reset();
+		campaignRepository.saveAll(List.of(campaign));
+		entityManager.flush();
+
+		// 1 batch for the campaign + TASK_COUNT / BATCH_SIZE batches for the tasks
+		assertThat(sqlStatementCounter.getInserts()).isZero();
+		assertThat(sqlStatementCounter.getBatchedStatements()).isEqualTo(TASK_COUNT + 1);
+		assertThat(sqlStatementCounter.getBatches()).isEqualTo(TASK_COUNT / BATCH_SIZE + 1);
+
+		// Sequence values are reserved a block at a time rather than once per row
+		assertThat(sqlStatementCounter.getSelects()).isLessThanOrEqualTo(TASK_COUNT / BATCH_SIZE + 2);
+	}
+
+	@Test
+	void givenManyTasks_whenSaveAll_thenTaskInsertsAreBatched() {
+		Campaign campaign = new Campaign("CBATCH-2", "Batch Campaign", "Description");
+		entityManager.persistAndFlush(campaign);
+
+		List<Task> tasks = new ArrayList<>();
+		for (int i = 0; i < TASK_COUNT; i++) {
+			tasks.add(new Task("Task " + i, "Description " + i, LocalDate.of(2025, 1, 1), TaskStatus.TO_DO, campaign));
+		}
+
+		sqlStatementCounter.reset();
+		taskRepository.saveAll(tasks);
+		entityManager.flush();
+
+		assertThat(sqlStatementCounter.getInserts()).isZero();
+		assertThat(sqlStatementCounter.getBatches()).isEqualTo(TASK_COUNT / BATCH_SIZE);
+	}
+
+}
@@ -0,0 +1,128 @@
+package com.kelley.lsd.persistence.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.kelley.lsd.persistence.aggregate.TaskCountReconciler;
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.projection.StatusCount;
+import com.kelley.lsd.persistence.support.SqlStatementCounter;
+
+/*
+ * The transitions commit on their own (and the aggregate with them), so the test transaction is switched off
+ * and the tables are emptied around each test instead. Each test ends by checking the aggregate against the task table.
+ */
+@DataJpaTest
+@Import({ TaskCountReconciler.class, SqlStatementCounter.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "persistence.task-count.reconcile-on-startup=false")
+public class TaskStatusTransitionIntegrationTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+
+	@Autowired
+	TaskRepository taskRepository;
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	TaskCountRepository taskCountRepository;
+
+	@Autowired
+	TaskCountReconciler reconciler;
+
+	@Autowired
+	SqlStatementCounter sqlStatementCounter;
+
+	Campaign campaign;
+
+	@BeforeEach
+	void setUp() {
+		cleanUp();
+		// 20 overdue TO_DO tasks over two years, 10 TO_DO tasks due later and 5 overdue IN_PROGRESS tasks
+		campaign = new Campaign("TRANSITION-1", "Transition Campaign", null);
+		for (int t = 0; t < 20; t++) addTask(TODAY.minusDays(100 + t * 20), TaskStatus.TO_DO);
+		for (int t = 0; t < 10; t++) addTask(TODAY.plusDays(t), TaskStatus.TO_DO);
+		for (int t = 0; t < 5; t++) addTask(TODAY.minusDays(1), TaskStatus.IN_PROGRESS);
+		campaign = campaignRepository.save(campaign);
+		sqlStatementCounter.reset();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		campaignRepository.deleteAll();
+		reconciler.rebuild();
+	}
+
+	@Test
+	void givenOverdueTasks_whenTransitioned_thenOneUpdateAndOnlyMatchingTasksChanged() {
+		int updated = taskRepository.updateStatusByDueDateBefore(TODAY, TaskStatus.TO_DO, TaskStatus.ON_HOLD);
+
+		assertThat(updated).isEqualTo(20);
+		// The ids of the matching tasks, locked, and the grouped count for the aggregate, then a single UPDATE for all tasks
+		assertThat(sqlStatementCounter.getSelects()).isEqualTo(2);
+		assertThat(sqlStatementCounter.getUpdates()).isEqualTo(1);
+
+		assertThat(taskRepository.findByDueDateBeforeAndStatusEquals(TODAY, TaskStatus.ON_HOLD))
+				.hasSize(20).allMatch(task -> task.getVersion() == 1);
+		assertThat(taskRepository.findByDueDateBeforeAndStatusEquals(TODAY, TaskStatus.IN_PROGRESS))
+				.hasSize(5).allMatch(task -> task.getVersion() == 0);
+		assertThat(taskCountRepository.countByStatusForCampaign(campaign.getId())).containsExactly(
+				new StatusCount(TaskStatus.TO_DO, 10), new StatusCount(TaskStatus.IN_PROGRESS, 5), new StatusCount(TaskStatus.ON_HOLD, 20));
+		assertThat(reconciler.verify()).isEmpty();
+	}
+
+	@Test
+	void givenCampaignAndIds_whenTransitioned_thenCountsReturned() {
+		assertThat(taskRepository.updateStatusByCampaignId(campaign.getId(), TaskStatus.IN_PROGRESS, TaskStatus.DONE)).isEqualTo(5);
+
+		List<Long> ids = taskRepository.findRowsByCampaignCode("TRANSITION-1").stream().limit(3).map(row -> row.id()).toList();
+		assertThat(taskRepository.updateStatusByIdIn(ids, TaskStatus.TO_DO, TaskStatus.IN_PROGRESS)).isEqualTo(3);
+
+		// Nothing to do: no tasks, or no change of status
+		assertThat(taskRepository.updateStatusByIdIn(List.of(), TaskStatus.TO_DO, TaskStatus.DONE)).isZero();
+		assertThat(taskRepository.updateStatusByCampaignId(campaign.getId(), TaskStatus.DONE, TaskStatus.DONE)).isZero();
+
+		assertThat(taskCountRepository.countByStatusForCampaign(campaign.getId())).containsExactly(
+				new StatusCount(TaskStatus.TO_DO, 27), new StatusCount(TaskStatus.IN_PROGRESS, 3), new StatusCount(TaskStatus.DONE, 5));
+		assertThat(reconciler.verify()).isEmpty();
+	}
+
+	@Test
+	void givenTaskReadBeforeTransition_whenSavedAfter_thenOptimisticLockFailureInsteadOfLostUpdate() {
+		Task stale = taskRepository.findByDueDateBeforeAndStatusEquals(TODAY, TaskStatus.IN_PROGRESS).get(0);
+
+		taskRepository.updateStatusByDueDateBefore(TODAY, TaskStatus.IN_PROGRESS, TaskStatus.DONE);
+		stale.setDescription("Edited from an old copy");
+
+		assertThatThrownBy(() -> taskRepository.save(stale)).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+		assertThat(taskRepository.findById(stale.getId())).get()
+				.satisfies(task -> {
+					assertThat(task.getStatus()).isEqualTo(TaskStatus.DONE);
+					assertThat(task.getDescription()).isNull();
+				});
+		assertThat(reconciler.verify()).isEmpty();
+	}
+
+	private void addTask(LocalDate dueDate, TaskStatus status) {
+		campaign.getTasks().add(new Task("Transition Task", null, dueDate, status, campaign));
+	}
+
+}
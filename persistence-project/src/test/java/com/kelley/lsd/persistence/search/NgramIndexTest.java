@@ -0,0 +1,71 @@
+package com.kelley.lsd.persistence.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.kelley.lsd.persistence.search.NgramIndex.Match;
+
+public class NgramIndexTest {
+
+	@Test
+	void givenTexts_whenSearchSubstring_thenMatchesRankedExactPrefixWordAnywhere() {
+		NgramIndex index = new NgramIndex();
+		index.put(1, "Autumn Sale");
+		index.put(2, "Sale");
+		index.put(3, "Salesforce Migration");
+		index.put(4, "Wholesale Leads");
+		index.put(5, "Marketing");
+
+		assertThat(index.search("SALE")).extracting(Match::id).containsExactly(2L, 3L, 1L, 4L);
+	}
+
+	@Test
+	void givenSharedTrigrams_whenSearch_thenFalsePositivesDropped() {
+		NgramIndex index = new NgramIndex();
+		// Contains every trigram of "abcd" ("abc", "bcd") but not the substring itself
+		index.put(1, "abc-bcd");
+		index.put(2, "xabcdx");
+
+		assertThat(index.search("abcd")).extracting(Match::id).containsExactly(2L);
+	}
+
+	@Test
+	void givenShortQuery_whenSearch_thenFallsBackToScanningTexts() {
+		NgramIndex index = new NgramIndex();
+		index.put(1, "Q1 Launch");
+		index.put(2, "Launch");
+
+		assertThat(index.search("q1")).extracting(Match::id).containsExactly(1L);
+	}
+
+	@Test
+	void givenUpdatedAndRemovedTexts_whenSearch_thenOnlyCurrentTextMatches() {
+		NgramIndex index = new NgramIndex();
+		index.put(1, "Spring Campaign");
+		index.put(1, "Winter Campaign");
+		index.put(2, "Spring Cleaning");
+		index.remove(2);
+
+		assertThat(index.search("spring")).isEmpty();
+		assertThat(index.search("winter")).extracting(Match::id).containsExactly(1L);
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	@Test
+	void givenRebuildingIndex_whenStaleRowLoadedAfterLiveUpdate_thenLiveUpdateWins() {
+		NgramIndex index = NgramIndex.forRebuild();
+		index.put(1, "Renamed");
+		index.remove(2);
+
+		index.load(1, "Old Name");
+		index.load(2, "Deleted");
+		index.load(3, "Loaded");
+
+		assertThat(index.search("old")).isEmpty();
+		assertThat(index.search("deleted")).isEmpty();
+		assertThat(index.search("renamed")).extracting(Match::id).containsExactly(1L);
+		assertThat(index.search("loaded")).extracting(Match::id).containsExactly(3L);
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.kelley.lsd.persistence.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.repository.CampaignRepository;
+import com.kelley.lsd.persistence.repository.TaskRepository;
+
+/*
+ * The index is updated after commit, so each repository call here runs in its own committed transaction
+ * instead of the usual rolled-back test transaction.
+ */
+@DataJpaTest
+@Import({ SearchIndex.class, SearchIndexInitializer.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SearchIndexIntegrationTest {
+
+	@Autowired
+	SearchIndex searchIndex;
+
+	@Autowired
+	SearchIndexInitializer searchIndexInitializer;
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	TaskRepository taskRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@BeforeEach
+	@AfterEach
+	void cleanUp() {
+		campaignRepository.deleteAll();
+	}
+
+	@Test
+	void givenSavedCampaigns_whenSearch_thenIdsRankedNameBeforeDescription() {
+		Campaign byDescription = campaignRepository.save(new Campaign("S1", "Autumn Push", "Clearance of winter stock"));
+		Campaign byName = campaignRepository.save(new Campaign("S2", "Winter Clearance", "End of season"));
+		campaignRepository.save(new Campaign("S3", "Spring Launch", "New range"));
+
+		assertThat(searchIndex.searchCampaignIds("clearance", 10)).containsExactly(byName.getId(), byDescription.getId());
+	}
+
+	@Test
+	void givenCampaignRenamedAndDeleted_whenSearch_thenIndexFollowsCommits() {
+		Campaign campaign = campaignRepository.save(new Campaign("S1", "Summer Sale", "About"));
+		campaign.setName("Harvest Sale");
+		campaignRepository.save(campaign);
+
+		assertThat(searchIndex.searchCampaignIds("summer", 10)).isEmpty();
+		assertThat(searchIndex.searchCampaignIds("harvest", 10)).containsExactly(campaign.getId());
+
+		campaignRepository.delete(campaign);
+		assertThat(searchIndex.searchCampaignIds("harvest", 10)).isEmpty();
+	}
+
+	@Test
+	void givenRolledBackSave_whenSearch_thenNotIndexed() {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.executeWithoutResult(status -> {
+			campaignRepository.save(new Campaign("S1", "Phantom Campaign", "About"));
+			status.setRollbackOnly();
+		});
+
+		assertThat(searchIndex.searchCampaignIds("phantom", 10)).isEmpty();
+	}
+
+	@Test
+	void givenTasks_whenRebuild_thenTaskNamesSearchable() {
+		Campaign campaign = new Campaign("S1", "Campaign", "About");
+		Task task = new Task("Draft newsletter copy", "Description", LocalDate.of(2025, 1, 12), TaskStatus.TO_DO, campaign);
+		campaign.getTasks().add(task);
+		campaign = campaignRepository.save(campaign);
+		Long taskId = campaign.getTasks().iterator().next().getId();
+
+		assertThat(searchIndex.searchTaskIds("newsletter", 10)).containsExactly(taskId);
+
+		searchIndexInitializer.rebuild();
+
+		assertThat(searchIndex.searchTaskIds("newsletter", 10)).containsExactly(taskId);
+		assertThat(searchIndex.searchCampaignIds("campaign", 10)).containsExactly(campaign.getId());
+	}
+
+}
@@ -0,0 +1,94 @@
+package com.kelley.lsd.persistence.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * Live updates racing rebuilds. A map stands in for the database: each update is written to it first, as a commit
+ * would be, and then applied to the index, as the after-commit listener would; each rebuild loads what the map holds.
+ */
+public class SearchIndexTest {
+
+	private static final int TASKS = 5_000;
+
+	@Test
+	void givenUpdatesDuringRebuilds_whenRebuildsFinish_thenNoUpdateLost() {
+		SearchIndex searchIndex = new SearchIndex();
+		Map<Long, String> database = new ConcurrentHashMap<>();
+		AtomicBoolean writing = new AtomicBoolean(true);
+
+		CompletableFuture<Void> rebuilds = CompletableFuture.runAsync(() -> {
+			while (writing.get()) {
+				searchIndex.rebuild(loader -> database.forEach(loader::loadTask));
+			}
+		});
+		for (long id = 1; id <= TASKS; id++) {
+			database.put(id, name(id));
+			searchIndex.indexTask(id, name(id));
+		}
+		writing.set(false);
+		rebuilds.join();
+
+		for (long id = 1; id <= TASKS; id++) {
+			assertThat(searchIndex.searchTaskIds(name(id), 1)).as("task %d", id).containsExactly(id);
+		}
+	}
+
+	@Test
+	void givenRemovalsDuringRebuilds_whenRebuildsFinish_thenNoRemovalLost() {
+		SearchIndex searchIndex = new SearchIndex();
+		Map<Long, String> database = new ConcurrentHashMap<>();
+		for (long id = 1; id <= TASKS; id++) {
+			database.put(id, name(id));
+			searchIndex.indexTask(id, name(id));
+		}
+		AtomicBoolean writing = new AtomicBoolean(true);
+
+		CompletableFuture<Void> rebuilds = CompletableFuture.runAsync(() -> {
+			while (writing.get()) {
+				searchIndex.rebuild(loader -> database.forEach(loader::loadTask));
+			}
+		});
+		for (long id = 1; id <= TASKS; id++) {
+			database.remove(id);
+			searchIndex.removeTask(id);
+		}
+		writing.set(false);
+		rebuilds.join();
+
+		assertThat(searchIndex.searchTaskIds("task", TASKS)).isEmpty();
+	}
+
+	@Test
+	void givenUpdateFromOtherThreadMidRebuild_whenStaleRowsLoadedAfter_thenUpdateKept() {
+		SearchIndex searchIndex = new SearchIndex();
+		searchIndex.indexTask(1, "Old Name");
+		searchIndex.indexTask(2, "Deleted");
+
+		searchIndex.rebuild(loader -> {
+			CompletableFuture.runAsync(() -> {
+				searchIndex.indexTask(1, "Renamed");
+				searchIndex.removeTask(2);
+			}).join();
+			// Read by the rebuild before those commits
+			loader.loadTask(1, "Old Name");
+			loader.loadTask(2, "Deleted");
+		});
+
+		assertThat(searchIndex.searchTaskIds("old", 10)).isEmpty();
+		assertThat(searchIndex.searchTaskIds("deleted", 10)).isEmpty();
+		assertThat(searchIndex.searchTaskIds("renamed", 10)).containsExactly(1L);
+	}
+
+	// Delimited, so that no name contains another
+	private static String name(long id) {
+		return "<task " + id + ">";
+	}
+
+}
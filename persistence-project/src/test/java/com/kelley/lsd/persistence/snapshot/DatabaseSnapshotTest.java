@@ -0,0 +1,147 @@
+package com.kelley.lsd.persistence.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.kelley.lsd.persistence.snapshot.DatabaseSnapshot.Snapshot;
+
+/*
+ * Snapshots of a small database with a table and a sequence, restored into a second, empty one.
+ */
+public class DatabaseSnapshotTest {
+
+	private static final String SCHEMA = "schema-1";
+
+	@TempDir
+	Path tempDir;
+
+	DataSource source;
+
+	DataSource target;
+
+	Path file;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		source = database("source");
+		target = database("target");
+		file = tempDir.resolve("snapshot.sql.gz");
+		execute(source, "create table campaign(id bigint primary key, code varchar(20) not null unique)");
+		execute(source, "create sequence campaign_seq");
+		for (int c = 1; c <= 3; c++) execute(source, "insert into campaign values (next value for campaign_seq, 'SNAP-" + c + "')");
+	}
+
+	@Test
+	void givenDatabase_whenWrittenAndRestored_thenRowsAndSequencesRestored() throws Exception {
+		Snapshot snapshot = new DatabaseSnapshot(source, file, SCHEMA).write();
+		assertThat(snapshot.fileName()).isEqualTo("snapshot.sql.gz");
+		assertThat(snapshot.bytes()).isEqualTo(Files.size(file));
+		assertThat(Files.readString(tempDir.resolve("snapshot.sql.gz.sha256"))).startsWith(snapshot.sha256() + "  ");
+		assertThat(tempDir.resolve("snapshot.sql.gz.schema")).hasContent(SCHEMA);
+		assertThat(tempDir.resolve("snapshot.sql.gz.tmp")).doesNotExist();
+
+		DatabaseSnapshot restoring = new DatabaseSnapshot(target, file, SCHEMA);
+		assertThat(restoring.restore()).isTrue();
+		assertThat(restoring.isRestored()).isTrue();
+		assertThat(query(target, "select string_agg(code, ',' order by id) from campaign")).isEqualTo("SNAP-1,SNAP-2,SNAP-3");
+		// The sequence carries on where the source stopped
+		assertThat(query(target, "select next value for campaign_seq")).isEqualTo("4");
+	}
+
+	@Test
+	void givenNoSnapshot_whenRestored_thenNotRestored() {
+		DatabaseSnapshot restoring = new DatabaseSnapshot(target, file, SCHEMA);
+		assertThat(restoring.restore()).isFalse();
+		assertThat(restoring.isRestored()).isFalse();
+	}
+
+	@Test
+	void givenSnapshotNotMatchingChecksum_whenRestored_thenNotRestored() throws Exception {
+		new DatabaseSnapshot(source, file, SCHEMA).write();
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[bytes.length / 2] ^= 1;
+		Files.write(file, bytes);
+
+		assertThat(new DatabaseSnapshot(target, file, SCHEMA).restore()).isFalse();
+		assertThat(query(target, "select count(*) from information_schema.tables where table_schema = 'PUBLIC'")).isEqualTo("0");
+	}
+
+	@Test
+	void givenSnapshotOfOtherSchema_whenRestored_thenNotRestored() throws Exception {
+		new DatabaseSnapshot(source, file, SCHEMA).write();
+
+		DatabaseSnapshot restoring = new DatabaseSnapshot(target, file, "schema-2");
+		assertThat(restoring.restore()).isFalse();
+		assertThat(restoring.isRestored()).isFalse();
+		assertThat(query(target, "select count(*) from information_schema.tables where table_schema = 'PUBLIC'")).isEqualTo("0");
+	}
+
+	@Test
+	void givenSnapshotFailingPartWay_whenRestored_thenDatabaseLeftEmpty() throws Exception {
+		new DatabaseSnapshot(source, file, SCHEMA).write();
+		// Cut short, with a checksum to match: the script fails after it has created some of the schema
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 20));
+		Files.writeString(tempDir.resolve("snapshot.sql.gz.sha256"), sha256(file) + "  snapshot.sql.gz\n");
+
+		assertThat(new DatabaseSnapshot(target, file, SCHEMA).restore()).isFalse();
+		assertThat(query(target, "select count(*) from information_schema.tables where table_schema = 'PUBLIC'")).isEqualTo("0");
+		assertThat(query(target, "select count(*) from information_schema.sequences where sequence_schema = 'PUBLIC'")).isEqualTo("0");
+	}
+
+	@Test
+	void givenDatabaseWithTables_whenRestored_thenLeftAsItIs() throws Exception {
+		new DatabaseSnapshot(source, file, SCHEMA).write();
+		execute(target, "create table campaign(id bigint primary key, code varchar(20))");
+		execute(target, "insert into campaign values (42, 'KEPT')");
+
+		assertThat(new DatabaseSnapshot(target, file, SCHEMA).restore()).isFalse();
+		assertThat(query(target, "select string_agg(code, ',') from campaign")).isEqualTo("KEPT");
+	}
+
+	private static DataSource database(String name) throws SQLException {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:snapshot-" + name + ";DB_CLOSE_DELAY=-1");
+		execute(dataSource, "drop all objects");
+		return dataSource;
+	}
+
+	private static void execute(DataSource dataSource, String sql) throws SQLException {
+		try (Connection connection = dataSource.getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.execute(sql);
+		}
+	}
+
+	private static String query(DataSource dataSource, String sql) throws SQLException {
+		try (Connection connection = dataSource.getConnection();
+				Statement statement = connection.createStatement();
+				ResultSet rows = statement.executeQuery(sql)) {
+			rows.next();
+			return rows.getString(1);
+		}
+	}
+
+	private static String sha256(Path path) throws IOException, NoSuchAlgorithmException {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(path)));
+	}
+
+}
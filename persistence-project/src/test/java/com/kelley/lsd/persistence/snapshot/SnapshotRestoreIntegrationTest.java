@@ -0,0 +1,95 @@
+package com.kelley.lsd.persistence.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.kelley.lsd.PersistenceProjectApplication;
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.repository.CampaignRepository;
+
+/*
+ * Snapshots across restarts, so each test starts and stops the application itself rather than using a cached test
+ * context: one run writes the snapshot on shutdown, the next restores it at startup into a new in-memory database.
+ */
+public class SnapshotRestoreIntegrationTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void givenSnapshotWrittenOnShutdown_whenRestarted_thenDataRestoredAndSchemaNotRecreated() {
+		Path file = tempDir.resolve("db.sql.gz");
+		long savedId;
+		try (ConfigurableApplicationContext first = start("snapshot-first", file, "persistence.snapshot.write-on-shutdown=true")) {
+			savedId = first.getBean(CampaignRepository.class).save(new Campaign("SNAP-1", "Snapshot Campaign", null)).getId();
+		}
+		assertThat(file).exists();
+
+		try (ConfigurableApplicationContext second = start("snapshot-second", file, "persistence.snapshot.restore-on-startup=true")) {
+			assertThat(second.getBean(DatabaseSnapshot.class).isRestored()).isTrue();
+			CampaignRepository campaignRepository = second.getBean(CampaignRepository.class);
+			assertThat(campaignRepository.findByCodeEquals("SNAP-1")).map(Campaign::getId).contains(savedId);
+			// The restored sequence, not a new one starting from 1
+			assertThat(campaignRepository.save(new Campaign("SNAP-2", "After Restore", null)).getId()).isGreaterThan(savedId);
+		}
+	}
+
+	@Test
+	void givenCorruptSnapshot_whenStarted_thenSchemaCreatedAsWithout() throws Exception {
+		Path file = tempDir.resolve("db.sql.gz");
+		Files.writeString(file, "not a snapshot");
+		Files.writeString(tempDir.resolve("db.sql.gz.sha256"), "0".repeat(64) + "  db.sql.gz\n");
+
+		try (ConfigurableApplicationContext context = start("snapshot-corrupt", file, "persistence.snapshot.restore-on-startup=true")) {
+			assertThat(context.getBean(DatabaseSnapshot.class).isRestored()).isFalse();
+			CampaignRepository campaignRepository = context.getBean(CampaignRepository.class);
+			assertThat(campaignRepository.findByCodeEquals("SNAP-1")).isEmpty();
+			campaignRepository.save(new Campaign("SNAP-1", "Snapshot Campaign", null));
+		}
+	}
+
+	@Test
+	void givenSnapshotOfOtherSchema_whenStarted_thenSchemaCreatedAsWithout() throws Exception {
+		Path file = tempDir.resolve("db.sql.gz");
+		JdbcDataSource other = new JdbcDataSource();
+		other.setURL("jdbc:h2:mem:snapshot-other;DB_CLOSE_DELAY=-1");
+		try (Connection connection = other.getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.execute("create table campaign(id bigint primary key, code varchar(20))");
+			statement.execute("insert into campaign values (1, 'SNAP-1')");
+			// As written by an older version, whose entity mappings had another fingerprint
+			new DatabaseSnapshot(other, file, "0".repeat(64)).write();
+			statement.execute("shutdown");
+		}
+
+		try (ConfigurableApplicationContext context = start("snapshot-other-schema", file, "persistence.snapshot.restore-on-startup=true")) {
+			assertThat(context.getBean(DatabaseSnapshot.class).isRestored()).isFalse();
+			CampaignRepository campaignRepository = context.getBean(CampaignRepository.class);
+			assertThat(campaignRepository.findByCodeEquals("SNAP-1")).isEmpty();
+			campaignRepository.save(new Campaign("SNAP-1", "Snapshot Campaign", null));
+		}
+	}
+
+	private static ConfigurableApplicationContext start(String database, Path file, String snapshotProperty) {
+		return new SpringApplicationBuilder(PersistenceProjectApplication.class)
+				.web(WebApplicationType.NONE)
+				// Arguments rather than default properties, which application.properties would override
+				.run("--spring.datasource.url=jdbc:h2:mem:" + database,
+						"--spring.main.banner-mode=off",
+						"--persistence.demo.enabled=false",
+						"--persistence.snapshot.file=" + file,
+						"--" + snapshotProperty);
+	}
+
+}
@@ -0,0 +1,43 @@
+package com.kelley.lsd.persistence.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.function.Supplier;
+
+import com.kelley.lsd.persistence.metrics.QueryStatistics;
+import com.kelley.lsd.persistence.metrics.QueryStatistics.Counts;
+
+/*
+ * Assertions on the database work a block of code does, counted by QueryStatistics.
+ *
+ * Unlike the repository metrics, the count covers everything inside the block, including lazy loading
+ * after the finder returns, which is where N+1 selects usually come from:
+ *
+ *   QueryGuard.assertMaxSelects(2, () -> campaignRepository.findWithTasksByCode("C1").get().getTasks().size());
+ *
+ * Requires @Import(QueryMetricsConfiguration.class) on @DataJpaTest classes, so the DataSource is instrumented.
+ */
+public final class QueryGuard {
+
+	private QueryGuard() {}
+
+	public static Counts measure(Runnable block) {
+		try (QueryStatistics.Scope scope = QueryStatistics.open()) {
+			block.run();
+			return scope.counts();
+		}
+	}
+
+	/*
+	 * Runs the block and fails if it issued more than maxSelects selects. Returns the block's result.
+	 */
+	public static <T> T assertMaxSelects(int maxSelects, Supplier<T> block) {
+		try (QueryStatistics.Scope scope = QueryStatistics.open()) {
+			T result = block.get();
+			Counts counts = scope.counts();
+			assertThat(counts.selects()).as("selects (%s)", counts).isLessThanOrEqualTo(maxSelects);
+			return result;
+		}
+	}
+
+}
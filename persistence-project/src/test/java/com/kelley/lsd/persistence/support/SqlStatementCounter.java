@@ -0,0 +1,199 @@
+package com.kelley.lsd.persistence.support;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/*
+ * Counts the statements that actually reach the JDBC driver.
+ *
+ * The DataSource bean is wrapped in a JDK proxy, and so are the Connections and Statements it hands out.
+ * show-sql only prints what Hibernate prepares; this tells us how many round trips were made, which is
+ * what we care about when checking batching and N+1 behaviour.
+ *
+ * Usage: @Import(SqlStatementCounter.class) on the test class, then autowire it, reset() before the
+ * call under test and read the counters afterwards.
+ */
+@TestConfiguration
+public class SqlStatementCounter {
+
+	private final AtomicInteger selects = new AtomicInteger();
+	private final AtomicInteger inserts = new AtomicInteger();
+	private final AtomicInteger updates = new AtomicInteger();
+	private final AtomicInteger deletes = new AtomicInteger();
+
+	// Number of executeBatch() calls, i.e. round trips carrying a batch.
+	private final AtomicInteger batches = new AtomicInteger();
+
+	// Number of rows added to batches with addBatch().
+	private final AtomicInteger batchedStatements = new AtomicInteger();
+
+	// Every individually executed statement since the last reset, with its bind parameters.
+	private final List<ExecutedStatement> statements = new CopyOnWriteArrayList<>();
+
+	/*
+	 * parameters maps the 1-based JDBC parameter index to the bound value.
+	 */
+	public record ExecutedStatement(String sql, Map<Integer, Object> parameters) {
+	}
+
+	public void reset() {
+		selects.set(0);
+		inserts.set(0);
+		updates.set(0);
+		deletes.set(0);
+		batches.set(0);
+		batchedStatements.set(0);
+		statements.clear();
+	}
+
+	public int getSelects() {
+		return selects.get();
+	}
+
+	public int getInserts() {
+		return inserts.get();
+	}
+
+	public int getUpdates() {
+		return updates.get();
+	}
+
+	public int getDeletes() {
+		return deletes.get();
+	}
+
+	public int getBatches() {
+		return batches.get();
+	}
+
+	public int getBatchedStatements() {
+		return batchedStatements.get();
+	}
+
+	public List<String> getStatements() {
+		return statements.stream().map(ExecutedStatement::sql).toList();
+	}
+
+	public List<ExecutedStatement> getExecutedStatements() {
+		return List.copyOf(statements);
+	}
+
+	// Total individually executed statements. A batch counts once, however many rows it carries.
+	public int getTotal() {
+		return selects.get() + inserts.get() + updates.get() + deletes.get() + batches.get();
+	}
+
+	@Override
+	public String toString() {
+		return "SqlStatementCounter [selects=" + selects + ", inserts=" + inserts + ", updates=" + updates
+				+ ", deletes=" + deletes + ", batches=" + batches + ", batchedStatements=" + batchedStatements + "]";
+	}
+
+	@Bean
+	static BeanPostProcessor sqlStatementCountingPostProcessor(SqlStatementCounter counter) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof DataSource dataSource && !Proxy.isProxyClass(bean.getClass())) {
+					return counter.wrap(dataSource, DataSource.class);
+				}
+				return bean;
+			}
+		};
+	}
+
+	private void record(String sql, Map<Integer, Object> parameters) {
+		if (sql == null) return;
+		statements.add(new ExecutedStatement(sql, Collections.unmodifiableMap(new TreeMap<>(parameters))));
+		String verb = sql.stripLeading().toLowerCase(Locale.ROOT);
+		if (verb.startsWith("select") || verb.startsWith("with") || verb.startsWith("values")) {
+			selects.incrementAndGet();
+		} else if (verb.startsWith("insert") || verb.startsWith("merge")) {
+			inserts.incrementAndGet();
+		} else if (verb.startsWith("update")) {
+			updates.incrementAndGet();
+		} else if (verb.startsWith("delete")) {
+			deletes.incrementAndGet();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T wrap(T target, Class<T> type) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new CountingHandler(target, null));
+	}
+
+	/*
+	 * One handler class for DataSource, Connection and Statement proxies.
+	 * 'sql' is the statement text for PreparedStatements, null otherwise.
+	 */
+	private class CountingHandler implements InvocationHandler {
+
+		private final Object target;
+		private final String sql;
+		private final Map<Integer, Object> parameters = new TreeMap<>();
+
+		CountingHandler(Object target, String sql) {
+			this.target = target;
+			this.sql = sql;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+
+			if (target instanceof Statement) {
+				switch (name) {
+					case "execute", "executeQuery", "executeUpdate", "executeLargeUpdate" ->
+						record(args != null && args.length > 0 && args[0] instanceof String s ? s : sql, parameters);
+					case "setNull" -> parameters.put((Integer) args[0], null);
+					case "clearParameters" -> parameters.clear();
+					case "addBatch" -> batchedStatements.incrementAndGet();
+					case "executeBatch", "executeLargeBatch" -> batches.incrementAndGet();
+					default -> {
+						if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+							parameters.put(index, args[1]);
+						}
+					}
+				}
+			}
+
+			Object result;
+			try {
+				result = method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getTargetException();
+			}
+
+			// Keep wrapping whatever the DataSource and Connections hand out.
+			if (result instanceof Connection connection && method.getReturnType() == Connection.class) {
+				return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+						new CountingHandler(connection, null));
+			}
+			if (result instanceof Statement statement && target instanceof Connection) {
+				Class<?> statementType = method.getReturnType();
+				String statementSql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+				return Proxy.newProxyInstance(statementType.getClassLoader(), new Class<?>[] { statementType },
+						new CountingHandler(statement, statementSql));
+			}
+			return result;
+		}
+	}
+
+}
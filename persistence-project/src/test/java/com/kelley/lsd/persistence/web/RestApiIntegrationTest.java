@@ -0,0 +1,257 @@
+package com.kelley.lsd.persistence.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.projection.CampaignSummary;
+import com.kelley.lsd.persistence.purge.CampaignPurgeService;
+import com.kelley.lsd.persistence.purge.PurgeJob;
+import com.kelley.lsd.persistence.repository.CampaignRepository;
+import com.kelley.lsd.persistence.repository.WorkerRepository;
+import com.kelley.lsd.persistence.web.CampaignController.CampaignRequest;
+import com.kelley.lsd.persistence.web.CampaignController.CampaignResponse;
+import com.kelley.lsd.persistence.web.CampaignController.PurgeResponse;
+import com.kelley.lsd.persistence.web.ChangeController.AcknowledgeRequest;
+import com.kelley.lsd.persistence.web.ChangeController.HeadResponse;
+import com.kelley.lsd.persistence.web.TaskController.ArchivalRequest;
+import com.kelley.lsd.persistence.web.TaskController.ArchivalResponse;
+import com.kelley.lsd.persistence.web.TaskController.ArchivedTaskResponse;
+import com.kelley.lsd.persistence.web.TaskController.AssignmentRequest;
+import com.kelley.lsd.persistence.web.TaskController.StatusTransitionRequest;
+import com.kelley.lsd.persistence.web.TaskController.StatusTransitionResponse;
+import com.kelley.lsd.persistence.web.TaskController.TaskRequest;
+import com.kelley.lsd.persistence.web.TaskController.TaskResponse;
+import com.kelley.lsd.persistence.web.WorkerController.WorkerRequest;
+import com.kelley.lsd.persistence.web.WorkerController.WorkerResponse;
+import com.kelley.lsd.persistence.workload.TaskAssignmentService.Assignment;
+import com.kelley.lsd.persistence.workload.WorkerWorkload;
+
+/*
+ * Runs the whole application on a random port and talks to it over HTTP, so requests are served on
+ * (virtual) request threads with their own transactions, as in production.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class RestApiIntegrationTest {
+
+	@Autowired
+	TestRestTemplate restTemplate;
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	WorkerRepository workerRepository;
+
+	@Autowired
+	CampaignPurgeService campaignPurgeService;
+
+	@AfterEach
+	void cleanUp() {
+		campaignRepository.findByCodeEquals("API-1").ifPresent(campaignRepository::delete);
+		workerRepository.findByEmail("api.worker@test.com").ifPresent(workerRepository::delete);
+	}
+
+	@Test
+	void givenCampaignAndWorker_whenTaskCreatedAndUpdated_thenReadBack() {
+		ResponseEntity<CampaignResponse> campaign = restTemplate.postForEntity("/campaigns",
+				new CampaignRequest("API-1", "Api Campaign", "Created over HTTP"), CampaignResponse.class);
+		assertThat(campaign.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(campaign.getHeaders().getLocation()).hasPath("/campaigns/API-1");
+
+		ResponseEntity<WorkerResponse> worker = restTemplate.postForEntity("/workers",
+				new WorkerRequest("api.worker@test.com", "Api", "Worker"), WorkerResponse.class);
+		assertThat(worker.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+		ResponseEntity<TaskResponse> task = restTemplate.postForEntity("/tasks", new TaskRequest("Api Task", "Description",
+				LocalDate.of(2020, 1, 1), null, "API-1", "api.worker@test.com", null), TaskResponse.class);
+		assertThat(task.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(task.getBody().uuid()).isNotNull();
+		assertThat(task.getBody().status()).isEqualTo(TaskStatus.TO_DO);
+
+		restTemplate.put("/tasks/" + task.getBody().id(), new TaskRequest("Api Task", "Started",
+				LocalDate.of(2020, 1, 1), TaskStatus.IN_PROGRESS, null, "api.worker@test.com", task.getBody().version()));
+
+		assertThat(restTemplate.getForObject("/tasks/" + task.getBody().id(), TaskResponse.class))
+				.satisfies(read -> {
+					assertThat(read.description()).isEqualTo("Started");
+					assertThat(read.status()).isEqualTo(TaskStatus.IN_PROGRESS);
+					assertThat(read.campaignCode()).isEqualTo("API-1");
+					assertThat(read.assigneeEmail()).isEqualTo("api.worker@test.com");
+				});
+		assertThat(restTemplate.getForObject("/campaigns/API-1/summary", CampaignSummary.class))
+				.satisfies(summary -> {
+					assertThat(summary.totalTasks()).isEqualTo(1);
+					assertThat(summary.inProgress()).isEqualTo(1);
+				});
+		assertThat(restTemplate.getForObject("/workers?email={email}", WorkerResponse.class, "api.worker@test.com").id())
+				.isEqualTo(worker.getBody().id());
+	}
+
+	@Test
+	void givenTask_whenTransitionedInBulk_thenStaleUpdateRejected() {
+		restTemplate.postForEntity("/campaigns", new CampaignRequest("API-1", "Api Campaign", null), CampaignResponse.class);
+		TaskResponse task = restTemplate.postForObject("/tasks", new TaskRequest("Bulk Task", null,
+				LocalDate.of(2020, 1, 1), null, "API-1", null, null), TaskResponse.class);
+
+		assertThat(restTemplate.postForObject("/tasks/status-transitions",
+				new StatusTransitionRequest(null, "API-1", null, TaskStatus.TO_DO, TaskStatus.ON_HOLD), StatusTransitionResponse.class))
+				.isEqualTo(new StatusTransitionResponse(1));
+		assertThat(restTemplate.postForEntity("/tasks/status-transitions",
+				new StatusTransitionRequest(LocalDate.of(2021, 1, 1), "API-1", null, TaskStatus.TO_DO, TaskStatus.ON_HOLD), String.class)
+				.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		List<Long> tooManyIds = LongStream.rangeClosed(1, 501).boxed().toList();
+		assertThat(restTemplate.postForEntity("/tasks/status-transitions",
+				new StatusTransitionRequest(null, null, tooManyIds, TaskStatus.TO_DO, TaskStatus.ON_HOLD), String.class)
+				.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+		// The client still holds version 0, which the transition has moved on
+		TaskRequest staleEdit = new TaskRequest("Bulk Task", "Edited", LocalDate.of(2020, 1, 1), TaskStatus.IN_PROGRESS, null, null, task.version());
+		assertThat(restTemplate.exchange("/tasks/" + task.id(), HttpMethod.PUT, new HttpEntity<>(staleEdit), String.class)
+				.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+		assertThat(restTemplate.getForObject("/tasks/" + task.id(), TaskResponse.class))
+				.satisfies(read -> {
+					assertThat(read.status()).isEqualTo(TaskStatus.ON_HOLD);
+					assertThat(read.version()).isEqualTo(task.version() + 1);
+				});
+	}
+
+	@Test
+	void givenUnassignedTask_whenAssigned_thenCountedInWorkload() {
+		restTemplate.postForEntity("/campaigns", new CampaignRequest("API-1", "Api Campaign", null), CampaignResponse.class);
+		restTemplate.postForEntity("/workers", new WorkerRequest("api.worker@test.com", "Api", "Worker"), WorkerResponse.class);
+		TaskResponse task = restTemplate.postForObject("/tasks", new TaskRequest("Assigned Task", null,
+				LocalDate.of(2020, 1, 1), null, "API-1", null, null), TaskResponse.class);
+
+		Assignment[] assignments = restTemplate.postForObject("/tasks/assignments",
+				new AssignmentRequest(List.of(task.id()), null), Assignment[].class);
+		assertThat(assignments).singleElement().satisfies(assignment -> assertThat(assignment.taskIds()).containsExactly(task.id()));
+
+		WorkerWorkload workload = restTemplate.getForObject("/workers/" + assignments[0].workerId() + "/workload", WorkerWorkload.class);
+		assertThat(workload.toDo()).isPositive();
+		assertThat(restTemplate.getForObject("/tasks/" + task.id(), TaskResponse.class).assigneeEmail()).isNotNull();
+		assertThat(restTemplate.getForEntity("/workers/-1/workload", String.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+	}
+
+	@Test
+	void givenOldDoneTask_whenArchived_thenOnlyInArchive() {
+		restTemplate.postForEntity("/campaigns", new CampaignRequest("API-1", "Api Campaign", null), CampaignResponse.class);
+		TaskResponse task = restTemplate.postForObject("/tasks", new TaskRequest("Archived Task", null,
+				LocalDate.of(1990, 1, 1), TaskStatus.DONE, "API-1", null, null), TaskResponse.class);
+
+		assertThat(restTemplate.postForObject("/tasks/archivals", new ArchivalRequest(LocalDate.of(1990, 1, 2)), ArchivalResponse.class))
+				.isEqualTo(new ArchivalResponse(1));
+
+		assertThat(restTemplate.getForEntity("/tasks/" + task.id(), String.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(restTemplate.getForObject("/tasks/archive/" + task.id(), ArchivedTaskResponse.class))
+				.satisfies(archived -> {
+					assertThat(archived.uuid()).isEqualTo(task.uuid());
+					assertThat(archived.campaignCode()).isEqualTo("API-1");
+					assertThat(archived.archivedAt()).isNotNull();
+				});
+		assertThat(restTemplate.getForObject("/tasks/archive?campaignCode=API-1", Map.class).get("items"))
+				.asInstanceOf(InstanceOfAssertFactories.LIST).singleElement()
+				.satisfies(item -> assertThat(item).asInstanceOf(InstanceOfAssertFactories.MAP).containsEntry("name", "Archived Task"));
+		assertThat(restTemplate.postForEntity("/tasks/archivals", new ArchivalRequest(null), String.class).getStatusCode())
+				.isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void givenTask_whenExported_thenStreamedAsNdjson() {
+		restTemplate.postForEntity("/campaigns", new CampaignRequest("API-1", "Api Campaign", null), CampaignResponse.class);
+		TaskResponse task = restTemplate.postForObject("/tasks", new TaskRequest("Exported Task", null,
+				LocalDate.of(2999, 1, 1), null, "API-1", null, null), TaskResponse.class);
+
+		ResponseEntity<String> export = restTemplate.getForEntity("/tasks/export?dueAfter=2998-12-31", String.class);
+
+		assertThat(export.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+		assertThat(export.getBody().lines()).singleElement()
+				.satisfies(line -> assertThat(line).contains(task.uuid().toString(), "\"campaignCode\":\"API-1\""));
+		assertThat(restTemplate.getForEntity("/tasks/export?format=xml", String.class).getStatusCode())
+				.isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void givenRepositoryCalls_whenMetricsRequested_thenPerMethodCountsAndTimersExposed() {
+		restTemplate.getForEntity("/campaigns/NO-SUCH-CODE", String.class);
+
+		assertThat(restTemplate.getForEntity("/actuator/metrics/persistence.repository.selects?tag=method:findByCodeEquals",
+				String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(restTemplate.getForEntity("/actuator/metrics/spring.data.repository.invocations?tag=method:findByCodeEquals",
+				String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(restTemplate.getForEntity("/actuator/metrics/hibernate.statements", String.class).getStatusCode())
+				.isEqualTo(HttpStatus.OK);
+	}
+
+	@Test
+	void givenCampaignCreated_whenChangesRead_thenInsertReturnedAndConsumerAcknowledges() {
+		long head = restTemplate.getForObject("/changes/head", HeadResponse.class).cursor();
+		CampaignResponse campaign = restTemplate.postForObject("/campaigns",
+				new CampaignRequest("API-1", "Api Campaign", null), CampaignResponse.class);
+
+		Map<?, ?> batch = restTemplate.getForObject("/changes?after={after}", Map.class, head);
+		assertThat(batch.get("hasMore")).isEqualTo(false);
+		assertThat(batch.get("changes")).asInstanceOf(InstanceOfAssertFactories.LIST).singleElement()
+				.asInstanceOf(InstanceOfAssertFactories.MAP)
+				.containsEntry("entityType", "CAMPAIGN")
+				.containsEntry("entityId", campaign.id().intValue())
+				.containsEntry("operation", "INSERT");
+
+		long next = ((Number) batch.get("next")).longValue();
+		assertThat(restTemplate.exchange("/changes/consumers/api", HttpMethod.PUT,
+				new HttpEntity<>(new AcknowledgeRequest(next)), Void.class).getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+		assertThat(restTemplate.exchange("/changes/consumers/api", HttpMethod.DELETE, HttpEntity.EMPTY, Void.class)
+				.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+		assertThat(restTemplate.exchange("/changes/consumers/api", HttpMethod.DELETE, HttpEntity.EMPTY, String.class)
+				.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+	}
+
+	@Test
+	void givenUnknownOrDuplicateKeys_whenRequested_thenClientErrors() {
+		assertThat(restTemplate.getForEntity("/campaigns/NO-SUCH-CODE", String.class).getStatusCode())
+				.isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(restTemplate.getForEntity("/tasks?after=not-a-token", String.class).getStatusCode())
+				.isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(restTemplate.postForEntity("/tasks", new TaskRequest("Orphan", null, null, null, "NO-SUCH-CODE", null, null),
+				String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+		restTemplate.postForEntity("/campaigns", new CampaignRequest("API-1", "Api Campaign", null), CampaignResponse.class);
+		assertThat(restTemplate.postForEntity("/campaigns", new CampaignRequest("API-1", "Duplicate", null), String.class)
+				.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+	}
+
+	@Test
+	void givenCampaign_whenDeleted_thenPurgedInBackground() throws Exception {
+		CampaignResponse campaign = restTemplate.postForObject("/campaigns",
+				new CampaignRequest("API-1", "Api Campaign", null), CampaignResponse.class);
+
+		ResponseEntity<PurgeResponse> delete = restTemplate.exchange("/campaigns/API-1", HttpMethod.DELETE,
+				HttpEntity.EMPTY, PurgeResponse.class);
+		assertThat(delete.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+		assertThat(delete.getHeaders().getLocation()).hasPath("/campaigns/purges/" + campaign.id());
+
+		campaignPurgeService.getJob(campaign.id()).orElseThrow().getCompletion().get(30, TimeUnit.SECONDS);
+		assertThat(restTemplate.getForObject("/campaigns/purges/" + campaign.id(), PurgeResponse.class).state())
+				.isEqualTo(PurgeJob.State.COMPLETED);
+		assertThat(restTemplate.getForEntity("/campaigns/API-1", String.class).getStatusCode())
+				.isEqualTo(HttpStatus.NOT_FOUND);
+	}
+
+}
@@ -0,0 +1,140 @@
+package com.kelley.lsd.persistence.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.kelley.lsd.PersistenceProjectApplication;
+
+/*
+ * 5,000 concurrent slow clients against the same application, once with request handling on virtual threads and
+ * once on Tomcat's default pool of 200 platform threads. Each client trickles its request body over SLOW_UPLOAD,
+ * so a request holds its thread while doing no work, the way a slow mobile client does.
+ *
+ * With platform threads at most 200 requests are read at a time and the rest wait in the accept queue, so the
+ * run takes roughly CLIENTS / 200 * SLOW_UPLOAD. With virtual threads every request is read concurrently and only
+ * the database work is bounded, by the Hikari pool.
+ *
+ * Takes about a minute; run with mvn test -Pload-test.
+ */
+@Tag("load")
+public class VirtualThreadLoadTest {
+
+	private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadLoadTest.class);
+
+	private static final int CLIENTS = 5_000;
+
+	private static final Duration SLOW_UPLOAD = Duration.ofMillis(200);
+
+	@Test
+	void givenSlowClients_whenServedOnVirtualThreads_thenThroughputAtLeastPlatformThreads() throws Exception {
+		double platform = run(false);
+		double virtual = run(true);
+
+		LOG.info("{} slow clients: {} requests/s on platform threads, {} requests/s on virtual threads",
+				CLIENTS, Math.round(platform), Math.round(virtual));
+		assertThat(virtual).isGreaterThanOrEqualTo(platform);
+	}
+
+	/*
+	 * Starts the application with its own in-memory database, fires every client at once and returns requests per second.
+	 */
+	private double run(boolean virtualThreads) throws Exception {
+		String name = virtualThreads ? "virtual" : "platform";
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PersistenceProjectApplication.class)
+				.properties("server.port=0",
+						"spring.threads.virtual.enabled=" + virtualThreads,
+						"spring.datasource.url=jdbc:h2:mem:load-" + name,
+						"spring.jpa.show-sql=false",
+						"server.tomcat.max-connections=" + (CLIENTS + 100),
+						"server.tomcat.accept-count=" + CLIENTS)
+				.run();
+				HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+						.executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+				ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+
+			URI workers = URI.create("http://localhost:"
+					+ ((WebServerApplicationContext) context).getWebServer().getPort() + "/workers");
+
+			long start = System.nanoTime();
+			List<Future<Integer>> responses = new ArrayList<>(CLIENTS);
+			for (int i = 0; i < CLIENTS; i++) {
+				String body = "{\"email\":\"load" + i + "@test.com\",\"firstName\":\"Load\",\"lastName\":\"Client " + i + "\"}";
+				HttpRequest request = HttpRequest.newBuilder(workers)
+						.header("Content-Type", "application/json")
+						.timeout(Duration.ofMinutes(2))
+						.POST(HttpRequest.BodyPublishers.ofInputStream(() -> new SlowInputStream(body)))
+						.build();
+				responses.add(clients.submit(() -> client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()));
+			}
+			for (Future<Integer> response : responses) {
+				assertThat(response.get()).as("%s threads", name).isEqualTo(201);
+			}
+			Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+			LOG.info("{} threads: {} requests in {} ms", name, CLIENTS, elapsed.toMillis());
+			return CLIENTS * 1000.0 / elapsed.toMillis();
+		}
+	}
+
+	/*
+	 * Sends the first half of the body, waits SLOW_UPLOAD, then sends the rest.
+	 */
+	private static class SlowInputStream extends InputStream {
+
+		private final byte[] body;
+
+		private int position;
+
+		SlowInputStream(String body) {
+			this.body = body.getBytes(StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public int read() {
+			byte[] one = new byte[1];
+			return read(one, 0, 1) < 0 ? -1 : one[0];
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) {
+			if (position == body.length) return -1;
+			if (position == body.length / 2) pause();
+			int count = Math.min(length, (position < body.length / 2 ? body.length / 2 : body.length) - position);
+			System.arraycopy(body, position, buffer, offset, count);
+			position += count;
+			return count;
+		}
+
+		private static void pause() {
+			try {
+				Thread.sleep(SLOW_UPLOAD);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new UncheckedIOException(new IOException("Interrupted while uploading", e));
+			}
+		}
+	}
+
+}
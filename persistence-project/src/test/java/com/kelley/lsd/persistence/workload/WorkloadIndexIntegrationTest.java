@@ -0,0 +1,218 @@
+package com.kelley.lsd.persistence.workload;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.kelley.lsd.persistence.model.Campaign;
+import com.kelley.lsd.persistence.model.Task;
+import com.kelley.lsd.persistence.model.TaskStatus;
+import com.kelley.lsd.persistence.model.Worker;
+import com.kelley.lsd.persistence.repository.CampaignRepository;
+import com.kelley.lsd.persistence.repository.TaskRepository;
+import com.kelley.lsd.persistence.repository.WorkerRepository;
+import com.kelley.lsd.persistence.support.SqlStatementCounter;
+import com.kelley.lsd.persistence.workload.TaskAssignmentService.Assignment;
+
+/*
+ * The index is updated after commit, so each repository call here runs in its own committed transaction
+ * instead of the usual rolled-back test transaction. Each test ends by comparing the index with a rebuild.
+ */
+@DataJpaTest
+@Import({ WorkloadIndexIntegrationTest.HookedWorkloadIndex.class, WorkloadInitializer.class, TaskAssignmentService.class, SqlStatementCounter.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class WorkloadIndexIntegrationTest {
+
+	private static final LocalDate DUE = LocalDate.of(2025, 6, 1);
+
+	@Autowired
+	WorkloadIndex workloadIndex;
+
+	@Autowired
+	WorkloadInitializer workloadInitializer;
+
+	@Autowired
+	TaskAssignmentService taskAssignmentService;
+
+	@Autowired
+	CampaignRepository campaignRepository;
+
+	@Autowired
+	TaskRepository taskRepository;
+
+	@Autowired
+	WorkerRepository workerRepository;
+
+	@Autowired
+	SqlStatementCounter sqlStatementCounter;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	TestEntityManager testEntityManager;
+
+	Worker ada;
+
+	Worker bob;
+
+	Worker cy;
+
+	@BeforeEach
+	void setUp() {
+		cleanUp();
+		ada = workerRepository.save(new Worker("ada@workload.test", "Ada", "Worker"));
+		bob = workerRepository.save(new Worker("bob@workload.test", "Bob", "Worker"));
+		cy = workerRepository.save(new Worker("cy@workload.test", "Cy", "Worker"));
+		workloadInitializer.rebuild();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		campaignRepository.deleteAll();
+		workerRepository.deleteAll();
+	}
+
+	@Test
+	void givenTasksAssignedAndChanged_whenCommitted_thenCountsFollow() {
+		Campaign campaign = new Campaign("WORKLOAD-1", "Workload Campaign", null);
+		Task reassigned = addTask(campaign, TaskStatus.TO_DO, ada);
+		Task deleted = addTask(campaign, TaskStatus.IN_PROGRESS, ada);
+		addTask(campaign, TaskStatus.TO_DO, null);
+		campaignRepository.save(campaign);
+		assertThat(workloadIndex.get(ada.getId())).isEqualTo(new WorkerWorkload(ada.getId(), 1, 1, 0, 0));
+
+		Task task = taskRepository.findById(reassigned.getId()).orElseThrow();
+		task.setAssignee(bob);
+		task.setStatus(TaskStatus.ON_HOLD);
+		taskRepository.save(task);
+
+		// A rolled-back change is never counted
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			taskRepository.findById(deleted.getId()).orElseThrow().setStatus(TaskStatus.DONE);
+			testEntityManager.flush();
+			status.setRollbackOnly();
+		});
+		assertThat(workloadIndex.get(ada.getId())).isEqualTo(new WorkerWorkload(ada.getId(), 0, 1, 0, 0));
+		assertThat(workloadIndex.get(bob.getId())).isEqualTo(new WorkerWorkload(bob.getId(), 0, 0, 1, 0));
+
+		taskRepository.deleteById(deleted.getId());
+		assertThat(workloadIndex.openTasks(ada.getId())).isZero();
+		assertMatchesRebuild();
+	}
+
+	@Test
+	void givenBulkTransitionAndDelete_whenCommitted_thenCountsFollow() {
+		Campaign transitioned = new Campaign("WORKLOAD-1", "Transitioned", null);
+		for (int t = 0; t < 4; t++) addTask(transitioned, TaskStatus.TO_DO, ada);
+		addTask(transitioned, TaskStatus.TO_DO, bob);
+		Campaign deleted = new Campaign("WORKLOAD-2", "Deleted", null);
+		for (int t = 0; t < 2; t++) addTask(deleted, TaskStatus.TO_DO, ada);
+		campaignRepository.saveAll(List.of(transitioned, deleted));
+
+		taskRepository.updateStatusByCampaignId(transitioned.getId(), TaskStatus.TO_DO, TaskStatus.IN_PROGRESS);
+		campaignRepository.deleteAllWithTasksById(List.of(deleted.getId()));
+
+		assertThat(workloadIndex.get(ada.getId())).isEqualTo(new WorkerWorkload(ada.getId(), 0, 4, 0, 0));
+		assertThat(workloadIndex.get(bob.getId())).isEqualTo(new WorkerWorkload(bob.getId(), 0, 1, 0, 0));
+		assertMatchesRebuild();
+	}
+
+	@Test
+	void givenUnassignedTasks_whenAssigned_thenSpreadByLoadWithOneUpdatePerWorker() {
+		Campaign campaign = new Campaign("WORKLOAD-1", "Workload Campaign", null);
+		addTask(campaign, TaskStatus.TO_DO, ada);
+		addTask(campaign, TaskStatus.IN_PROGRESS, ada);
+		for (int t = 0; t < 7; t++) addTask(campaign, TaskStatus.TO_DO, null);
+		addTask(campaign, TaskStatus.DONE, null);
+		campaignRepository.save(campaign);
+
+		sqlStatementCounter.reset();
+		List<Assignment> assignments = taskAssignmentService.assignUnassigned(100);
+
+		// Ada already had two open tasks, so the seven new ones even out at three each; the DONE task is left alone
+		assertThat(assignments).extracting(Assignment::workerId).containsExactly(ada.getId(), bob.getId(), cy.getId());
+		assertThat(assignments).flatExtracting(Assignment::taskIds).hasSize(7).doesNotHaveDuplicates();
+		assertThat(sqlStatementCounter.getUpdates()).isEqualTo(3);
+		assertThat(List.of(ada, bob, cy)).allSatisfy(worker -> assertThat(workloadIndex.openTasks(worker.getId())).isEqualTo(3));
+
+		List<Long> assigned = assignments.get(0).taskIds();
+		assertThat(taskRepository.findAllById(assigned))
+				.allSatisfy(task -> {
+					assertThat(task.getAssignee().getId()).isEqualTo(ada.getId());
+					assertThat(task.getVersion()).isEqualTo(1);
+				});
+		// Already assigned: nothing to do
+		assertThat(taskAssignmentService.assign(assigned)).isEmpty();
+		assertMatchesRebuild();
+	}
+
+	@Test
+	void givenTasksBeingAssigned_whenStatusChangedConcurrently_thenWaitsAndCountsFollow() throws Exception {
+		Campaign campaign = new Campaign("WORKLOAD-1", "Workload Campaign", null);
+		for (int t = 0; t < 3; t++) addTask(campaign, TaskStatus.TO_DO, null);
+		campaignRepository.save(campaign);
+		List<Long> taskIds = campaign.getTasks().stream().map(Task::getId).toList();
+
+		// Between the SELECT of the tasks and the UPDATEs, another transaction moves them to IN_PROGRESS
+		AtomicReference<CompletableFuture<Integer>> transition = new AtomicReference<>();
+		((HookedWorkloadIndex) workloadIndex).beforeOpenTasks = () -> {
+			transition.set(CompletableFuture.supplyAsync(
+					() -> taskRepository.updateStatusByIdIn(taskIds, TaskStatus.TO_DO, TaskStatus.IN_PROGRESS)));
+			// The selected tasks stay locked until the assignment commits
+			assertThatThrownBy(() -> transition.get().get(300, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+		};
+		assertThat(taskAssignmentService.assign(taskIds)).hasSize(3);
+
+		assertThat(transition.get().get(10, TimeUnit.SECONDS)).isEqualTo(3);
+		assertThat(List.of(ada, bob, cy)).allSatisfy(worker ->
+				assertThat(workloadIndex.get(worker.getId())).isEqualTo(new WorkerWorkload(worker.getId(), 0, 1, 0, 0)));
+		assertMatchesRebuild();
+	}
+
+	private void assertMatchesRebuild() {
+		List<WorkerWorkload> live = List.of(ada, bob, cy).stream().map(worker -> workloadIndex.get(worker.getId())).toList();
+		workloadInitializer.rebuild();
+		assertThat(List.of(ada, bob, cy)).extracting(worker -> workloadIndex.get(worker.getId())).isEqualTo(live);
+	}
+
+	private Task addTask(Campaign campaign, TaskStatus status, Worker assignee) {
+		Task task = new Task("Workload Task", null, DUE, status, campaign);
+		task.setAssignee(assignee);
+		campaign.getTasks().add(task);
+		return task;
+	}
+
+	// Runs beforeOpenTasks once, the next time the loads are read (TaskAssignmentService does so after its SELECT)
+	static class HookedWorkloadIndex extends WorkloadIndex {
+
+		volatile Runnable beforeOpenTasks;
+
+		@Override
+		public long openTasks(long workerId) {
+			Runnable hook = beforeOpenTasks;
+			beforeOpenTasks = null;
+			if (hook != null) hook.run();
+			return super.openTasks(workerId);
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.kelley.lsd.persistence.workload;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.kelley.lsd.persistence.model.TaskStatus;
+
+public class WorkloadIndexTest {
+
+	@Test
+	void givenConcurrentChangesForOneWorker_whenAllDone_thenNoneLost() throws InterruptedException {
+		WorkloadIndex index = new WorkloadIndex();
+		ExecutorService threads = Executors.newFixedThreadPool(8);
+		for (int thread = 0; thread < 8; thread++) {
+			threads.execute(() -> {
+				for (int i = 0; i < 10_000; i++) {
+					// A task moving from TO_DO to IN_PROGRESS, and a new TO_DO task
+					index.add(1, TaskStatus.TO_DO, -1);
+					index.add(1, TaskStatus.IN_PROGRESS, 1);
+					index.add(1, TaskStatus.TO_DO, 1);
+				}
+			});
+		}
+		threads.shutdown();
+		assertThat(threads.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(index.get(1)).isEqualTo(new WorkerWorkload(1, 0, 80_000, 0, 0));
+		assertThat(index.openTasks(1)).isEqualTo(80_000);
+	}
+
+	@Test
+	void givenRebuild_whenRead_thenCountsReplacedAndUnknownWorkersEmpty() {
+		WorkloadIndex index = new WorkloadIndex();
+		index.add(1, TaskStatus.TO_DO, 5);
+
+		index.rebuild(loader -> {
+			loader.loadCount(2, TaskStatus.ON_HOLD, 3);
+			loader.loadCount(2, TaskStatus.DONE, 4);
+		});
+
+		assertThat(index.get(1)).isEqualTo(new WorkerWorkload(1, 0, 0, 0, 0));
+		assertThat(index.get(2)).isEqualTo(new WorkerWorkload(2, 0, 0, 3, 4));
+		assertThat(index.openTasks(2)).isEqualTo(3);
+	}
+
+	@Test
+	void givenChangesFromOtherThreadMidRebuild_whenRebuilt_thenAddedToLoadedCounts() {
+		WorkloadIndex index = new WorkloadIndex();
+		index.add(1, TaskStatus.TO_DO, 5);
+
+		index.rebuild(loader -> {
+			loader.loadCount(1, TaskStatus.TO_DO, 5);
+			// Committed after the loader's snapshot: one task started, one added
+			CompletableFuture.runAsync(() -> {
+				index.add(1, TaskStatus.TO_DO, -1);
+				index.add(1, TaskStatus.IN_PROGRESS, 1);
+				index.add(2, TaskStatus.TO_DO, 1);
+			}).join();
+			// Read before the rebuild swaps the counts in
+			assertThat(index.get(1)).isEqualTo(new WorkerWorkload(1, 4, 1, 0, 0));
+		});
+
+		assertThat(index.get(1)).isEqualTo(new WorkerWorkload(1, 4, 1, 0, 0));
+		assertThat(index.get(2)).isEqualTo(new WorkerWorkload(2, 1, 0, 0, 0));
+	}
+
+}